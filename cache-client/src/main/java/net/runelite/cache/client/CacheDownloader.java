@@ -0,0 +1,698 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.client;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.ReferenceCountUtil;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.fs.jagex.CompressionType;
+import net.runelite.cache.index.ArchiveData;
+import net.runelite.cache.index.IndexData;
+import net.runelite.cache.util.Crc32;
+import net.runelite.protocol.api.handshake.HandshakeResponsePacket;
+import net.runelite.protocol.api.handshake.UpdateHandshakePacket;
+import net.runelite.protocol.api.login.HandshakeResponseType;
+import net.runelite.protocol.api.update.ArchiveRequestPacket;
+import net.runelite.protocol.api.update.ArchiveResponsePacket;
+import net.runelite.protocol.api.update.EncryptionPacket;
+import net.runelite.protocol.handshake.UpdateHandshakeEncoder;
+import net.runelite.protocol.update.decoders.ArchiveResponseDecoder;
+import net.runelite.protocol.update.decoders.HandshakeResponseDecoder;
+import net.runelite.protocol.update.encoders.ArchiveRequestEncoder;
+import net.runelite.protocol.update.encoders.EncryptionEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads a cache over several connections at once. Each connection is kept
+ * full of pipelined requests, with the reference tables requested ahead of any
+ * archives. Downloads are checked and stored by a pool of workers so the
+ * connections never wait on them. Archives which are already in the store with
+ * the expected crc are skipped, so an interrupted download can be resumed.
+ * <p>
+ * Archives are only checked against their crc and are stored compressed, as
+ * some of them are encrypted.
+ */
+public class CacheDownloader implements AutoCloseable
+{
+	private static final Logger logger = LoggerFactory.getLogger(CacheDownloader.class);
+
+	private static final int PORT = 43594;
+	private static final int MAX_PENDING_REQUESTS = 19; // too many and the server closes the connection
+	private static final int MAX_ATTEMPTS = 3;
+
+	private final Store store;
+	private final String host;
+	private final int clientRevision;
+	private final int connectionCount;
+
+	private final EventLoopGroup group = new NioEventLoopGroup(1);
+	private final ExecutorService workers;
+	private final List<Connection> connections = new ArrayList<>();
+
+	// Requests which have not been sent yet, guarded by this
+	private final Deque<Request> urgent = new ArrayDeque<>();
+	private final Deque<Request> prefetch = new ArrayDeque<>();
+	// Set once every connection has closed, after which requests fail at once, guarded by this
+	private boolean disconnected;
+
+	private DownloadWatcher watcher;
+
+	private final AtomicInteger downloaded = new AtomicInteger();
+	private final AtomicInteger skipped = new AtomicInteger();
+	private final AtomicLong bytesDownloaded = new AtomicLong();
+
+	/**
+	 * @param store          the store to download to, which may hold a previous partial download
+	 * @param host           the host of the update server
+	 * @param clientRevision the client revision to handshake with
+	 * @param connections    the number of connections to open
+	 * @param threads        the number of workers to check and store downloads
+	 */
+	public CacheDownloader(Store store, String host, int clientRevision, int connections, int threads)
+	{
+		this.store = store;
+		this.host = host;
+		this.clientRevision = clientRevision;
+		this.connectionCount = connections;
+		this.workers = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+			.setNameFormat("cache-downloader-%d")
+			.setDaemon(true)
+			.build());
+	}
+
+	public void setWatcher(DownloadWatcher watcher)
+	{
+		this.watcher = watcher;
+	}
+
+	@Override
+	public void close()
+	{
+		synchronized (this)
+		{
+			for (Connection connection : connections)
+			{
+				connection.closing = true;
+			}
+		}
+
+		group.shutdownGracefully().syncUninterruptibly();
+		workers.shutdownNow();
+	}
+
+	public int getArchivesDownloaded()
+	{
+		return downloaded.get();
+	}
+
+	public int getArchivesSkipped()
+	{
+		return skipped.get();
+	}
+
+	public long getBytesDownloaded()
+	{
+		return bytesDownloaded.get();
+	}
+
+	/**
+	 * Connects to the update server, and downloads every index and archive
+	 * which is not already in the store
+	 *
+	 * @throws IOException if the download fails
+	 */
+	public void download() throws IOException
+	{
+		Stopwatch stopwatch = Stopwatch.createStarted();
+
+		connect();
+
+		try
+		{
+			List<IndexInfo> indexes = requestIndexes();
+
+			// Request every reference table which is needed up front, so they
+			// are all in flight while the first ones are processed
+			Map<Integer, CompletableFuture<IndexData>> tables = new HashMap<>();
+			for (IndexInfo indexInfo : indexes)
+			{
+				Index index = store.findIndex(indexInfo.getId());
+				if (index == null || index.getCrc() != indexInfo.getCrc() || index.getRevision() != indexInfo.getRevision())
+				{
+					tables.put(indexInfo.getId(), requestIndex(indexInfo));
+				}
+			}
+
+			List<CompletableFuture<Void>> archives = new ArrayList<>();
+			for (IndexInfo indexInfo : indexes)
+			{
+				CompletableFuture<IndexData> table = tables.get(indexInfo.getId());
+				Index index;
+
+				if (table == null)
+				{
+					logger.info("Index {} is up to date, checking archives", indexInfo.getId());
+					index = store.findIndex(indexInfo.getId());
+				}
+				else
+				{
+					index = updateIndex(indexInfo, table.get());
+				}
+
+				for (Archive archive : index.getArchives())
+				{
+					archives.add(CompletableFuture.supplyAsync(() -> isStored(archive), workers)
+						.thenCompose(stored ->
+						{
+							if (stored)
+							{
+								skipped.incrementAndGet();
+								return CompletableFuture.completedFuture(null);
+							}
+							return downloadArchive(archive, 1);
+						}));
+				}
+			}
+
+			CompletableFuture.allOf(archives.toArray(new CompletableFuture[0])).get();
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while downloading", ex);
+		}
+		catch (ExecutionException ex)
+		{
+			Throwable cause = ex.getCause();
+			throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+		}
+
+		stopwatch.stop();
+		logger.info("Download completed in {}, {} archives ({} bytes) downloaded, {} up to date",
+			stopwatch, downloaded.get(), bytesDownloaded.get(), skipped.get());
+	}
+
+	private void connect() throws IOException
+	{
+		List<CompletableFuture<Void>> handshakes = new ArrayList<>();
+
+		for (int i = 0; i < connectionCount; ++i)
+		{
+			Connection connection = new Connection();
+
+			Bootstrap b = new Bootstrap();
+			b.group(group)
+				.channel(NioSocketChannel.class)
+				.option(ChannelOption.TCP_NODELAY, true)
+				.handler(new ChannelInitializer<SocketChannel>()
+				{
+					@Override
+					public void initChannel(SocketChannel ch) throws Exception
+					{
+						ChannelPipeline p = ch.pipeline();
+
+						p.addLast("decoder", new HandshakeResponseDecoder());
+						p.addLast(connection);
+						p.addLast(
+							new UpdateHandshakeEncoder(),
+							new EncryptionEncoder(),
+							new ArchiveRequestEncoder()
+						);
+					}
+				});
+
+			connection.channel = b.connect(host, PORT).syncUninterruptibly().channel();
+
+			UpdateHandshakePacket handshakePacket = new UpdateHandshakePacket();
+			handshakePacket.setRevision(clientRevision);
+			connection.channel.writeAndFlush(handshakePacket);
+
+			handshakes.add(connection.handshake);
+		}
+
+		try
+		{
+			CompletableFuture.allOf(handshakes.toArray(new CompletableFuture[0])).get();
+		}
+		catch (InterruptedException | ExecutionException ex)
+		{
+			throw new IOException("handshake failed", ex);
+		}
+
+		logger.info("Connected to {} with {} connections", host, connectionCount);
+	}
+
+	private List<IndexInfo> requestIndexes() throws IOException, InterruptedException, ExecutionException
+	{
+		byte[] data = request(255, 255, true).get();
+		byte[] contents = Container.decompress(data, null).data;
+
+		ByteBuf buffer = Unpooled.wrappedBuffer(contents);
+		List<IndexInfo> indexInfo = new ArrayList<>();
+
+		for (int i = 0; i < contents.length / 8; ++i)
+		{
+			int crc = buffer.readInt();
+			int revision = buffer.readInt();
+			indexInfo.add(new IndexInfo(i, crc, revision));
+		}
+
+		return indexInfo;
+	}
+
+	private CompletableFuture<IndexData> requestIndex(IndexInfo indexInfo)
+	{
+		return request(255, indexInfo.getId(), true).thenApplyAsync(data ->
+		{
+			try
+			{
+				Container container = Container.decompress(data, null);
+				if (container.crc != indexInfo.getCrc())
+				{
+					throw new IOException("crc mismatch on index " + indexInfo.getId());
+				}
+
+				IndexData indexData = new IndexData();
+				indexData.load(container.data);
+				return indexData;
+			}
+			catch (IOException ex)
+			{
+				throw new CompletionException(ex);
+			}
+		}, workers);
+	}
+
+	private Index updateIndex(IndexInfo indexInfo, IndexData indexData)
+	{
+		Index index = store.findIndex(indexInfo.getId());
+		if (index == null)
+		{
+			index = store.addIndex(indexInfo.getId());
+		}
+
+		index.setProtocol(indexData.getProtocol());
+		index.setNamed(indexData.isNamed());
+		index.setCrc(indexInfo.getCrc());
+		index.setRevision(indexInfo.getRevision());
+
+		logger.info("Index {} has {} archives", index.getId(), indexData.getArchives().length);
+
+		for (ArchiveData ad : indexData.getArchives())
+		{
+			Archive archive = index.getArchive(ad.getId());
+			if (archive == null)
+			{
+				archive = index.addArchive(ad.getId());
+			}
+
+			archive.setRevision(ad.getRevision());
+			archive.setCrc(ad.getCrc());
+			archive.setNameHash(ad.getNameHash());
+			archive.setFileData(ad.getFiles());
+		}
+
+		return index;
+	}
+
+	/**
+	 * Checks if the stored data of an archive matches its crc
+	 */
+	private boolean isStored(Archive archive)
+	{
+		if (watcher != null)
+		{
+			// Nothing is stored when downloads are given to the watcher
+			return false;
+		}
+
+		byte[] data;
+		try
+		{
+			synchronized (store)
+			{
+				data = store.getStorage().loadArchive(archive);
+			}
+		}
+		catch (IOException ex)
+		{
+			logger.debug("Unable to load archive {}/{}", archive.getIndex().getId(), archive.getArchiveId(), ex);
+			return false;
+		}
+
+		if (data == null || data.length < 5)
+		{
+			return false;
+		}
+
+		// don't crc the appended revision, if it is there
+		int compressedSize = Ints.fromBytes(data[1], data[2], data[3], data[4]);
+		int length = 1 // compression type
+			+ 4 // compressed size
+			+ compressedSize
+			+ (data[0] != CompressionType.NONE ? 4 : 0);
+
+		if (compressedSize < 0 || length > data.length)
+		{
+			return false;
+		}
+
+		Crc32 crc = new Crc32();
+		crc.update(data, 0, length);
+		return crc.getHash() == archive.getCrc();
+	}
+
+	private CompletableFuture<Void> downloadArchive(Archive archive, int attempt)
+	{
+		int index = archive.getIndex().getId();
+		int archiveId = archive.getArchiveId();
+
+		return request(index, archiveId, false).thenComposeAsync(data ->
+		{
+			Crc32 crc32 = new Crc32();
+			crc32.update(data, 0, data.length);
+			int hash = crc32.getHash();
+
+			if (hash != archive.getCrc())
+			{
+				logger.warn("crc mismatch on downloaded archive {}/{}: {} != {} (attempt {})",
+					index, archiveId, hash, archive.getCrc(), attempt);
+
+				if (attempt < MAX_ATTEMPTS)
+				{
+					return downloadArchive(archive, attempt + 1);
+				}
+
+				throw new CompletionException(new IOException("crc mismatch on archive " + index + "/" + archiveId));
+			}
+
+			if (watcher != null)
+			{
+				watcher.downloadComplete(archive, data);
+			}
+			else
+			{
+				try
+				{
+					synchronized (store)
+					{
+						store.getStorage().saveArchive(archive, data);
+					}
+				}
+				catch (IOException ex)
+				{
+					throw new CompletionException(ex);
+				}
+			}
+
+			downloaded.incrementAndGet();
+			bytesDownloaded.addAndGet(data.length);
+			return CompletableFuture.completedFuture(null);
+		}, workers);
+	}
+
+	/**
+	 * Queues a request, to be sent on the first connection with room for it
+	 *
+	 * @param urgent whether to send the request before any other queued requests
+	 * @return a future completed with the compressed data of the archive
+	 */
+	private CompletableFuture<byte[]> request(int index, int archive, boolean urgent)
+	{
+		Request request = new Request(index, archive, urgent);
+
+		synchronized (this)
+		{
+			if (disconnected)
+			{
+				// Nothing is left to send it
+				request.future.completeExceptionally(new IOException("all connections to " + host + " have closed"));
+				return request.future;
+			}
+
+			(urgent ? this.urgent : prefetch).add(request);
+		}
+
+		dispatch();
+		return request.future;
+	}
+
+	/**
+	 * Sends queued requests until every connection is full
+	 */
+	private void dispatch()
+	{
+		List<Channel> flush = new ArrayList<>();
+
+		synchronized (this)
+		{
+			for (Connection connection : connections)
+			{
+				if (!connection.ready)
+				{
+					continue;
+				}
+
+				boolean sent = false;
+				while (connection.pending.size() < MAX_PENDING_REQUESTS)
+				{
+					Request request = urgent.poll();
+					if (request == null)
+					{
+						request = prefetch.poll();
+					}
+					if (request == null)
+					{
+						break;
+					}
+
+					ArchiveRequestPacket archiveRequest = new ArchiveRequestPacket();
+					archiveRequest.setPriority(request.urgent);
+					archiveRequest.setIndex(request.index);
+					archiveRequest.setArchive(request.archive);
+
+					connection.pending.put(request.key(), request);
+					connection.channel.write(archiveRequest);
+					sent = true;
+				}
+
+				if (sent)
+				{
+					flush.add(connection.channel);
+				}
+			}
+		}
+
+		for (Channel channel : flush)
+		{
+			channel.flush();
+		}
+	}
+
+	private void onResponse(Connection connection, ArchiveResponsePacket response)
+	{
+		Request request;
+		synchronized (this)
+		{
+			request = connection.pending.remove(response.getIndex() << 16 | response.getArchive());
+		}
+
+		if (request == null)
+		{
+			logger.warn("File download {}/{} with no pending request", response.getIndex(), response.getArchive());
+			return;
+		}
+
+		dispatch();
+
+		// Handled by the workers, not the event loop
+		request.future.complete(response.getData());
+	}
+
+	private void onClose(Connection connection)
+	{
+		List<Request> failed = new ArrayList<>();
+
+		synchronized (this)
+		{
+			connection.ready = false;
+			connections.remove(connection);
+
+			if (connection.closing)
+			{
+				return;
+			}
+
+			logger.warn("Connection to {} closed with {} pending requests", host, connection.pending.size());
+
+			// Send the requests again on another connection
+			for (Request request : connection.pending.values())
+			{
+				(request.urgent ? urgent : prefetch).addFirst(request);
+			}
+			connection.pending.clear();
+
+			if (connections.isEmpty())
+			{
+				disconnected = true;
+				failed.addAll(urgent);
+				failed.addAll(prefetch);
+				urgent.clear();
+				prefetch.clear();
+			}
+		}
+
+		for (Request request : failed)
+		{
+			request.future.completeExceptionally(new IOException("all connections to " + host + " have closed"));
+		}
+
+		dispatch();
+	}
+
+	private class Connection extends ChannelInboundHandlerAdapter
+	{
+		private final CompletableFuture<Void> handshake = new CompletableFuture<>();
+		private final Map<Integer, Request> pending = new HashMap<>();
+		private Channel channel;
+		private boolean ready;
+		private boolean closing;
+
+		@Override
+		public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception
+		{
+			try
+			{
+				if (msg instanceof HandshakeResponsePacket)
+				{
+					onHandshake(ctx, (HandshakeResponsePacket) msg);
+				}
+				else if (msg instanceof ArchiveResponsePacket)
+				{
+					onResponse(this, (ArchiveResponsePacket) msg);
+				}
+			}
+			finally
+			{
+				ReferenceCountUtil.release(msg);
+			}
+		}
+
+		private void onHandshake(ChannelHandlerContext ctx, HandshakeResponsePacket handshakeResponse)
+		{
+			if (handshakeResponse.getResponse() != HandshakeResponseType.RESPONSE_OK)
+			{
+				logger.warn("Non-ok response from server {}", handshakeResponse.getResponse());
+				handshake.completeExceptionally(new IOException("handshake response " + handshakeResponse.getResponse()));
+				ctx.close();
+				return;
+			}
+
+			EncryptionPacket encryptionPacket = new EncryptionPacket();
+			encryptionPacket.setKey((byte) 0);
+			ctx.channel().writeAndFlush(encryptionPacket);
+
+			ctx.pipeline().replace("decoder", "decoder", new ArchiveResponseDecoder());
+
+			synchronized (CacheDownloader.this)
+			{
+				ready = true;
+				connections.add(this);
+				disconnected = false;
+			}
+
+			handshake.complete(null);
+			dispatch();
+		}
+
+		@Override
+		public void channelInactive(ChannelHandlerContext ctx) throws Exception
+		{
+			handshake.completeExceptionally(new IOException("connection closed"));
+			onClose(this);
+			super.channelInactive(ctx);
+		}
+
+		@Override
+		public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause)
+		{
+			logger.warn("Error in connection to {}", host, cause);
+			ctx.close();
+		}
+	}
+
+	private static class Request
+	{
+		private final int index;
+		private final int archive;
+		private final boolean urgent;
+		private final CompletableFuture<byte[]> future = new CompletableFuture<>();
+
+		private Request(int index, int archive, boolean urgent)
+		{
+			this.index = index;
+			this.archive = archive;
+			this.urgent = urgent;
+		}
+
+		private int key()
+		{
+			return index << 16 | archive;
+		}
+	}
+}
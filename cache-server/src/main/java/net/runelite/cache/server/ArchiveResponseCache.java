@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.server;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.primitives.Ints;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.util.Arrays;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.fs.jagex.CompressionType;
+import net.runelite.cache.fs.jagex.DiskStorage;
+import net.runelite.protocol.update.encoders.ArchiveResponseEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches archive responses exactly as they are sent to the client, already
+ * split into chunks, in direct buffers. Responses are handed out as retained
+ * slices so they can be written to any number of channels without copying.
+ * <p>
+ * Responses which are not cached are read from the store one at a time, as
+ * the store reads through a single file handle. Lookups of cached responses
+ * do not wait on those reads.
+ */
+public class ArchiveResponseCache
+{
+	private static final Logger logger = LoggerFactory.getLogger(ArchiveResponseCache.class);
+
+	private final Store store;
+	private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+	private final Cache<Integer, ByteBuf> responses;
+
+	/**
+	 * @param store       the store to serve
+	 * @param maximumSize the most bytes of responses to keep
+	 */
+	public ArchiveResponseCache(Store store, long maximumSize)
+	{
+		this.store = store;
+		this.responses = CacheBuilder.newBuilder()
+			.maximumWeight(maximumSize)
+			.weigher((Integer key, ByteBuf response) -> response.capacity())
+			.removalListener((RemovalNotification<Integer, ByteBuf> notification) -> notification.getValue().release())
+			.build();
+	}
+
+	/**
+	 * Gets the response for an archive
+	 *
+	 * @param index   the index id, or 255 for the index data
+	 * @param archive the archive id
+	 * @return a retained slice of the response which must be released, or
+	 * null if the archive does not exist
+	 * @throws IOException
+	 */
+	public ByteBuf getResponse(int index, int archive) throws IOException
+	{
+		final int key = index << 16 | archive;
+
+		// Responses are only released by the cache under the lock, so they
+		// can not be freed between looking them up and retaining them
+		synchronized (this)
+		{
+			ByteBuf response = responses.getIfPresent(key);
+			if (response != null)
+			{
+				return response.retainedSlice();
+			}
+		}
+
+		final ByteBuf data;
+		// Disk storage shares one file handle for every read, which is not thread safe
+		synchronized (store)
+		{
+			data = index == 255 ? loadIndex(archive) : loadArchive(index, archive);
+		}
+		if (data == null)
+		{
+			return null;
+		}
+
+		final ByteBuf response = allocator.directBuffer(ArchiveResponseEncoder.getEncodedSize(data.readableBytes()));
+		ArchiveResponseEncoder.encode(index, archive, data, response);
+
+		synchronized (this)
+		{
+			// Retain before caching, in case the response is too large to be kept
+			final ByteBuf slice = response.retainedSlice();
+			responses.put(key, response);
+			return slice;
+		}
+	}
+
+	/**
+	 * Releases all of the cached responses
+	 */
+	public synchronized void clear()
+	{
+		responses.invalidateAll();
+	}
+
+	private ByteBuf loadIndex(int archiveId) throws IOException
+	{
+		if (archiveId == 255)
+		{
+			// index 255 data, for each index:
+			// 4 byte crc
+			// 4 byte revision
+			ByteBuf buffer = Unpooled.buffer(store.getIndexes().size() * 8);
+			for (Index i : store.getIndexes())
+			{
+				buffer.writeInt(i.getCrc());
+				buffer.writeInt(i.getRevision());
+			}
+
+			Container container = new Container(CompressionType.NONE, -1);
+			container.compress(Arrays.copyOf(buffer.array(), buffer.readableBytes()), null);
+			return Unpooled.wrappedBuffer(container.data);
+		}
+
+		// Requires disk storage. Use packed index data from
+		// store as its crc matches
+		DiskStorage storage = (DiskStorage) store.getStorage();
+		byte[] packed = storage.readIndex(archiveId);
+		return packed != null ? Unpooled.wrappedBuffer(packed) : null;
+	}
+
+	private ByteBuf loadArchive(int index, int archiveId) throws IOException
+	{
+		Index i = store.findIndex(index);
+		Archive archive = i != null ? i.getArchive(archiveId) : null;
+
+		if (archive == null)
+		{
+			return null;
+		}
+
+		byte[] packed = store.getStorage().loadArchive(archive); // is compressed, includes length and type
+
+		if (packed == null)
+		{
+			return null;
+		}
+
+		byte compression = packed[0];
+		int compressedSize = Ints.fromBytes(packed[1], packed[2],
+			packed[3], packed[4]);
+
+		// size the client expects the data to be
+		int expectedSize = 1 // compression type
+			+ 4 // compressed size
+			+ compressedSize
+			+ (compression != CompressionType.NONE ? 4 : 0);
+		if (packed.length != expectedSize)
+		{
+			// It may have the archive revision appended at the end.
+			// The data the client writes will have it, but the data fetched from
+			// the update server will never have it
+			assert packed.length - expectedSize == 2 : "packed length != expected size";
+		}
+
+		return Unpooled.wrappedBuffer(packed, 0, expectedSize);
+	}
+}
@@ -31,6 +31,7 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import java.util.concurrent.TimeUnit;
 import net.runelite.cache.fs.Store;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +41,8 @@ public class CacheServer implements AutoCloseable
 	private static final Logger logger = LoggerFactory.getLogger(CacheServer.class);
 
 	private static final int PORT = 43594;
+	private static final long DEFAULT_RESPONSE_CACHE_SIZE = 256L * 1024 * 1024;
+	private static final int DEFAULT_DISK_THREADS = 4;
 
 	private final EventLoopGroup group = new NioEventLoopGroup(1);
 
@@ -47,15 +50,34 @@ public class CacheServer implements AutoCloseable
 
 	private final Store store;
 	private final int revision;
+	private final ArchiveResponseCache responseCache;
+
+	private int diskThreads = DEFAULT_DISK_THREADS;
+	private long bandwidthLimit;
+	private RequestScheduler scheduler;
 
 	public CacheServer(Store store, int revision)
+	{
+		this(store, revision, DEFAULT_RESPONSE_CACHE_SIZE);
+	}
+
+	/**
+	 * @param store             the store to serve
+	 * @param revision          the client revision to accept
+	 * @param responseCacheSize the most bytes of archive responses to keep in memory
+	 */
+	public CacheServer(Store store, int revision, long responseCacheSize)
 	{
 		this.store = store;
 		this.revision = revision;
+		this.responseCache = new ArchiveResponseCache(store, responseCacheSize);
 	}
 
 	public void start()
 	{
+		scheduler = new RequestScheduler(responseCache, diskThreads, bandwidthLimit);
+		scheduler.start();
+
 		ServerBootstrap b = new ServerBootstrap();
 		b.group(group)
 			.channel(NioServerSocketChannel.class)
@@ -65,9 +87,19 @@ public class CacheServer implements AutoCloseable
 		ChannelFuture f = b.bind(PORT).syncUninterruptibly();
 		channel = f.channel();
 
+		group.scheduleAtFixedRate(this::logMetrics, 1, 1, TimeUnit.MINUTES);
+
 		logger.info("Server is now listening on {}", PORT);
 	}
 
+	private void logMetrics()
+	{
+		logger.debug("Queued requests: {}, served {} requests of {} bytes, response time avg {}us max {}us",
+			scheduler.getQueueDepth(), scheduler.getRequestsServed(), scheduler.getBytesServed(),
+			TimeUnit.NANOSECONDS.toMicros(scheduler.getAverageResponseTime()),
+			TimeUnit.NANOSECONDS.toMicros(scheduler.getMaxResponseTime()));
+	}
+
 	public void waitForClose()
 	{
 		channel.closeFuture().awaitUninterruptibly();
@@ -78,6 +110,8 @@ public class CacheServer implements AutoCloseable
 	{
 		channel.close().syncUninterruptibly();
 		group.shutdownGracefully();
+		scheduler.close();
+		responseCache.clear();
 	}
 
 	public int getRevision()
@@ -89,4 +123,33 @@ public class CacheServer implements AutoCloseable
 	{
 		return store;
 	}
+
+	public ArchiveResponseCache getResponseCache()
+	{
+		return responseCache;
+	}
+
+	public RequestScheduler getScheduler()
+	{
+		return scheduler;
+	}
+
+	/**
+	 * Sets the number of threads which load archives, must be called before the server is started.
+	 * Reads from the store are serialized because it shares one file handle, so threads past the
+	 * first only help by serving cached responses and encoding while another thread reads.
+	 */
+	public void setDiskThreads(int diskThreads)
+	{
+		this.diskThreads = diskThreads;
+	}
+
+	/**
+	 * Sets the most bytes per second to send to each client, or 0 for no limit.
+	 * Must be called before the server is started.
+	 */
+	public void setBandwidthLimit(long bandwidthLimit)
+	{
+		this.bandwidthLimit = bandwidthLimit;
+	}
 }
@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schedules archive requests across connections. Each connection has a queue
+ * of urgent requests, which are served first, and a queue of prefetch
+ * requests. Connections are served round robin, one request at a time, by a
+ * pool of workers so disk reads do not block the event loop. Disk reads are
+ * serialized by {@link ArchiveResponseCache}, so more workers than one only
+ * overlap reads with cache hits and response encoding. A connection is
+ * skipped while its channel is not writable or while it is over its
+ * bandwidth limit.
+ */
+public class RequestScheduler implements AutoCloseable
+{
+	private static final Logger logger = LoggerFactory.getLogger(RequestScheduler.class);
+
+	private final ArchiveResponseCache responseCache;
+	private final int threads;
+	private final long bandwidthLimit;
+
+	// Connections with queued requests, in the order they are served
+	private final Deque<Connection> ring = new ArrayDeque<>();
+	private final List<Thread> workers = new ArrayList<>();
+	private volatile boolean closed;
+
+	private int queueDepth;
+	private final AtomicLong served = new AtomicLong();
+	private final AtomicLong bytesServed = new AtomicLong();
+	private final AtomicLong totalResponseTime = new AtomicLong();
+	private final AtomicLong maxResponseTime = new AtomicLong();
+
+	/**
+	 * @param responseCache  the cache to load responses from
+	 * @param threads        the number of workers
+	 * @param bandwidthLimit the most bytes per second to send to a connection,
+	 *                       or 0 for no limit
+	 */
+	public RequestScheduler(ArchiveResponseCache responseCache, int threads, long bandwidthLimit)
+	{
+		this.responseCache = responseCache;
+		this.threads = threads;
+		this.bandwidthLimit = bandwidthLimit;
+	}
+
+	public void start()
+	{
+		for (int i = 0; i < threads; ++i)
+		{
+			Thread worker = new Thread(this::run, "Archive request worker " + i);
+			worker.setDaemon(true);
+			worker.start();
+			workers.add(worker);
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		closed = true;
+		for (Thread worker : workers)
+		{
+			worker.interrupt();
+		}
+		workers.clear();
+	}
+
+	public Connection register(Channel channel)
+	{
+		return new Connection(channel);
+	}
+
+	public synchronized void unregister(Connection connection)
+	{
+		queueDepth -= connection.urgent.size() + connection.prefetch.size();
+		connection.urgent.clear();
+		connection.prefetch.clear();
+		connection.closed = true;
+		ring.remove(connection);
+	}
+
+	/**
+	 * Queues a request
+	 *
+	 * @param urgent whether the client is waiting on the archive, rather than prefetching it
+	 */
+	public synchronized void submit(Connection connection, int index, int archive, boolean urgent)
+	{
+		if (connection.closed)
+		{
+			return;
+		}
+
+		Request request = new Request(connection, index, archive, System.nanoTime());
+		(urgent ? connection.urgent : connection.prefetch).add(request);
+		++queueDepth;
+
+		if (!connection.queued)
+		{
+			connection.queued = true;
+			ring.add(connection);
+		}
+
+		notify();
+	}
+
+	/**
+	 * Wakes the workers, after a channel becomes writable
+	 */
+	public synchronized void wakeup()
+	{
+		notifyAll();
+	}
+
+	/**
+	 * Takes the next request to serve, from the first connection in the ring
+	 * which is ready to be served
+	 *
+	 * @param now the current time in nanoseconds
+	 * @return the request, or null if no connection is ready
+	 */
+	synchronized Request poll(long now)
+	{
+		for (int i = ring.size(); i > 0; --i)
+		{
+			Connection connection = ring.poll();
+
+			if (connection.busy || connection.nextSend - now > 0 || !connection.channel.isWritable())
+			{
+				ring.add(connection);
+				continue;
+			}
+
+			Request request = connection.urgent.poll();
+			if (request == null)
+			{
+				request = connection.prefetch.poll();
+			}
+			--queueDepth;
+
+			connection.busy = true;
+			if (connection.urgent.isEmpty() && connection.prefetch.isEmpty())
+			{
+				connection.queued = false;
+			}
+			else
+			{
+				ring.add(connection);
+			}
+			return request;
+		}
+		return null;
+	}
+
+	/**
+	 * Marks a request as served, allowing its connection to be served again
+	 *
+	 * @param bytes the size of the response, or 0 if there was none
+	 * @param now   the current time in nanoseconds
+	 */
+	synchronized void complete(Request request, int bytes, long now)
+	{
+		Connection connection = request.connection;
+		connection.busy = false;
+
+		if (bandwidthLimit > 0)
+		{
+			// Hold the connection back for as long as the response takes at the limit
+			long start = connection.nextSend - now > 0 ? connection.nextSend : now;
+			connection.nextSend = start + bytes * TimeUnit.SECONDS.toNanos(1) / bandwidthLimit;
+		}
+
+		if (bytes > 0)
+		{
+			long responseTime = now - request.received;
+			served.incrementAndGet();
+			bytesServed.addAndGet(bytes);
+			totalResponseTime.addAndGet(responseTime);
+			maxResponseTime.accumulateAndGet(responseTime, Math::max);
+		}
+
+		notify();
+	}
+
+	/**
+	 * Gets how long to wait before a connection held back by its bandwidth
+	 * limit may be served
+	 *
+	 * @return the time to wait in nanoseconds, or 0 to wait until woken
+	 */
+	synchronized long getWaitTime(long now)
+	{
+		long wait = 0;
+		for (Connection connection : ring)
+		{
+			long remaining = connection.nextSend - now;
+			if (!connection.busy && remaining > 0 && (wait == 0 || remaining < wait))
+			{
+				wait = remaining;
+			}
+		}
+		return wait;
+	}
+
+	private void run()
+	{
+		while (!closed)
+		{
+			Request request;
+			try
+			{
+				request = take();
+			}
+			catch (InterruptedException ex)
+			{
+				break;
+			}
+
+			ByteBuf response = null;
+			try
+			{
+				response = responseCache.getResponse(request.index, request.archive);
+			}
+			catch (IOException | RuntimeException ex)
+			{
+				logger.warn("Unable to load archive {}/{}", request.index, request.archive, ex);
+			}
+
+			if (response == null)
+			{
+				logger.warn("Missing archive {}/{}", request.index, request.archive);
+				complete(request, 0, System.nanoTime());
+				continue;
+			}
+
+			// Written from the worker, the channel hands the write to its event loop.
+			// The request is only complete once the response has been written
+			int bytes = response.readableBytes();
+			request.connection.channel.writeAndFlush(response)
+				.addListener(future -> complete(request, future.isSuccess() ? bytes : 0, System.nanoTime()));
+		}
+	}
+
+	private synchronized Request take() throws InterruptedException
+	{
+		while (true)
+		{
+			long now = System.nanoTime();
+			Request request = poll(now);
+			if (request != null)
+			{
+				return request;
+			}
+
+			long wait = getWaitTime(now);
+			if (wait > 0)
+			{
+				TimeUnit.NANOSECONDS.timedWait(this, wait);
+			}
+			else
+			{
+				wait();
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of requests waiting to be served
+	 */
+	public synchronized int getQueueDepth()
+	{
+		return queueDepth;
+	}
+
+	public long getRequestsServed()
+	{
+		return served.get();
+	}
+
+	public long getBytesServed()
+	{
+		return bytesServed.get();
+	}
+
+	/**
+	 * Gets the average time from a request arriving to the last byte of its
+	 * response being written, in nanoseconds
+	 */
+	public long getAverageResponseTime()
+	{
+		long count = served.get();
+		return count == 0 ? 0 : totalResponseTime.get() / count;
+	}
+
+	/**
+	 * Gets the longest time from a request arriving to the last byte of its
+	 * response being written, in nanoseconds
+	 */
+	public long getMaxResponseTime()
+	{
+		return maxResponseTime.get();
+	}
+
+	public static class Connection
+	{
+		private final Channel channel;
+		private final Deque<Request> urgent = new ArrayDeque<>();
+		private final Deque<Request> prefetch = new ArrayDeque<>();
+
+		// Guarded by the scheduler
+		private boolean queued;
+		private boolean busy;
+		private boolean closed;
+		private long nextSend = System.nanoTime();
+
+		private Connection(Channel channel)
+		{
+			this.channel = channel;
+		}
+	}
+
+	static class Request
+	{
+		private final Connection connection;
+		private final int index;
+		private final int archive;
+		private final long received;
+
+		private Request(Connection connection, int index, int archive, long received)
+		{
+			this.connection = connection;
+			this.index = index;
+			this.archive = archive;
+			this.received = received;
+		}
+
+		int getIndex()
+		{
+			return index;
+		}
+
+		int getArchive()
+		{
+			return archive;
+		}
+	}
+}
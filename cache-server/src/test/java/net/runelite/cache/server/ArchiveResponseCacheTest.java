@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.server;
+
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.runelite.cache.StoreLocation;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.fs.jagex.CompressionType;
+import net.runelite.protocol.api.update.ArchiveResponsePacket;
+import net.runelite.protocol.update.decoders.ArchiveResponseDecoder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ArchiveResponseCacheTest
+{
+	@Rule
+	public TemporaryFolder folder = StoreLocation.getTemporaryFolder();
+
+	@Test
+	public void testResponse() throws Exception
+	{
+		try (Store store = new Store(folder.newFolder()))
+		{
+			byte[] data = addArchive(store, 0, 3000);
+
+			ArchiveResponseCache cache = new ArchiveResponseCache(store, 1024 * 1024);
+
+			ByteBuf first = cache.getResponse(0, 0);
+			ByteBuf second = cache.getResponse(0, 0);
+
+			// Both are views of the same cached response
+			ByteBuf cached = first.unwrap();
+			assertSame(cached, second.unwrap());
+			assertEquals(3, cached.refCnt());
+
+			ArchiveResponsePacket response = decode(first);
+			assertEquals(0, response.getIndex());
+			assertEquals(0, response.getArchive());
+			assertArrayEquals(data, Container.decompress(response.getData(), null).data);
+
+			// Reading one slice does not move the other
+			assertEquals(response.getData().length, decode(second).getData().length);
+
+			first.release();
+			second.release();
+			cache.clear();
+			assertEquals(0, cached.refCnt());
+		}
+	}
+
+	@Test
+	public void testMissing() throws Exception
+	{
+		try (Store store = new Store(folder.newFolder()))
+		{
+			addArchive(store, 0, 10);
+
+			ArchiveResponseCache cache = new ArchiveResponseCache(store, 1024 * 1024);
+			assertNull(cache.getResponse(0, 1));
+			assertNull(cache.getResponse(1, 0));
+		}
+	}
+
+	@Test
+	public void testEviction() throws Exception
+	{
+		try (Store store = new Store(folder.newFolder()))
+		{
+			for (int i = 0; i < 8; ++i)
+			{
+				addArchive(store, i, 4000);
+			}
+
+			// Too small to hold every response
+			ArchiveResponseCache cache = new ArchiveResponseCache(store, 8000);
+
+			List<ByteBuf> responses = new ArrayList<>();
+			List<ByteBuf> cached = new ArrayList<>();
+			for (int i = 0; i < 8; ++i)
+			{
+				ByteBuf response = cache.getResponse(0, i);
+				responses.add(response);
+				cached.add(response.unwrap());
+			}
+
+			// Evicted responses stay valid until they are released
+			for (int i = 0; i < 8; ++i)
+			{
+				ByteBuf response = responses.get(i);
+				assertEquals(i, decode(response).getArchive());
+				response.release();
+			}
+
+			cache.clear();
+			for (ByteBuf response : cached)
+			{
+				assertEquals(0, response.refCnt());
+			}
+		}
+	}
+
+	@Test
+	public void testConcurrentLoad() throws Exception
+	{
+		try (Store store = new Store(folder.newFolder()))
+		{
+			List<byte[]> archives = new ArrayList<>();
+			for (int i = 0; i < 32; ++i)
+			{
+				archives.add(addArchive(store, i, 2000 + i * 100));
+			}
+
+			// Too small to hold any response, so every request reads from disk
+			ArchiveResponseCache cache = new ArchiveResponseCache(store, 1);
+
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+			try
+			{
+				List<Future<?>> futures = new ArrayList<>();
+				for (int t = 0; t < 4; ++t)
+				{
+					futures.add(executor.submit(() ->
+					{
+						for (int n = 0; n < 10; ++n)
+						{
+							for (int i = 0; i < archives.size(); ++i)
+							{
+								ByteBuf response = cache.getResponse(0, i);
+								try
+								{
+									ArchiveResponsePacket packet = decode(response);
+									assertEquals(i, packet.getArchive());
+									assertArrayEquals(archives.get(i), Container.decompress(packet.getData(), null).data);
+								}
+								finally
+								{
+									response.release();
+								}
+							}
+						}
+						return null;
+					}));
+				}
+
+				for (Future<?> future : futures)
+				{
+					future.get();
+				}
+			}
+			finally
+			{
+				executor.shutdown();
+			}
+
+			cache.clear();
+		}
+	}
+
+	private static byte[] addArchive(Store store, int archiveId, int size) throws IOException
+	{
+		Index index = store.findIndex(0);
+		if (index == null)
+		{
+			index = store.addIndex(0);
+		}
+
+		byte[] data = new byte[size];
+		new Random(archiveId).nextBytes(data);
+
+		Archive archive = index.addArchive(archiveId);
+		Container container = new Container(CompressionType.NONE, -1);
+		container.compress(data, null);
+		store.getStorage().saveArchive(archive, container.data);
+		return data;
+	}
+
+	private static ArchiveResponsePacket decode(ByteBuf response) throws Exception
+	{
+		List<Object> out = new ArrayList<>();
+		new ArchiveResponseDecoder().decode(null, response.duplicate(), out);
+		assertEquals(1, out.size());
+		return (ArchiveResponsePacket) out.get(0);
+	}
+}
@@ -24,26 +24,50 @@
  */
 package net.runelite.cache.server;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import net.runelite.cache.StoreLocation;
 import net.runelite.cache.client.CacheClient;
+import net.runelite.cache.client.CacheDownloader;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.fs.jagex.CompressionType;
 import net.runelite.cache.index.FileData;
+import net.runelite.protocol.api.handshake.HandshakeType;
+import net.runelite.protocol.api.login.HandshakeResponseType;
+import net.runelite.protocol.update.decoders.UpdateOpcodes;
+import net.runelite.protocol.update.encoders.ArchiveResponseEncoder;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class CacheServerTest
 {
+	private static final Logger logger = LoggerFactory.getLogger(CacheServerTest.class);
+
 	private static final String HOST = "localhost";
+	private static final int PORT = 43594;
 	private static final int REVISION = 154;
 
 	@Rule
@@ -104,6 +128,230 @@ public class CacheServerTest
 		}
 	}
 
+	@Test
+	public void testDownloader() throws Exception
+	{
+		try (Store store = new Store(folder.newFolder());
+			CacheServer server = new CacheServer(store, REVISION))
+		{
+			Random random = new Random(42L);
+			addRandomArchives(store, 0, 0, 100, random);
+			addRandomArchives(store, 1, 0, 100, random);
+			store.save();
+
+			server.start();
+
+			try (Store store2 = new Store(folder.newFolder()))
+			{
+				try (CacheDownloader downloader = new CacheDownloader(store2, HOST, REVISION, 3, 2))
+				{
+					downloader.download();
+					assertEquals(200, downloader.getArchivesDownloaded());
+					assertEquals(0, downloader.getArchivesSkipped());
+				}
+
+				assertStoresEqual(store, store2);
+
+				// Everything is already downloaded
+				try (CacheDownloader downloader = new CacheDownloader(store2, HOST, REVISION, 3, 2))
+				{
+					downloader.download();
+					assertEquals(0, downloader.getArchivesDownloaded());
+					assertEquals(200, downloader.getArchivesSkipped());
+				}
+
+				// Only the new archives are downloaded
+				addRandomArchives(store, 1, 100, 20, random);
+				store.save();
+				server.getResponseCache().clear();
+
+				try (CacheDownloader downloader = new CacheDownloader(store2, HOST, REVISION, 3, 2))
+				{
+					downloader.download();
+					assertEquals(20, downloader.getArchivesDownloaded());
+					assertEquals(200, downloader.getArchivesSkipped());
+				}
+
+				assertStoresEqual(store, store2);
+			}
+		}
+	}
+
+	@Test(timeout = 60_000)
+	public void testDownloaderServerClosed() throws Exception
+	{
+		try (Store store = new Store(folder.newFolder());
+			CacheServer server = new CacheServer(store, REVISION))
+		{
+			Random random = new Random(42L);
+			addRandomArchives(store, 0, 0, 200, random);
+			store.save();
+
+			// Slow enough that the server is closed mid download
+			server.setBandwidthLimit(64 * 1024);
+			server.start();
+
+			CountDownLatch started = new CountDownLatch(1);
+			ExecutorService executor = Executors.newSingleThreadExecutor();
+
+			try (Store store2 = new Store(folder.newFolder());
+				CacheDownloader downloader = new CacheDownloader(store2, HOST, REVISION, 3, 2))
+			{
+				downloader.setWatcher((archive, data) -> started.countDown());
+
+				Future<?> download = executor.submit(() ->
+				{
+					downloader.download();
+					return null;
+				});
+
+				started.await();
+				server.close();
+
+				try
+				{
+					download.get();
+					fail("download completed after the server closed");
+				}
+				catch (ExecutionException ex)
+				{
+					assertTrue(ex.getCause() instanceof IOException);
+				}
+			}
+			finally
+			{
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	@Test
+	@Ignore
+	public void testLoad() throws Exception
+	{
+		final int archives = 2000;
+
+		try (Store store = new Store(folder.newFolder());
+			CacheServer server = new CacheServer(store, REVISION))
+		{
+			Index index = store.addIndex(0);
+			Random random = new Random(42L);
+			long expected = 0;
+
+			for (int i = 0; i < archives; ++i)
+			{
+				byte[] data = new byte[1024 + random.nextInt(63 * 1024)];
+				random.nextBytes(data);
+
+				Container container = new Container(CompressionType.NONE, -1);
+				container.compress(data, null);
+				store.getStorage().saveArchive(index.addArchive(i), container.data);
+				expected += ArchiveResponseEncoder.getEncodedSize(container.data.length);
+			}
+
+			server.start();
+
+			// A bare client, so only the server is measured
+			try (Socket socket = new Socket(HOST, PORT))
+			{
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+				InputStream in = socket.getInputStream();
+
+				out.writeByte(HandshakeType.UPDATE.getValue());
+				out.writeInt(REVISION);
+				out.flush();
+				assertEquals(HandshakeResponseType.RESPONSE_OK.getValue(), in.read());
+
+				byte[] buffer = new byte[64 * 1024];
+				for (int run = 0; run < 5; ++run)
+				{
+					long allocated = getAllocatedBytes();
+					long start = System.nanoTime();
+
+					for (int i = 0; i < archives; ++i)
+					{
+						out.writeByte(UpdateOpcodes.ARCHIVE_REQUEST_HIGH);
+						out.writeByte(0);
+						out.writeShort(i);
+					}
+					out.flush();
+
+					for (long remaining = expected; remaining > 0; )
+					{
+						int read = in.read(buffer);
+						assertTrue(read > 0);
+						remaining -= read;
+					}
+
+					long elapsed = System.nanoTime() - start;
+					allocated = getAllocatedBytes() - allocated;
+
+					logger.info("Run {}: {} responses of {} MB in {}ms, {} MB/s, {} bytes allocated per response",
+						run, archives, expected / 1_000_000, elapsed / 1_000_000,
+						expected * 1000 / elapsed, allocated / archives);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of bytes allocated by all threads so far
+	 */
+	private static long getAllocatedBytes()
+	{
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long total = 0;
+		for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+		{
+			total += Math.max(allocated, 0);
+		}
+		return total;
+	}
+
+	private static void addRandomArchives(Store store, int indexId, int first, int count, Random random) throws IOException
+	{
+		Index index = store.findIndex(indexId);
+		if (index == null)
+		{
+			index = store.addIndex(indexId);
+		}
+
+		for (int i = first; i < first + count; ++i)
+		{
+			Archive archive = index.addArchive(i);
+			FileData file = new FileData();
+			file.setNameHash(i);
+			archive.setFileData(new FileData[]{file});
+
+			byte[] data = new byte[random.nextInt(8 * 1024)];
+			random.nextBytes(data);
+
+			Container container = new Container(archive.getCompression(), -1);
+			container.compress(data, null);
+			store.getStorage().saveArchive(archive, container.data);
+		}
+	}
+
+	private static void assertStoresEqual(Store expected, Store actual) throws IOException
+	{
+		for (Index expectedIndex : expected.getIndexes())
+		{
+			Index index = actual.findIndex(expectedIndex.getId());
+			assertEquals(expectedIndex.getArchives().size(), index.getArchives().size());
+
+			for (Archive expectedArchive : expectedIndex.getArchives())
+			{
+				Archive archive = index.getArchive(expectedArchive.getArchiveId());
+				assertEquals(expectedArchive.getCrc(), archive.getCrc());
+				assertEquals(expectedArchive.getRevision(), archive.getRevision());
+
+				byte[] expectedData = expectedArchive.decompress(expected.getStorage().loadArchive(expectedArchive));
+				byte[] data = archive.decompress(actual.getStorage().loadArchive(archive));
+				assertArrayEquals(expectedData, data);
+			}
+		}
+	}
+
 	private void addInitialFilesToStore(Store store) throws FileNotFoundException, IOException
 	{
 		Storage storage = store.getStorage();
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.server;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.runelite.cache.server.RequestScheduler.Connection;
+import net.runelite.cache.server.RequestScheduler.Request;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class RequestSchedulerTest
+{
+	// No workers are started, requests are taken with poll
+	private final RequestScheduler scheduler = new RequestScheduler(null, 0, 0);
+
+	@Test
+	public void testPriority()
+	{
+		Connection connection = scheduler.register(new EmbeddedChannel());
+		scheduler.submit(connection, 0, 1, false);
+		scheduler.submit(connection, 0, 2, false);
+		scheduler.submit(connection, 0, 3, true);
+		assertEquals(3, scheduler.getQueueDepth());
+
+		assertEquals(Arrays.asList(3, 1, 2), drain(scheduler));
+		assertEquals(0, scheduler.getQueueDepth());
+		assertEquals(3, scheduler.getRequestsServed());
+	}
+
+	@Test
+	public void testRoundRobin()
+	{
+		Connection first = scheduler.register(new EmbeddedChannel());
+		Connection second = scheduler.register(new EmbeddedChannel());
+
+		for (int i = 1; i <= 5; ++i)
+		{
+			scheduler.submit(first, 0, i, false);
+		}
+		scheduler.submit(second, 0, 11, false);
+		scheduler.submit(second, 0, 12, false);
+
+		assertEquals(Arrays.asList(1, 11, 2, 12, 3, 4, 5), drain(scheduler));
+	}
+
+	@Test
+	public void testPrefetchDoesNotStall()
+	{
+		Connection prefetching = scheduler.register(new EmbeddedChannel());
+		Connection waiting = scheduler.register(new EmbeddedChannel());
+
+		for (int i = 0; i < 1000; ++i)
+		{
+			scheduler.submit(prefetching, 0, i, false);
+		}
+		scheduler.submit(waiting, 1, 5000, true);
+
+		long now = System.nanoTime();
+		Request request = scheduler.poll(now);
+		scheduler.complete(request, 100, now);
+		request = scheduler.poll(now);
+		assertEquals(5000, request.getArchive());
+	}
+
+	@Test
+	public void testOneRequestAtATime()
+	{
+		Connection connection = scheduler.register(new EmbeddedChannel());
+		scheduler.submit(connection, 0, 1, false);
+		scheduler.submit(connection, 0, 2, false);
+
+		long now = System.nanoTime();
+		Request request = scheduler.poll(now);
+		assertEquals(1, request.getArchive());
+		assertNull(scheduler.poll(now));
+
+		scheduler.complete(request, 100, now);
+		assertEquals(2, scheduler.poll(now).getArchive());
+	}
+
+	@Test
+	public void testBandwidthLimit()
+	{
+		RequestScheduler scheduler = new RequestScheduler(null, 0, 1000);
+		Connection connection = scheduler.register(new EmbeddedChannel());
+		scheduler.submit(connection, 0, 1, false);
+		scheduler.submit(connection, 0, 2, false);
+
+		long now = System.nanoTime();
+		scheduler.complete(scheduler.poll(now), 500, now);
+
+		// 500 bytes at 1000 bytes per second
+		assertNull(scheduler.poll(now));
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(500), scheduler.getWaitTime(now));
+		assertNotNull(scheduler.poll(now + TimeUnit.MILLISECONDS.toNanos(500)));
+	}
+
+	@Test
+	public void testClosed()
+	{
+		EmbeddedChannel channel = new EmbeddedChannel();
+		Connection connection = scheduler.register(channel);
+		scheduler.submit(connection, 0, 1, false);
+
+		// Unwritable channels are skipped
+		channel.close();
+		assertNull(scheduler.poll(System.nanoTime()));
+
+		scheduler.unregister(connection);
+		assertEquals(0, scheduler.getQueueDepth());
+
+		scheduler.submit(connection, 0, 2, false);
+		assertEquals(0, scheduler.getQueueDepth());
+	}
+
+	@Test
+	public void testResponseTime()
+	{
+		Connection connection = scheduler.register(new EmbeddedChannel());
+		scheduler.submit(connection, 0, 1, true);
+
+		long now = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+		scheduler.complete(scheduler.poll(now), 100, now);
+
+		assertTrue(scheduler.getMaxResponseTime() >= TimeUnit.MILLISECONDS.toNanos(10));
+		assertEquals(scheduler.getMaxResponseTime(), scheduler.getAverageResponseTime());
+		assertEquals(100, scheduler.getBytesServed());
+	}
+
+	private static List<Integer> drain(RequestScheduler scheduler)
+	{
+		List<Integer> archives = new ArrayList<>();
+		long now = System.nanoTime();
+
+		for (Request request = scheduler.poll(now); request != null; request = scheduler.poll(now))
+		{
+			archives.add(request.getArchive());
+			scheduler.complete(request, 100, now);
+		}
+		return archives;
+	}
+}
@@ -26,7 +26,20 @@ package net.runelite.cache;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.runelite.cache.collision.CollisionMapBuilder;
+import net.runelite.cache.diff.CacheDiff;
+import net.runelite.cache.diff.CacheManifest;
+import net.runelite.cache.export.CacheExporter;
+import net.runelite.cache.export.DirectoryExportWriter;
+import net.runelite.cache.export.ExportType;
+import net.runelite.cache.export.ExportWriter;
+import net.runelite.cache.export.StageStats;
+import net.runelite.cache.export.ZipExportWriter;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.region.RegionLoader;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -35,6 +48,20 @@ import org.apache.commons.cli.ParseException;
 
 public class Cache
 {
+	/**
+	 * Manifest of the store at the last incremental dump, kept in the dump directory
+	 */
+	private static final String MANIFEST_FILE = ".manifest.json";
+
+	@FunctionalInterface
+	private interface IncrementalDump
+	{
+		/**
+		 * @param diff the changes since the last dump, or null to dump everything
+		 */
+		void dump(CacheDiff diff) throws IOException;
+	}
+
 	public static void main(String[] args) throws IOException
 	{
 		Options options = new Options();
@@ -45,6 +72,11 @@ public class Cache
 		options.addOption(null, "npcs", true, "directory to dump npcs to");
 		options.addOption(null, "objects", true, "directory to dump objects to");
 		options.addOption(null, "sprites", true, "directory to dump sprites to");
+		options.addOption(null, "collision", true, "file to write the collision map to");
+		options.addOption(null, "manifest", false, "only dump the items or sprites which have changed since the last dump to the same directory");
+		options.addOption(null, "export", true, "directory or .zip file to export definitions to");
+		options.addOption(null, "export-types", true, "comma separated types to export, defaults to all of " + Arrays.toString(ExportType.values()));
+		options.addOption(null, "threads", true, "number of threads to export with");
 
 		CommandLineParser parser = new DefaultParser();
 		CommandLine cmd;
@@ -63,6 +95,12 @@ public class Cache
 
 		Store store = loadStore(cache);
 
+		boolean incremental = cmd.hasOption("manifest");
+		if (incremental && !cmd.hasOption("items") && !cmd.hasOption("sprites"))
+		{
+			System.err.println("Only item and sprite dumps can be incremental, dumping everything");
+		}
+
 		if (cmd.hasOption("items"))
 		{
 			String itemdir = cmd.getOptionValue("items");
@@ -74,7 +112,8 @@ public class Cache
 			}
 
 			System.out.println("Dumping items to " + itemdir);
-			dumpItems(store, new File(itemdir));
+			File dir = new File(itemdir);
+			dump(store, dir, incremental, diff -> dumpItems(store, dir, diff));
 		}
 		else if (cmd.hasOption("npcs"))
 		{
@@ -113,7 +152,53 @@ public class Cache
 			}
 
 			System.out.println("Dumping sprites to " + spritedir);
-			dumpSprites(store, new File(spritedir));
+			File dir = new File(spritedir);
+			dump(store, dir, incremental, diff -> dumpSprites(store, dir, diff));
+		}
+		else if (cmd.hasOption("collision"))
+		{
+			String collisionFile = cmd.getOptionValue("collision");
+
+			if (collisionFile == null)
+			{
+				System.err.println("Collision map file must be specified");
+				return;
+			}
+
+			System.out.println("Writing collision map to " + collisionFile);
+			dumpCollisionMap(store, new File(collisionFile));
+		}
+		else if (cmd.hasOption("export"))
+		{
+			String exportTarget = cmd.getOptionValue("export");
+
+			List<ExportType> types = new ArrayList<>();
+			if (cmd.hasOption("export-types"))
+			{
+				for (String type : cmd.getOptionValue("export-types").split(","))
+				{
+					try
+					{
+						types.add(ExportType.valueOf(type.trim().toUpperCase()));
+					}
+					catch (IllegalArgumentException ex)
+					{
+						System.err.println("Unknown export type " + type);
+						return;
+					}
+				}
+			}
+			else
+			{
+				types.addAll(Arrays.asList(ExportType.values()));
+			}
+
+			int threads = cmd.hasOption("threads")
+				? Integer.parseInt(cmd.getOptionValue("threads"))
+				: Runtime.getRuntime().availableProcessors();
+
+			System.out.println("Exporting " + types + " to " + exportTarget);
+			export(store, new File(exportTarget), types, threads);
 		}
 		else
 		{
@@ -121,6 +206,34 @@ public class Cache
 		}
 	}
 
+	/**
+	 * Runs a dump which can redo only what has changed. When incremental, a
+	 * manifest of the store is kept in the dump directory so the next dump to
+	 * it knows what has changed.
+	 */
+	private static void dump(Store store, File dir, boolean incremental, IncrementalDump dump) throws IOException
+	{
+		if (!incremental)
+		{
+			dump.dump(null);
+			return;
+		}
+
+		File manifestFile = new File(dir, MANIFEST_FILE);
+		CacheManifest previous = manifestFile.exists() ? CacheManifest.load(manifestFile) : null;
+		CacheManifest manifest = CacheManifest.create(store, previous);
+		CacheDiff diff = null;
+
+		if (previous != null)
+		{
+			diff = CacheDiff.compare(previous, manifest);
+			System.out.println(diff.getChanges().size() + " archives have changed since the last dump");
+		}
+
+		dump.dump(diff);
+		manifest.save(manifestFile);
+	}
+
 	private static Store loadStore(String cache) throws IOException
 	{
 		Store store = new Store(new File(cache));
@@ -128,11 +241,18 @@ public class Cache
 		return store;
 	}
 
-	private static void dumpItems(Store store, File itemdir) throws IOException
+	private static void dumpItems(Store store, File itemdir, CacheDiff diff) throws IOException
 	{
 		ItemManager dumper = new ItemManager(store);
 		dumper.load();
-		dumper.export(itemdir);
+		if (diff != null)
+		{
+			dumper.export(itemdir, diff.getChangedFiles(IndexType.CONFIGS.getNumber(), ConfigType.ITEM.getId()));
+		}
+		else
+		{
+			dumper.export(itemdir);
+		}
 		dumper.java(itemdir);
 	}
 
@@ -152,10 +272,49 @@ public class Cache
 		dumper.java(objectdir);
 	}
 
-	private static void dumpSprites(Store store, File spritedir) throws IOException
+	private static void dumpCollisionMap(Store store, File file) throws IOException
+	{
+		ObjectManager objectManager = new ObjectManager(store);
+		objectManager.load();
+
+		RegionLoader regionLoader = new RegionLoader(store);
+		regionLoader.loadRegions();
+
+		CollisionMapBuilder builder = new CollisionMapBuilder(objectManager::getObject);
+		builder.build(regionLoader.getRegions());
+		builder.write(file);
+	}
+
+	private static void export(Store store, File target, List<ExportType> types, int threads) throws IOException
+	{
+		CacheExporter exporter = new CacheExporter(store, threads);
+		long start = System.nanoTime();
+
+		try (ExportWriter writer = target.getName().endsWith(".zip")
+			? new ZipExportWriter(target)
+			: new DirectoryExportWriter(target))
+		{
+			exporter.export(types, writer);
+		}
+
+		long wallNanos = System.nanoTime() - start;
+		for (StageStats stats : exporter.getStats())
+		{
+			System.out.println(stats.format(wallNanos));
+		}
+	}
+
+	private static void dumpSprites(Store store, File spritedir, CacheDiff diff) throws IOException
 	{
 		SpriteManager dumper = new SpriteManager(store);
 		dumper.load();
-		dumper.export(spritedir);
+		if (diff != null)
+		{
+			dumper.export(spritedir, diff.getChangedArchives(IndexType.SPRITES.getNumber()));
+		}
+		else
+		{
+			dumper.export(spritedir);
+		}
 	}
 }
@@ -27,6 +27,7 @@ package net.runelite.cache;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.Set;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.region.Region;
 import net.runelite.cache.region.RegionLoader;
@@ -72,17 +73,35 @@ public class HeightMapDumper
 		logger.info("Map image dimensions: {}px x {}px, {}px per map square ({} MB)", dimX, dimY, MAP_SCALE, (dimX * dimY / 1024 / 1024));
 
 		BufferedImage image = new BufferedImage(dimX, dimY, BufferedImage.TYPE_INT_RGB);
-		draw(image, z);
+		draw(image, z, null);
 		return image;
 	}
 
-	private void draw(BufferedImage image, int z)
+	/**
+	 * Redraws some regions of a height map from a previous run, such as
+	 * those which have changed. The map bounds must not have changed.
+	 *
+	 * @param image     the previous height map
+	 * @param z         the plane
+	 * @param regionIds the regions to redraw
+	 */
+	public void drawHeightMap(BufferedImage image, int z, Set<Integer> regionIds)
+	{
+		draw(image, z, regionIds);
+	}
+
+	private void draw(BufferedImage image, int z, Set<Integer> regionIds)
 	{
 		int max = Integer.MIN_VALUE;
 		int min = Integer.MAX_VALUE;
 
 		for (Region region : regionLoader.getRegions())
 		{
+			if (regionIds != null && !regionIds.contains(region.getRegionID()))
+			{
+				continue;
+			}
+
 			int baseX = region.getBaseX();
 			int baseY = region.getBaseY();
 
@@ -30,6 +30,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import net.runelite.cache.definitions.ItemDefinition;
 import net.runelite.cache.definitions.exporters.ItemExporter;
 import net.runelite.cache.definitions.loaders.ItemLoader;
@@ -93,6 +94,30 @@ public class ItemManager implements ItemProvider
 		}
 	}
 
+	/**
+	 * Exports only some items, such as those which changed since the last
+	 * export. The exports of items which no longer exist are deleted.
+	 */
+	public void export(File out, Set<Integer> itemIds) throws IOException
+	{
+		out.mkdirs();
+
+		for (int itemId : itemIds)
+		{
+			File targ = new File(out, itemId + ".json");
+			ItemDefinition def = items.get(itemId);
+
+			if (def == null)
+			{
+				targ.delete();
+				continue;
+			}
+
+			ItemExporter exporter = new ItemExporter(def);
+			exporter.exportTo(targ);
+		}
+	}
+
 	public void java(File java) throws IOException
 	{
 		java.mkdirs();
@@ -27,10 +27,23 @@ package net.runelite.cache;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
 import lombok.Getter;
 import lombok.Setter;
 import net.runelite.cache.definitions.AreaDefinition;
@@ -41,6 +54,8 @@ import net.runelite.cache.definitions.UnderlayDefinition;
 import net.runelite.cache.definitions.loaders.OverlayLoader;
 import net.runelite.cache.definitions.loaders.SpriteLoader;
 import net.runelite.cache.definitions.loaders.UnderlayLoader;
+import net.runelite.cache.diff.ArchiveChange;
+import net.runelite.cache.diff.CacheDiff;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.ArchiveFiles;
 import net.runelite.cache.fs.FSFile;
@@ -64,6 +79,10 @@ public class MapImageDumper
 	private static final int MAPICON_MAX_WIDTH = 5; // scale minimap icons down to this size so they fit..
 	private static final int MAPICON_MAX_HEIGHT = 6;
 	private static final int BLEND = 5; // number of surrounding tiles for ground blending
+	private static final int TILE_SIZE = Region.X * MAP_SCALE; // pixel size of a region, and of each map tile
+
+	// scratch space for drawing a region, reused by each thread
+	private static final ThreadLocal<RenderBuffers> RENDER_BUFFERS = ThreadLocal.withInitial(RenderBuffers::new);
 
 	private static int[] colorPalette = new ColorPalette(0.9d, 0, 512).getColorPalette();
 
@@ -93,6 +112,13 @@ public class MapImageDumper
 	@Setter
 	private boolean outlineRegions;
 
+	/**
+	 * Number of threads used to draw map tiles
+	 */
+	@Getter
+	@Setter
+	private int threads = Runtime.getRuntime().availableProcessors();
+
 	public MapImageDumper(Store store)
 	{
 		this.store = store;
@@ -158,15 +184,311 @@ public class MapImageDumper
 		return image;
 	}
 
+	/**
+	 * Draws the map as a pyramid of tiles, without ever holding the whole
+	 * map in memory. Level 0 has a tile per region, named by region x and y,
+	 * and each level above it is half the scale of the one below. Each tile
+	 * is written to outDir/level/x_y.png as soon as it is drawn.
+	 *
+	 * @param z          the plane to draw
+	 * @param outDir     the directory to write the tiles to
+	 * @param zoomLevels the number of levels to write
+	 * @throws IOException
+	 */
+	public void drawTiles(int z, File outDir, int zoomLevels) throws IOException
+	{
+		drawTiles(z, outDir, zoomLevels, null);
+	}
+
+	/**
+	 * Redraws the tiles of some regions in a pyramid from a previous run,
+	 * such as the regions from {@link #getChangedRegions(CacheDiff)}. The
+	 * tiles of neighbouring regions, which blend into them, and the tiles
+	 * above them in the pyramid are redrawn too. Tiles of regions which
+	 * no longer exist are deleted.
+	 *
+	 * @param z          the plane to draw
+	 * @param outDir     the directory of the pyramid
+	 * @param zoomLevels the number of levels to write
+	 * @param regionIds  the regions to redraw, or null to draw every region
+	 * @throws IOException
+	 */
+	public void drawTiles(int z, File outDir, int zoomLevels, Set<Integer> regionIds) throws IOException
+	{
+		ForkJoinPool pool = new ForkJoinPool(threads);
+
+		try
+		{
+			List<Callable<Void>> tasks = new ArrayList<>();
+			Set<Integer> tiles = new HashSet<>();
+
+			if (regionIds == null)
+			{
+				for (Region region : regionLoader.getRegions())
+				{
+					tiles.add(region.getRegionID());
+				}
+			}
+			else
+			{
+				for (int regionId : regionIds)
+				{
+					for (int dx = -1; dx <= 1; ++dx)
+					{
+						for (int dy = -1; dy <= 1; ++dy)
+						{
+							int x = (regionId >>> 8) + dx, y = (regionId & 0xff) + dy;
+							if (x >= 0 && y >= 0 && y <= 0xff)
+							{
+								tiles.add(x << 8 | y);
+							}
+						}
+					}
+				}
+			}
+
+			File tileDir = levelDirectory(outDir, 0);
+			for (int tile : tiles)
+			{
+				Region region = regionLoader.findRegionForWorldCoordinates((tile >>> 8) * Region.X, (tile & 0xff) * Region.Y);
+				File tileFile = new File(tileDir, (tile >>> 8) + "_" + (tile & 0xff) + ".png");
+
+				if (region == null)
+				{
+					tileFile.delete();
+					continue;
+				}
+
+				tasks.add(() ->
+				{
+					BufferedImage image = drawTile(region, z);
+					ImageIO.write(image, "png", tileFile);
+					return null;
+				});
+			}
+
+			invokeAll(pool, tasks);
+			logger.info("Wrote {} tiles for plane {}", tasks.size(), z);
+
+			for (int level = 1; level < zoomLevels; ++level)
+			{
+				File childDir = levelDirectory(outDir, level - 1);
+				File parentDir = levelDirectory(outDir, level);
+
+				Set<Integer> parents = new HashSet<>();
+				for (int tile : tiles)
+				{
+					parents.add((tile >>> 8) >> 1 << 8 | (tile & 0xff) >> 1);
+				}
+
+				tasks.clear();
+				for (int tile : parents)
+				{
+					int x = tile >>> 8, y = tile & 0xff;
+					File parentFile = new File(parentDir, x + "_" + y + ".png");
+					tasks.add(() ->
+					{
+						BufferedImage image = drawParentTile(childDir, x, y);
+						if (image != null)
+						{
+							ImageIO.write(image, "png", parentFile);
+						}
+						else
+						{
+							parentFile.delete();
+						}
+						return null;
+					});
+				}
+
+				invokeAll(pool, tasks);
+				tiles = parents;
+				logger.info("Drew {} tiles for plane {} at zoom level {}", tiles.size(), z, level);
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Finds the regions which need to be redrawn after a cache update
+	 *
+	 * @param diff the changes since the map was last drawn
+	 * @return the ids of the changed regions, or null if every region needs to be redrawn
+	 */
+	public Set<Integer> getChangedRegions(CacheDiff diff)
+	{
+		int configs = IndexType.CONFIGS.getNumber();
+		if (diff.isChanged(configs, ConfigType.UNDERLAY.getId())
+			|| diff.isChanged(configs, ConfigType.OVERLAY.getId())
+			|| diff.isChanged(configs, ConfigType.AREA.getId())
+			|| diff.isChanged(IndexType.TEXTURES.getNumber())
+			|| diff.isChanged(IndexType.SPRITES.getNumber()))
+		{
+			return null;
+		}
+
+		Set<Integer> regionIds = new HashSet<>();
+
+		// map and landscape archives are named by their region
+		Set<Integer> nameHashes = new HashSet<>();
+		for (ArchiveChange change : diff.getChanges(IndexType.MAPS.getNumber()))
+		{
+			nameHashes.add(change.getNameHash());
+		}
+
+		if (!nameHashes.isEmpty())
+		{
+			for (int i = 0; i < RegionLoader.MAX_REGION; ++i)
+			{
+				int x = i >> 8;
+				int y = i & 0xFF;
+
+				if (nameHashes.contains(Djb2.hash("m" + x + "_" + y)) || nameHashes.contains(Djb2.hash("l" + x + "_" + y)))
+				{
+					regionIds.add(i);
+				}
+			}
+		}
+
+		Set<Integer> objectIds = diff.getChangedFiles(configs, ConfigType.OBJECT.getId());
+		if (!objectIds.isEmpty())
+		{
+			for (Region region : regionLoader.getRegions())
+			{
+				for (Location location : region.getLocations())
+				{
+					if (objectIds.contains(location.getId()))
+					{
+						regionIds.add(region.getRegionID());
+						break;
+					}
+				}
+			}
+		}
+
+		return regionIds;
+	}
+
+	private static File levelDirectory(File outDir, int level) throws IOException
+	{
+		File dir = new File(outDir, Integer.toString(level));
+		if (!dir.isDirectory() && !dir.mkdirs())
+		{
+			throw new IOException("unable to create " + dir);
+		}
+		return dir;
+	}
+
+	private static void invokeAll(ForkJoinPool pool, List<Callable<Void>> tasks) throws IOException
+	{
+		try
+		{
+			for (Future<Void> future : pool.invokeAll(tasks))
+			{
+				future.get();
+			}
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException(ex);
+		}
+		catch (ExecutionException ex)
+		{
+			Throwable cause = ex.getCause();
+			throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+		}
+	}
+
+	/**
+	 * Draws the tile of a region into the buffer of the current thread. This
+	 * is the same as the region's part of the full map, so objects and icons
+	 * of the regions to the north and west which overlap it are drawn too.
+	 */
+	private BufferedImage drawTile(Region region, int z)
+	{
+		BufferedImage image = RENDER_BUFFERS.get().tile;
+		Arrays.fill(((DataBufferInt) image.getRaster().getDataBuffer()).getData(), 0);
+
+		drawMap(image, 0, 0, z, region);
+
+		List<Region> overlapping = new ArrayList<>(4);
+		for (int[] offset : new int[][]{{-1, 1}, {0, 1}, {-1, 0}})
+		{
+			Region neighbour = regionLoader.findRegionForWorldCoordinates(region.getBaseX() + offset[0] * Region.X,
+				region.getBaseY() + offset[1] * Region.Y);
+			if (neighbour != null)
+			{
+				overlapping.add(neighbour);
+			}
+		}
+		overlapping.add(region);
+
+		for (Region r : overlapping)
+		{
+			drawObjects(image, r.getBaseX() - region.getBaseX(), region.getBaseY() - r.getBaseY(), r, z);
+		}
+
+		for (Region r : overlapping)
+		{
+			drawMapIcons(image, r.getBaseX() - region.getBaseX(), region.getBaseY() - r.getBaseY(), r, z);
+		}
+
+		return image;
+	}
+
+	/**
+	 * Draws a tile from the four tiles below it in the pyramid, which are
+	 * read back from disk
+	 *
+	 * @return the tile, or null if none of the tiles below it exist
+	 */
+	private static BufferedImage drawParentTile(File childDir, int x, int y) throws IOException
+	{
+		BufferedImage image = RENDER_BUFFERS.get().parentTile;
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.BLACK);
+		graphics.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+		boolean drawn = false;
+		for (int i = 0; i < 2; ++i)
+		{
+			for (int j = 0; j < 2; ++j)
+			{
+				File childFile = new File(childDir, (x * 2 + i) + "_" + (y * 2 + j) + ".png");
+				if (!childFile.exists())
+				{
+					continue;
+				}
+
+				BufferedImage child = ImageIO.read(childFile);
+				// the northern children have the greater y, and go at the top
+				graphics.drawImage(child, i * TILE_SIZE / 2, (1 - j) * TILE_SIZE / 2, TILE_SIZE / 2, TILE_SIZE / 2, null);
+				drawn = true;
+			}
+		}
+
+		graphics.dispose();
+		return drawn ? image : null;
+	}
+
 	private void drawMap(BufferedImage image, int drawBaseX, int drawBaseY, int z, Region region)
 	{
-		int[][] map = new int[Region.X * MAP_SCALE][Region.Y * MAP_SCALE];
+		RenderBuffers buffers = RENDER_BUFFERS.get();
+
+		int[][] map = buffers.map;
+		clear(map);
 		drawMap(map, region, z);
 
 		int[][] above = null;
 		if (z < 3)
 		{
-			above = new int[Region.X * MAP_SCALE][Region.Y * MAP_SCALE];
+			above = buffers.above;
+			clear(above);
 			drawMap(above, region, z + 1);
 		}
 
@@ -472,6 +794,14 @@ public class MapImageDumper
 		}
 	}
 
+	private static void clear(int[][] pixels)
+	{
+		for (int[] column : pixels)
+		{
+			Arrays.fill(column, 0);
+		}
+	}
+
 	private static int convert(int d)
 	{
 		if (d >= 0)
@@ -546,7 +876,7 @@ public class MapImageDumper
 				if (object.getMapSceneID() != -1)
 				{
 					Image spriteImage = scaledMapIcons.get(object.getMapSceneID());
-					graphics.drawImage(spriteImage, drawX * MAP_SCALE, drawY * MAP_SCALE, null);
+					graphics.drawImage(spriteImage, drawX, drawY, null);
 				}
 				else
 				{
@@ -554,31 +884,31 @@ public class MapImageDumper
 					{
 						if (rotation == 0)
 						{
-							image.setRGB(drawX + 0, drawY + 0, rgb);
-							image.setRGB(drawX + 0, drawY + 1, rgb);
-							image.setRGB(drawX + 0, drawY + 2, rgb);
-							image.setRGB(drawX + 0, drawY + 3, rgb);
+							setPixel(image, drawX + 0, drawY + 0, rgb);
+							setPixel(image, drawX + 0, drawY + 1, rgb);
+							setPixel(image, drawX + 0, drawY + 2, rgb);
+							setPixel(image, drawX + 0, drawY + 3, rgb);
 						}
 						else if (rotation == 1)
 						{
-							image.setRGB(drawX + 0, drawY + 0, rgb);
-							image.setRGB(drawX + 1, drawY + 0, rgb);
-							image.setRGB(drawX + 2, drawY + 0, rgb);
-							image.setRGB(drawX + 3, drawY + 0, rgb);
+							setPixel(image, drawX + 0, drawY + 0, rgb);
+							setPixel(image, drawX + 1, drawY + 0, rgb);
+							setPixel(image, drawX + 2, drawY + 0, rgb);
+							setPixel(image, drawX + 3, drawY + 0, rgb);
 						}
 						else if (rotation == 2)
 						{
-							image.setRGB(drawX + 3, drawY + 0, rgb);
-							image.setRGB(drawX + 3, drawY + 1, rgb);
-							image.setRGB(drawX + 3, drawY + 2, rgb);
-							image.setRGB(drawX + 3, drawY + 3, rgb);
+							setPixel(image, drawX + 3, drawY + 0, rgb);
+							setPixel(image, drawX + 3, drawY + 1, rgb);
+							setPixel(image, drawX + 3, drawY + 2, rgb);
+							setPixel(image, drawX + 3, drawY + 3, rgb);
 						}
 						else if (rotation == 3)
 						{
-							image.setRGB(drawX + 0, drawY + 3, rgb);
-							image.setRGB(drawX + 1, drawY + 3, rgb);
-							image.setRGB(drawX + 2, drawY + 3, rgb);
-							image.setRGB(drawX + 3, drawY + 3, rgb);
+							setPixel(image, drawX + 0, drawY + 3, rgb);
+							setPixel(image, drawX + 1, drawY + 3, rgb);
+							setPixel(image, drawX + 2, drawY + 3, rgb);
+							setPixel(image, drawX + 3, drawY + 3, rgb);
 						}
 					}
 
@@ -586,19 +916,19 @@ public class MapImageDumper
 					{
 						if (rotation == 0)
 						{
-							image.setRGB(drawX + 0, drawY + 0, rgb);
+							setPixel(image, drawX + 0, drawY + 0, rgb);
 						}
 						else if (rotation == 1)
 						{
-							image.setRGB(drawX + 3, drawY + 0, rgb);
+							setPixel(image, drawX + 3, drawY + 0, rgb);
 						}
 						else if (rotation == 2)
 						{
-							image.setRGB(drawX + 3, drawY + 3, rgb);
+							setPixel(image, drawX + 3, drawY + 3, rgb);
 						}
 						else if (rotation == 3)
 						{
-							image.setRGB(drawX + 0, drawY + 3, rgb);
+							setPixel(image, drawX + 0, drawY + 3, rgb);
 						}
 					}
 
@@ -606,31 +936,31 @@ public class MapImageDumper
 					{
 						if (rotation == 3)
 						{
-							image.setRGB(drawX + 0, drawY + 0, rgb);
-							image.setRGB(drawX + 0, drawY + 1, rgb);
-							image.setRGB(drawX + 0, drawY + 2, rgb);
-							image.setRGB(drawX + 0, drawY + 3, rgb);
+							setPixel(image, drawX + 0, drawY + 0, rgb);
+							setPixel(image, drawX + 0, drawY + 1, rgb);
+							setPixel(image, drawX + 0, drawY + 2, rgb);
+							setPixel(image, drawX + 0, drawY + 3, rgb);
 						}
 						else if (rotation == 0)
 						{
-							image.setRGB(drawX + 0, drawY + 0, rgb);
-							image.setRGB(drawX + 1, drawY + 0, rgb);
-							image.setRGB(drawX + 2, drawY + 0, rgb);
-							image.setRGB(drawX + 3, drawY + 0, rgb);
+							setPixel(image, drawX + 0, drawY + 0, rgb);
+							setPixel(image, drawX + 1, drawY + 0, rgb);
+							setPixel(image, drawX + 2, drawY + 0, rgb);
+							setPixel(image, drawX + 3, drawY + 0, rgb);
 						}
 						else if (rotation == 1)
 						{
-							image.setRGB(drawX + 3, drawY + 0, rgb);
-							image.setRGB(drawX + 3, drawY + 1, rgb);
-							image.setRGB(drawX + 3, drawY + 2, rgb);
-							image.setRGB(drawX + 3, drawY + 3, rgb);
+							setPixel(image, drawX + 3, drawY + 0, rgb);
+							setPixel(image, drawX + 3, drawY + 1, rgb);
+							setPixel(image, drawX + 3, drawY + 2, rgb);
+							setPixel(image, drawX + 3, drawY + 3, rgb);
 						}
 						else if (rotation == 2)
 						{
-							image.setRGB(drawX + 0, drawY + 3, rgb);
-							image.setRGB(drawX + 1, drawY + 3, rgb);
-							image.setRGB(drawX + 2, drawY + 3, rgb);
-							image.setRGB(drawX + 3, drawY + 3, rgb);
+							setPixel(image, drawX + 0, drawY + 3, rgb);
+							setPixel(image, drawX + 1, drawY + 3, rgb);
+							setPixel(image, drawX + 2, drawY + 3, rgb);
+							setPixel(image, drawX + 3, drawY + 3, rgb);
 						}
 					}
 				}
@@ -663,17 +993,17 @@ public class MapImageDumper
 
 				if (rotation != 0 && rotation != 2)
 				{
-					image.setRGB(drawX + 0, drawY + 0, rgb);
-					image.setRGB(drawX + 1, drawY + 1, rgb);
-					image.setRGB(drawX + 2, drawY + 2, rgb);
-					image.setRGB(drawX + 3, drawY + 3, rgb);
+					setPixel(image, drawX + 0, drawY + 0, rgb);
+					setPixel(image, drawX + 1, drawY + 1, rgb);
+					setPixel(image, drawX + 2, drawY + 2, rgb);
+					setPixel(image, drawX + 3, drawY + 3, rgb);
 				}
 				else
 				{
-					image.setRGB(drawX + 0, drawY + 3, rgb);
-					image.setRGB(drawX + 1, drawY + 2, rgb);
-					image.setRGB(drawX + 2, drawY + 1, rgb);
-					image.setRGB(drawX + 3, drawY + 0, rgb);
+					setPixel(image, drawX + 0, drawY + 3, rgb);
+					setPixel(image, drawX + 1, drawY + 2, rgb);
+					setPixel(image, drawX + 2, drawY + 1, rgb);
+					setPixel(image, drawX + 3, drawY + 0, rgb);
 				}
 			}
 			else if (type == 22 || (type >= 9 && type <= 11))
@@ -690,6 +1020,15 @@ public class MapImageDumper
 		graphics.dispose();
 	}
 
+	private static void setPixel(BufferedImage image, int x, int y, int rgb)
+	{
+		// objects of neighbouring regions are drawn on tiles too, and mostly fall outside of them
+		if (x >= 0 && y >= 0 && x < image.getWidth() && y < image.getHeight())
+		{
+			image.setRGB(x, y, rgb);
+		}
+	}
+
 	private void drawObjects(BufferedImage image, int z)
 	{
 		for (Region region : regionLoader.getRegions())
@@ -984,4 +1323,11 @@ public class MapImageDumper
 		}
 	}
 
+	private static class RenderBuffers
+	{
+		private final int[][] map = new int[Region.X * MAP_SCALE][Region.Y * MAP_SCALE];
+		private final int[][] above = new int[Region.X * MAP_SCALE][Region.Y * MAP_SCALE];
+		private final BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		private final BufferedImage parentTile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+	}
 }
@@ -31,6 +31,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Set;
 import net.runelite.cache.definitions.SpriteDefinition;
 import net.runelite.cache.definitions.exporters.SpriteExporter;
 import net.runelite.cache.definitions.loaders.SpriteLoader;
@@ -110,6 +111,38 @@ public class SpriteManager implements SpriteProvider
 		}
 	}
 
+	/**
+	 * Exports only some sprites, such as those which changed since the last
+	 * export. The exports of frames which no longer exist are deleted.
+	 */
+	public void export(File outDir, Set<Integer> spriteIds) throws IOException
+	{
+		for (int spriteId : spriteIds)
+		{
+			File[] existing = outDir.listFiles((dir, name) -> name.startsWith(spriteId + "-"));
+			if (existing != null)
+			{
+				for (File file : existing)
+				{
+					file.delete();
+				}
+			}
+
+			for (SpriteDefinition sprite : sprites.get(spriteId))
+			{
+				if (sprite.getHeight() <= 0 || sprite.getWidth() <= 0)
+				{
+					continue;
+				}
+
+				SpriteExporter exporter = new SpriteExporter(sprite);
+				File png = new File(outDir, sprite.getId() + "-" + sprite.getFrame() + ".png");
+
+				exporter.exportTo(png);
+			}
+		}
+	}
+
 	@Override
 	public SpriteDefinition provide(int spriteId, int frameId)
 	{
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.collision;
+
+/**
+ * Collision flags of a tile, with the same values the client uses.
+ */
+final class CollisionFlags
+{
+	static final int BLOCK_MOVEMENT_NORTH_WEST = 0x1;
+	static final int BLOCK_MOVEMENT_NORTH = 0x2;
+	static final int BLOCK_MOVEMENT_NORTH_EAST = 0x4;
+	static final int BLOCK_MOVEMENT_EAST = 0x8;
+	static final int BLOCK_MOVEMENT_SOUTH_EAST = 0x10;
+	static final int BLOCK_MOVEMENT_SOUTH = 0x20;
+	static final int BLOCK_MOVEMENT_SOUTH_WEST = 0x40;
+	static final int BLOCK_MOVEMENT_WEST = 0x80;
+
+	static final int BLOCK_MOVEMENT_OBJECT = 0x100;
+	static final int BLOCK_MOVEMENT_FLOOR_DECORATION = 0x40000;
+	static final int BLOCK_MOVEMENT_FLOOR = 0x200000;
+	static final int BLOCK_MOVEMENT_FULL = BLOCK_MOVEMENT_OBJECT | BLOCK_MOVEMENT_FLOOR_DECORATION | BLOCK_MOVEMENT_FLOOR;
+
+	// Walls which block projectiles set the movement flags shifted up by this much
+	static final int LINE_OF_SIGHT_SHIFT = 9;
+
+	static final int BLOCK_LINE_OF_SIGHT_NORTH = BLOCK_MOVEMENT_NORTH << LINE_OF_SIGHT_SHIFT;
+	static final int BLOCK_LINE_OF_SIGHT_EAST = BLOCK_MOVEMENT_EAST << LINE_OF_SIGHT_SHIFT;
+	static final int BLOCK_LINE_OF_SIGHT_SOUTH = BLOCK_MOVEMENT_SOUTH << LINE_OF_SIGHT_SHIFT;
+	static final int BLOCK_LINE_OF_SIGHT_WEST = BLOCK_MOVEMENT_WEST << LINE_OF_SIGHT_SHIFT;
+	static final int BLOCK_LINE_OF_SIGHT_FULL = 0x20000;
+
+	private CollisionFlags()
+	{
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.collision;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import net.runelite.cache.region.Region;
+
+/**
+ * A movement map of the whole world, as written by {@link CollisionMapBuilder}.
+ * <p>
+ * Each tile has four bits: whether the edge to the tile north of it and to the tile
+ * east of it can be walked and seen across. The edges to the south and west are the
+ * north and east edges of the neighbouring tiles. Only regions which exist are stored,
+ * in fixed size chunks found through a table indexed by region, so a map file can be
+ * memory mapped and used without being read into the heap.
+ * <p>
+ * Diagonal steps are allowed when both ways around the corner can be walked, which is
+ * slightly stricter than the client for tiles with diagonal walls.
+ */
+public class CollisionMap
+{
+	static final int MAGIC = 0x524c434d;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 7 * Integer.BYTES;
+
+	static final int BITS_PER_TILE = 4;
+	static final int NORTH = 0;
+	static final int EAST = 1;
+	static final int SIGHT_NORTH = 2;
+	static final int SIGHT_EAST = 3;
+
+	static final int CHUNK_SIZE = Region.Z * Region.X * Region.Y * BITS_PER_TILE / Byte.SIZE;
+
+	private final ByteBuffer buffer;
+	private final int minRegionX;
+	private final int minRegionY;
+	private final int regionsWide;
+	private final int regionsHigh;
+	private final int dataOffset;
+
+	public CollisionMap(ByteBuffer buffer) throws IOException
+	{
+		this.buffer = buffer;
+
+		if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+		{
+			throw new IOException("not a collision map");
+		}
+
+		minRegionX = buffer.getInt(8);
+		minRegionY = buffer.getInt(12);
+		regionsWide = buffer.getInt(16);
+		regionsHigh = buffer.getInt(20);
+		dataOffset = HEADER_SIZE + regionsWide * regionsHigh * Integer.BYTES;
+	}
+
+	/**
+	 * Memory maps a collision map file
+	 *
+	 * @param file the file written by {@link CollisionMapBuilder#write(File)}
+	 * @return the collision map
+	 * @throws IOException
+	 */
+	public static CollisionMap load(File file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			// The mapping stays valid after the channel is closed
+			return new CollisionMap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	public boolean canMoveNorth(int x, int y, int z)
+	{
+		return get(x, y, z, NORTH);
+	}
+
+	public boolean canMoveSouth(int x, int y, int z)
+	{
+		return get(x, y - 1, z, NORTH);
+	}
+
+	public boolean canMoveEast(int x, int y, int z)
+	{
+		return get(x, y, z, EAST);
+	}
+
+	public boolean canMoveWest(int x, int y, int z)
+	{
+		return get(x - 1, y, z, EAST);
+	}
+
+	public boolean canSeeNorth(int x, int y, int z)
+	{
+		return get(x, y, z, SIGHT_NORTH);
+	}
+
+	public boolean canSeeEast(int x, int y, int z)
+	{
+		return get(x, y, z, SIGHT_EAST);
+	}
+
+	/**
+	 * Determines if a tile can be stepped from in a direction
+	 *
+	 * @param dx the x-axis direction to travel (-1, 0, or 1)
+	 * @param dy the y-axis direction to travel (-1, 0, or 1)
+	 */
+	public boolean canMove(int x, int y, int z, int dx, int dy)
+	{
+		final boolean horizontal = dx == 0 || (dx > 0 ? canMoveEast(x, y, z) : canMoveWest(x, y, z));
+		final boolean vertical = dy == 0 || (dy > 0 ? canMoveNorth(x, y, z) : canMoveSouth(x, y, z));
+
+		if (dx == 0 || dy == 0)
+		{
+			return horizontal && vertical;
+		}
+
+		// Both ways around the corner
+		return horizontal && vertical
+			&& (dy > 0 ? canMoveNorth(x + dx, y, z) : canMoveSouth(x + dx, y, z))
+			&& (dx > 0 ? canMoveEast(x, y + dy, z) : canMoveWest(x, y + dy, z));
+	}
+
+	private boolean get(int x, int y, int z, int bit)
+	{
+		if (x < 0 || y < 0 || z < 0 || z >= Region.Z)
+		{
+			return false;
+		}
+
+		final int regionX = (x >> 6) - minRegionX;
+		final int regionY = (y >> 6) - minRegionY;
+
+		if (regionX < 0 || regionY < 0 || regionX >= regionsWide || regionY >= regionsHigh)
+		{
+			return false;
+		}
+
+		final int chunk = buffer.getInt(HEADER_SIZE + (regionX * regionsHigh + regionY) * Integer.BYTES);
+		if (chunk == -1)
+		{
+			return false;
+		}
+
+		final int index = bitIndex(x & 63, y & 63, z, bit);
+		final int b = buffer.get(dataOffset + chunk * CHUNK_SIZE + (index >> 3));
+		return (b & (1 << (index & 7))) != 0;
+	}
+
+	static int bitIndex(int localX, int localY, int z, int bit)
+	{
+		return ((z * Region.X + localX) * Region.Y + localY) * BITS_PER_TILE + bit;
+	}
+}
@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.collision;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import net.runelite.cache.definitions.ObjectDefinition;
+import net.runelite.cache.region.Location;
+import net.runelite.cache.region.Region;
+import static net.runelite.cache.collision.CollisionFlags.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds a {@link CollisionMap} from the terrain and locations of every region.
+ * <p>
+ * The collision flags of each region are computed in parallel, the same way the
+ * client computes them when loading a scene. Walls and large objects near the edge
+ * of a region can flag tiles in a neighbouring region, which is done once all of the
+ * regions have been computed.
+ */
+public class CollisionMapBuilder
+{
+	private static final Logger logger = LoggerFactory.getLogger(CollisionMapBuilder.class);
+
+	private static final int LOCATION_TYPE_WALL_STRAIGHT = 0;
+	private static final int LOCATION_TYPE_WALL_DIAGONAL_CORNER = 1;
+	private static final int LOCATION_TYPE_WALL_CORNER = 2;
+	private static final int LOCATION_TYPE_WALL_SQUARE_CORNER = 3;
+	private static final int LOCATION_TYPE_WALL_DIAGONAL = 9;
+	private static final int LOCATION_TYPE_GAME_OBJECT = 10;
+	private static final int LOCATION_TYPE_ROOF_LAST = 21;
+	private static final int LOCATION_TYPE_FLOOR_DECORATION = 22;
+
+	private final IntFunction<ObjectDefinition> objects;
+	private final Map<Integer, int[][][]> flags = new ConcurrentHashMap<>();
+
+	/**
+	 * @param objects looks up object definitions by id, for example {@code objectManager::getObject}
+	 */
+	public CollisionMapBuilder(IntFunction<ObjectDefinition> objects)
+	{
+		this.objects = objects;
+	}
+
+	/**
+	 * Computes the collision flags of regions
+	 *
+	 * @param regions the regions, with their terrain and locations loaded
+	 */
+	public void build(Collection<Region> regions)
+	{
+		final ConcurrentLinkedQueue<long[]> overflow = new ConcurrentLinkedQueue<>();
+
+		long start = System.currentTimeMillis();
+		regions.parallelStream().forEach(region ->
+		{
+			final List<Long> outside = new ArrayList<>();
+			flags.put(region.getRegionID(), build(region, outside));
+
+			if (!outside.isEmpty())
+			{
+				overflow.add(outside.stream().mapToLong(Long::longValue).toArray());
+			}
+		});
+
+		for (long[] entries : overflow)
+		{
+			for (long entry : entries)
+			{
+				final int x = (int) (entry >>> 40);
+				final int y = (int) (entry >>> 24 & 0xFFFF);
+				final int z = (int) (entry >>> 22 & 0x3);
+				final int flag = (int) (entry & 0x3FFFFF);
+
+				final int[][][] regionFlags = flags.get(regionId(x, y));
+				if (regionFlags != null)
+				{
+					regionFlags[z][x & 63][y & 63] |= flag;
+				}
+			}
+		}
+
+		logger.debug("Computed collision flags of {} regions in {}ms", regions.size(), System.currentTimeMillis() - start);
+	}
+
+	private int[][][] build(Region region, List<Long> outside)
+	{
+		final int[][][] regionFlags = new int[Region.Z][Region.X][Region.Y];
+		final int baseX = region.getBaseX();
+		final int baseY = region.getBaseY();
+
+		final Flagger flagger = (x, y, z, flag) ->
+		{
+			final int localX = x - baseX;
+			final int localY = y - baseY;
+
+			if (localX >= 0 && localY >= 0 && localX < Region.X && localY < Region.Y)
+			{
+				regionFlags[z][localX][localY] |= flag;
+			}
+			else if (x >= 0 && y >= 0)
+			{
+				outside.add((long) x << 40 | (long) y << 24 | (long) z << 22 | flag);
+			}
+		};
+
+		for (int z = 0; z < Region.Z; ++z)
+		{
+			for (int x = 0; x < Region.X; ++x)
+			{
+				for (int y = 0; y < Region.Y; ++y)
+				{
+					if ((region.getTileSetting(z, x, y) & 1) == 0)
+					{
+						continue;
+					}
+
+					// Tiles under a bridge belong to the plane below
+					int plane = isBridge(region, x, y) ? z - 1 : z;
+					if (plane >= 0)
+					{
+						regionFlags[plane][x][y] |= BLOCK_MOVEMENT_FLOOR;
+					}
+				}
+			}
+		}
+
+		for (Location location : region.getLocations())
+		{
+			final int x = location.getPosition().getX();
+			final int y = location.getPosition().getY();
+			int z = location.getPosition().getZ();
+
+			if (isBridge(region, x - baseX, y - baseY))
+			{
+				--z;
+			}
+
+			if (z < 0)
+			{
+				continue;
+			}
+
+			final ObjectDefinition definition = objects.apply(location.getId());
+			if (definition == null)
+			{
+				continue;
+			}
+
+			addLocation(flagger, definition, location.getType(), location.getOrientation(), x, y, z);
+		}
+
+		return regionFlags;
+	}
+
+	private static boolean isBridge(Region region, int localX, int localY)
+	{
+		return (region.getTileSetting(1, localX, localY) & 2) != 0;
+	}
+
+	private static void addLocation(Flagger flagger, ObjectDefinition definition, int type, int orientation, int x, int y, int z)
+	{
+		final int interactType = definition.getInteractType();
+
+		if (type == LOCATION_TYPE_FLOOR_DECORATION)
+		{
+			if (interactType == 1)
+			{
+				flagger.flag(x, y, z, BLOCK_MOVEMENT_FLOOR_DECORATION);
+			}
+			return;
+		}
+
+		if (interactType == 0)
+		{
+			return;
+		}
+
+		final boolean blocksProjectile = definition.isBlocksProjectile();
+
+		if (type >= LOCATION_TYPE_WALL_STRAIGHT && type <= LOCATION_TYPE_WALL_SQUARE_CORNER)
+		{
+			addWall(flagger, type, orientation, x, y, z, 0);
+			if (blocksProjectile)
+			{
+				addWall(flagger, type, orientation, x, y, z, LINE_OF_SIGHT_SHIFT);
+			}
+		}
+		else if (type == LOCATION_TYPE_WALL_DIAGONAL || (type >= LOCATION_TYPE_GAME_OBJECT && type <= LOCATION_TYPE_ROOF_LAST))
+		{
+			int sizeX = definition.getSizeX();
+			int sizeY = definition.getSizeY();
+
+			if (orientation == 1 || orientation == 3)
+			{
+				sizeX = definition.getSizeY();
+				sizeY = definition.getSizeX();
+			}
+
+			final int flag = BLOCK_MOVEMENT_OBJECT | (blocksProjectile ? BLOCK_LINE_OF_SIGHT_FULL : 0);
+
+			for (int dx = 0; dx < sizeX; ++dx)
+			{
+				for (int dy = 0; dy < sizeY; ++dy)
+				{
+					flagger.flag(x + dx, y + dy, z, flag);
+				}
+			}
+		}
+	}
+
+	private static void addWall(Flagger flagger, int type, int orientation, int x, int y, int z, int shift)
+	{
+		if (type == LOCATION_TYPE_WALL_STRAIGHT)
+		{
+			switch (orientation)
+			{
+				case 0:
+					flagger.flag(x, y, z, BLOCK_MOVEMENT_WEST << shift);
+					flagger.flag(x - 1, y, z, BLOCK_MOVEMENT_EAST << shift);
+					break;
+				case 1:
+					flagger.flag(x, y, z, BLOCK_MOVEMENT_NORTH << shift);
+					flagger.flag(x, y + 1, z, BLOCK_MOVEMENT_SOUTH << shift);
+					break;
+				case 2:
+					flagger.flag(x, y, z, BLOCK_MOVEMENT_EAST << shift);
+					flagger.flag(x + 1, y, z, BLOCK_MOVEMENT_WEST << shift);
+					break;
+				case 3:
+					flagger.flag(x, y, z, BLOCK_MOVEMENT_SOUTH << shift);
+					flagger.flag(x, y - 1, z, BLOCK_MOVEMENT_NORTH << shift);
+					break;
+			}
+		}
+		else if (type == LOCATION_TYPE_WALL_DIAGONAL_CORNER || type == LOCATION_TYPE_WALL_SQUARE_CORNER)
+		{
+			switch (orientation)
+			{
+				case 0:
+					flagger.flag(x, y, z, BLOCK_MOVEMENT_NORTH_WEST << shift);
+					flagger.flag(x - 1, y + 1, z, BLOCK_MOVEMENT_SOUTH_EAST << shift);
+					break;
+				case 1:
+					flagger.flag(x, y, z, BLOCK_MOVEMENT_NORTH_EAST << shift);
+					flagger.flag(x + 1, y + 1, z, BLOCK_MOVEMENT_SOUTH_WEST << shift);
+					break;
+				case 2:
+					flagger.flag(x, y, z, BLOCK_MOVEMENT_SOUTH_EAST << shift);
+					flagger.flag(x + 1, y - 1, z, BLOCK_MOVEMENT_NORTH_WEST << shift);
+					break;
+				case 3:
+					flagger.flag(x, y, z, BLOCK_MOVEMENT_SOUTH_WEST << shift);
+					flagger.flag(x - 1, y - 1, z, BLOCK_MOVEMENT_NORTH_EAST << shift);
+					break;
+			}
+		}
+		else if (type == LOCATION_TYPE_WALL_CORNER)
+		{
+			switch (orientation)
+			{
+				case 0:
+					flagger.flag(x, y, z, (BLOCK_MOVEMENT_NORTH | BLOCK_MOVEMENT_WEST) << shift);
+					flagger.flag(x - 1, y, z, BLOCK_MOVEMENT_EAST << shift);
+					flagger.flag(x, y + 1, z, BLOCK_MOVEMENT_SOUTH << shift);
+					break;
+				case 1:
+					flagger.flag(x, y, z, (BLOCK_MOVEMENT_NORTH | BLOCK_MOVEMENT_EAST) << shift);
+					flagger.flag(x, y + 1, z, BLOCK_MOVEMENT_SOUTH << shift);
+					flagger.flag(x + 1, y, z, BLOCK_MOVEMENT_WEST << shift);
+					break;
+				case 2:
+					flagger.flag(x, y, z, (BLOCK_MOVEMENT_EAST | BLOCK_MOVEMENT_SOUTH) << shift);
+					flagger.flag(x + 1, y, z, BLOCK_MOVEMENT_WEST << shift);
+					flagger.flag(x, y - 1, z, BLOCK_MOVEMENT_NORTH << shift);
+					break;
+				case 3:
+					flagger.flag(x, y, z, (BLOCK_MOVEMENT_SOUTH | BLOCK_MOVEMENT_WEST) << shift);
+					flagger.flag(x, y - 1, z, BLOCK_MOVEMENT_NORTH << shift);
+					flagger.flag(x - 1, y, z, BLOCK_MOVEMENT_EAST << shift);
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Gets the collision flags of a tile
+	 *
+	 * @return the flags, or -1 if the tile is in a region which has not been built
+	 */
+	public int getFlags(int x, int y, int z)
+	{
+		final int[][][] regionFlags = flags.get(regionId(x, y));
+		return regionFlags == null ? -1 : regionFlags[z][x & 63][y & 63];
+	}
+
+	/**
+	 * Writes the movement map of the built regions
+	 *
+	 * @param file the file to write
+	 * @throws IOException
+	 */
+	public void write(File file) throws IOException
+	{
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+
+		for (int id : flags.keySet())
+		{
+			minX = Math.min(minX, id >> 8);
+			minY = Math.min(minY, id & 0xFF);
+			maxX = Math.max(maxX, id >> 8);
+			maxY = Math.max(maxY, id & 0xFF);
+		}
+
+		if (flags.isEmpty())
+		{
+			minX = minY = 0;
+			maxX = maxY = -1;
+		}
+
+		final int wide = maxX - minX + 1;
+		final int high = maxY - minY + 1;
+		final List<Integer> ids = new ArrayList<>(flags.keySet());
+		ids.sort(null);
+
+		// Encode the chunks in parallel, they only read the flags
+		final byte[][] chunks = new byte[ids.size()][];
+		IntStream.range(0, ids.size()).parallel().forEach(i -> chunks[i] = encode(ids.get(i)));
+
+		final int[] table = new int[wide * high];
+		Arrays.fill(table, -1);
+		for (int i = 0; i < ids.size(); ++i)
+		{
+			final int id = ids.get(i);
+			table[((id >> 8) - minX) * high + ((id & 0xFF) - minY)] = i;
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+		{
+			out.writeInt(CollisionMap.MAGIC);
+			out.writeInt(CollisionMap.VERSION);
+			out.writeInt(minX);
+			out.writeInt(minY);
+			out.writeInt(wide);
+			out.writeInt(high);
+			out.writeInt(ids.size());
+
+			for (int chunk : table)
+			{
+				out.writeInt(chunk);
+			}
+
+			for (byte[] chunk : chunks)
+			{
+				out.write(chunk);
+			}
+		}
+
+		logger.info("Wrote collision map of {} regions to {}", ids.size(), file);
+	}
+
+	private byte[] encode(int id)
+	{
+		final byte[] chunk = new byte[CollisionMap.CHUNK_SIZE];
+		final int baseX = (id >> 8) << 6;
+		final int baseY = (id & 0xFF) << 6;
+
+		for (int z = 0; z < Region.Z; ++z)
+		{
+			for (int x = 0; x < Region.X; ++x)
+			{
+				for (int y = 0; y < Region.Y; ++y)
+				{
+					final int worldX = baseX + x;
+					final int worldY = baseY + y;
+					final int here = getFlags(worldX, worldY, z);
+					final int north = getFlags(worldX, worldY + 1, z);
+					final int east = getFlags(worldX + 1, worldY, z);
+
+					set(chunk, x, y, z, CollisionMap.NORTH, passable(here, BLOCK_MOVEMENT_FULL | BLOCK_MOVEMENT_NORTH, north, BLOCK_MOVEMENT_FULL | BLOCK_MOVEMENT_SOUTH));
+					set(chunk, x, y, z, CollisionMap.EAST, passable(here, BLOCK_MOVEMENT_FULL | BLOCK_MOVEMENT_EAST, east, BLOCK_MOVEMENT_FULL | BLOCK_MOVEMENT_WEST));
+					set(chunk, x, y, z, CollisionMap.SIGHT_NORTH, passable(here, BLOCK_LINE_OF_SIGHT_FULL | BLOCK_LINE_OF_SIGHT_NORTH, north, BLOCK_LINE_OF_SIGHT_FULL | BLOCK_LINE_OF_SIGHT_SOUTH));
+					set(chunk, x, y, z, CollisionMap.SIGHT_EAST, passable(here, BLOCK_LINE_OF_SIGHT_FULL | BLOCK_LINE_OF_SIGHT_EAST, east, BLOCK_LINE_OF_SIGHT_FULL | BLOCK_LINE_OF_SIGHT_WEST));
+				}
+			}
+		}
+
+		return chunk;
+	}
+
+	private static boolean passable(int from, int fromMask, int to, int toMask)
+	{
+		// Tiles outside of the built regions are never passable
+		return from != -1 && to != -1 && (from & fromMask) == 0 && (to & toMask) == 0;
+	}
+
+	private static void set(byte[] chunk, int x, int y, int z, int bit, boolean value)
+	{
+		if (value)
+		{
+			final int index = CollisionMap.bitIndex(x, y, z, bit);
+			chunk[index >> 3] |= 1 << (index & 7);
+		}
+	}
+
+	private static int regionId(int x, int y)
+	{
+		return (x >> 6) << 8 | (y >> 6);
+	}
+
+	@FunctionalInterface
+	private interface Flagger
+	{
+		void flag(int x, int y, int z, int flag);
+	}
+}
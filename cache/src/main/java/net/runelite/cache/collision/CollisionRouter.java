@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.collision;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import net.runelite.cache.region.Position;
+
+/**
+ * Finds shortest walking paths on a {@link CollisionMap} with A*.
+ * <p>
+ * Diagonal steps cost the same as straight steps in game, so the heuristic is the
+ * chebyshev distance. Jump point search is not used, as its pruning assumes diagonal
+ * steps cost more than straight ones and would return paths which are not shortest
+ * here. Instead ties are broken towards the goal, which keeps the search narrow on
+ * open ground. Nodes are kept in open addressed primitive tables which are reused
+ * between searches. Paths do not change plane. This class is not thread safe.
+ */
+public class CollisionRouter
+{
+	private static final int DEFAULT_MAX_NODES = 1 << 20;
+	private static final int EMPTY = -1;
+
+	private static final int[] DX = {-1, 1, 0, 0, -1, 1, -1, 1};
+	private static final int[] DY = {0, 0, -1, 1, -1, -1, 1, 1};
+
+	private final CollisionMap map;
+	private final int maxNodes;
+
+	// Nodes by packed coordinate
+	private int[] keys;
+	private int[] costs;
+	private int[] parents;
+	private boolean[] closed;
+	private int mask;
+	private int size;
+
+	// Binary heap of node slots
+	private int[] heap;
+	private long[] heapKeys;
+	private int heapSize;
+
+	private int expanded;
+
+	public CollisionRouter(CollisionMap map)
+	{
+		this(map, DEFAULT_MAX_NODES);
+	}
+
+	/**
+	 * @param map      the collision map
+	 * @param maxNodes the most nodes to expand before giving up on a path
+	 */
+	public CollisionRouter(CollisionMap map, int maxNodes)
+	{
+		this.map = map;
+		this.maxNodes = maxNodes;
+		allocate(1 << 12);
+	}
+
+	/**
+	 * Gets the number of nodes expanded by the last search
+	 */
+	public int getExpanded()
+	{
+		return expanded;
+	}
+
+	/**
+	 * Finds a shortest path between two tiles on the same plane
+	 *
+	 * @return the tiles of the path not including the start, or null if there is none
+	 */
+	public List<Position> findPath(Position from, Position to)
+	{
+		if (from.getZ() != to.getZ())
+		{
+			return null;
+		}
+
+		final int z = from.getZ();
+		final int start = pack(from.getX(), from.getY());
+		final int goal = pack(to.getX(), to.getY());
+
+		reset();
+
+		final int startSlot = insert(start);
+		costs[startSlot] = 0;
+		parents[startSlot] = EMPTY;
+		push(startSlot, 0, heuristic(start, goal));
+
+		while (heapSize > 0)
+		{
+			final int slot = pop();
+
+			if (closed[slot])
+			{
+				continue;
+			}
+
+			closed[slot] = true;
+			final int node = keys[slot];
+
+			if (node == goal)
+			{
+				return buildPath(slot, z);
+			}
+
+			if (++expanded > maxNodes)
+			{
+				return null;
+			}
+
+			final int x = unpackX(node);
+			final int y = unpackY(node);
+			final int cost = costs[slot] + 1;
+
+			for (int d = 0; d < DX.length; ++d)
+			{
+				if (!map.canMove(x, y, z, DX[d], DY[d]))
+				{
+					continue;
+				}
+
+				final int next = pack(x + DX[d], y + DY[d]);
+				int nextSlot = find(next);
+
+				if (nextSlot == EMPTY)
+				{
+					nextSlot = insert(next);
+				}
+				else if (closed[nextSlot] || costs[nextSlot] <= cost)
+				{
+					continue;
+				}
+
+				costs[nextSlot] = cost;
+				parents[nextSlot] = slot;
+				push(nextSlot, cost, heuristic(next, goal));
+			}
+		}
+
+		return null;
+	}
+
+	private List<Position> buildPath(int slot, int z)
+	{
+		final int length = costs[slot];
+
+		if (length == 0)
+		{
+			return Collections.emptyList();
+		}
+
+		final Position[] path = new Position[length];
+		for (int i = length - 1; parents[slot] != EMPTY; --i)
+		{
+			path[i] = new Position(unpackX(keys[slot]), unpackY(keys[slot]), z);
+			slot = parents[slot];
+		}
+
+		return new ArrayList<>(Arrays.asList(path));
+	}
+
+	private static int heuristic(int node, int goal)
+	{
+		return Math.max(Math.abs(unpackX(node) - unpackX(goal)), Math.abs(unpackY(node) - unpackY(goal)));
+	}
+
+	private static int pack(int x, int y)
+	{
+		return x << 16 | y;
+	}
+
+	private static int unpackX(int node)
+	{
+		return node >>> 16;
+	}
+
+	private static int unpackY(int node)
+	{
+		return node & 0xFFFF;
+	}
+
+	private void allocate(int capacity)
+	{
+		keys = new int[capacity];
+		costs = new int[capacity];
+		parents = new int[capacity];
+		closed = new boolean[capacity];
+		heap = new int[capacity];
+		heapKeys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+	}
+
+	private void reset()
+	{
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(closed, false);
+		size = 0;
+		heapSize = 0;
+		expanded = 0;
+	}
+
+	private int find(int key)
+	{
+		for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask)
+		{
+			if (keys[slot] == key)
+			{
+				return slot;
+			}
+
+			if (keys[slot] == EMPTY)
+			{
+				return EMPTY;
+			}
+		}
+	}
+
+	private int insert(int key)
+	{
+		if (size * 2 >= keys.length)
+		{
+			grow();
+		}
+
+		int slot = hash(key) & mask;
+		while (keys[slot] != EMPTY)
+		{
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = key;
+		++size;
+		return slot;
+	}
+
+	private void grow()
+	{
+		final int[] oldKeys = keys;
+		final int[] oldCosts = costs;
+		final int[] oldParents = parents;
+		final boolean[] oldClosed = closed;
+		final int[] oldHeap = heap;
+		final long[] oldHeapKeys = heapKeys;
+		final int oldHeapSize = heapSize;
+
+		allocate(oldKeys.length * 2);
+
+		// Slots move, so remember where each old slot went to fix up parents and the heap
+		final int[] moved = new int[oldKeys.length];
+		for (int i = 0; i < oldKeys.length; ++i)
+		{
+			if (oldKeys[i] == EMPTY)
+			{
+				continue;
+			}
+
+			int slot = hash(oldKeys[i]) & mask;
+			while (keys[slot] != EMPTY)
+			{
+				slot = (slot + 1) & mask;
+			}
+
+			keys[slot] = oldKeys[i];
+			costs[slot] = oldCosts[i];
+			closed[slot] = oldClosed[i];
+			moved[i] = slot;
+		}
+
+		for (int i = 0; i < oldKeys.length; ++i)
+		{
+			if (oldKeys[i] != EMPTY)
+			{
+				parents[moved[i]] = oldParents[i] == EMPTY ? EMPTY : moved[oldParents[i]];
+			}
+		}
+
+		for (int i = 0; i < oldHeapSize; ++i)
+		{
+			heap[i] = moved[oldHeap[i]];
+			heapKeys[i] = oldHeapKeys[i];
+		}
+		heapSize = oldHeapSize;
+	}
+
+	private static int hash(int key)
+	{
+		return key * 0x9E3779B9 >>> 7;
+	}
+
+	private void push(int slot, int cost, int heuristic)
+	{
+		if (heapSize == heap.length)
+		{
+			heap = Arrays.copyOf(heap, heap.length * 2);
+			heapKeys = Arrays.copyOf(heapKeys, heapKeys.length * 2);
+		}
+
+		// Order by f, then prefer the node closest to the goal
+		final long key = (long) (cost + heuristic) << 32 | heuristic;
+		int i = heapSize++;
+
+		while (i > 0)
+		{
+			final int parent = (i - 1) >> 1;
+
+			if (heapKeys[parent] <= key)
+			{
+				break;
+			}
+
+			heap[i] = heap[parent];
+			heapKeys[i] = heapKeys[parent];
+			i = parent;
+		}
+
+		heap[i] = slot;
+		heapKeys[i] = key;
+	}
+
+	private int pop()
+	{
+		final int result = heap[0];
+		final int slot = heap[--heapSize];
+		final long key = heapKeys[heapSize];
+		int i = 0;
+
+		while (true)
+		{
+			int child = 2 * i + 1;
+
+			if (child >= heapSize)
+			{
+				break;
+			}
+
+			if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child])
+			{
+				++child;
+			}
+
+			if (heapKeys[child] >= key)
+			{
+				break;
+			}
+
+			heap[i] = heap[child];
+			heapKeys[i] = heapKeys[child];
+			i = child;
+		}
+
+		heap[i] = slot;
+		heapKeys[i] = key;
+		return result;
+	}
+}
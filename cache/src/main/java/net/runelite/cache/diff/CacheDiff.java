@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.diff;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import net.runelite.cache.fs.Store;
+
+/**
+ * The archives which differ between two caches, found by comparing their
+ * crcs and revisions
+ */
+public class CacheDiff
+{
+	private final List<ArchiveChange> changes;
+
+	private CacheDiff(List<ArchiveChange> changes)
+	{
+		this.changes = changes;
+	}
+
+	public static CacheDiff compare(Store from, Store to) throws IOException
+	{
+		CacheManifest fromManifest = CacheManifest.create(from);
+		return compare(fromManifest, CacheManifest.create(to, fromManifest));
+	}
+
+	/**
+	 * Compares two manifests
+	 *
+	 * @param from the old manifest, or null if there is none, in which
+	 *             case everything in the new manifest has been added
+	 * @param to   the new manifest
+	 * @return the changes between them
+	 */
+	public static CacheDiff compare(CacheManifest from, CacheManifest to)
+	{
+		List<ArchiveChange> changes = new ArrayList<>();
+
+		Set<Integer> indexes = new TreeSet<>(to.getIndexes().keySet());
+		if (from != null)
+		{
+			indexes.addAll(from.getIndexes().keySet());
+		}
+
+		for (int index : indexes)
+		{
+			Map<Integer, ArchiveEntry> fromArchives = from != null ? from.getArchives(index) : Collections.emptyMap();
+			Map<Integer, ArchiveEntry> toArchives = to.getArchives(index);
+
+			Set<Integer> archives = new TreeSet<>(fromArchives.keySet());
+			archives.addAll(toArchives.keySet());
+
+			for (int archive : archives)
+			{
+				ArchiveEntry fromEntry = fromArchives.get(archive);
+				ArchiveEntry toEntry = toArchives.get(archive);
+
+				if (fromEntry == null)
+				{
+					changes.add(new ArchiveChange(index, archive, toEntry.getNameHash(), ChangeType.ADDED, fileIds(toEntry)));
+				}
+				else if (toEntry == null)
+				{
+					changes.add(new ArchiveChange(index, archive, fromEntry.getNameHash(), ChangeType.REMOVED, fileIds(fromEntry)));
+				}
+				else if (!fromEntry.isSameArchive(toEntry))
+				{
+					changes.add(new ArchiveChange(index, archive, toEntry.getNameHash(), ChangeType.CHANGED, changedFiles(fromEntry, toEntry)));
+				}
+			}
+		}
+
+		return new CacheDiff(changes);
+	}
+
+	private static Set<Integer> fileIds(ArchiveEntry entry)
+	{
+		return entry.getFiles() != null ? Collections.unmodifiableSet(entry.getFiles().keySet()) : Collections.emptySet();
+	}
+
+	private static Set<Integer> changedFiles(ArchiveEntry from, ArchiveEntry to)
+	{
+		Map<Integer, Integer> fromFiles = from.getFiles();
+		Map<Integer, Integer> toFiles = to.getFiles();
+
+		if (fromFiles == null || toFiles == null)
+		{
+			Set<Integer> files = new TreeSet<>(fileIds(from));
+			files.addAll(fileIds(to));
+			return files;
+		}
+
+		Set<Integer> files = new TreeSet<>();
+		for (Map.Entry<Integer, Integer> entry : toFiles.entrySet())
+		{
+			if (!entry.getValue().equals(fromFiles.get(entry.getKey())))
+			{
+				files.add(entry.getKey());
+			}
+		}
+		for (Integer file : fromFiles.keySet())
+		{
+			if (!toFiles.containsKey(file))
+			{
+				files.add(file);
+			}
+		}
+		return files;
+	}
+
+	public boolean isEmpty()
+	{
+		return changes.isEmpty();
+	}
+
+	public List<ArchiveChange> getChanges()
+	{
+		return Collections.unmodifiableList(changes);
+	}
+
+	public List<ArchiveChange> getChanges(int index)
+	{
+		List<ArchiveChange> indexChanges = new ArrayList<>();
+		for (ArchiveChange change : changes)
+		{
+			if (change.getIndex() == index)
+			{
+				indexChanges.add(change);
+			}
+		}
+		return indexChanges;
+	}
+
+	public ArchiveChange getChange(int index, int archive)
+	{
+		for (ArchiveChange change : changes)
+		{
+			if (change.getIndex() == index && change.getArchive() == archive)
+			{
+				return change;
+			}
+		}
+		return null;
+	}
+
+	public boolean isChanged(int index)
+	{
+		for (ArchiveChange change : changes)
+		{
+			if (change.getIndex() == index)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public boolean isChanged(int index, int archive)
+	{
+		return getChange(index, archive) != null;
+	}
+
+	/**
+	 * Gets the ids of the archives of an index which have changed. For
+	 * indexes with one file per archive, such as sprites, these are the ids
+	 * of the changed definitions.
+	 */
+	public Set<Integer> getChangedArchives(int index)
+	{
+		Set<Integer> archives = new HashSet<>();
+		for (ArchiveChange change : changes)
+		{
+			if (change.getIndex() == index)
+			{
+				archives.add(change.getArchive());
+			}
+		}
+		return archives;
+	}
+
+	/**
+	 * Gets the ids of the files of an archive which have changed. For
+	 * config archives, these are the ids of the changed definitions.
+	 */
+	public Set<Integer> getChangedFiles(int index, int archive)
+	{
+		ArchiveChange change = getChange(index, archive);
+		return change != null ? change.getFiles() : Collections.emptySet();
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.diff;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.FSFile;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.util.Crc32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A record of the crc and revision of every archive in a store, which can be
+ * saved between runs so the next run only has to process what has changed
+ */
+public class CacheManifest
+{
+	private static final Logger logger = LoggerFactory.getLogger(CacheManifest.class);
+
+	private static final Type TYPE = new TypeToken<Map<Integer, Map<Integer, ArchiveEntry>>>()
+	{
+	}.getType();
+
+	// index id -> archive id -> entry
+	private final Map<Integer, Map<Integer, ArchiveEntry>> indexes;
+
+	private CacheManifest(Map<Integer, Map<Integer, ArchiveEntry>> indexes)
+	{
+		this.indexes = indexes;
+	}
+
+	public static CacheManifest create(Store store) throws IOException
+	{
+		return create(store, null);
+	}
+
+	/**
+	 * Creates the manifest of a store. The file crcs of archives which are
+	 * unchanged from the previous manifest are copied from it, so only
+	 * changed archives are loaded.
+	 *
+	 * @param store    the store
+	 * @param previous the previous manifest of the store, or null
+	 * @return the manifest
+	 * @throws IOException
+	 */
+	public static CacheManifest create(Store store, CacheManifest previous) throws IOException
+	{
+		Map<Integer, Map<Integer, ArchiveEntry>> indexes = new TreeMap<>();
+		int loaded = 0;
+
+		for (Index index : store.getIndexes())
+		{
+			Map<Integer, ArchiveEntry> archives = new TreeMap<>();
+
+			for (Archive archive : index.getArchives())
+			{
+				ArchiveEntry entry = new ArchiveEntry();
+				entry.setCrc(archive.getCrc());
+				entry.setRevision(archive.getRevision());
+				entry.setNameHash(archive.getNameHash());
+
+				if (archive.getFileData() != null && archive.getFileData().length > 1)
+				{
+					ArchiveEntry old = previous != null ? previous.getArchive(index.getId(), archive.getArchiveId()) : null;
+					if (old != null && old.isSameArchive(entry) && old.getFiles() != null)
+					{
+						entry.setFiles(old.getFiles());
+					}
+					else
+					{
+						entry.setFiles(hashFiles(store, archive));
+						++loaded;
+					}
+				}
+
+				archives.put(archive.getArchiveId(), entry);
+			}
+
+			indexes.put(index.getId(), archives);
+		}
+
+		logger.debug("Created manifest, loaded {} archives", loaded);
+		return new CacheManifest(indexes);
+	}
+
+	private static Map<Integer, Integer> hashFiles(Store store, Archive archive) throws IOException
+	{
+		byte[] data = store.getStorage().loadArchive(archive);
+		if (data == null)
+		{
+			return null;
+		}
+
+		ArchiveFiles files;
+		try
+		{
+			files = archive.getFiles(data);
+		}
+		catch (IOException ex)
+		{
+			// probably encrypted, so changes are only tracked by archive
+			logger.debug("Unable to load files of archive {}/{}", archive.getIndex().getId(), archive.getArchiveId(), ex);
+			return null;
+		}
+
+		Map<Integer, Integer> hashes = new TreeMap<>();
+		for (FSFile file : files.getFiles())
+		{
+			byte[] contents = file.getContents();
+			Crc32 crc = new Crc32();
+			crc.update(contents, 0, contents.length);
+			hashes.put(file.getFileId(), crc.getHash());
+		}
+		return hashes;
+	}
+
+	public static CacheManifest load(File file) throws IOException
+	{
+		try (Reader reader = new FileReader(file))
+		{
+			Map<Integer, Map<Integer, ArchiveEntry>> indexes = new Gson().fromJson(reader, TYPE);
+			return new CacheManifest(indexes != null ? indexes : new TreeMap<>());
+		}
+	}
+
+	public void save(File file) throws IOException
+	{
+		try (Writer writer = new FileWriter(file))
+		{
+			new Gson().toJson(indexes, TYPE, writer);
+		}
+	}
+
+	public Map<Integer, Map<Integer, ArchiveEntry>> getIndexes()
+	{
+		return Collections.unmodifiableMap(indexes);
+	}
+
+	public Map<Integer, ArchiveEntry> getArchives(int index)
+	{
+		Map<Integer, ArchiveEntry> archives = indexes.get(index);
+		return archives != null ? Collections.unmodifiableMap(archives) : Collections.emptyMap();
+	}
+
+	public ArchiveEntry getArchive(int index, int archive)
+	{
+		return getArchives(index).get(archive);
+	}
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.export;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.FSFile;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Storage;
+import net.runelite.cache.fs.Store;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exports definitions from a cache as a pipeline. Archives are read from
+ * the store on the calling thread, unpacked and decoded in parallel, and
+ * written in batches by a single writer thread. Each stage is bounded, so
+ * a slow stage holds back the stages before it rather than buffering the
+ * whole cache in memory.
+ */
+public class CacheExporter
+{
+	private static final Logger logger = LoggerFactory.getLogger(CacheExporter.class);
+
+	/**
+	 * Number of files of an archive decoded by one task
+	 */
+	private static final int DECODE_BATCH_SIZE = 256;
+
+	private static final long PROGRESS_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+
+	/**
+	 * Tells the writer thread there is nothing more to write
+	 */
+	private static final List<ExportEntry> END = Collections.emptyList();
+
+	private final Store store;
+	private final int threads;
+
+	private final StageStats readStats = new StageStats("read", "archives");
+	private final StageStats decodeStats = new StageStats("decode", "files");
+	private final StageStats writeStats = new StageStats("write", "files");
+
+	private ThreadPoolExecutor decoder;
+	private BlockingQueue<List<ExportEntry>> writeQueue;
+	private final Phaser pending = new Phaser(1);
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+	public CacheExporter(Store store, int threads)
+	{
+		this.store = store;
+		this.threads = threads;
+	}
+
+	/**
+	 * Exports the given types of definitions. An exporter can only export once.
+	 *
+	 * @param types  the types to export
+	 * @param writer where to write the exported files to
+	 * @throws IOException
+	 */
+	public void export(Collection<ExportType> types, ExportWriter writer) throws IOException
+	{
+		if (decoder != null)
+		{
+			throw new IllegalStateException("already exported");
+		}
+
+		long start = System.nanoTime();
+
+		decoder = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+		writeQueue = new ArrayBlockingQueue<>(threads * 4);
+
+		Thread writerThread = new Thread(() -> write(writer, start), "cache export writer");
+		writerThread.start();
+
+		try
+		{
+			read(types);
+		}
+		finally
+		{
+			// every decode must finish before the writer is told to stop
+			pending.arriveAndAwaitAdvance();
+			decoder.shutdown();
+
+			Uninterruptibles.putUninterruptibly(writeQueue, END);
+			Uninterruptibles.joinUninterruptibly(writerThread);
+		}
+
+		Throwable ex = failure.get();
+		if (ex instanceof IOException)
+		{
+			throw (IOException) ex;
+		}
+		if (ex instanceof RuntimeException)
+		{
+			throw (RuntimeException) ex;
+		}
+		if (ex instanceof Error)
+		{
+			throw (Error) ex;
+		}
+
+		long wallNanos = System.nanoTime() - start;
+		logger.info("Exported {} files in {} ms with {} threads",
+			writeStats.getCount(), TimeUnit.NANOSECONDS.toMillis(wallNanos), threads);
+		for (StageStats stats : getStats())
+		{
+			logger.info(stats.format(wallNanos));
+		}
+	}
+
+	public List<StageStats> getStats()
+	{
+		return Collections.unmodifiableList(Lists.newArrayList(readStats, decodeStats, writeStats));
+	}
+
+	private void read(Collection<ExportType> types) throws IOException
+	{
+		Storage storage = store.getStorage();
+
+		for (ExportType type : types)
+		{
+			Index index = store.findIndex(type.getIndex().getNumber());
+			if (index == null)
+			{
+				logger.warn("Cache has no index {}, not exporting {}", type.getIndex(), type);
+				continue;
+			}
+
+			for (Archive archive : index.getArchives())
+			{
+				if (failure.get() != null)
+				{
+					return;
+				}
+
+				if (!type.isExported(archive))
+				{
+					continue;
+				}
+
+				long start = System.nanoTime();
+				byte[] data = storage.loadArchive(archive);
+				if (data == null)
+				{
+					continue;
+				}
+				readStats.record(1, data.length, System.nanoTime() - start);
+
+				submit(() -> unpack(type, archive, data));
+			}
+		}
+	}
+
+	private void unpack(ExportType type, Archive archive, byte[] data) throws IOException
+	{
+		long start = System.nanoTime();
+		List<FSFile> files = archive.getFiles(data).getFiles();
+		decodeStats.record(0, 0, System.nanoTime() - start);
+
+		// large archives, such as the item configs, are decoded by many tasks
+		for (List<FSFile> batch : Lists.partition(files, DECODE_BATCH_SIZE))
+		{
+			submit(() -> decode(type, archive, batch));
+		}
+	}
+
+	private void decode(ExportType type, Archive archive, List<FSFile> files) throws IOException
+	{
+		long start = System.nanoTime();
+		long bytes = 0;
+
+		List<ExportEntry> entries = new ArrayList<>(files.size());
+		for (FSFile file : files)
+		{
+			ExportEntry entry = type.export(archive, file);
+			entries.add(entry);
+			bytes += entry.getData().length;
+		}
+
+		decodeStats.record(entries.size(), bytes, System.nanoTime() - start);
+		Uninterruptibles.putUninterruptibly(writeQueue, entries);
+	}
+
+	private void submit(DecodeTask task)
+	{
+		pending.register();
+		decoder.execute(() ->
+		{
+			try
+			{
+				if (failure.get() == null)
+				{
+					task.run();
+				}
+			}
+			catch (IOException | RuntimeException | Error ex)
+			{
+				failure.compareAndSet(null, ex);
+			}
+			finally
+			{
+				pending.arriveAndDeregister();
+			}
+		});
+	}
+
+	private void write(ExportWriter writer, long start)
+	{
+		long lastProgress = start;
+		List<List<ExportEntry>> batches = new ArrayList<>();
+
+		for (;;)
+		{
+			batches.add(Uninterruptibles.takeUninterruptibly(writeQueue));
+			// write everything which is ready together
+			writeQueue.drainTo(batches);
+
+			boolean end = batches.removeIf(batch -> batch == END);
+			if (failure.get() == null)
+			{
+				write(writer, batches);
+			}
+			batches.clear();
+
+			if (end)
+			{
+				break;
+			}
+
+			long now = System.nanoTime();
+			if (now - lastProgress >= PROGRESS_INTERVAL)
+			{
+				lastProgress = now;
+				logger.info("Exported {} files, {}", writeStats.getCount(), decodeStats.format(now - start));
+			}
+		}
+	}
+
+	private void write(ExportWriter writer, List<List<ExportEntry>> batches)
+	{
+		long start = System.nanoTime();
+		long count = 0;
+		long bytes = 0;
+
+		try
+		{
+			for (List<ExportEntry> batch : batches)
+			{
+				writer.write(batch);
+
+				count += batch.size();
+				for (ExportEntry entry : batch)
+				{
+					bytes += entry.getData().length;
+				}
+			}
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			failure.compareAndSet(null, ex);
+		}
+
+		writeStats.record(count, bytes, System.nanoTime() - start);
+	}
+
+	@FunctionalInterface
+	private interface DecodeTask
+	{
+		void run() throws IOException;
+	}
+}
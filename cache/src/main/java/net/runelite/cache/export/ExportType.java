@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.export;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import net.runelite.cache.ConfigType;
+import net.runelite.cache.IndexType;
+import net.runelite.cache.definitions.loaders.InterfaceLoader;
+import net.runelite.cache.definitions.loaders.ItemLoader;
+import net.runelite.cache.definitions.loaders.NpcLoader;
+import net.runelite.cache.definitions.loaders.ObjectLoader;
+import net.runelite.cache.definitions.loaders.ScriptLoader;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.FSFile;
+import net.runelite.cache.script.disassembler.Disassembler;
+
+/**
+ * The kinds of definitions which can be exported, and how each file of
+ * their archives is decoded. Decoding must be thread safe, as files are
+ * decoded in parallel.
+ */
+public enum ExportType
+{
+	ITEMS(IndexType.CONFIGS, ConfigType.ITEM)
+	{
+		@Override
+		ExportEntry export(Archive archive, FSFile file)
+		{
+			return json("items/" + file.getFileId(), new ItemLoader().load(file.getFileId(), file.getContents()));
+		}
+	},
+	NPCS(IndexType.CONFIGS, ConfigType.NPC)
+	{
+		@Override
+		ExportEntry export(Archive archive, FSFile file)
+		{
+			return json("npcs/" + file.getFileId(), new NpcLoader().load(file.getFileId(), file.getContents()));
+		}
+	},
+	OBJECTS(IndexType.CONFIGS, ConfigType.OBJECT)
+	{
+		@Override
+		ExportEntry export(Archive archive, FSFile file)
+		{
+			return json("objects/" + file.getFileId(), new ObjectLoader().load(file.getFileId(), file.getContents()));
+		}
+	},
+	INTERFACES(IndexType.INTERFACES, null)
+	{
+		@Override
+		ExportEntry export(Archive archive, FSFile file)
+		{
+			int widgetId = (archive.getArchiveId() << 16) + file.getFileId();
+			return json("interfaces/" + archive.getArchiveId() + "/" + file.getFileId(),
+				new InterfaceLoader().load(widgetId, file.getContents()));
+		}
+	},
+	SCRIPTS(IndexType.CLIENTSCRIPT, null)
+	{
+		@Override
+		ExportEntry export(Archive archive, FSFile file) throws IOException
+		{
+			String script = DISASSEMBLER.disassemble(new ScriptLoader().load(archive.getArchiveId(), file.getContents()));
+			return new ExportEntry("scripts/" + archive.getArchiveId() + ".rs2asm", script.getBytes(StandardCharsets.UTF_8));
+		}
+	};
+
+	private static final Gson GSON = new GsonBuilder()
+		.setPrettyPrinting()
+		.create();
+
+	private static final Disassembler DISASSEMBLER = new Disassembler();
+
+	private final IndexType index;
+	private final ConfigType config;
+
+	ExportType(IndexType index, ConfigType config)
+	{
+		this.index = index;
+		this.config = config;
+	}
+
+	public IndexType getIndex()
+	{
+		return index;
+	}
+
+	/**
+	 * Checks if an archive of this type's index is exported
+	 *
+	 * @param archive
+	 * @return
+	 */
+	public boolean isExported(Archive archive)
+	{
+		return config == null || archive.getArchiveId() == config.getId();
+	}
+
+	/**
+	 * Decodes and exports a file of an archive
+	 *
+	 * @param archive the archive the file is in
+	 * @param file    the file
+	 * @return the export of the file
+	 * @throws IOException
+	 */
+	abstract ExportEntry export(Archive archive, FSFile file) throws IOException;
+
+	private static ExportEntry json(String path, Object definition)
+	{
+		return new ExportEntry(path + ".json", GSON.toJson(definition).getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.export;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of a stage of an export
+ */
+public class StageStats
+{
+	private final String name;
+	private final String unit;
+
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong bytes = new AtomicLong();
+	private final AtomicLong nanos = new AtomicLong();
+
+	StageStats(String name, String unit)
+	{
+		this.name = name;
+		this.unit = unit;
+	}
+
+	void record(long count, long bytes, long nanos)
+	{
+		this.count.addAndGet(count);
+		this.bytes.addAndGet(bytes);
+		this.nanos.addAndGet(nanos);
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public long getCount()
+	{
+		return count.get();
+	}
+
+	public long getBytes()
+	{
+		return bytes.get();
+	}
+
+	/**
+	 * Gets the time spent in this stage, summed over all of its threads
+	 *
+	 * @return
+	 */
+	public long getNanos()
+	{
+		return nanos.get();
+	}
+
+	/**
+	 * Formats the throughput of this stage over the given wall clock time
+	 *
+	 * @param wallNanos
+	 * @return
+	 */
+	public String format(long wallNanos)
+	{
+		double seconds = Math.max(wallNanos, 1) / 1e9;
+		double megabytes = getBytes() / (1024.0 * 1024.0);
+		return String.format("%s: %d %s, %.1f MB, %.1f MB/s, %.0f %s/s, %d ms busy",
+			name, getCount(), unit, megabytes, megabytes / seconds, getCount() / seconds, unit,
+			TimeUnit.NANOSECONDS.toMillis(getNanos()));
+	}
+}
@@ -45,7 +45,7 @@ public class RegionLoader
 {
 	private static final Logger logger = LoggerFactory.getLogger(RegionLoader.class);
 
-	private static final int MAX_REGION = 32768;
+	public static final int MAX_REGION = 32768;
 
 	private final Store store;
 	private final Index index;
@@ -27,6 +27,9 @@ package net.runelite.cache;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
 import javax.imageio.ImageIO;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.region.Region;
@@ -97,4 +100,76 @@ public class MapImageDumperTest
 			}
 		}
 	}
+
+	@Test
+	@Ignore
+	public void dumpTiles() throws IOException
+	{
+		File base = StoreLocation.LOCATION,
+			outDir = folder.newFolder();
+
+		try (Store store = new Store(base))
+		{
+			store.load();
+
+			MapImageDumper dumper = new MapImageDumper(store);
+			dumper.load();
+
+			for (int i = 0; i < Region.Z; ++i)
+			{
+				dumper.drawTiles(i, new File(outDir, Integer.toString(i)), 6);
+			}
+
+			logger.info("Wrote tiles to {}", outDir);
+		}
+	}
+
+	@Test
+	@Ignore
+	public void benchmarkTiles() throws IOException
+	{
+		File base = StoreLocation.LOCATION,
+			outDir = folder.newFolder();
+
+		try (Store store = new Store(base))
+		{
+			store.load();
+
+			MapImageDumper dumper = new MapImageDumper(store);
+			dumper.load();
+
+			resetPeakHeap();
+			long start = System.nanoTime();
+			ImageIO.write(dumper.drawMap(0), "png", new File(outDir, "img-0.png"));
+			logger.info("Full image: {}ms, peak heap {} MB", (System.nanoTime() - start) / 1_000_000, getPeakHeap() / 1024 / 1024);
+
+			resetPeakHeap();
+			start = System.nanoTime();
+			dumper.drawTiles(0, new File(outDir, "tiles"), 6);
+			logger.info("Tiles with {} threads: {}ms, peak heap {} MB", dumper.getThreads(),
+				(System.nanoTime() - start) / 1_000_000, getPeakHeap() / 1024 / 1024);
+		}
+	}
+
+	private static void resetPeakHeap()
+	{
+		System.gc();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+		{
+			pool.resetPeakUsage();
+		}
+	}
+
+	private static long getPeakHeap()
+	{
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+		{
+			if (pool.getType() == MemoryType.HEAP)
+			{
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
 }
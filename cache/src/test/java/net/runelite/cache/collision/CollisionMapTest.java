@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.collision;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import net.runelite.cache.ObjectManager;
+import net.runelite.cache.StoreLocation;
+import net.runelite.cache.definitions.LocationsDefinition;
+import net.runelite.cache.definitions.MapDefinition;
+import net.runelite.cache.definitions.ObjectDefinition;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.region.Location;
+import net.runelite.cache.region.Position;
+import net.runelite.cache.region.Region;
+import net.runelite.cache.region.RegionLoader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class CollisionMapTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(CollisionMapTest.class);
+
+	private static final int REGION_X = 50;
+	private static final int REGION_Y = 50;
+	private static final int BASE_X = REGION_X << 6;
+	private static final int BASE_Y = REGION_Y << 6;
+
+	private static final int WALL = 1;
+	private static final int BOULDER = 2;
+	private static final int FENCE = 3;
+
+	@Rule
+	public TemporaryFolder folder = StoreLocation.getTemporaryFolder();
+
+	@Test
+	public void testWalls() throws IOException
+	{
+		LocationsDefinition locations = new LocationsDefinition();
+		for (int x = 10; x <= 20; ++x)
+		{
+			// Wall along the north side of y = 10
+			locations.getLocations().add(new Location(WALL, 0, 1, new Position(x, 10, 0)));
+		}
+
+		CollisionMap map = build(locations);
+
+		assertFalse(map.canMoveNorth(BASE_X + 15, BASE_Y + 10, 0));
+		assertFalse(map.canMoveSouth(BASE_X + 15, BASE_Y + 11, 0));
+		assertTrue(map.canMoveNorth(BASE_X + 9, BASE_Y + 10, 0));
+		assertTrue(map.canMoveEast(BASE_X + 15, BASE_Y + 10, 0));
+		assertFalse(map.canSeeNorth(BASE_X + 15, BASE_Y + 10, 0));
+
+		// Corners can not be cut around the end of the wall
+		assertFalse(map.canMove(BASE_X + 21, BASE_Y + 10, 0, -1, 1));
+		assertTrue(map.canMove(BASE_X + 21, BASE_Y + 10, 0, 1, 1));
+
+		// Other planes are untouched
+		assertTrue(map.canMoveNorth(BASE_X + 15, BASE_Y + 10, 1));
+	}
+
+	@Test
+	public void testObjects() throws IOException
+	{
+		LocationsDefinition locations = new LocationsDefinition();
+		locations.getLocations().add(new Location(BOULDER, 10, 0, new Position(30, 30, 0)));
+		locations.getLocations().add(new Location(FENCE, 10, 1, new Position(40, 40, 0)));
+
+		CollisionMap map = build(locations);
+
+		// 2x2 boulder at 30,30 which blocks sight
+		assertFalse(map.canMoveEast(BASE_X + 29, BASE_Y + 31, 0));
+		assertFalse(map.canMoveSouth(BASE_X + 31, BASE_Y + 32, 0));
+		assertTrue(map.canMoveEast(BASE_X + 29, BASE_Y + 32, 0));
+		assertFalse(map.canSeeEast(BASE_X + 29, BASE_Y + 30, 0));
+
+		// 3x1 fence rotated to 1x3 which does not block sight
+		assertFalse(map.canMoveNorth(BASE_X + 40, BASE_Y + 39, 0));
+		assertFalse(map.canMoveNorth(BASE_X + 40, BASE_Y + 41, 0));
+		assertTrue(map.canMoveEast(BASE_X + 41, BASE_Y + 40, 0));
+		assertTrue(map.canSeeNorth(BASE_X + 40, BASE_Y + 39, 0));
+
+		// Nothing leaves the region
+		assertFalse(map.canMoveWest(BASE_X, BASE_Y, 0));
+		assertFalse(map.canMoveNorth(BASE_X, BASE_Y + 63, 0));
+	}
+
+	@Test
+	public void testRouter() throws IOException
+	{
+		LocationsDefinition locations = new LocationsDefinition();
+		Random random = new Random(42);
+		for (int i = 0; i < 600; ++i)
+		{
+			int type = random.nextBoolean() ? 0 : 10;
+			locations.getLocations().add(new Location(type == 0 ? WALL : BOULDER, type, random.nextInt(4),
+				new Position(random.nextInt(64), random.nextInt(64), 0)));
+		}
+
+		CollisionMap map = build(locations);
+		CollisionRouter router = new CollisionRouter(map);
+
+		for (int i = 0; i < 50; ++i)
+		{
+			Position from = new Position(BASE_X + random.nextInt(64), BASE_Y + random.nextInt(64), 0);
+			Position to = new Position(BASE_X + random.nextInt(64), BASE_Y + random.nextInt(64), 0);
+
+			int expected = distance(map, from, to);
+			List<Position> path = router.findPath(from, to);
+
+			if (expected == -1)
+			{
+				assertNull(path);
+				continue;
+			}
+
+			assertNotNull(path);
+			assertEquals(expected, path.size());
+
+			Position previous = from;
+			for (Position step : path)
+			{
+				assertTrue(map.canMove(previous.getX(), previous.getY(), 0,
+					step.getX() - previous.getX(), step.getY() - previous.getY()));
+				previous = step;
+			}
+			assertEquals(to, previous);
+		}
+	}
+
+	@Test
+	public void testRouterAroundWall() throws IOException
+	{
+		LocationsDefinition locations = new LocationsDefinition();
+		for (int x = 0; x < 64; ++x)
+		{
+			if (x != 32)
+			{
+				locations.getLocations().add(new Location(WALL, 0, 1, new Position(x, 30, 0)));
+			}
+		}
+
+		CollisionMap map = build(locations);
+		CollisionRouter router = new CollisionRouter(map);
+
+		Position from = new Position(BASE_X + 10, BASE_Y + 20, 0);
+		Position to = new Position(BASE_X + 10, BASE_Y + 40, 0);
+		List<Position> path = router.findPath(from, to);
+
+		assertNotNull(path);
+		// Up to the gap, straight through it and back
+		assertEquals(22 + 1 + 22, path.size());
+		assertTrue(path.contains(new Position(BASE_X + 32, BASE_Y + 31, 0)));
+
+		assertEquals(Collections.emptyList(), router.findPath(from, from));
+		assertNull(router.findPath(from, new Position(BASE_X + 10, BASE_Y + 40, 1)));
+		assertNull(new CollisionRouter(map, 100).findPath(from, to));
+	}
+
+	@Test
+	@Ignore
+	public void dumpCollisionMap() throws IOException
+	{
+		File out = folder.newFile();
+
+		try (Store store = new Store(StoreLocation.LOCATION))
+		{
+			store.load();
+
+			ObjectManager objectManager = new ObjectManager(store);
+			objectManager.load();
+
+			RegionLoader regionLoader = new RegionLoader(store);
+			regionLoader.loadRegions();
+
+			CollisionMapBuilder builder = new CollisionMapBuilder(objectManager::getObject);
+			builder.build(regionLoader.getRegions());
+			builder.write(out);
+		}
+
+		CollisionMap map = CollisionMap.load(out);
+		CollisionRouter router = new CollisionRouter(map);
+
+		// Lumbridge to Draynor
+		long start = System.nanoTime();
+		List<Position> path = router.findPath(new Position(3222, 3218, 0), new Position(3093, 3244, 0));
+		long end = System.nanoTime();
+
+		logger.info("Wrote collision map of {} bytes to {}, path of {} tiles found in {}us expanding {} nodes",
+			out.length(), out, path == null ? -1 : path.size(), (end - start) / 1000, router.getExpanded());
+	}
+
+	private CollisionMap build(LocationsDefinition locations) throws IOException
+	{
+		MapDefinition mapDefinition = new MapDefinition();
+		MapDefinition.Tile[][][] tiles = mapDefinition.getTiles();
+		for (int z = 0; z < Region.Z; ++z)
+		{
+			for (int x = 0; x < Region.X; ++x)
+			{
+				for (int y = 0; y < Region.Y; ++y)
+				{
+					tiles[z][x][y] = new MapDefinition.Tile();
+				}
+			}
+		}
+
+		Region region = new Region(REGION_X, REGION_Y);
+		region.loadTerrain(mapDefinition);
+		region.loadLocations(locations);
+
+		CollisionMapBuilder builder = new CollisionMapBuilder(CollisionMapTest::getObject);
+		builder.build(Collections.singletonList(region));
+
+		File file = folder.newFile();
+		builder.write(file);
+		return CollisionMap.load(file);
+	}
+
+	private static ObjectDefinition getObject(int id)
+	{
+		ObjectDefinition definition = new ObjectDefinition();
+		definition.setId(id);
+
+		switch (id)
+		{
+			case BOULDER:
+				definition.setSizeX(2);
+				definition.setSizeY(2);
+				break;
+			case FENCE:
+				definition.setSizeX(3);
+				definition.setBlocksProjectile(false);
+				break;
+		}
+
+		return definition;
+	}
+
+	/**
+	 * Breadth first search distance to check the router against
+	 */
+	private static int distance(CollisionMap map, Position from, Position to)
+	{
+		int[] distances = new int[64 * 64];
+		Arrays.fill(distances, -1);
+
+		Deque<Integer> queue = new ArrayDeque<>();
+		int start = (from.getX() - BASE_X) * 64 + (from.getY() - BASE_Y);
+		distances[start] = 0;
+		queue.add(start);
+
+		while (!queue.isEmpty())
+		{
+			int tile = queue.poll();
+			int x = BASE_X + tile / 64;
+			int y = BASE_Y + tile % 64;
+
+			for (int dx = -1; dx <= 1; ++dx)
+			{
+				for (int dy = -1; dy <= 1; ++dy)
+				{
+					if ((dx != 0 || dy != 0) && map.canMove(x, y, 0, dx, dy))
+					{
+						int next = tile + dx * 64 + dy;
+						if (distances[next] == -1)
+						{
+							distances[next] = distances[tile] + 1;
+							queue.add(next);
+						}
+					}
+				}
+			}
+		}
+
+		return distances[(to.getX() - BASE_X) * 64 + (to.getY() - BASE_Y)];
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.diff;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import net.runelite.cache.StoreLocation;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.FSFile;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.index.FileData;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CacheDiffTest
+{
+	@Rule
+	public TemporaryFolder folder = StoreLocation.getTemporaryFolder();
+
+	@Test
+	public void testCompare() throws IOException
+	{
+		try (Store from = new Store(folder.newFolder());
+			Store to = new Store(folder.newFolder()))
+		{
+			addArchive(from, 2, 10, "a", "b", "c");
+			addArchive(from, 2, 11, "d", "e");
+			addArchive(from, 8, 1, "sprite");
+			addArchive(from, 8, 2, "removed");
+
+			addArchive(to, 2, 10, "a", "changed", "c", "added");
+			addArchive(to, 2, 11, "d", "e");
+			addArchive(to, 8, 1, "sprite");
+			addArchive(to, 8, 3, "added");
+
+			CacheDiff diff = CacheDiff.compare(from, to);
+			assertEquals(3, diff.getChanges().size());
+
+			ArchiveChange change = diff.getChange(2, 10);
+			assertEquals(ChangeType.CHANGED, change.getType());
+			assertEquals(ImmutableSet.of(1, 3), diff.getChangedFiles(2, 10));
+
+			assertFalse(diff.isChanged(2, 11));
+			assertEquals(Collections.emptySet(), diff.getChangedFiles(2, 11));
+
+			assertEquals(ChangeType.REMOVED, diff.getChange(8, 2).getType());
+			assertEquals(ChangeType.ADDED, diff.getChange(8, 3).getType());
+			assertEquals(ImmutableSet.of(2, 3), diff.getChangedArchives(8));
+
+			assertTrue(CacheDiff.compare(to, to).isEmpty());
+		}
+	}
+
+	@Test
+	public void testManifest() throws IOException
+	{
+		File manifestFile = folder.newFile();
+
+		try (Store store = new Store(folder.newFolder()))
+		{
+			addArchive(store, 2, 10, "a", "b");
+			CacheManifest.create(store).save(manifestFile);
+
+			// files of unchanged archives are carried over from the saved manifest
+			CacheManifest previous = CacheManifest.load(manifestFile);
+			CacheManifest manifest = CacheManifest.create(store, previous);
+			assertEquals(previous.getArchive(2, 10), manifest.getArchive(2, 10));
+			assertEquals(2, manifest.getArchive(2, 10).getFiles().size());
+			assertTrue(CacheDiff.compare(previous, manifest).isEmpty());
+
+			addArchive(store, 2, 10, "a", "c");
+			manifest = CacheManifest.create(store, previous);
+
+			CacheDiff diff = CacheDiff.compare(previous, manifest);
+			assertEquals(ImmutableSet.of(1), diff.getChangedFiles(2, 10));
+			assertNull(diff.getChange(2, 11));
+
+			// with no previous manifest, everything is new
+			diff = CacheDiff.compare(null, manifest);
+			assertEquals(ChangeType.ADDED, diff.getChange(2, 10).getType());
+			assertEquals(ImmutableSet.of(0, 1), diff.getChangedFiles(2, 10));
+		}
+	}
+
+	private static void addArchive(Store store, int indexId, int archiveId, String... contents) throws IOException
+	{
+		Index index = store.findIndex(indexId);
+		if (index == null)
+		{
+			index = store.addIndex(indexId);
+		}
+
+		Archive archive = index.getArchive(archiveId);
+		if (archive == null)
+		{
+			archive = index.addArchive(archiveId);
+		}
+
+		FileData[] fileData = new FileData[contents.length];
+		ArchiveFiles files = new ArchiveFiles();
+		for (int i = 0; i < contents.length; ++i)
+		{
+			fileData[i] = new FileData();
+			fileData[i].setId(i);
+
+			FSFile file = new FSFile(i);
+			file.setContents(contents[i].getBytes());
+			files.addFile(file);
+		}
+		archive.setFileData(fileData);
+
+		Container container = new Container(archive.getCompression(), -1);
+		container.compress(files.saveContents(), null);
+		store.getStorage().saveArchive(archive, container.data);
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.export;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import net.runelite.cache.ConfigType;
+import net.runelite.cache.IndexType;
+import net.runelite.cache.StoreLocation;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.FSFile;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.index.FileData;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class CacheExporterTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(CacheExporterTest.class);
+
+	private static final int ITEM_COUNT = 1000;
+
+	@Rule
+	public TemporaryFolder folder = StoreLocation.getTemporaryFolder();
+
+	@Test
+	public void testExport() throws IOException
+	{
+		File out = folder.newFolder();
+
+		try (Store store = new Store(folder.newFolder()))
+		{
+			addItems(store);
+
+			CacheExporter exporter = new CacheExporter(store, 4);
+			try (ExportWriter writer = new DirectoryExportWriter(out))
+			{
+				exporter.export(Collections.singletonList(ExportType.ITEMS), writer);
+			}
+
+			assertEquals(1, exporter.getStats().get(0).getCount());
+			assertEquals(ITEM_COUNT, exporter.getStats().get(1).getCount());
+			assertEquals(ITEM_COUNT, exporter.getStats().get(2).getCount());
+		}
+
+		assertEquals(ITEM_COUNT, new File(out, "items").list().length);
+		assertTrue(new File(out, "items/" + (ITEM_COUNT - 1) + ".json").exists());
+	}
+
+	@Test
+	public void testExportZip() throws IOException
+	{
+		File out = folder.newFile("export.zip");
+
+		try (Store store = new Store(folder.newFolder()))
+		{
+			addItems(store);
+
+			CacheExporter exporter = new CacheExporter(store, 4);
+			try (ExportWriter writer = new ZipExportWriter(out))
+			{
+				// the store has no scripts, so there is nothing to export for them
+				exporter.export(Arrays.asList(ExportType.ITEMS, ExportType.SCRIPTS), writer);
+			}
+		}
+
+		Set<String> names = new HashSet<>();
+		try (ZipInputStream in = new ZipInputStream(new FileInputStream(out)))
+		{
+			for (ZipEntry entry; (entry = in.getNextEntry()) != null; )
+			{
+				names.add(entry.getName());
+			}
+		}
+
+		assertEquals(ITEM_COUNT, names.size());
+		assertTrue(names.contains("items/0.json"));
+	}
+
+	@Test
+	public void exportCache() throws IOException
+	{
+		File out = folder.newFile("export.zip");
+
+		try (Store store = new Store(StoreLocation.LOCATION))
+		{
+			store.load();
+
+			CacheExporter exporter = new CacheExporter(store, Runtime.getRuntime().availableProcessors());
+			try (ExportWriter writer = new ZipExportWriter(out))
+			{
+				exporter.export(Arrays.asList(ExportType.values()), writer);
+			}
+		}
+
+		logger.info("Exported to {}, {} bytes", out, out.length());
+	}
+
+	private static void addItems(Store store) throws IOException
+	{
+		Index index = store.addIndex(IndexType.CONFIGS.getNumber());
+		Archive archive = index.addArchive(ConfigType.ITEM.getId());
+
+		FileData[] fileData = new FileData[ITEM_COUNT];
+		ArchiveFiles files = new ArchiveFiles();
+		for (int i = 0; i < ITEM_COUNT; ++i)
+		{
+			fileData[i] = new FileData();
+			fileData[i].setId(i);
+
+			FSFile file = new FSFile(i);
+			file.setContents(new byte[]{0}); // an item with no properties
+			files.addFile(file);
+		}
+		archive.setFileData(fileData);
+
+		Container container = new Container(archive.getCompression(), -1);
+		container.compress(files.saveContents(), null);
+		store.getStorage().saveArchive(archive, container.data);
+	}
+}
@@ -25,7 +25,6 @@
 package net.runelite.protocol.update.decoders;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import java.util.List;
@@ -34,91 +33,101 @@ import net.runelite.protocol.api.update.ArchiveResponsePacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Decodes archive responses as their data arrives, rather than waiting for
+ * the whole response to be buffered. The archive is copied straight from the
+ * network buffer into the array which is handed downstream, so the only
+ * allocation per response is the archive itself.
+ */
 public class ArchiveResponseDecoder extends ByteToMessageDecoder
 {
 	private static final Logger logger = LoggerFactory.getLogger(ArchiveResponseDecoder.class);
 
 	private static final int CHUNK_SIZE = 512;
 
+	// the response being decoded, or null if waiting for a header
+	private ArchiveResponsePacket response;
+	private byte[] data;
+	private int written;
+	// position in the current chunk, including the header and separator
+	private int chunkPosition;
+
 	@Override
 	public void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception
 	{
-		if (in.readableBytes() < 8)
+		if (response == null && !readHeader(in))
 		{
 			return;
 		}
 
-		ByteBuf copy = in.slice();
-
-		int index = copy.readUnsignedByte();
-		int file = copy.readUnsignedShort();
-		// decompress() starts reading here
-		int compression = copy.readUnsignedByte();
-		int compressedFileSize = copy.readInt();
-
-		assert compression == CompressionType.NONE ||
-			compression == CompressionType.BZ2 ||
-			compression == CompressionType.GZ;
-
-		int size = compressedFileSize
-			+ 5 // 1 byte compresion type, 4 byte compressed size
-			+ (compression != CompressionType.NONE ? 4 : 0); // compression has leading 4 byte decompressed length
+		while (written < data.length)
+		{
+			if (chunkPosition == CHUNK_SIZE)
+			{
+				if (!in.isReadable())
+				{
+					return;
+				}
 
-		assert size > 0;
+				int b = in.readUnsignedByte();
+				assert b == 0xff;
+				chunkPosition = 1;
+			}
 
-		int breaks = calculateBreaks(size);
+			int bytesToRead = Math.min(Math.min(CHUNK_SIZE - chunkPosition, data.length - written), in.readableBytes());
+			if (bytesToRead == 0)
+			{
+				return;
+			}
 
-		// 3 for index/file
-		if (size + 3 + breaks > in.readableBytes())
-		{
-			logger.trace("Index {} archive {}: Not enough data yet {} > {}", index, file, size + 3 + breaks, in.readableBytes());
-			return;
+			in.readBytes(data, written, bytesToRead);
+			written += bytesToRead;
+			chunkPosition += bytesToRead;
 		}
 
-		ByteBuf compressedData = Unpooled.buffer(size);
-
-		int totalRead = 3;
-		in.skipBytes(3); // skip index/file
+		logger.trace("{}/{}: done downloading file, remaining buffer {}",
+			response.getIndex(), response.getArchive(),
+			in.readableBytes());
 
-		for (int i = 0; i < breaks + 1; ++i)
-		{
-			int bytesInBlock = CHUNK_SIZE - (totalRead % CHUNK_SIZE);
-			int bytesToRead = Math.min(bytesInBlock, size - compressedData.writerIndex());
+		response.setData(data);
+		out.add(response);
 
-			logger.trace("{}/{}: reading block {}/{}, read so far this block: {}, file status: {}/{}",
-				index, file,
-				(totalRead % CHUNK_SIZE), CHUNK_SIZE,
-				bytesInBlock,
-				compressedData.writerIndex(), size);
+		response = null;
+		data = null;
+	}
 
-			ByteBuf chunk = in.readBytes(bytesToRead);
-			compressedData.writeBytes(chunk);
-			chunk.release();
+	private boolean readHeader(ByteBuf in)
+	{
+		if (in.readableBytes() < 8)
+		{
+			return false;
+		}
 
-			totalRead += bytesToRead;
+		int index = in.readUnsignedByte();
+		int file = in.readUnsignedShort();
+		// decompress() starts reading here, so these are left in the data
+		int compression = in.getUnsignedByte(in.readerIndex());
+		int compressedFileSize = in.getInt(in.readerIndex() + 1);
 
-			if (i < breaks)
-			{
-				assert compressedData.writerIndex() < size;
-				int b = in.readUnsignedByte();
-				++totalRead;
-				assert b == 0xff;
-			}
-		}
+		assert compression == CompressionType.NONE ||
+			compression == CompressionType.BZ2 ||
+			compression == CompressionType.GZ;
 
-		assert compressedData.writerIndex() == size;
+		int size = compressedFileSize
+			+ 5 // 1 byte compresion type, 4 byte compressed size
+			+ (compression != CompressionType.NONE ? 4 : 0); // compression has leading 4 byte decompressed length
 
-		logger.trace("{}/{}: done downloading file, remaining buffer {}",
-			index, file,
-			in.readableBytes());
+		assert size > 0;
 
-		ArchiveResponsePacket archiveResponse = new ArchiveResponsePacket();
-		archiveResponse.setIndex(index);
-		archiveResponse.setArchive(file);
-		archiveResponse.setData(compressedData.array());
-		out.add(archiveResponse);
+		logger.trace("Index {} archive {}: {} bytes in {} chunks", index, file, size, calculateBreaks(size) + 1);
 
-		compressedData.release();
+		response = new ArchiveResponsePacket();
+		response.setIndex(index);
+		response.setArchive(file);
+		data = new byte[size];
+		written = 0;
+		chunkPosition = 3; // index/file
+		return true;
 	}
 
 	/**
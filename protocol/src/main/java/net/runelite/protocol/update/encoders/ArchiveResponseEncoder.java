@@ -41,46 +41,62 @@ public class ArchiveResponseEncoder extends MessageToByteEncoder<ArchiveResponse
 	@Override
 	protected void encode(ChannelHandlerContext ctx, ArchiveResponsePacket archiveResponse, ByteBuf out) throws Exception
 	{
+		int pos = out.readableBytes();
+
+		encode(archiveResponse.getIndex(), archiveResponse.getArchive(),
+			Unpooled.wrappedBuffer(archiveResponse.getData()), out);
+
+		int size = out.readableBytes() - pos;
+		logger.debug("Wrote index {} archive {} (size {}) in {} bytes",
+			archiveResponse.getIndex(), archiveResponse.getArchive(),
+			archiveResponse.getData().length, size);
+	}
+
+	/**
+	 * Writes an archive response
+	 *
+	 * @param index   the index of the archive
+	 * @param archive the archive id
+	 * @param file    the compressed archive data, which starts with the
+	 *                compression type and length
+	 * @param out     the buffer to write to
+	 */
+	public static void encode(int index, int archive, ByteBuf file, ByteBuf out)
+	{
+		out.ensureWritable(getEncodedSize(file.readableBytes()));
+
 		// archive file header
 		// 1 byte index
 		// 2 byte archive
-		out.writeByte(archiveResponse.getIndex());
-		out.writeShort(archiveResponse.getArchive());
-
-		int pos = out.readableBytes();
+		out.writeByte(index);
+		out.writeShort(archive);
 
-		// next is the compressed data which starts with compression
-		// type and length
-		ByteBuf file = Unpooled.wrappedBuffer(archiveResponse.getData());
 		// - 3 for the header
 		int chunkSize = Math.min(file.readableBytes(), CHUNK_SIZE - 3);
-
-		writeChunk(file.readBytes(chunkSize), out);
+		out.writeBytes(file, chunkSize);
 
 		while (file.isReadable())
 		{
 			out.writeByte(0xff);
 
 			chunkSize = Math.min(file.readableBytes(), CHUNK_SIZE - 1);
-			writeChunk(file.readBytes(chunkSize), out);
+			out.writeBytes(file, chunkSize);
 		}
-
-		int size = out.readableBytes() - pos;
-		logger.debug("Wrote index {} archive {} (size {}) in {} bytes",
-			archiveResponse.getIndex(), archiveResponse.getArchive(),
-			archiveResponse.getData().length, size);
 	}
 
-	private void writeChunk(ByteBuf chunk, ByteBuf out)
+	/**
+	 * Gets the size of an encoded archive response
+	 *
+	 * @param length the length of the compressed archive data
+	 * @return the size of the response, including the header and chunk separators
+	 */
+	public static int getEncodedSize(int length)
 	{
-		try
-		{
-			out.writeBytes(chunk);
-		}
-		finally
-		{
-			chunk.release();
-		}
+		// The first chunk has room for 509 bytes after the header,
+		// and every chunk after it is preceded by a separator
+		int separators = length > CHUNK_SIZE - 3
+			? (length - (CHUNK_SIZE - 3) + CHUNK_SIZE - 2) / (CHUNK_SIZE - 1)
+			: 0;
+		return 3 + length + separators;
 	}
-
 }
@@ -26,6 +26,7 @@ package net.runelite.protocol.update.encoders;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 public class XorEncoder extends MessageToByteEncoder<ByteBuf>
@@ -42,6 +43,26 @@ public class XorEncoder extends MessageToByteEncoder<ByteBuf>
 		this.key = key;
 	}
 
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception
+	{
+		if (key == 0 && msg instanceof ByteBuf)
+		{
+			// Pass the buffer on as is instead of copying it
+			ctx.write(msg, promise);
+			return;
+		}
+
+		super.write(ctx, msg, promise);
+	}
+
+	@Override
+	protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, ByteBuf msg, boolean preferDirect) throws Exception
+	{
+		int size = msg.readableBytes();
+		return preferDirect ? ctx.alloc().ioBuffer(size) : ctx.alloc().heapBuffer(size);
+	}
+
 	@Override
 	protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception
 	{
@@ -51,6 +72,15 @@ public class XorEncoder extends MessageToByteEncoder<ByteBuf>
 			return;
 		}
 
+		out.ensureWritable(msg.readableBytes());
+
+		// xor 8 bytes at a time with the key repeated across a long
+		long longKey = (key & 0xffL) * 0x0101010101010101L;
+		while (msg.readableBytes() >= Long.BYTES)
+		{
+			out.writeLong(msg.readLong() ^ longKey);
+		}
+
 		while (msg.isReadable())
 		{
 			out.writeByte(msg.readByte() ^ key);
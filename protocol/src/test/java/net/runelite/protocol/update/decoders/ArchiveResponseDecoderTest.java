@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.protocol.update.decoders;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.jagex.CompressionType;
+import net.runelite.protocol.api.update.ArchiveResponsePacket;
+import net.runelite.protocol.update.encoders.ArchiveResponseEncoder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ArchiveResponseDecoderTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(ArchiveResponseDecoderTest.class);
+
+	@Test
+	public void testFragmented() throws Exception
+	{
+		Random random = new Random(42L);
+		List<byte[]> archives = new ArrayList<>();
+		// sizes either side of the chunk boundaries
+		for (int length : new int[]{0, 1, 503, 504, 505, 1014, 1015, 1016, 100_000})
+		{
+			archives.add(createArchive(random, length));
+		}
+
+		ByteBuf stream = encode(archives);
+
+		for (int fragmentSize : new int[]{1, 7, 511, 512, 513, 8192, stream.readableBytes()})
+		{
+			EmbeddedChannel channel = new EmbeddedChannel(new ArchiveResponseDecoder());
+
+			for (int i = 0; i < stream.readableBytes(); i += fragmentSize)
+			{
+				channel.writeInbound(stream.retainedSlice(i, Math.min(fragmentSize, stream.readableBytes() - i)));
+			}
+
+			for (int i = 0; i < archives.size(); ++i)
+			{
+				ArchiveResponsePacket response = channel.readInbound();
+				assertEquals(0, response.getIndex());
+				assertEquals(i, response.getArchive());
+				assertArrayEquals(archives.get(i), response.getData());
+			}
+
+			assertEquals(null, channel.readInbound());
+			assertFalse(channel.finish());
+		}
+
+		stream.release();
+	}
+
+	@Test
+	@Ignore
+	public void benchmarkDecode() throws Exception
+	{
+		Random random = new Random(42L);
+		List<byte[]> archives = new ArrayList<>();
+		for (int i = 0; i < 2000; ++i)
+		{
+			// mostly small archives, with the odd large one
+			archives.add(createArchive(random, random.nextInt(10) == 0 ? random.nextInt(256 * 1024) : random.nextInt(4096)));
+		}
+
+		ByteBuf stream = encode(archives);
+		final int readSize = 64 * 1024; // typical size of a socket read
+
+		for (int run = 0; run < 10; ++run)
+		{
+			EmbeddedChannel channel = new EmbeddedChannel(new ArchiveResponseDecoder());
+			long start = System.nanoTime();
+
+			for (int i = 0; i < stream.readableBytes(); i += readSize)
+			{
+				channel.writeInbound(stream.retainedSlice(i, Math.min(readSize, stream.readableBytes() - i)));
+			}
+
+			long elapsed = System.nanoTime() - start;
+			assertEquals(archives.size(), channel.inboundMessages().size());
+			channel.finish();
+
+			logger.info("Run {}: decoded {} responses of {} MB in {}ms, {} MB/s",
+				run, archives.size(), stream.readableBytes() / 1_000_000, elapsed / 1_000_000,
+				stream.readableBytes() * 1000L / elapsed);
+		}
+
+		stream.release();
+	}
+
+	private static byte[] createArchive(Random random, int length) throws Exception
+	{
+		byte[] data = new byte[length];
+		random.nextBytes(data);
+
+		Container container = new Container(CompressionType.NONE, -1);
+		container.compress(data, null);
+		return container.data;
+	}
+
+	private static ByteBuf encode(List<byte[]> archives)
+	{
+		ByteBuf stream = Unpooled.buffer();
+		for (int i = 0; i < archives.size(); ++i)
+		{
+			ArchiveResponseEncoder.encode(0, i, Unpooled.wrappedBuffer(archives.get(i)), stream);
+		}
+		return stream;
+	}
+}
@@ -73,4 +73,15 @@ public class ArchiveResponseEncoderTest
 		Assert.assertArrayEquals(data, decompressedData);
 	}
 
+	@Test
+	public void testEncodedSize()
+	{
+		for (int length : new int[]{0, 1, 508, 509, 510, 1020, 1021, 100_000})
+		{
+			ByteBuf buf = Unpooled.buffer();
+			ArchiveResponseEncoder.encode(0, 1, Unpooled.wrappedBuffer(new byte[length]), buf);
+			Assert.assertEquals(ArchiveResponseEncoder.getEncodedSize(length), buf.readableBytes());
+		}
+	}
+
 }
@@ -26,6 +26,7 @@ package net.runelite.protocol.update.encoders;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import java.util.Random;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -48,4 +49,23 @@ public class XorEncoderTest
 		Assert.assertEquals((Byte) (byte) 0xfe, (Byte) encoded);
 	}
 
+	@Test
+	public void testEncodeLong() throws Exception
+	{
+		byte[] data = new byte[1021];
+		new Random(42L).nextBytes(data);
+
+		XorEncoder encoder = new XorEncoder();
+		encoder.setKey((byte) 0xa5);
+
+		ByteBuf out = Unpooled.buffer(data.length);
+		encoder.encode(null, Unpooled.wrappedBuffer(data), out);
+
+		Assert.assertEquals(data.length, out.readableBytes());
+		for (byte b : data)
+		{
+			Assert.assertEquals((byte) (b ^ 0xa5), out.readByte());
+		}
+	}
+
 }
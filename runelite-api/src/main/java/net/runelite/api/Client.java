@@ -491,6 +491,73 @@ public interface Client extends GameEngine
 	 */
 	void setMenuEntries(MenuEntry[] entries);
 
+	/**
+	 * Gets the number of entries in the right-click menu.
+	 *
+	 * @return the menu entry count
+	 */
+	int getMenuOptionCount();
+
+	/**
+	 * Sets the number of entries in the right-click menu.
+	 * <p>
+	 * Increasing the count by one posts a {@link net.runelite.api.events.MenuEntryAdded}
+	 * event for the last entry.
+	 *
+	 * @param menuOptionCount the menu entry count
+	 */
+	void setMenuOptionCount(int menuOptionCount);
+
+	/**
+	 * Gets the options of the menu entries, indexed the same as the other
+	 * menu entry arrays and valid up to {@link #getMenuOptionCount()}.
+	 * <p>
+	 * Unlike {@link #getMenuEntries()} this does not copy the menu.
+	 *
+	 * @return the menu options
+	 */
+	String[] getMenuOptions();
+
+	/**
+	 * Gets the targets of the menu entries.
+	 *
+	 * @return the menu targets
+	 * @see #getMenuOptions()
+	 */
+	String[] getMenuTargets();
+
+	/**
+	 * Gets the identifiers of the menu entries.
+	 *
+	 * @return the menu identifiers
+	 * @see #getMenuOptions()
+	 */
+	int[] getMenuIdentifiers();
+
+	/**
+	 * Gets the types of the menu entries.
+	 *
+	 * @return the menu types
+	 * @see #getMenuOptions()
+	 */
+	int[] getMenuTypes();
+
+	/**
+	 * Gets the first action parameters of the menu entries.
+	 *
+	 * @return the menu action parameters
+	 * @see #getMenuOptions()
+	 */
+	int[] getMenuActionParams0();
+
+	/**
+	 * Gets the second action parameters of the menu entries.
+	 *
+	 * @return the menu action parameters
+	 * @see #getMenuOptions()
+	 */
+	int[] getMenuActionParams1();
+
 	/**
 	 * Checks whether a right-click menu is currently open.
 	 *
@@ -664,6 +731,15 @@ public interface Client extends GameEngine
 	@VisibleForDevtools
 	void setVarbitValue(int[] varps, int varbit, int value);
 
+	/**
+	 * Gets the index of the player variable a varbit is stored in.
+	 *
+	 * @param varbitId the variable ID
+	 * @return the varp index
+	 * @see Varbits#id
+	 */
+	int getVarbitVarpIndex(int varbitId);
+
 	/**
 	 * Gets the widget flags table.
 	 *
@@ -34,4 +34,8 @@ import lombok.Data;
 @Data
 public class VarbitChanged
 {
+	/**
+	 * Index in the varp array that was changed, or -1 if unknown.
+	 */
+	private int index = -1;
 }
\ No newline at end of file
@@ -37,7 +37,13 @@ public class DecorativeObjectQuery extends TileObjectQuery<DecorativeObject, Dec
 	@Override
 	public DecorativeObject[] result(Client client)
 	{
-		return getDecorativeObjects(client).stream()
+		return filter(getDecorativeObjects(client));
+	}
+
+	@Override
+	public DecorativeObject[] filter(Collection<? extends DecorativeObject> candidates)
+	{
+		return candidates.stream()
 			.filter(Objects::nonNull)
 			.filter(predicate)
 			.distinct()
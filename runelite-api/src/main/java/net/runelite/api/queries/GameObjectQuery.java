@@ -38,7 +38,13 @@ public class GameObjectQuery extends TileObjectQuery<GameObject, GameObjectQuery
 	@Override
 	public GameObject[] result(Client client)
 	{
-		return getGameObjects(client).stream()
+		return filter(getGameObjects(client));
+	}
+
+	@Override
+	public GameObject[] filter(Collection<? extends GameObject> candidates)
+	{
+		return candidates.stream()
 			.filter(Objects::nonNull)
 			.filter(predicate)
 			.distinct()
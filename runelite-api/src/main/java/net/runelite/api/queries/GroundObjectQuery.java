@@ -37,7 +37,13 @@ public class GroundObjectQuery extends TileObjectQuery<GroundObject, GroundObjec
 	@Override
 	public GroundObject[] result(Client client)
 	{
-		return getGroundObjects(client).stream()
+		return filter(getGroundObjects(client));
+	}
+
+	@Override
+	public GroundObject[] filter(Collection<? extends GroundObject> candidates)
+	{
+		return candidates.stream()
 			.filter(Objects::nonNull)
 			.filter(predicate)
 			.distinct()
@@ -24,16 +24,21 @@
  */
 package net.runelite.api.queries;
 
+import java.util.Collection;
 import net.runelite.api.Client;
 import net.runelite.api.NPC;
 
-
 public class NPCQuery extends ActorQuery<NPC, NPCQuery>
 {
 	@Override
 	public NPC[] result(Client client)
 	{
-		return client.getNpcs().stream()
+		return filter(client.getNpcs());
+	}
+
+	public NPC[] filter(Collection<? extends NPC> candidates)
+	{
+		return candidates.stream()
 				.filter(predicate)
 				.toArray(NPC[]::new);
 	}
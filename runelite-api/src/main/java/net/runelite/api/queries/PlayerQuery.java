@@ -24,6 +24,7 @@
  */
 package net.runelite.api.queries;
 
+import java.util.Collection;
 import net.runelite.api.Client;
 import net.runelite.api.Player;
 
@@ -32,7 +33,12 @@ public class PlayerQuery extends ActorQuery<Player, PlayerQuery>
 	@Override
 	public Player[] result(Client client)
 	{
-		return client.getPlayers().stream()
+		return filter(client.getPlayers());
+	}
+
+	public Player[] filter(Collection<? extends Player> candidates)
+	{
+		return candidates.stream()
 			.filter(predicate)
 			.toArray(Player[]::new);
 	}
@@ -32,7 +32,9 @@ import net.runelite.api.Tile;
 import net.runelite.api.TileObject;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import lombok.Getter;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
 
@@ -40,6 +42,28 @@ public abstract class TileObjectQuery<EntityType extends TileObject, QueryType>
 {
 	private static final int REGION_SIZE = 104;
 
+	/**
+	 * The ids passed to the most recent {@link #idEquals(int...)}, or null.
+	 * <p>
+	 * Every matching object has one of these ids, so this may be used to
+	 * narrow down candidates before the predicate is evaluated.
+	 */
+	@Getter
+	private int[] ids;
+
+	/**
+	 * The origin passed to the most recent distance or area restriction, or null.
+	 */
+	@Getter
+	private LocalPoint origin;
+
+	/**
+	 * The maximum distance from {@link #origin}, in local units, of any
+	 * matching object.
+	 */
+	@Getter
+	private int maxDistance;
+
 	protected List<Tile> getTiles(Client client)
 	{
 		List<Tile> tilesList = new ArrayList<>();
@@ -61,9 +85,19 @@ public abstract class TileObjectQuery<EntityType extends TileObject, QueryType>
 		return tilesList;
 	}
 
+	/**
+	 * Filters the passed candidates, returning only those who evaluate true
+	 * using {@link #predicate}.
+	 *
+	 * @param candidates the objects to filter
+	 * @return the matching objects
+	 */
+	public abstract EntityType[] filter(Collection<? extends EntityType> candidates);
+
 	@SuppressWarnings("unchecked")
 	public QueryType idEquals(int... ids)
 	{
+		this.ids = ids;
 		predicate = and(object ->
 		{
 			for (int id : ids)
@@ -95,6 +129,8 @@ public abstract class TileObjectQuery<EntityType extends TileObject, QueryType>
 	@SuppressWarnings("unchecked")
 	public QueryType isWithinDistance(LocalPoint to, int distance)
 	{
+		origin = to;
+		maxDistance = distance;
 		predicate = and(a -> a.getLocalLocation().distanceTo(to) <= distance);
 		return (QueryType) this;
 	}
@@ -102,6 +138,9 @@ public abstract class TileObjectQuery<EntityType extends TileObject, QueryType>
 	@SuppressWarnings("unchecked")
 	public QueryType isWithinArea(LocalPoint from, int area)
 	{
+		origin = from;
+		// the corners of the square are further away than its sides
+		maxDistance = (int) Math.ceil(area * Math.sqrt(2));
 		predicate = and(a ->
 		{
 			LocalPoint localLocation = a.getLocalLocation();
@@ -37,7 +37,13 @@ public class WallObjectQuery extends TileObjectQuery<WallObject, WallObjectQuery
 	@Override
 	public WallObject[] result(Client client)
 	{
-		return getWallObjects(client).stream()
+		return filter(getWallObjects(client));
+	}
+
+	@Override
+	public WallObject[] filter(Collection<? extends WallObject> candidates)
+	{
+		return candidates.stream()
 			.filter(Objects::nonNull)
 			.filter(predicate)
 			.distinct()
@@ -27,6 +27,7 @@ package net.runelite.client;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
 import com.google.common.eventbus.EventBus;
 import com.google.inject.Guice;
 import com.google.inject.Inject;
@@ -50,7 +51,10 @@ import net.runelite.client.config.ConfigManager;
 import net.runelite.client.discord.DiscordService;
 import net.runelite.client.game.ClanManager;
 import net.runelite.client.game.ItemManager;
+import net.runelite.client.game.PathingManager;
+import net.runelite.client.game.SceneIndex;
 import net.runelite.client.menus.MenuManager;
+import net.runelite.client.menus.MenuTransformer;
 import net.runelite.client.plugins.PluginManager;
 import net.runelite.client.ui.ClientUI;
 import net.runelite.client.ui.DrawManager;
@@ -61,6 +65,7 @@ import net.runelite.client.ui.overlay.infobox.InfoBoxManager;
 import net.runelite.client.ui.overlay.infobox.InfoBoxOverlay;
 import net.runelite.client.ui.overlay.tooltip.TooltipOverlay;
 import net.runelite.client.ui.overlay.worldmap.WorldMapOverlay;
+import net.runelite.client.util.RegionTileManager;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
@@ -86,6 +91,9 @@ public class RuneLite
 	@Inject
 	private MenuManager menuManager;
 
+	@Inject
+	private MenuTransformer menuTransformer;
+
 	@Inject
 	private EventBus eventBus;
 
@@ -122,6 +130,15 @@ public class RuneLite
 	@Inject
 	private Provider<ItemManager> itemManager;
 
+	@Inject
+	private Provider<SceneIndex> sceneIndex;
+
+	@Inject
+	private Provider<RegionTileManager> regionTileManager;
+
+	@Inject
+	private Provider<PathingManager> pathingManager;
+
 	@Inject
 	private ClanManager clanManager;
 
@@ -203,14 +220,18 @@ public class RuneLite
 			}
 		});
 
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 		injector = Guice.createInjector(new RuneLiteModule());
 		injector.getInstance(RuneLite.class).start(getOptions().valueOf(updateMode));
+		log.info("Client initialization took {}", stopwatch);
 	}
 
 	public void start(UpdateCheckMode updateMode) throws Exception
 	{
 		// Load RuneLite or Vanilla client
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 		final Applet client = new ClientLoader().loadRs(updateMode);
+		log.info("Client loaded in {}", stopwatch);
 
 		final boolean isOutdated = !(client instanceof Client);
 
@@ -231,8 +252,8 @@ public class RuneLite
 		eventBus.register(overlayManager);
 		eventBus.register(drawManager);
 		eventBus.register(menuManager);
+		eventBus.register(menuTransformer);
 		eventBus.register(chatMessageManager);
-		eventBus.register(commandManager);
 		eventBus.register(pluginManager);
 		eventBus.register(clanManager);
 		eventBus.register(infoBoxManager);
@@ -240,6 +261,9 @@ public class RuneLite
 		if (this.client != null)
 		{
 			eventBus.register(itemManager.get());
+			eventBus.register(sceneIndex.get());
+			eventBus.register(regionTileManager.get());
+			eventBus.register(pathingManager.get());
 		}
 
 		// Load user configuration
@@ -25,13 +25,11 @@
 package net.runelite.client;
 
 import com.google.common.eventbus.EventBus;
-import com.google.common.eventbus.SubscriberExceptionContext;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import javax.inject.Singleton;
-import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.client.account.SessionManager;
 import net.runelite.client.chat.ChatMessageManager;
@@ -41,10 +39,11 @@ import net.runelite.client.config.RuneLiteConfig;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.menus.MenuManager;
 import net.runelite.client.plugins.PluginManager;
+import net.runelite.client.profiling.ProfiledEventBus;
+import net.runelite.client.profiling.Profiler;
 import net.runelite.client.task.Scheduler;
 import net.runelite.client.util.QueryRunner;
 
-@Slf4j
 public class RuneLiteModule extends AbstractModule
 {
 	@Override
@@ -83,13 +82,8 @@ public class RuneLiteModule extends AbstractModule
 
 	@Provides
 	@Singleton
-	EventBus provideEventBus()
+	EventBus provideEventBus(Profiler profiler)
 	{
-		return new EventBus(RuneLiteModule::eventExceptionHandler);
-	}
-
-	private static void eventExceptionHandler(Throwable exception, SubscriberExceptionContext context)
-	{
-		log.warn("uncaught exception in event subscriber", exception);
+		return new ProfiledEventBus(profiler);
 	}
 }
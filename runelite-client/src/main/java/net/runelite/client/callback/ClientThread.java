@@ -25,29 +25,101 @@
 package net.runelite.client.callback;
 
 import com.google.inject.Inject;
-import java.util.Iterator;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BooleanSupplier;
 import javax.inject.Singleton;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.client.profiling.Profiler;
 
 @Singleton
 @Slf4j
 public class ClientThread
 {
-	private ConcurrentLinkedQueue<BooleanSupplier> invokes = new ConcurrentLinkedQueue<>();
+	/**
+	 * Time each frame may spend running invokes, before carrying over any overrun
+	 */
+	private static final long FRAME_BUDGET = TimeUnit.MILLISECONDS.toNanos(2);
+
+	/**
+	 * Most frames to wait before retrying an invoke which returned false
+	 */
+	private static final int MAX_BACKOFF_FRAMES = 64;
+
+	public enum Priority
+	{
+		/**
+		 * Run every frame regardless of the frame budget
+		 */
+		HIGH,
+		NORMAL,
+		/**
+		 * Background work such as loading images, run after all other invokes
+		 */
+		LOW
+	}
+
+	private final ConcurrentLinkedQueue<Invoke> submitted = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Invokes waiting to be run, only accessed from the client thread
+	 */
+	private final Map<Priority, ArrayDeque<Invoke>> queues = new EnumMap<>(Priority.class);
+
+	private final AtomicInteger queueDepth = new AtomicInteger();
 
 	@Inject
 	private Client client;
 
-	public void invokeLater(Runnable r)
+	@Inject
+	private Profiler profiler;
+
+	private long frame;
+	private long overrun;
+	private boolean ranThisFrame;
+
+	/**
+	 * Total time spent running invokes, in nanoseconds
+	 */
+	@Getter
+	private volatile long timeSpent;
+
+	/**
+	 * Number of invokes which have been run, including retries
+	 */
+	@Getter
+	private volatile long invokeCount;
+
+	/**
+	 * Number of frames which ran out of their budget with invokes left to run
+	 */
+	@Getter
+	private volatile long framesOverBudget;
+
+	public ClientThread()
 	{
-		invokeLater(() ->
+		for (Priority priority : Priority.values())
 		{
-			r.run();
-			return true;
-		});
+			queues.put(priority, new ArrayDeque<>());
+		}
+	}
+
+	public void invokeLater(Runnable r)
+	{
+		invokeLater(r, Priority.NORMAL);
+	}
+
+	public void invokeLater(Runnable r, Priority priority)
+	{
+		invokeLater(new RunnableInvoke(r), priority);
 	}
 
 	/**
@@ -56,41 +128,167 @@ public class ClientThread
 	 */
 	public void invokeLater(BooleanSupplier r)
 	{
+		invokeLater(r, Priority.NORMAL);
+	}
+
+	/**
+	 * Will run r on the game thread, at a unspecified point in the future.
+	 * If r returns false, r will be ran again, at a later point, waiting
+	 * longer each time it returns false again.
+	 *
+	 * @param r        the supplier to run
+	 * @param priority the priority to run it at
+	 */
+	public void invokeLater(BooleanSupplier r, Priority priority)
+	{
+		final Invoke invoke = new Invoke(r, priority);
+
 		if (client.isClientThread())
 		{
-			if (r.getAsBoolean())
+			if (run(invoke))
 			{
-				invokes.add(r);
+				return;
 			}
-			return;
+			backOff(invoke);
 		}
-		invokes.add(r);
+
+		queueDepth.incrementAndGet();
+		submitted.add(invoke);
+	}
+
+	/**
+	 * Gets the number of invokes waiting to be run
+	 */
+	public int getQueueDepth()
+	{
+		return queueDepth.get();
 	}
 
 	void invoke()
 	{
 		assert client.isClientThread();
-		Iterator<BooleanSupplier> ir = invokes.iterator();
-		for (; ir.hasNext(); )
+
+		++frame;
+		ranThisFrame = false;
+
+		for (Invoke invoke; (invoke = submitted.poll()) != null; )
+		{
+			queues.get(invoke.priority).add(invoke);
+		}
+
+		final long start = System.nanoTime();
+		// The time the previous frame went over its budget is taken from this one
+		final long deadline = start + Math.max(0, FRAME_BUDGET - overrun);
+
+		run(queues.get(Priority.HIGH), Long.MAX_VALUE);
+		boolean finished = run(queues.get(Priority.NORMAL), deadline)
+			&& run(queues.get(Priority.LOW), deadline);
+
+		final long end = System.nanoTime();
+		final long elapsed = end - start;
+		overrun = Math.max(0, end - deadline);
+		timeSpent += elapsed;
+
+		if (!finished)
 		{
-			BooleanSupplier r = ir.next();
-			boolean remove = true;
-			try
+			++framesOverBudget;
+		}
+	}
+
+	/**
+	 * Runs the invokes of a queue until the deadline
+	 *
+	 * @return true if every invoke due this frame was run
+	 */
+	private boolean run(ArrayDeque<Invoke> queue, long deadline)
+	{
+		for (int i = queue.size(); i > 0; --i)
+		{
+			final Invoke invoke = queue.peekFirst();
+
+			if (invoke.nextFrame > frame)
 			{
-				remove = r.getAsBoolean();
+				// Still backing off, move it out of the way
+				queue.addLast(queue.pollFirst());
+				continue;
 			}
-			catch (ThreadDeath d)
+
+			// Always make progress, even if the budget was already spent
+			if (ranThisFrame && System.nanoTime() >= deadline)
 			{
-				throw d;
+				return false;
 			}
-			catch (Throwable e)
+
+			queue.pollFirst();
+			ranThisFrame = true;
+
+			if (run(invoke))
 			{
-				log.warn("Exception in invokeLater", e);
+				queueDepth.decrementAndGet();
 			}
-			if (remove)
+			else
 			{
-				ir.remove();
+				backOff(invoke);
+				queue.addLast(invoke);
 			}
 		}
+
+		return true;
+	}
+
+	private boolean run(Invoke invoke)
+	{
+		final BooleanSupplier r = invoke.supplier;
+		boolean remove = true;
+		boolean profile = profiler.isEnabled();
+		long start = profile ? System.nanoTime() : 0;
+		try
+		{
+			remove = r.getAsBoolean();
+		}
+		catch (ThreadDeath d)
+		{
+			throw d;
+		}
+		catch (Throwable e)
+		{
+			log.warn("Exception in invokeLater", e);
+		}
+		if (profile)
+		{
+			// Attribute runnables to the code which submitted them rather than to the wrapper
+			Object key = r instanceof RunnableInvoke ? ((RunnableInvoke) r).runnable.getClass() : r.getClass();
+			profiler.record(Profiler.Category.INVOKE, key, System.nanoTime() - start);
+		}
+		++invokeCount;
+		return remove;
+	}
+
+	private void backOff(Invoke invoke)
+	{
+		invoke.nextFrame = frame + Math.min(1 << Math.min(invoke.attempts, 30), MAX_BACKOFF_FRAMES);
+		++invoke.attempts;
+	}
+
+	@RequiredArgsConstructor
+	private static class Invoke
+	{
+		private final BooleanSupplier supplier;
+		private final Priority priority;
+		private int attempts;
+		private long nextFrame;
+	}
+
+	@AllArgsConstructor
+	private static class RunnableInvoke implements BooleanSupplier
+	{
+		private final Runnable runnable;
+
+		@Override
+		public boolean getAsBoolean()
+		{
+			runnable.run();
+			return true;
+		}
 	}
 }
@@ -53,6 +53,7 @@ import net.runelite.api.PacketBuffer;
 import net.runelite.api.Projectile;
 import net.runelite.api.Region;
 import net.runelite.api.RenderOverview;
+import net.runelite.api.Script;
 import net.runelite.api.TextureProvider;
 import net.runelite.api.WorldMapManager;
 import net.runelite.api.coords.LocalPoint;
@@ -102,6 +103,7 @@ public class Hooks
 	private static final MouseManager mouseManager = injector.getInstance(MouseManager.class);
 	private static final KeyManager keyManager = injector.getInstance(KeyManager.class);
 	private static final ClientThread clientThread = injector.getInstance(ClientThread.class);
+	private static final ScriptCallbackManager scriptCallbackManager = injector.getInstance(ScriptCallbackManager.class);
 	private static final GameTick tick = new GameTick();
 	private static final DrawManager renderHooks = injector.getInstance(DrawManager.class);
 	private static final Notifier notifier = injector.getInstance(Notifier.class);
@@ -130,6 +132,16 @@ public class Hooks
 
 		clientThread.invoke();
 
+		try
+		{
+			// tick pending scheduled tasks, this is cheap when nothing is due
+			scheduler.tick();
+		}
+		catch (Exception ex)
+		{
+			log.warn("error during scheduled tasks", ex);
+		}
+
 		long now = System.currentTimeMillis();
 
 		if (now - lastCheck < CHECK)
@@ -141,9 +153,6 @@ public class Hooks
 
 		try
 		{
-			// tick pending scheduled tasks
-			scheduler.tick();
-
 			// cull infoboxes
 			infoBoxManager.cull();
 
@@ -399,6 +408,11 @@ public class Hooks
 		return menuOptionClicked.isConsumed();
 	}
 
+	public static void scriptCallback(Script script, int id, String name)
+	{
+		scriptCallbackManager.callback(script, id, name);
+	}
+
 	public static void addChatMessage(int type, String name, String message, String sender)
 	{
 		if (log.isDebugEnabled())
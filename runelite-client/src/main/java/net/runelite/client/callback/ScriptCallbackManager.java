@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.callback;
+
+import com.google.common.eventbus.EventBus;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.Script;
+import net.runelite.api.events.ScriptCallbackEvent;
+import net.runelite.client.profiling.Profiler;
+
+/**
+ * Dispatches runelite_callback instructions from clientscripts to the
+ * handlers registered for the callback's name. The script assembler interns
+ * callback names into ids, so dispatching a callback is an array lookup.
+ * Callbacks without a registered handler are posted to the event bus as a
+ * {@link ScriptCallbackEvent}.
+ */
+@Singleton
+@Slf4j
+public class ScriptCallbackManager
+{
+	/**
+	 * Callback names interned by the script assembler, the first having id 1
+	 */
+	private static final String CALLBACK_NAMES = "/runelite/callbacks";
+
+	private static final String DEBUG = "debug";
+
+	private final Client client;
+	private final EventBus eventBus;
+	private final Profiler profiler;
+
+	private final Map<String, Integer> ids = new HashMap<>();
+	private volatile Callback[] callbacks;
+
+	private final Map<String, DebugFormat> debugFormats = new HashMap<>();
+
+	@Inject
+	public ScriptCallbackManager(Client client, EventBus eventBus, Profiler profiler)
+	{
+		this(client, eventBus, profiler, ScriptCallbackManager.class.getResourceAsStream(CALLBACK_NAMES));
+	}
+
+	ScriptCallbackManager(Client client, EventBus eventBus, Profiler profiler, InputStream callbackNames)
+	{
+		this.client = client;
+		this.eventBus = eventBus;
+		this.profiler = profiler;
+
+		List<String> names = new ArrayList<>();
+		if (callbackNames != null)
+		{
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(callbackNames, StandardCharsets.UTF_8)))
+			{
+				for (String name; (name = reader.readLine()) != null; )
+				{
+					names.add(name);
+				}
+			}
+			catch (IOException ex)
+			{
+				log.warn("unable to load script callback names", ex);
+				names.clear();
+			}
+		}
+
+		callbacks = new Callback[names.size() + 1];
+		for (int i = 0; i < names.size(); ++i)
+		{
+			ids.put(names.get(i), i + 1);
+			callbacks[i + 1] = new Callback(names.get(i));
+		}
+
+		register(this, DEBUG, this::debug);
+	}
+
+	/**
+	 * Registers a handler for a script callback. Handlers are called on the
+	 * client thread, and may modify the script's stacks.
+	 *
+	 * @param subscriber owner of the handler, used to unregister it later
+	 * @param name       name of the callback
+	 * @param handler    the handler
+	 */
+	public synchronized void register(Object subscriber, String name, Consumer<ScriptCallbackEvent> handler)
+	{
+		Integer id = ids.get(name);
+		if (id == null)
+		{
+			// not used by any assembled script, so it can only be resolved by name
+			id = callbacks.length;
+			ids.put(name, id);
+
+			Callback[] grown = Arrays.copyOf(callbacks, id + 1);
+			grown[id] = new Callback(name);
+			callbacks = grown;
+		}
+
+		callbacks[id].handlers.add(new Handler(subscriber, name, handler));
+	}
+
+	/**
+	 * Removes all of the handlers registered by a subscriber
+	 *
+	 * @param subscriber
+	 */
+	public synchronized void unregister(Object subscriber)
+	{
+		for (Callback callback : callbacks)
+		{
+			if (callback != null)
+			{
+				callback.handlers.removeIf(h -> h.subscriber == subscriber);
+			}
+		}
+	}
+
+	/**
+	 * Called by the script vm for runelite_callback
+	 *
+	 * @param script the running script
+	 * @param id     the id the assembler resolved the callback to, or 0
+	 * @param name   the name of the callback
+	 */
+	public void callback(Script script, int id, String name)
+	{
+		Callback[] callbacks = this.callbacks;
+		if (id <= 0 || id >= callbacks.length)
+		{
+			id = getId(name);
+			if (id == -1)
+			{
+				post(script, name);
+				return;
+			}
+
+			callbacks = this.callbacks;
+		}
+
+		Callback callback = callbacks[id];
+		if (callback.handlers.isEmpty())
+		{
+			post(script, callback.name);
+			return;
+		}
+
+		ScriptCallbackEvent event = new ScriptCallbackEvent();
+		event.setScript(script);
+		event.setEventName(callback.name);
+
+		final boolean profile = profiler.isEnabled();
+		for (Handler handler : callback.handlers)
+		{
+			final long start = profile ? System.nanoTime() : 0;
+			try
+			{
+				handler.handler.accept(event);
+			}
+			catch (RuntimeException ex)
+			{
+				log.warn("Exception in script callback {}", callback.name, ex);
+			}
+			finally
+			{
+				if (profile)
+				{
+					profiler.record(Profiler.Category.SCRIPT_CALLBACK, handler.key, System.nanoTime() - start);
+				}
+			}
+		}
+	}
+
+	private void post(Script script, String name)
+	{
+		ScriptCallbackEvent event = new ScriptCallbackEvent();
+		event.setScript(script);
+		event.setEventName(name);
+		eventBus.post(event);
+	}
+
+	private synchronized int getId(String name)
+	{
+		Integer id = ids.get(name);
+		return id != null ? id : -1;
+	}
+
+	private void debug(ScriptCallbackEvent event)
+	{
+		int intStackSize = client.getIntStackSize();
+		int stringStackSize = client.getStringStackSize();
+
+		String fmt = client.getStringStack()[--stringStackSize];
+		DebugFormat format = debugFormats.computeIfAbsent(fmt, DebugFormat::new);
+
+		if (log.isDebugEnabled())
+		{
+			log.debug(format.format(client.getIntStack(), intStackSize, client.getStringStack(), stringStackSize));
+		}
+
+		client.setStringStackSize(stringStackSize - format.stringArgs);
+		client.setIntStackSize(intStackSize - format.intArgs);
+	}
+
+	private static class Callback
+	{
+		private final String name;
+		private final List<Handler> handlers = new CopyOnWriteArrayList<>();
+
+		private Callback(String name)
+		{
+			this.name = name;
+		}
+	}
+
+	private static class Handler
+	{
+		private final Object subscriber;
+		private final Consumer<ScriptCallbackEvent> handler;
+
+		/**
+		 * The name the handler is profiled under
+		 */
+		private final String key;
+
+		private Handler(Object subscriber, String name, Consumer<ScriptCallbackEvent> handler)
+		{
+			this.subscriber = subscriber;
+			this.handler = handler;
+			this.key = subscriber.getClass().getSimpleName() + "." + name;
+		}
+	}
+
+	/**
+	 * A debug format string, split into its literal text and arguments.
+	 * %i and %d pop an int, %s pops a string.
+	 */
+	static class DebugFormat
+	{
+		private final String[] literals;
+		private final char[] args;
+		private int intArgs;
+		private int stringArgs;
+
+		DebugFormat(String fmt)
+		{
+			List<String> literals = new ArrayList<>();
+			StringBuilder args = new StringBuilder();
+			StringBuilder literal = new StringBuilder();
+
+			for (int i = 0; i < fmt.length(); ++i)
+			{
+				char c = fmt.charAt(i);
+				if (c != '%' || i + 1 == fmt.length())
+				{
+					literal.append(c);
+					continue;
+				}
+
+				char arg = fmt.charAt(++i);
+				switch (arg)
+				{
+					case 'i':
+					case 'd':
+						++intArgs;
+						break;
+					case 's':
+						++stringArgs;
+						break;
+					default:
+						literal.append('%').append(arg).append("=unknown");
+						continue;
+				}
+
+				literals.add(literal.toString());
+				literal.setLength(0);
+				args.append(arg);
+			}
+
+			literals.add(literal.toString());
+			this.literals = literals.toArray(new String[0]);
+			this.args = args.toString().toCharArray();
+		}
+
+		String format(int[] intStack, int intStackSize, String[] stringStack, int stringStackSize)
+		{
+			StringBuilder out = new StringBuilder(literals[0]);
+			for (int i = 0; i < args.length; ++i)
+			{
+				if (args[i] == 's')
+				{
+					out.append(stringStack[--stringStackSize]);
+				}
+				else
+				{
+					out.append(intStack[--intStackSize]);
+				}
+				out.append(literals[i + 1]);
+			}
+			return out.toString();
+		}
+	}
+}
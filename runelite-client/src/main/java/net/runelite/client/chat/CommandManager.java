@@ -26,7 +26,6 @@
 package net.runelite.client.chat;
 
 import com.google.common.eventbus.EventBus;
-import com.google.common.eventbus.Subscribe;
 import java.util.Arrays;
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -36,6 +35,7 @@ import net.runelite.api.Client;
 import net.runelite.api.VarClientStr;
 import net.runelite.api.events.CommandExecuted;
 import net.runelite.api.events.ScriptCallbackEvent;
+import net.runelite.client.callback.ScriptCallbackManager;
 
 @Slf4j
 @Singleton
@@ -46,20 +46,15 @@ public class CommandManager
 	private final EventBus eventBus;
 
 	@Inject
-	public CommandManager(Provider<Client> clientProvider, EventBus eventBus)
+	public CommandManager(Provider<Client> clientProvider, EventBus eventBus, ScriptCallbackManager scriptCallbackManager)
 	{
 		this.clientProvider = clientProvider;
 		this.eventBus = eventBus;
+		scriptCallbackManager.register(this, CALLBACK_NAME, this::scriptEvent);
 	}
 
-	@Subscribe
 	private void scriptEvent(ScriptCallbackEvent event)
 	{
-		if (!CALLBACK_NAME.equals(event.getEventName()))
-		{
-			return;
-		}
-
 		Client client = clientProvider.get();
 		String typedText = client.getVar(VarClientStr.CHATBOX_TYPED_TEXT).substring(2); // strip ::
 
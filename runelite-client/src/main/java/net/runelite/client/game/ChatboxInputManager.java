@@ -24,8 +24,6 @@
  */
 package net.runelite.client.game;
 
-import com.google.common.eventbus.EventBus;
-import com.google.common.eventbus.Subscribe;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.util.function.Consumer;
@@ -34,6 +32,7 @@ import net.runelite.api.Client;
 import net.runelite.api.ScriptID;
 import net.runelite.api.events.ScriptCallbackEvent;
 import net.runelite.client.callback.ClientThread;
+import net.runelite.client.callback.ScriptCallbackManager;
 
 @Singleton
 @Slf4j
@@ -47,11 +46,11 @@ public class ChatboxInputManager
 	private int characterLimit = NO_LIMIT;
 
 	@Inject
-	public ChatboxInputManager(Client client, ClientThread clientThread, EventBus eventBus)
+	public ChatboxInputManager(Client client, ClientThread clientThread, ScriptCallbackManager scriptCallbackManager)
 	{
 		this.client = client;
 		this.clientThread = clientThread;
-		eventBus.register(this);
+		scriptCallbackManager.register(this, "chatboxInputHandler", this::scriptCallback);
 	}
 
 	/**
@@ -77,44 +76,40 @@ public class ChatboxInputManager
 		));
 	}
 
-	@Subscribe
-	public void scriptCallback(ScriptCallbackEvent ev)
+	private void scriptCallback(ScriptCallbackEvent ev)
 	{
 		// This replaces script 74 and most of 112
-		if ("chatboxInputHandler".equals(ev.getEventName()))
-		{
-			int intStackSize = client.getIntStackSize();
-			int stringStackSize = client.getStringStackSize();
-			int typedKey = client.getIntStack()[--intStackSize];
-			String str = client.getStringStack()[--stringStackSize];
-			int retval = 0;
-
-			switch (typedKey)
-			{
-				case 27: // Escape
-					str = "";
-					// fallthrough
-				case '\n':
-					done.accept(str);
-					retval = 1;
-					break;
-				case '\b':
-					if (str.length() > 0)
-					{
-						str = str.substring(0, str.length() - 1);
-					}
-				default:
-					// If we wanted to do numbers only, we could add a limit here
-					if (typedKey >= 32 && (str.length() < characterLimit))
-					{
-						str += Character.toString((char) typedKey);
-					}
-			}
+		int intStackSize = client.getIntStackSize();
+		int stringStackSize = client.getStringStackSize();
+		int typedKey = client.getIntStack()[--intStackSize];
+		String str = client.getStringStack()[--stringStackSize];
+		int retval = 0;
 
-			client.getStringStack()[stringStackSize++] = str;
-			client.getIntStack()[intStackSize++] = retval;
-			client.setIntStackSize(intStackSize);
-			client.setStringStackSize(stringStackSize);
+		switch (typedKey)
+		{
+			case 27: // Escape
+				str = "";
+				// fallthrough
+			case '\n':
+				done.accept(str);
+				retval = 1;
+				break;
+			case '\b':
+				if (str.length() > 0)
+				{
+					str = str.substring(0, str.length() - 1);
+				}
+			default:
+				// If we wanted to do numbers only, we could add a limit here
+				if (typedKey >= 32 && (str.length() < characterLimit))
+				{
+					str += Character.toString((char) typedKey);
+				}
 		}
+
+		client.getStringStack()[stringStackSize++] = str;
+		client.getIntStack()[intStackSize++] = retval;
+		client.setIntStackSize(intStackSize);
+		client.setStringStackSize(stringStackSize);
 	}
 }
@@ -209,7 +209,7 @@ public class ItemManager
 			sprite.toBufferedImage(img);
 			img.changed();
 			return true;
-		});
+		}, ClientThread.Priority.LOW);
 		return img;
 	}
 
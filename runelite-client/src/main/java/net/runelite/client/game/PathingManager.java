@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import com.google.common.eventbus.Subscribe;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
+import static net.runelite.api.Constants.REGION_SIZE;
+import net.runelite.api.Player;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldArea;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameStateChanged;
+
+/**
+ * Answers reachability, path and line of sight queries for the current scene.
+ * <p>
+ * The distance from the local player to every tile is computed at most once per
+ * game tick, the first time it is asked for, and line of sight results are cached
+ * until the next tick. The tick is read from the client rather than from the
+ * {@link net.runelite.api.events.GameTick} event, so results are fresh for
+ * subscribers to that event regardless of the order they are called in.
+ * All methods must be called from the client thread.
+ */
+@Singleton
+public class PathingManager
+{
+	private static final int LINE_OF_SIGHT_CACHE_SIZE = 4096;
+
+	private final Client client;
+	private final ScenePathfinder pathfinder = new ScenePathfinder();
+	private final int[] path = new int[REGION_SIZE * REGION_SIZE];
+
+	// Bumped every tick and scene change, which invalidates everything computed before it
+	private int generation = 1;
+	private int tickCount = -1;
+
+	private int distancesGeneration;
+	private int distancesPlane;
+
+	private final int[] lineOfSightKeys = new int[LINE_OF_SIGHT_CACHE_SIZE];
+	private final int[] lineOfSightGenerations = new int[LINE_OF_SIGHT_CACHE_SIZE];
+	private final boolean[] lineOfSightResults = new boolean[LINE_OF_SIGHT_CACHE_SIZE];
+
+	@Inject
+	PathingManager(Client client)
+	{
+		this.client = client;
+	}
+
+	@Subscribe
+	public void onGameStateChanged(GameStateChanged event)
+	{
+		++generation;
+	}
+
+	/**
+	 * Gets the number of steps the local player needs to walk to a point.
+	 *
+	 * @param point the point
+	 * @return the number of steps, or -1 if the point can not be reached
+	 */
+	public int getDistance(WorldPoint point)
+	{
+		final LocalPoint lp = LocalPoint.fromWorld(client, point);
+
+		if (lp == null || !updateDistances() || point.getPlane() != distancesPlane)
+		{
+			return -1;
+		}
+
+		return pathfinder.getDistance(lp.getRegionX(), lp.getRegionY());
+	}
+
+	/**
+	 * Determines if the local player can walk to a point.
+	 */
+	public boolean isReachable(WorldPoint point)
+	{
+		return getDistance(point) != -1;
+	}
+
+	/**
+	 * Finds a shortest path between two points for a single tile entity.
+	 *
+	 * @return the points of the path not including the start, or null if there is none
+	 */
+	public List<WorldPoint> findPath(WorldPoint from, WorldPoint to)
+	{
+		return findPath(from, to, 1);
+	}
+
+	/**
+	 * Finds a shortest path between two points.
+	 *
+	 * @param from the south west point of the entity
+	 * @param to   the point to move the south west point of the entity to
+	 * @param size the size of the entity in tiles
+	 * @return the points of the path not including the start, or null if there is none
+	 */
+	public List<WorldPoint> findPath(WorldPoint from, WorldPoint to, int size)
+	{
+		if (from.getPlane() != to.getPlane())
+		{
+			return null;
+		}
+
+		final LocalPoint start = LocalPoint.fromWorld(client, from);
+		final LocalPoint end = LocalPoint.fromWorld(client, to);
+		final CollisionData collisionData = getCollisionData(from.getPlane());
+
+		if (start == null || end == null || collisionData == null)
+		{
+			return null;
+		}
+
+		final int length = pathfinder.findPath(collisionData, start.getRegionX(), start.getRegionY(),
+			end.getRegionX(), end.getRegionY(), size, path);
+
+		if (length == -1)
+		{
+			return null;
+		}
+
+		if (length == 0)
+		{
+			return Collections.emptyList();
+		}
+
+		final List<WorldPoint> points = new ArrayList<>(length);
+		for (int i = 0; i < length; ++i)
+		{
+			points.add(WorldPoint.fromRegion(client, ScenePathfinder.getX(path[i]), ScenePathfinder.getY(path[i]), from.getPlane()));
+		}
+
+		return points;
+	}
+
+	/**
+	 * Determine if one point has line of sight to another.
+	 * <p>
+	 * Note that the reverse isn't necessarily true.
+	 */
+	public boolean hasLineOfSight(WorldPoint from, WorldPoint to)
+	{
+		return hasLineOfSight(new WorldArea(from, 1, 1), new WorldArea(to, 1, 1));
+	}
+
+	/**
+	 * Determine if one area has line of sight to another, the same as
+	 * {@link WorldArea#hasLineOfSightTo(Client, WorldArea)}.
+	 * <p>
+	 * Note that the reverse isn't necessarily true.
+	 */
+	public boolean hasLineOfSight(WorldArea from, WorldArea to)
+	{
+		if (from.getPlane() != to.getPlane())
+		{
+			return false;
+		}
+
+		final LocalPoint sourceLp = LocalPoint.fromWorld(client, from.getX(), from.getY());
+		final LocalPoint targetLp = LocalPoint.fromWorld(client, to.getX(), to.getY());
+		if (sourceLp == null || targetLp == null)
+		{
+			return false;
+		}
+
+		final int thisX = sourceLp.getRegionX();
+		final int thisY = sourceLp.getRegionY();
+		final int otherX = targetLp.getRegionX();
+		final int otherY = targetLp.getRegionY();
+
+		// Compare the closest tiles of each area
+		final int x1 = clamp(otherX, thisX, thisX + from.getWidth() - 1);
+		final int y1 = clamp(otherY, thisY, thisY + from.getHeight() - 1);
+		final int x2 = clamp(thisX, otherX, otherX + to.getWidth() - 1);
+		final int y2 = clamp(thisY, otherY, otherY + to.getHeight() - 1);
+
+		if (x1 >= REGION_SIZE || y1 >= REGION_SIZE || x2 >= REGION_SIZE || y2 >= REGION_SIZE)
+		{
+			return false;
+		}
+
+		updateGeneration();
+
+		final int plane = from.getPlane();
+		final int key = (((plane * REGION_SIZE + x1) * REGION_SIZE + y1) * REGION_SIZE + x2) * REGION_SIZE + y2;
+		final int slot = (key * 0x9E3779B9 >>> 20) & (LINE_OF_SIGHT_CACHE_SIZE - 1);
+
+		if (lineOfSightGenerations[slot] == generation && lineOfSightKeys[slot] == key)
+		{
+			return lineOfSightResults[slot];
+		}
+
+		final CollisionData collisionData = getCollisionData(plane);
+		if (collisionData == null)
+		{
+			return false;
+		}
+
+		final boolean result = ScenePathfinder.hasLineOfSight(collisionData, x1, y1, x2, y2);
+		lineOfSightKeys[slot] = key;
+		lineOfSightGenerations[slot] = generation;
+		lineOfSightResults[slot] = result;
+		return result;
+	}
+
+	private static int clamp(int value, int min, int max)
+	{
+		return Math.max(min, Math.min(max, value));
+	}
+
+	private void updateGeneration()
+	{
+		final int tick = client.getTickCount();
+		if (tick != tickCount)
+		{
+			tickCount = tick;
+			++generation;
+		}
+	}
+
+	private boolean updateDistances()
+	{
+		updateGeneration();
+
+		if (distancesGeneration == generation)
+		{
+			return true;
+		}
+
+		final Player player = client.getLocalPlayer();
+		if (player == null)
+		{
+			return false;
+		}
+
+		final LocalPoint lp = player.getLocalLocation();
+		final CollisionData collisionData = getCollisionData(client.getPlane());
+		if (lp == null || collisionData == null)
+		{
+			return false;
+		}
+
+		pathfinder.computeDistances(collisionData, lp.getRegionX(), lp.getRegionY());
+		distancesGeneration = generation;
+		distancesPlane = client.getPlane();
+		return true;
+	}
+
+	private CollisionData getCollisionData(int plane)
+	{
+		final CollisionData[] collisionData = client.getCollisionMaps();
+		return collisionData == null ? null : collisionData[plane];
+	}
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import com.google.common.eventbus.Subscribe;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import static net.runelite.api.Constants.MAX_Z;
+import static net.runelite.api.Constants.REGION_SIZE;
+import net.runelite.api.Client;
+import net.runelite.api.DecorativeObject;
+import net.runelite.api.GameObject;
+import net.runelite.api.GameState;
+import net.runelite.api.GroundObject;
+import net.runelite.api.NPC;
+import net.runelite.api.Perspective;
+import net.runelite.api.Player;
+import net.runelite.api.Point;
+import net.runelite.api.Region;
+import net.runelite.api.Tile;
+import net.runelite.api.TileObject;
+import net.runelite.api.WallObject;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.events.DecorativeObjectChanged;
+import net.runelite.api.events.DecorativeObjectDespawned;
+import net.runelite.api.events.DecorativeObjectSpawned;
+import net.runelite.api.events.GameObjectChanged;
+import net.runelite.api.events.GameObjectDespawned;
+import net.runelite.api.events.GameObjectSpawned;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GroundObjectChanged;
+import net.runelite.api.events.GroundObjectDespawned;
+import net.runelite.api.events.GroundObjectSpawned;
+import net.runelite.api.events.NpcDespawned;
+import net.runelite.api.events.NpcSpawned;
+import net.runelite.api.events.PlayerDespawned;
+import net.runelite.api.events.PlayerSpawned;
+import net.runelite.api.events.WallObjectChanged;
+import net.runelite.api.events.WallObjectDespawned;
+import net.runelite.api.events.WallObjectSpawned;
+import net.runelite.api.queries.DecorativeObjectQuery;
+import net.runelite.api.queries.GameObjectQuery;
+import net.runelite.api.queries.GroundObjectQuery;
+import net.runelite.api.queries.NPCQuery;
+import net.runelite.api.queries.PlayerQuery;
+import net.runelite.api.queries.TileObjectQuery;
+import net.runelite.api.queries.WallObjectQuery;
+
+/**
+ * Index of the entities in the scene, kept up to date from the spawn and
+ * despawn events so that queries do not have to walk every tile.
+ * <p>
+ * The index is thrown away when a new scene is loaded and is rebuilt from
+ * a single walk of the scene the next time it is used.
+ */
+@Singleton
+public class SceneIndex
+{
+	private static final int HASH_TYPE_OBJECT = 2;
+
+	private final Client client;
+
+	private final TileObjectIndex<GameObject> gameObjects = new TileObjectIndex<>();
+	private final TileObjectIndex<WallObject> wallObjects = new TileObjectIndex<>();
+	private final TileObjectIndex<GroundObject> groundObjects = new TileObjectIndex<>();
+	private final TileObjectIndex<DecorativeObject> decorativeObjects = new TileObjectIndex<>();
+	private final Set<NPC> npcs = new LinkedHashSet<>();
+	private final Set<Player> players = new LinkedHashSet<>();
+
+	private boolean valid;
+
+	@Inject
+	SceneIndex(Client client)
+	{
+		this.client = client;
+	}
+
+	public GameObject[] query(GameObjectQuery query)
+	{
+		return query(query, gameObjects);
+	}
+
+	public WallObject[] query(WallObjectQuery query)
+	{
+		return query(query, wallObjects);
+	}
+
+	public GroundObject[] query(GroundObjectQuery query)
+	{
+		return query(query, groundObjects);
+	}
+
+	public DecorativeObject[] query(DecorativeObjectQuery query)
+	{
+		return query(query, decorativeObjects);
+	}
+
+	public NPC[] query(NPCQuery query)
+	{
+		if (!ensureValid())
+		{
+			return query.result(client);
+		}
+
+		return query.filter(npcs);
+	}
+
+	public Player[] query(PlayerQuery query)
+	{
+		if (!ensureValid())
+		{
+			return query.result(client);
+		}
+
+		return query.filter(players);
+	}
+
+	/**
+	 * Runs a tile object query against the objects in the index.
+	 *
+	 * @param query the query
+	 * @param index the index of the kind of object the query is for
+	 * @return the matching objects
+	 */
+	private <T extends TileObject> T[] query(TileObjectQuery<T, ?> query, TileObjectIndex<T> index)
+	{
+		if (!ensureValid())
+		{
+			return query.result(client);
+		}
+
+		final int plane = client.getPlane();
+		final List<T> candidates = new ArrayList<>();
+		final LocalPoint origin = query.getOrigin();
+
+		if (query.getIds() != null)
+		{
+			index.getById(plane, query.getIds(), candidates);
+		}
+		else if (origin != null)
+		{
+			// objects are indexed by the tiles they cover, which can be up to a tile from their center
+			int radius = query.getMaxDistance() / Perspective.LOCAL_TILE_SIZE + 1;
+			int x = origin.getRegionX();
+			int y = origin.getRegionY();
+			index.getInArea(plane, x - radius, y - radius, x + radius, y + radius, candidates);
+		}
+		else
+		{
+			index.getAll(plane, candidates);
+		}
+
+		return query.filter(candidates);
+	}
+
+	/**
+	 * Rebuilds the index from the scene if it has been invalidated.
+	 *
+	 * @return false if there is no scene to index
+	 */
+	private boolean ensureValid()
+	{
+		if (valid)
+		{
+			return true;
+		}
+
+		if (client.getGameState() != GameState.LOGGED_IN)
+		{
+			return false;
+		}
+
+		valid = true;
+		rebuild();
+		return true;
+	}
+
+	private void rebuild()
+	{
+		clear();
+
+		Region region = client.getRegion();
+		Tile[][][] tiles = region.getTiles();
+		for (int z = 0; z < MAX_Z; ++z)
+		{
+			for (int x = 0; x < REGION_SIZE; ++x)
+			{
+				for (int y = 0; y < REGION_SIZE; ++y)
+				{
+					Tile tile = tiles[z][x][y];
+					if (tile == null)
+					{
+						continue;
+					}
+
+					GameObject[] objects = tile.getGameObjects();
+					if (objects != null)
+					{
+						for (GameObject object : objects)
+						{
+							// actors are placed on tiles as game objects while they are drawn
+							if (object != null && getHashType(object) == HASH_TYPE_OBJECT)
+							{
+								add(gameObjects, tile, object);
+							}
+						}
+					}
+
+					add(wallObjects, tile, tile.getWallObject());
+					add(groundObjects, tile, tile.getGroundObject());
+					add(decorativeObjects, tile, tile.getDecorativeObject());
+				}
+			}
+		}
+
+		npcs.addAll(client.getNpcs());
+		players.addAll(client.getPlayers());
+	}
+
+	private static int getHashType(TileObject object)
+	{
+		return (int) (object.getHash() >>> 14 & 3);
+	}
+
+	private void clear()
+	{
+		gameObjects.clear();
+		wallObjects.clear();
+		groundObjects.clear();
+		decorativeObjects.clear();
+		npcs.clear();
+		players.clear();
+	}
+
+	private <T extends TileObject> void add(TileObjectIndex<T> index, Tile tile, T object)
+	{
+		if (!valid || object == null)
+		{
+			return;
+		}
+
+		Point location = tile.getRegionLocation();
+		index.add(tile.getPlane(), location.getX(), location.getY(), object);
+	}
+
+	private <T extends TileObject> void remove(TileObjectIndex<T> index, Tile tile, T object)
+	{
+		if (!valid || object == null)
+		{
+			return;
+		}
+
+		Point location = tile.getRegionLocation();
+		index.remove(tile.getPlane(), location.getX(), location.getY(), object);
+	}
+
+	@Subscribe
+	public void onGameStateChanged(GameStateChanged event)
+	{
+		if (event.getGameState() != GameState.LOGGED_IN)
+		{
+			// tiles are recreated when the scene is loaded, without despawning what was on them
+			valid = false;
+			clear();
+		}
+	}
+
+	@Subscribe
+	public void onGameObjectSpawned(GameObjectSpawned event)
+	{
+		add(gameObjects, event.getTile(), event.getGameObject());
+	}
+
+	@Subscribe
+	public void onGameObjectChanged(GameObjectChanged event)
+	{
+		remove(gameObjects, event.getTile(), event.getPrevious());
+		add(gameObjects, event.getTile(), event.getGameObject());
+	}
+
+	@Subscribe
+	public void onGameObjectDespawned(GameObjectDespawned event)
+	{
+		remove(gameObjects, event.getTile(), event.getGameObject());
+	}
+
+	@Subscribe
+	public void onWallObjectSpawned(WallObjectSpawned event)
+	{
+		add(wallObjects, event.getTile(), event.getWallObject());
+	}
+
+	@Subscribe
+	public void onWallObjectChanged(WallObjectChanged event)
+	{
+		remove(wallObjects, event.getTile(), event.getPrevious());
+		add(wallObjects, event.getTile(), event.getWallObject());
+	}
+
+	@Subscribe
+	public void onWallObjectDespawned(WallObjectDespawned event)
+	{
+		remove(wallObjects, event.getTile(), event.getWallObject());
+	}
+
+	@Subscribe
+	public void onGroundObjectSpawned(GroundObjectSpawned event)
+	{
+		add(groundObjects, event.getTile(), event.getGroundObject());
+	}
+
+	@Subscribe
+	public void onGroundObjectChanged(GroundObjectChanged event)
+	{
+		remove(groundObjects, event.getTile(), event.getPrevious());
+		add(groundObjects, event.getTile(), event.getGroundObject());
+	}
+
+	@Subscribe
+	public void onGroundObjectDespawned(GroundObjectDespawned event)
+	{
+		remove(groundObjects, event.getTile(), event.getGroundObject());
+	}
+
+	@Subscribe
+	public void onDecorativeObjectSpawned(DecorativeObjectSpawned event)
+	{
+		add(decorativeObjects, event.getTile(), event.getDecorativeObject());
+	}
+
+	@Subscribe
+	public void onDecorativeObjectChanged(DecorativeObjectChanged event)
+	{
+		remove(decorativeObjects, event.getTile(), event.getPrevious());
+		add(decorativeObjects, event.getTile(), event.getDecorativeObject());
+	}
+
+	@Subscribe
+	public void onDecorativeObjectDespawned(DecorativeObjectDespawned event)
+	{
+		remove(decorativeObjects, event.getTile(), event.getDecorativeObject());
+	}
+
+	@Subscribe
+	public void onNpcSpawned(NpcSpawned event)
+	{
+		if (valid)
+		{
+			npcs.add(event.getNpc());
+		}
+	}
+
+	@Subscribe
+	public void onNpcDespawned(NpcDespawned event)
+	{
+		npcs.remove(event.getNpc());
+	}
+
+	@Subscribe
+	public void onPlayerSpawned(PlayerSpawned event)
+	{
+		if (valid)
+		{
+			players.add(event.getPlayer());
+		}
+	}
+
+	@Subscribe
+	public void onPlayerDespawned(PlayerDespawned event)
+	{
+		players.remove(event.getPlayer());
+	}
+}
@@ -0,0 +1,577 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import java.util.Arrays;
+import net.runelite.api.CollisionData;
+import net.runelite.api.CollisionDataFlag;
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * Reachability, shortest paths and line of sight over the collision flags of a scene.
+ * <p>
+ * Tiles are identified by their index {@code x * REGION_SIZE + y} in scene coordinates.
+ * All of the working arrays are allocated once and reused, with search stamps used to
+ * tell which entries belong to the current search instead of clearing them.
+ * <p>
+ * Movement follows the same rules as
+ * {@link net.runelite.api.coords.WorldArea#canTravelInDirection(net.runelite.api.Client, int, int)},
+ * where a diagonal step costs the same as a straight one. This class is not thread safe.
+ */
+public class ScenePathfinder
+{
+	private static final int TILES = REGION_SIZE * REGION_SIZE;
+
+	// The directions in the order the game checks them: W, E, S, N, SW, SE, NW, NE
+	private static final int[] DX = {-1, 1, 0, 0, -1, 1, -1, 1};
+	private static final int[] DY = {0, 0, -1, 1, -1, -1, 1, 1};
+
+	private static final int[] X_FLAGS = new int[DX.length];
+	private static final int[] Y_FLAGS = new int[DX.length];
+	private static final int[] XY_FLAGS = new int[DX.length];
+	private static final int[] X_WALL_SOUTH = new int[DX.length];
+	private static final int[] X_WALL_NORTH = new int[DX.length];
+	private static final int[] Y_WALL_WEST = new int[DX.length];
+	private static final int[] Y_WALL_EAST = new int[DX.length];
+
+	static
+	{
+		for (int d = 0; d < DX.length; ++d)
+		{
+			final int dx = DX[d];
+			final int dy = DY[d];
+
+			int xFlags = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+			int yFlags = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+			int xyFlags = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+			int xWallSouth = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+			int xWallNorth = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+			int yWallWest = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+			int yWallEast = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+
+			if (dx < 0)
+			{
+				xFlags |= CollisionDataFlag.BLOCK_MOVEMENT_EAST;
+				xWallSouth |= CollisionDataFlag.BLOCK_MOVEMENT_SOUTH | CollisionDataFlag.BLOCK_MOVEMENT_SOUTH_EAST;
+				xWallNorth |= CollisionDataFlag.BLOCK_MOVEMENT_NORTH | CollisionDataFlag.BLOCK_MOVEMENT_NORTH_EAST;
+			}
+			if (dx > 0)
+			{
+				xFlags |= CollisionDataFlag.BLOCK_MOVEMENT_WEST;
+				xWallSouth |= CollisionDataFlag.BLOCK_MOVEMENT_SOUTH | CollisionDataFlag.BLOCK_MOVEMENT_SOUTH_WEST;
+				xWallNorth |= CollisionDataFlag.BLOCK_MOVEMENT_NORTH | CollisionDataFlag.BLOCK_MOVEMENT_NORTH_WEST;
+			}
+			if (dy < 0)
+			{
+				yFlags |= CollisionDataFlag.BLOCK_MOVEMENT_NORTH;
+				yWallWest |= CollisionDataFlag.BLOCK_MOVEMENT_WEST | CollisionDataFlag.BLOCK_MOVEMENT_NORTH_WEST;
+				yWallEast |= CollisionDataFlag.BLOCK_MOVEMENT_EAST | CollisionDataFlag.BLOCK_MOVEMENT_NORTH_EAST;
+			}
+			if (dy > 0)
+			{
+				yFlags |= CollisionDataFlag.BLOCK_MOVEMENT_SOUTH;
+				yWallWest |= CollisionDataFlag.BLOCK_MOVEMENT_WEST | CollisionDataFlag.BLOCK_MOVEMENT_SOUTH_WEST;
+				yWallEast |= CollisionDataFlag.BLOCK_MOVEMENT_EAST | CollisionDataFlag.BLOCK_MOVEMENT_SOUTH_EAST;
+			}
+			if (dx < 0 && dy < 0)
+			{
+				xyFlags |= CollisionDataFlag.BLOCK_MOVEMENT_NORTH_EAST;
+			}
+			if (dx < 0 && dy > 0)
+			{
+				xyFlags |= CollisionDataFlag.BLOCK_MOVEMENT_SOUTH_EAST;
+			}
+			if (dx > 0 && dy < 0)
+			{
+				xyFlags |= CollisionDataFlag.BLOCK_MOVEMENT_NORTH_WEST;
+			}
+			if (dx > 0 && dy > 0)
+			{
+				xyFlags |= CollisionDataFlag.BLOCK_MOVEMENT_SOUTH_WEST;
+			}
+
+			X_FLAGS[d] = xFlags;
+			Y_FLAGS[d] = yFlags;
+			XY_FLAGS[d] = xyFlags;
+			X_WALL_SOUTH[d] = xWallSouth;
+			X_WALL_NORTH[d] = xWallNorth;
+			Y_WALL_WEST[d] = yWallWest;
+			Y_WALL_EAST[d] = yWallEast;
+		}
+	}
+
+	// Distance field
+	private final int[] distances = new int[TILES];
+	private final int[] queue = new int[TILES];
+
+	// A* search
+	private final int[] costs = new int[TILES];
+	private final int[] parents = new int[TILES];
+	private final int[] opened = new int[TILES];
+	private final int[] closed = new int[TILES];
+	private final int[] heapTiles = new int[TILES * DX.length];
+	private final int[] heapKeys = new int[TILES * DX.length];
+	private int heapSize;
+	private int search;
+
+	public ScenePathfinder()
+	{
+		Arrays.fill(distances, -1);
+	}
+
+	public static int toTile(int x, int y)
+	{
+		return x * REGION_SIZE + y;
+	}
+
+	public static int getX(int tile)
+	{
+		return tile / REGION_SIZE;
+	}
+
+	public static int getY(int tile)
+	{
+		return tile % REGION_SIZE;
+	}
+
+	/**
+	 * Fills the distance field with the number of steps from a tile to every
+	 * tile reachable from it.
+	 *
+	 * @param collisionData the collision data of the plane
+	 * @param x             the scene x of the start
+	 * @param y             the scene y of the start
+	 */
+	public void computeDistances(CollisionData collisionData, int x, int y)
+	{
+		final int[][] flags = collisionData.getFlags();
+
+		Arrays.fill(distances, -1);
+
+		if (!inScene(x, y, 1))
+		{
+			return;
+		}
+
+		int head = 0;
+		int tail = 0;
+
+		distances[toTile(x, y)] = 0;
+		queue[tail++] = toTile(x, y);
+
+		while (head < tail)
+		{
+			final int tile = queue[head++];
+			final int tileX = getX(tile);
+			final int tileY = getY(tile);
+			final int distance = distances[tile] + 1;
+
+			for (int d = 0; d < DX.length; ++d)
+			{
+				final int next = tile + DX[d] * REGION_SIZE + DY[d];
+
+				if (inScene(tileX + DX[d], tileY + DY[d], 1) && distances[next] == -1 && canMove(flags, tileX, tileY, 1, d))
+				{
+					distances[next] = distance;
+					queue[tail++] = next;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the distance to a tile from the last {@link #computeDistances(CollisionData, int, int)}
+	 *
+	 * @return the number of steps to the tile, or -1 if it can not be reached
+	 */
+	public int getDistance(int x, int y)
+	{
+		return inScene(x, y, 1) ? distances[toTile(x, y)] : -1;
+	}
+
+	/**
+	 * Finds a shortest path for an entity between two tiles.
+	 *
+	 * @param collisionData the collision data of the plane
+	 * @param startX        the scene x of the south west tile of the entity
+	 * @param startY        the scene y of the south west tile of the entity
+	 * @param endX          the scene x to move the south west tile of the entity to
+	 * @param endY          the scene y to move the south west tile of the entity to
+	 * @param size          the size of the entity in tiles
+	 * @param path          receives the tiles of the path, not including the start
+	 * @return the length of the path, or -1 if there is none or it does not fit in {@code path}
+	 */
+	public int findPath(CollisionData collisionData, int startX, int startY, int endX, int endY, int size, int[] path)
+	{
+		if (!inScene(startX, startY, size) || !inScene(endX, endY, size))
+		{
+			return -1;
+		}
+
+		final int[][] flags = collisionData.getFlags();
+		final int start = toTile(startX, startY);
+		final int end = toTile(endX, endY);
+
+		++search;
+		heapSize = 0;
+
+		costs[start] = 0;
+		parents[start] = -1;
+		opened[start] = search;
+		push(start, heuristic(startX, startY, endX, endY));
+
+		while (heapSize > 0)
+		{
+			final int tile = pop();
+
+			if (closed[tile] == search)
+			{
+				// A stale entry for a tile reached again more cheaply
+				continue;
+			}
+
+			closed[tile] = search;
+
+			if (tile == end)
+			{
+				return buildPath(start, end, path);
+			}
+
+			final int tileX = getX(tile);
+			final int tileY = getY(tile);
+			final int cost = costs[tile] + 1;
+
+			for (int d = 0; d < DX.length; ++d)
+			{
+				final int nextX = tileX + DX[d];
+				final int nextY = tileY + DY[d];
+				final int next = toTile(nextX, nextY);
+
+				if (!inScene(nextX, nextY, size) || closed[next] == search
+					|| (opened[next] == search && costs[next] <= cost)
+					|| !canMove(flags, tileX, tileY, size, d))
+				{
+					continue;
+				}
+
+				opened[next] = search;
+				costs[next] = cost;
+				parents[next] = tile;
+				push(next, cost + heuristic(nextX, nextY, endX, endY));
+			}
+		}
+
+		return -1;
+	}
+
+	private int buildPath(int start, int end, int[] path)
+	{
+		final int length = costs[end];
+
+		if (length > path.length)
+		{
+			return -1;
+		}
+
+		for (int tile = end, i = length - 1; tile != start; tile = parents[tile], --i)
+		{
+			path[i] = tile;
+		}
+
+		return length;
+	}
+
+	private static int heuristic(int x, int y, int endX, int endY)
+	{
+		// Diagonal steps cost the same as straight ones
+		return Math.max(Math.abs(endX - x), Math.abs(endY - y));
+	}
+
+	private void push(int tile, int f)
+	{
+		int i = heapSize++;
+
+		while (i > 0)
+		{
+			final int parent = (i - 1) >> 1;
+
+			if (heapKeys[parent] <= f)
+			{
+				break;
+			}
+
+			heapTiles[i] = heapTiles[parent];
+			heapKeys[i] = heapKeys[parent];
+			i = parent;
+		}
+
+		heapTiles[i] = tile;
+		heapKeys[i] = f;
+	}
+
+	private int pop()
+	{
+		final int result = heapTiles[0];
+		final int tile = heapTiles[--heapSize];
+		final int f = heapKeys[heapSize];
+		int i = 0;
+
+		while (true)
+		{
+			int child = 2 * i + 1;
+
+			if (child >= heapSize)
+			{
+				break;
+			}
+
+			if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child])
+			{
+				++child;
+			}
+
+			if (heapKeys[child] >= f)
+			{
+				break;
+			}
+
+			heapTiles[i] = heapTiles[child];
+			heapKeys[i] = heapKeys[child];
+			i = child;
+		}
+
+		heapTiles[i] = tile;
+		heapKeys[i] = f;
+		return result;
+	}
+
+	/**
+	 * Determines if an entity can take a step in a direction.
+	 *
+	 * @param collisionData the collision data of the plane
+	 * @param x             the scene x of the south west tile of the entity
+	 * @param y             the scene y of the south west tile of the entity
+	 * @param size          the size of the entity in tiles
+	 * @param dx            the x-axis direction to travel (-1, 0, or 1)
+	 * @param dy            the y-axis direction to travel (-1, 0, or 1)
+	 * @return true if the entity can take the step
+	 */
+	public static boolean canTravelInDirection(CollisionData collisionData, int x, int y, int size, int dx, int dy)
+	{
+		dx = Integer.signum(dx);
+		dy = Integer.signum(dy);
+
+		if (dx == 0 && dy == 0)
+		{
+			return true;
+		}
+
+		for (int d = 0; d < DX.length; ++d)
+		{
+			if (DX[d] == dx && DY[d] == dy)
+			{
+				return inScene(x + dx, y + dy, size) && canMove(collisionData.getFlags(), x, y, size, d);
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean canMove(int[][] flags, int x, int y, int size, int d)
+	{
+		final int dx = DX[d];
+		final int dy = DY[d];
+		final int startX = x + dx;
+		final int startY = y + dy;
+		final int endX = startX + size - 1;
+		final int endY = startY + size - 1;
+		final int checkX = startX + (dx > 0 ? size - 1 : 0);
+		final int checkY = startY + (dy > 0 ? size - 1 : 0);
+
+		if (dx != 0)
+		{
+			// Check that the area doesn't bypass a wall
+			for (int ty = startY; ty <= endY; ++ty)
+			{
+				if ((flags[checkX][ty] & X_FLAGS[d]) != 0)
+				{
+					return false;
+				}
+			}
+
+			// Check that the new area tiles don't contain a wall
+			for (int ty = startY + 1; ty <= endY; ++ty)
+			{
+				if ((flags[checkX][ty] & X_WALL_SOUTH[d]) != 0)
+				{
+					return false;
+				}
+			}
+			for (int ty = endY - 1; ty >= startY; --ty)
+			{
+				if ((flags[checkX][ty] & X_WALL_NORTH[d]) != 0)
+				{
+					return false;
+				}
+			}
+		}
+
+		if (dy != 0)
+		{
+			for (int tx = startX; tx <= endX; ++tx)
+			{
+				if ((flags[tx][checkY] & Y_FLAGS[d]) != 0)
+				{
+					return false;
+				}
+			}
+
+			for (int tx = startX + 1; tx <= endX; ++tx)
+			{
+				if ((flags[tx][checkY] & Y_WALL_WEST[d]) != 0)
+				{
+					return false;
+				}
+			}
+			for (int tx = endX - 1; tx >= startX; --tx)
+			{
+				if ((flags[tx][checkY] & Y_WALL_EAST[d]) != 0)
+				{
+					return false;
+				}
+			}
+		}
+
+		if (dx != 0 && dy != 0)
+		{
+			if ((flags[checkX][checkY] & XY_FLAGS[d]) != 0)
+			{
+				return false;
+			}
+
+			// A diagonal step of a single tile entity also has to be possible along each axis
+			if (size == 1)
+			{
+				if ((flags[checkX][checkY - dy] & X_FLAGS[d]) != 0 || (flags[checkX - dx][checkY] & Y_FLAGS[d]) != 0)
+				{
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Determines if one tile has line of sight to another.
+	 * <p>
+	 * Note that the reverse isn't necessarily true.
+	 *
+	 * @param collisionData the collision data of the plane
+	 * @return true if there is line of sight from the first tile to the second
+	 */
+	public static boolean hasLineOfSight(CollisionData collisionData, int x1, int y1, int x2, int y2)
+	{
+		if (x1 == x2 && y1 == y2)
+		{
+			return true;
+		}
+
+		final int[][] flags = collisionData.getFlags();
+		final int dx = x2 - x1;
+		final int dy = y2 - y1;
+		final int dxAbs = Math.abs(dx);
+		final int dyAbs = Math.abs(dy);
+
+		final int xFlags = CollisionDataFlag.BLOCK_LINE_OF_SIGHT_FULL
+			| (dx < 0 ? CollisionDataFlag.BLOCK_LINE_OF_SIGHT_EAST : CollisionDataFlag.BLOCK_LINE_OF_SIGHT_WEST);
+		final int yFlags = CollisionDataFlag.BLOCK_LINE_OF_SIGHT_FULL
+			| (dy < 0 ? CollisionDataFlag.BLOCK_LINE_OF_SIGHT_NORTH : CollisionDataFlag.BLOCK_LINE_OF_SIGHT_SOUTH);
+
+		if (dxAbs > dyAbs)
+		{
+			int x = x1;
+			int yBig = y1 << 16; // The y position is represented as a bigger number to handle rounding
+			final int slope = (dy << 16) / dxAbs;
+			yBig += 0x8000; // Add half of a tile
+			if (dy < 0)
+			{
+				yBig--; // For correct rounding
+			}
+			final int direction = dx < 0 ? -1 : 1;
+
+			while (x != x2)
+			{
+				x += direction;
+				final int y = yBig >>> 16;
+				if ((flags[x][y] & xFlags) != 0)
+				{
+					return false;
+				}
+				yBig += slope;
+				final int nextY = yBig >>> 16;
+				if (nextY != y && (flags[x][nextY] & yFlags) != 0)
+				{
+					return false;
+				}
+			}
+		}
+		else
+		{
+			int y = y1;
+			int xBig = x1 << 16; // The x position is represented as a bigger number to handle rounding
+			final int slope = (dx << 16) / dyAbs;
+			xBig += 0x8000; // Add half of a tile
+			if (dx < 0)
+			{
+				xBig--; // For correct rounding
+			}
+			final int direction = dy < 0 ? -1 : 1;
+
+			while (y != y2)
+			{
+				y += direction;
+				final int x = xBig >>> 16;
+				if ((flags[x][y] & yFlags) != 0)
+				{
+					return false;
+				}
+				xBig += slope;
+				final int nextX = xBig >>> 16;
+				if (nextX != x && (flags[nextX][y] & xFlags) != 0)
+				{
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean inScene(int x, int y, int size)
+	{
+		return x >= 0 && y >= 0 && x + size <= REGION_SIZE && y + size <= REGION_SIZE;
+	}
+}
@@ -97,7 +97,7 @@ public class SpriteManager
 			}
 			user.accept(img);
 			return true;
-		});
+		}, ClientThread.Priority.LOW);
 	}
 
 	/**
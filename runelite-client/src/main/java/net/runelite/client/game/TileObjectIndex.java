@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import static net.runelite.api.Constants.CHUNK_SIZE;
+import static net.runelite.api.Constants.MAX_Z;
+import static net.runelite.api.Constants.REGION_SIZE;
+import net.runelite.api.TileObject;
+
+/**
+ * Index of the tile objects of a single kind in the scene, by id and by chunk.
+ * <p>
+ * Objects spanning multiple tiles are added once per tile, so lookups may
+ * return the same object more than once.
+ */
+class TileObjectIndex<T extends TileObject>
+{
+	private static final int CHUNKS = REGION_SIZE / CHUNK_SIZE;
+
+	private final ListMultimap<Integer, T>[] byId;
+	private final List<T>[][][] byChunk;
+
+	@SuppressWarnings("unchecked")
+	TileObjectIndex()
+	{
+		byId = new ListMultimap[MAX_Z];
+		byChunk = new List[MAX_Z][CHUNKS][CHUNKS];
+		for (int z = 0; z < MAX_Z; ++z)
+		{
+			byId[z] = ArrayListMultimap.create();
+		}
+	}
+
+	void add(int plane, int sceneX, int sceneY, T object)
+	{
+		byId[plane].put(object.getId(), object);
+
+		List<T> chunk = byChunk[plane][sceneX / CHUNK_SIZE][sceneY / CHUNK_SIZE];
+		if (chunk == null)
+		{
+			chunk = new ArrayList<>();
+			byChunk[plane][sceneX / CHUNK_SIZE][sceneY / CHUNK_SIZE] = chunk;
+		}
+		chunk.add(object);
+	}
+
+	void remove(int plane, int sceneX, int sceneY, T object)
+	{
+		byId[plane].remove(object.getId(), object);
+
+		List<T> chunk = byChunk[plane][sceneX / CHUNK_SIZE][sceneY / CHUNK_SIZE];
+		if (chunk != null)
+		{
+			chunk.remove(object);
+		}
+	}
+
+	void clear()
+	{
+		for (int z = 0; z < MAX_Z; ++z)
+		{
+			byId[z].clear();
+			for (List<T>[] column : byChunk[z])
+			{
+				for (List<T> chunk : column)
+				{
+					if (chunk != null)
+					{
+						chunk.clear();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the objects on a plane with any of the passed ids.
+	 */
+	void getById(int plane, int[] ids, Collection<T> out)
+	{
+		for (int id : ids)
+		{
+			out.addAll(byId[plane].get(id));
+		}
+	}
+
+	/**
+	 * Gets the objects on a plane in the chunks overlapping the passed
+	 * square of tiles.
+	 */
+	void getInArea(int plane, int minX, int minY, int maxX, int maxY, Collection<T> out)
+	{
+		int minChunkX = Math.max(0, minX / CHUNK_SIZE);
+		int minChunkY = Math.max(0, minY / CHUNK_SIZE);
+		int maxChunkX = Math.min(CHUNKS - 1, maxX / CHUNK_SIZE);
+		int maxChunkY = Math.min(CHUNKS - 1, maxY / CHUNK_SIZE);
+
+		for (int x = minChunkX; x <= maxChunkX; ++x)
+		{
+			for (int y = minChunkY; y <= maxChunkY; ++y)
+			{
+				List<T> chunk = byChunk[plane][x][y];
+				if (chunk != null)
+				{
+					out.addAll(chunk);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets every object on a plane.
+	 */
+	void getAll(int plane, Collection<T> out)
+	{
+		out.addAll(byId[plane].values());
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Varbits;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.client.callback.ClientThread;
+
+/**
+ * Watches individual varbits, notifying listeners only when the bits of
+ * a varbit they are watching actually change. Listeners are called on the
+ * client thread with the new value of the varbit.
+ */
+@Singleton
+@Slf4j
+public class VarbitWatcher
+{
+	private final Client client;
+	private final ClientThread clientThread;
+
+	private final Map<Integer, Watch> watches = new HashMap<>();
+	private final ListMultimap<Integer, Watch> watchesByVarp = ArrayListMultimap.create();
+
+	@Inject
+	public VarbitWatcher(Client client, ClientThread clientThread, EventBus eventBus)
+	{
+		this.client = client;
+		this.clientThread = clientThread;
+		eventBus.register(this);
+	}
+
+	public void watch(Object subscriber, Varbits varbit, IntConsumer listener)
+	{
+		watch(subscriber, varbit.getId(), listener);
+	}
+
+	/**
+	 * Watches a varbit for changes
+	 *
+	 * @param subscriber owner of the listener, used to unwatch it later
+	 * @param varbitId   varbit to watch
+	 * @param listener   called with the new value when the varbit changes
+	 */
+	public void watch(Object subscriber, int varbitId, IntConsumer listener)
+	{
+		clientThread.invokeLater(() ->
+		{
+			if (client.getGameState().ordinal() < GameState.LOGIN_SCREEN.ordinal())
+			{
+				return false;
+			}
+
+			Watch watch = watches.get(varbitId);
+			if (watch == null)
+			{
+				watch = new Watch(varbitId, client.getVarbitVarpIndex(varbitId));
+				watch.value = client.getVarbitValue(client.getVarps(), varbitId);
+				watches.put(varbitId, watch);
+				watchesByVarp.put(watch.varpIndex, watch);
+			}
+
+			watch.listeners.add(new Listener(subscriber, listener));
+			return true;
+		});
+	}
+
+	/**
+	 * Removes all of the listeners registered by a subscriber
+	 *
+	 * @param subscriber
+	 */
+	public void unwatch(Object subscriber)
+	{
+		clientThread.invokeLater(() ->
+		{
+			for (Iterator<Watch> it = watches.values().iterator(); it.hasNext(); )
+			{
+				Watch watch = it.next();
+				watch.listeners.removeIf(l -> l.subscriber == subscriber);
+
+				if (watch.listeners.isEmpty())
+				{
+					it.remove();
+					watchesByVarp.remove(watch.varpIndex, watch);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Gets the number of varbits currently being watched
+	 *
+	 * @return
+	 */
+	public int getWatchCount()
+	{
+		return watches.size();
+	}
+
+	@Subscribe
+	public void onVarbitChanged(VarbitChanged event)
+	{
+		int index = event.getIndex();
+		Collection<Watch> affected = index == -1 ? watches.values() : watchesByVarp.get(index);
+		if (affected.isEmpty())
+		{
+			return;
+		}
+
+		int[] varps = client.getVarps();
+
+		// listeners may unwatch while being notified
+		for (Watch watch : ImmutableList.copyOf(affected))
+		{
+			int value = client.getVarbitValue(varps, watch.varbitId);
+			if (value == watch.value)
+			{
+				continue;
+			}
+
+			watch.value = value;
+
+			for (Listener listener : ImmutableList.copyOf(watch.listeners))
+			{
+				try
+				{
+					listener.listener.accept(value);
+				}
+				catch (RuntimeException ex)
+				{
+					log.warn("Exception in varbit listener for varbit {}", watch.varbitId, ex);
+				}
+			}
+		}
+	}
+
+	private static class Watch
+	{
+		private final int varbitId;
+		private final int varpIndex;
+		private final List<Listener> listeners = new ArrayList<>();
+		private int value;
+
+		private Watch(int varbitId, int varpIndex)
+		{
+			this.varbitId = varbitId;
+			this.varpIndex = varpIndex;
+		}
+	}
+
+	private static class Listener
+	{
+		private final Object subscriber;
+		private final IntConsumer listener;
+
+		private Listener(Object subscriber, IntConsumer listener)
+		{
+			this.subscriber = subscriber;
+			this.listener = listener;
+		}
+	}
+}
@@ -29,7 +29,6 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -41,7 +40,6 @@ import javax.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.MenuAction;
-import net.runelite.api.MenuEntry;
 import net.runelite.api.NPC;
 import net.runelite.api.NPCComposition;
 import net.runelite.api.events.MenuEntryAdded;
@@ -139,21 +137,14 @@ public class MenuManager
 		managedMenuOptions.remove(widget.getId(), customMenuOption);
 	}
 
-	private boolean menuContainsCustomMenu(WidgetMenuOption customMenuOption)
+	private static boolean menuContainsCustomMenu(Client client, WidgetMenuOption customMenuOption)
 	{
-		Client client = clientProvider.get();
-
-		if (client == null)
-		{
-			return false;
-		}
+		String[] menuOptions = client.getMenuOptions();
+		String[] menuTargets = client.getMenuTargets();
 
-		for (MenuEntry menuEntry : client.getMenuEntries())
+		for (int i = client.getMenuOptionCount() - 1; i >= 0; --i)
 		{
-			String option = menuEntry.getOption();
-			String target = menuEntry.getTarget();
-
-			if (option.equals(customMenuOption.getMenuOption()) && target.equals(customMenuOption.getMenuTarget()))
+			if (customMenuOption.getMenuOption().equals(menuOptions[i]) && customMenuOption.getMenuTarget().equals(menuTargets[i]))
 			{
 				return true;
 			}
@@ -166,6 +157,12 @@ public class MenuManager
 	{
 		int widgetId = event.getActionParam1();
 		Collection<WidgetMenuOption> options = managedMenuOptions.get(widgetId);
+
+		if (options.isEmpty())
+		{
+			return;
+		}
+
 		Client client = clientProvider.get();
 
 		if (client == null)
@@ -175,20 +172,35 @@ public class MenuManager
 
 		for (WidgetMenuOption currentMenu : options)
 		{
-			if (!menuContainsCustomMenu(currentMenu))//Don't add if we have already added it to this widget
+			if (!menuContainsCustomMenu(client, currentMenu))//Don't add if we have already added it to this widget
 			{
-				MenuEntry[] menuEntries = client.getMenuEntries();
-				menuEntries = Arrays.copyOf(menuEntries, menuEntries.length + 1);
+				addMenuEntry(client, currentMenu, widgetId);
+			}
+		}
+	}
 
-				MenuEntry menuEntry = menuEntries[menuEntries.length - 1] = new MenuEntry();
-				menuEntry.setOption(currentMenu.getMenuOption());
-				menuEntry.setParam1(widgetId);
-				menuEntry.setTarget(currentMenu.getMenuTarget());
-				menuEntry.setType(MenuAction.RUNELITE.getId());
+	/**
+	 * Appends an entry to the menu in place, rather than copying the menu to
+	 * set it again.
+	 */
+	private static void addMenuEntry(Client client, WidgetMenuOption customMenuOption, int widgetId)
+	{
+		int count = client.getMenuOptionCount();
+		String[] menuOptions = client.getMenuOptions();
 
-				client.setMenuEntries(menuEntries);
-			}
+		if (count >= menuOptions.length)
+		{
+			return;
 		}
+
+		menuOptions[count] = customMenuOption.getMenuOption();
+		client.getMenuTargets()[count] = customMenuOption.getMenuTarget();
+		client.getMenuIdentifiers()[count] = 0;
+		client.getMenuTypes()[count] = MenuAction.RUNELITE.getId();
+		client.getMenuActionParams0()[count] = 0;
+		client.getMenuActionParams1()[count] = widgetId;
+
+		client.setMenuOptionCount(count + 1);
 	}
 
 	public void addPlayerMenuItem(String menuText)
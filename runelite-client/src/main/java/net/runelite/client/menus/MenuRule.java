@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.menus;
+
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * A rule rewriting the menu as its entries are added, registered with the
+ * {@link MenuTransformer}.
+ * <p>
+ * Options and targets are matched with tags removed and in lower case.
+ * A rule is triggered by the entry it is keyed on being added, so it only
+ * sees the entries which were added before it.
+ */
+@Getter(AccessLevel.PACKAGE)
+public final class MenuRule
+{
+	enum Type
+	{
+		SWAP,
+		INSERT,
+		REMOVE
+	}
+
+	private final Type type;
+
+	/**
+	 * The option of the entry which triggers this rule.
+	 */
+	private final String option;
+
+	/**
+	 * The exact target of the entry which triggers this rule, or null to
+	 * match entries by {@link #targetPredicate}.
+	 */
+	@Nullable
+	private final String target;
+
+	/**
+	 * Matches the target of the entry which triggers this rule, or null
+	 * to match any target.
+	 */
+	@Nullable
+	private final Predicate<String> targetPredicate;
+
+	/**
+	 * The option to swap the entry with, or the option of the entry to insert.
+	 */
+	@Nullable
+	private final String otherOption;
+
+	/**
+	 * Whether {@link #otherOption} must match the swapped entry's option
+	 * exactly, rather than be contained in it.
+	 */
+	private final boolean strict;
+
+	private MenuRule(Type type, String option, @Nullable String target, @Nullable Predicate<String> targetPredicate,
+		@Nullable String otherOption, boolean strict)
+	{
+		this.type = type;
+		this.option = option.toLowerCase();
+		this.target = target == null ? null : target.toLowerCase();
+		this.targetPredicate = targetPredicate;
+		// the inserted option is shown as is
+		this.otherOption = otherOption == null || type == Type.INSERT ? otherOption : otherOption.toLowerCase();
+		this.strict = strict;
+	}
+
+	/**
+	 * Swaps an entry with the entry of the same target with the passed option.
+	 *
+	 * @param option     the option to swap
+	 * @param swapOption the option to put in its place
+	 * @return the rule
+	 */
+	public static MenuRule swap(String option, String swapOption)
+	{
+		return new MenuRule(Type.SWAP, option, null, null, swapOption, true);
+	}
+
+	/**
+	 * Swaps an entry with the entry of the same target with the passed option.
+	 *
+	 * @param option     the option to swap
+	 * @param target     the target of the entries to swap
+	 * @param swapOption the option to put in its place
+	 * @return the rule
+	 */
+	public static MenuRule swapForTarget(String option, String target, String swapOption)
+	{
+		return new MenuRule(Type.SWAP, option, target, null, swapOption, true);
+	}
+
+	/**
+	 * Swaps an entry with the entry of the same target with the passed option.
+	 *
+	 * @param option     the option to swap
+	 * @param target     matches the target of the entries to swap
+	 * @param swapOption the option to put in its place
+	 * @return the rule
+	 */
+	public static MenuRule swapForTarget(String option, Predicate<String> target, String swapOption)
+	{
+		return new MenuRule(Type.SWAP, option, null, target, swapOption, true);
+	}
+
+	/**
+	 * Swaps an entry with the entry of the same target whose option
+	 * contains the passed text.
+	 *
+	 * @param option         the option to swap
+	 * @param swapOptionPart part of the option to put in its place
+	 * @return the rule
+	 */
+	public static MenuRule swapContains(String option, String swapOptionPart)
+	{
+		return new MenuRule(Type.SWAP, option, null, null, swapOptionPart, false);
+	}
+
+	/**
+	 * Removes entries with the passed option.
+	 *
+	 * @param option the option to remove
+	 * @param target the target of the entries to remove, or null for any
+	 * @return the rule
+	 */
+	public static MenuRule remove(String option, @Nullable String target)
+	{
+		return new MenuRule(Type.REMOVE, option, target, null, null, true);
+	}
+
+	/**
+	 * Inserts an entry after entries with the passed option. The inserted
+	 * entry copies the target, identifier and parameters of the entry it
+	 * follows, and has type {@link net.runelite.api.MenuAction#RUNELITE}.
+	 *
+	 * @param option    the option of the entries to follow
+	 * @param target    the target of the entries to follow, or null for any
+	 * @param newOption the option of the inserted entry
+	 * @return the rule
+	 */
+	public static MenuRule insert(String option, @Nullable String target, String newOption)
+	{
+		return new MenuRule(Type.INSERT, option, target, null, newOption, true);
+	}
+
+	boolean matchesTarget(String entryTarget)
+	{
+		return targetPredicate == null || targetPredicate.test(entryTarget);
+	}
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.menus;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.LinkedHashMultiset;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multiset;
+import com.google.common.eventbus.Subscribe;
+import java.util.Collection;
+import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import net.runelite.api.Client;
+import net.runelite.api.MenuAction;
+import net.runelite.api.events.MenuEntryAdded;
+import net.runelite.client.util.Text;
+
+/**
+ * Applies {@link MenuRule}s to the menu as its entries are added.
+ * <p>
+ * The registered rules are compiled into a table keyed by option and target,
+ * so each added entry costs a lookup, and rules are applied to the client's
+ * menu arrays in place rather than by copying the menu entries.
+ */
+@Singleton
+public class MenuTransformer
+{
+	private final Provider<Client> clientProvider;
+
+	private final Multiset<MenuRule> rules = LinkedHashMultiset.create();
+
+	// Rules with an exact target, keyed by option and target
+	private volatile ListMultimap<String, MenuRule> targetRules = ImmutableListMultimap.of();
+	// Rules matching any target or a predicate, keyed by option
+	private volatile ListMultimap<String, MenuRule> optionRules = ImmutableListMultimap.of();
+
+	// Normalized options and targets of the menu entries, valid while the raw strings are the same
+	private String[] rawOptions = new String[0];
+	private String[] rawTargets = new String[0];
+	private String[] options = new String[0];
+	private String[] targets = new String[0];
+
+	private boolean applying;
+
+	@Inject
+	MenuTransformer(Provider<Client> clientProvider)
+	{
+		this.clientProvider = clientProvider;
+	}
+
+	/**
+	 * Registers menu rules. Rules registered more than once must be
+	 * removed as many times.
+	 *
+	 * @param menuRules the rules
+	 */
+	public synchronized void addRules(MenuRule... menuRules)
+	{
+		for (MenuRule rule : menuRules)
+		{
+			rules.add(rule);
+		}
+		compile();
+	}
+
+	/**
+	 * Unregisters menu rules.
+	 *
+	 * @param menuRules the rules
+	 */
+	public synchronized void removeRules(MenuRule... menuRules)
+	{
+		for (MenuRule rule : menuRules)
+		{
+			rules.remove(rule);
+		}
+		compile();
+	}
+
+	/**
+	 * Unregisters menu rules.
+	 *
+	 * @param menuRules the rules
+	 */
+	public void removeRules(Collection<MenuRule> menuRules)
+	{
+		removeRules(menuRules.toArray(new MenuRule[0]));
+	}
+
+	private void compile()
+	{
+		ImmutableListMultimap.Builder<String, MenuRule> targetRules = ImmutableListMultimap.builder();
+		ImmutableListMultimap.Builder<String, MenuRule> optionRules = ImmutableListMultimap.builder();
+
+		for (MenuRule rule : rules)
+		{
+			if (rule.getTarget() != null)
+			{
+				targetRules.put(key(rule.getOption(), rule.getTarget()), rule);
+			}
+			else
+			{
+				optionRules.put(rule.getOption(), rule);
+			}
+		}
+
+		this.targetRules = targetRules.build();
+		this.optionRules = optionRules.build();
+	}
+
+	private static String key(String option, String target)
+	{
+		return option + '\n' + target;
+	}
+
+	@Subscribe
+	public void onMenuEntryAdded(MenuEntryAdded event)
+	{
+		if (applying || (targetRules.isEmpty() && optionRules.isEmpty()))
+		{
+			return;
+		}
+
+		Client client = clientProvider.get();
+
+		if (client == null)
+		{
+			return;
+		}
+
+		int index = client.getMenuOptionCount() - 1;
+		if (index < 0)
+		{
+			return;
+		}
+
+		String option = getOption(client, index);
+		String target = getTarget(client, index);
+		List<MenuRule> exact = targetRules.get(key(option, target));
+		List<MenuRule> any = optionRules.get(option);
+
+		if (exact.isEmpty() && any.isEmpty())
+		{
+			return;
+		}
+
+		applying = true;
+		try
+		{
+			for (MenuRule rule : exact)
+			{
+				index = apply(client, rule, index, target);
+			}
+
+			for (MenuRule rule : any)
+			{
+				if (index >= 0 && rule.matchesTarget(target))
+				{
+					index = apply(client, rule, index, target);
+				}
+			}
+		}
+		finally
+		{
+			applying = false;
+		}
+	}
+
+	/**
+	 * Applies a rule to the entry at the passed index.
+	 *
+	 * @return the index of the entry afterwards, or -1 if it was removed
+	 */
+	private int apply(Client client, MenuRule rule, int index, String target)
+	{
+		if (index < 0)
+		{
+			return index;
+		}
+
+		switch (rule.getType())
+		{
+			case SWAP:
+			{
+				int other = search(client, rule.getOtherOption(), target, rule.isStrict());
+				if (other >= 0 && other != index)
+				{
+					swap(client, index, other);
+					return other;
+				}
+				return index;
+			}
+			case REMOVE:
+				remove(client, index);
+				return -1;
+			case INSERT:
+				insert(client, index, rule.getOtherOption());
+				return index;
+			default:
+				return index;
+		}
+	}
+
+	private int search(Client client, String option, String target, boolean strict)
+	{
+		for (int i = client.getMenuOptionCount() - 1; i >= 0; --i)
+		{
+			String entryOption = getOption(client, i);
+			if ((strict ? entryOption.equals(option) : entryOption.contains(option))
+				&& getTarget(client, i).equals(target))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static void swap(Client client, int a, int b)
+	{
+		swap(client.getMenuOptions(), a, b);
+		swap(client.getMenuTargets(), a, b);
+		swap(client.getMenuIdentifiers(), a, b);
+		swap(client.getMenuTypes(), a, b);
+		swap(client.getMenuActionParams0(), a, b);
+		swap(client.getMenuActionParams1(), a, b);
+	}
+
+	private static void swap(Object[] array, int a, int b)
+	{
+		Object tmp = array[a];
+		array[a] = array[b];
+		array[b] = tmp;
+	}
+
+	private static void swap(int[] array, int a, int b)
+	{
+		int tmp = array[a];
+		array[a] = array[b];
+		array[b] = tmp;
+	}
+
+	private static void remove(Client client, int index)
+	{
+		int count = client.getMenuOptionCount();
+		int length = count - index - 1;
+
+		System.arraycopy(client.getMenuOptions(), index + 1, client.getMenuOptions(), index, length);
+		System.arraycopy(client.getMenuTargets(), index + 1, client.getMenuTargets(), index, length);
+		System.arraycopy(client.getMenuIdentifiers(), index + 1, client.getMenuIdentifiers(), index, length);
+		System.arraycopy(client.getMenuTypes(), index + 1, client.getMenuTypes(), index, length);
+		System.arraycopy(client.getMenuActionParams0(), index + 1, client.getMenuActionParams0(), index, length);
+		System.arraycopy(client.getMenuActionParams1(), index + 1, client.getMenuActionParams1(), index, length);
+
+		client.setMenuOptionCount(count - 1);
+	}
+
+	private static void insert(Client client, int index, String option)
+	{
+		int count = client.getMenuOptionCount();
+		String[] menuOptions = client.getMenuOptions();
+
+		if (count >= menuOptions.length)
+		{
+			return;
+		}
+
+		// Entries are shown in reverse, so the new entry goes on top of the last one
+		menuOptions[count] = option;
+		client.getMenuTargets()[count] = client.getMenuTargets()[index];
+		client.getMenuIdentifiers()[count] = client.getMenuIdentifiers()[index];
+		client.getMenuTypes()[count] = MenuAction.RUNELITE.getId();
+		client.getMenuActionParams0()[count] = client.getMenuActionParams0()[index];
+		client.getMenuActionParams1()[count] = client.getMenuActionParams1()[index];
+
+		client.setMenuOptionCount(count + 1);
+	}
+
+	private String getOption(Client client, int index)
+	{
+		ensureCapacity(client);
+
+		String raw = client.getMenuOptions()[index];
+		// the strings are compared by reference, as any change to the entry replaces them
+		if (options[index] == null || raw != rawOptions[index])
+		{
+			rawOptions[index] = raw;
+			options[index] = raw == null ? "" : Text.removeTags(raw).toLowerCase();
+		}
+		return options[index];
+	}
+
+	private String getTarget(Client client, int index)
+	{
+		ensureCapacity(client);
+
+		String raw = client.getMenuTargets()[index];
+		// the strings are compared by reference, as any change to the entry replaces them
+		if (targets[index] == null || raw != rawTargets[index])
+		{
+			rawTargets[index] = raw;
+			targets[index] = raw == null ? "" : Text.removeTags(raw).toLowerCase();
+		}
+		return targets[index];
+	}
+
+	private void ensureCapacity(Client client)
+	{
+		int length = client.getMenuOptions().length;
+		if (rawOptions.length != length)
+		{
+			rawOptions = new String[length];
+			rawTargets = new String[length];
+			options = new String[length];
+			targets = new String[length];
+		}
+	}
+}
@@ -24,6 +24,7 @@
  */
 package net.runelite.client.plugins;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.eventbus.EventBus;
@@ -32,8 +33,11 @@ import com.google.common.graph.Graph;
 import com.google.common.graph.GraphBuilder;
 import com.google.common.graph.Graphs;
 import com.google.common.graph.MutableGraph;
+import com.google.common.io.Resources;
 import com.google.common.reflect.ClassPath;
 import com.google.common.reflect.ClassPath.ClassInfo;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Binder;
 import com.google.inject.CreationException;
 import com.google.inject.Inject;
@@ -43,14 +47,26 @@ import com.google.inject.Module;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.inject.Singleton;
 import javax.swing.SwingUtilities;
@@ -78,6 +94,11 @@ public class PluginManager
 	 */
 	private static final String PLUGIN_PACKAGE = "net.runelite.client.plugins";
 
+	/**
+	 * Plugin index written by the client annotation processor
+	 */
+	private static final String PLUGIN_INDEX = "META-INF/runelite/plugins.index";
+
 	@Inject
 	EventBus eventBus;
 
@@ -185,21 +206,67 @@ public class PluginManager
 		plugins.addAll(scanAndInstantiate(getClass().getClassLoader(), PLUGIN_PACKAGE));
 	}
 
-	public void startCorePlugins()
+	public synchronized void startCorePlugins()
 	{
-		List<Plugin> scannedPlugins = new ArrayList<>(plugins);
-		for (Plugin plugin : scannedPlugins)
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		List<Plugin> startingPlugins = plugins.stream()
+			.filter(plugin -> !activePlugins.contains(plugin) && isPluginEnabled(plugin))
+			.collect(Collectors.toList());
+		List<Plugin> startedPlugins = new ArrayList<>();
+
+		// plugins always start in the event thread, start them all in one go
+		FutureTask<Void> startUp = new FutureTask<>(() ->
 		{
-			try
+			for (Plugin plugin : startingPlugins)
 			{
-				startPlugin(plugin);
-			}
-			catch (PluginInstantiationException ex)
-			{
-				log.warn("Unable to start plugin {}. {}", plugin.getClass().getSimpleName(), ex);
-				plugins.remove(plugin);
+				long start = System.nanoTime();
+
+				activePlugins.add(plugin);
+
+				try
+				{
+					plugin.startUp();
+				}
+				catch (Exception ex)
+				{
+					log.warn("Unable to start plugin {}. {}", plugin.getClass().getSimpleName(), ex);
+					activePlugins.remove(plugin);
+					plugins.remove(plugin);
+					continue;
+				}
+
+				log.debug("Plugin {} started in {} ms", plugin.getClass().getSimpleName(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+				startedPlugins.add(plugin);
 			}
+			return null;
+		});
+		SwingUtilities.invokeLater(startUp);
+
+		try
+		{
+			// Wait for the event thread even if interrupted, so every plugin
+			// which has started is registered below
+			Uninterruptibles.getUninterruptibly(startUp);
 		}
+		catch (ExecutionException ex)
+		{
+			log.warn("Unable to start plugins", ex.getCause());
+		}
+
+		log.info("Started {} plugins in {}", startedPlugins.size(), stopwatch);
+		stopwatch.reset().start();
+
+		for (Plugin plugin : startedPlugins)
+		{
+			log.debug("Plugin {} is now running", plugin.getClass().getSimpleName());
+			regionTileManager.simulateObjectSpawns(plugin);
+			eventBus.register(plugin);
+			schedule(plugin);
+			eventBus.post(new PluginChanged(plugin, true));
+		}
+
+		log.info("Registered {} plugins in {}", startedPlugins.size(), stopwatch);
 	}
 
 	List<Plugin> scanAndInstantiate(ClassLoader classLoader, String packageName) throws IOException
@@ -211,13 +278,10 @@ public class PluginManager
 			.build();
 
 		List<Plugin> scannedPlugins = new ArrayList<>();
-		ClassPath classPath = ClassPath.from(classLoader);
+		Stopwatch stopwatch = Stopwatch.createStarted();
 
-		ImmutableSet<ClassInfo> classes = packageName == null ? classPath.getAllClasses()
-			: classPath.getTopLevelClassesRecursive(packageName);
-		for (ClassInfo classInfo : classes)
+		for (Class<?> clazz : findPluginClasses(classLoader, packageName))
 		{
-			Class<?> clazz = classInfo.load();
 			PluginDescriptor pluginDescriptor = clazz.getAnnotation(PluginDescriptor.class);
 
 			if (pluginDescriptor == null)
@@ -251,6 +315,9 @@ public class PluginManager
 			graph.addNode(pluginClass);
 		}
 
+		log.info("Found {} plugins in {}", graph.nodes().size(), stopwatch);
+		stopwatch.reset().start();
+
 		// Build plugin graph
 		for (Class<? extends Plugin> pluginClazz : graph.nodes())
 		{
@@ -270,23 +337,142 @@ public class PluginManager
 		List<Class<? extends Plugin>> sortedPlugins = topologicalSort(graph);
 		sortedPlugins = Lists.reverse(sortedPlugins);
 
-		for (Class<? extends Plugin> pluginClazz : sortedPlugins)
+		// Plugins only depend on plugins of lower levels. Plugin constructors
+		// are run one at a time, and then the injectors of a level's plugins
+		// are created in parallel, which is most of the time spent.
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+			new ThreadFactoryBuilder().setNameFormat("plugin-injector-%d").build());
+		try
+		{
+			for (List<Class<? extends Plugin>> level : dependencyLevels(graph, sortedPlugins))
+			{
+				List<Future<Plugin>> injections = new ArrayList<>();
+				for (Class<? extends Plugin> pluginClazz : level)
+				{
+					final Plugin plugin;
+					final List<Plugin> deps;
+					try
+					{
+						deps = findDependencies(scannedPlugins, pluginClazz);
+						plugin = construct((Class<Plugin>) pluginClazz);
+					}
+					catch (PluginInstantiationException ex)
+					{
+						log.warn("Error instantiating plugin!", ex);
+						continue;
+					}
+
+					injections.add(executor.submit(() -> inject((Class<Plugin>) pluginClazz, plugin, deps)));
+				}
+
+				for (Future<Plugin> injection : injections)
+				{
+					try
+					{
+						scannedPlugins.add(Uninterruptibles.getUninterruptibly(injection));
+					}
+					catch (ExecutionException ex)
+					{
+						log.warn("Error instantiating plugin!", ex.getCause());
+					}
+				}
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+
+		log.info("Instantiated {} plugins in {}", scannedPlugins.size(), stopwatch);
+		return scannedPlugins;
+	}
+
+	/**
+	 * Finds the classes which may be plugins. The plugin index written by the
+	 * annotation processor is used if there is one, otherwise the classpath
+	 * is scanned.
+	 */
+	private Collection<Class<?>> findPluginClasses(ClassLoader classLoader, String packageName) throws IOException
+	{
+		Set<String> classNames = new LinkedHashSet<>();
+		boolean indexed = false;
+
+		Enumeration<URL> indexes = classLoader.getResources(PLUGIN_INDEX);
+		while (indexes.hasMoreElements())
+		{
+			indexed = true;
+
+			for (String line : Resources.readLines(indexes.nextElement(), StandardCharsets.UTF_8))
+			{
+				String className = line.trim();
+				if (!className.isEmpty() && (packageName == null || className.startsWith(packageName + ".")))
+				{
+					classNames.add(className);
+				}
+			}
+		}
+
+		List<Class<?>> classes = new ArrayList<>();
+
+		if (!indexed)
+		{
+			log.debug("No plugin index found, scanning the classpath");
+
+			ClassPath classPath = ClassPath.from(classLoader);
+
+			ImmutableSet<ClassInfo> classInfos = packageName == null ? classPath.getAllClasses()
+				: classPath.getTopLevelClassesRecursive(packageName);
+			for (ClassInfo classInfo : classInfos)
+			{
+				classes.add(classInfo.load());
+			}
+
+			return classes;
+		}
+
+		for (String className : classNames)
 		{
-			Plugin plugin;
 			try
 			{
-				plugin = instantiate(scannedPlugins, (Class<Plugin>) pluginClazz);
+				classes.add(Class.forName(className, true, classLoader));
 			}
-			catch (PluginInstantiationException ex)
+			catch (ClassNotFoundException ex)
 			{
-				log.warn("Error instantiating plugin!", ex);
-				continue;
+				log.warn("Indexed plugin {} does not exist", className);
 			}
+		}
 
-			scannedPlugins.add(plugin);
+		return classes;
+	}
+
+	/**
+	 * Groups plugins by the length of their longest dependency chain
+	 */
+	private static List<List<Class<? extends Plugin>>> dependencyLevels(Graph<Class<? extends Plugin>> graph,
+		List<Class<? extends Plugin>> sortedPlugins)
+	{
+		Map<Class<? extends Plugin>, Integer> pluginLevels = new HashMap<>();
+		List<List<Class<? extends Plugin>>> levels = new ArrayList<>();
+
+		// Dependencies are sorted before their dependents
+		for (Class<? extends Plugin> pluginClazz : sortedPlugins)
+		{
+			int level = 0;
+			for (Class<? extends Plugin> dependency : graph.successors(pluginClazz))
+			{
+				level = Math.max(level, pluginLevels.get(dependency) + 1);
+			}
+
+			pluginLevels.put(pluginClazz, level);
+
+			while (levels.size() <= level)
+			{
+				levels.add(new ArrayList<>());
+			}
+			levels.get(level).add(pluginClazz);
 		}
 
-		return scannedPlugins;
+		return levels;
 	}
 
 	public synchronized boolean startPlugin(Plugin plugin) throws PluginInstantiationException
@@ -386,7 +572,7 @@ public class PluginManager
 		return pluginDescriptor == null || pluginDescriptor.enabledByDefault();
 	}
 
-	private Plugin instantiate(List<Plugin> scannedPlugins, Class<Plugin> clazz) throws PluginInstantiationException
+	private List<Plugin> findDependencies(List<Plugin> scannedPlugins, Class<? extends Plugin> clazz) throws PluginInstantiationException
 	{
 		PluginDependency[] pluginDependencies = clazz.getAnnotationsByType(PluginDependency.class);
 		List<Plugin> deps = new ArrayList<>();
@@ -399,17 +585,27 @@ public class PluginManager
 			}
 			deps.add(dependency.get());
 		}
+		return deps;
+	}
 
-		Plugin plugin;
+	private static Plugin construct(Class<Plugin> clazz) throws PluginInstantiationException
+	{
 		try
 		{
-			plugin = clazz.newInstance();
+			return clazz.newInstance();
 		}
 		catch (InstantiationException | IllegalAccessException ex)
 		{
 			throw new PluginInstantiationException(ex);
 		}
+	}
 
+	/**
+	 * Creates the injector of a plugin and injects it. This is safe to do for
+	 * several plugins at once, as long as their dependencies have been injected.
+	 */
+	private static Plugin inject(Class<Plugin> clazz, Plugin plugin, List<Plugin> deps) throws PluginInstantiationException
+	{
 		try
 		{
 			Module pluginModule = (Binder binder) ->
@@ -29,13 +29,13 @@ import java.awt.Graphics2D;
 import java.time.Duration;
 import java.time.Instant;
 import javax.inject.Inject;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 
-public class LapCounterOverlay extends Overlay
+public class LapCounterOverlay extends CachedOverlay
 {
 	private final AgilityPlugin plugin;
 	private final AgilityConfig config;
@@ -52,8 +52,10 @@ public class LapCounterOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panelComponent.getChildren().clear();
+
 		AgilitySession session = plugin.getSession();
 
 		if (!config.showLapCount() ||
@@ -74,7 +76,6 @@ public class LapCounterOverlay extends Overlay
 			return null;
 		}
 
-		panelComponent.getChildren().clear();
 		panelComponent.getChildren().add(LineComponent.builder()
 			.left("Total Laps")
 			.right(Integer.toString(session.getTotalLaps()))
@@ -88,6 +89,12 @@ public class LapCounterOverlay extends Overlay
 				.build());
 		}
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panelComponent.render(graphics);
 	}
 }
@@ -27,17 +27,19 @@ package net.runelite.client.plugins.attackstyles;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.util.ArrayList;
 import javax.inject.Inject;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 import net.runelite.client.ui.overlay.components.TitleComponent;
 
-public class AttackStylesOverlay extends Overlay
+public class AttackStylesOverlay extends CachedOverlay
 {
 	private final AttackStylesPlugin plugin;
 	private final AttackStylesConfig config;
 	private final PanelComponent panelComponent = new PanelComponent();
+	private String attackStyleString;
 
 	@Inject
 	public AttackStylesOverlay(AttackStylesPlugin plugin, AttackStylesConfig config)
@@ -48,27 +50,39 @@ public class AttackStylesOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
 		panelComponent.getChildren().clear();
 		boolean warnedSkillSelected = plugin.isWarnedSkillSelected();
 
 		if (warnedSkillSelected || config.alwaysShowStyle())
 		{
-			final String attackStyleString = plugin.getAttackStyle().getName();
+			attackStyleString = plugin.getAttackStyle().getName();
 
 			panelComponent.getChildren().add(TitleComponent.builder()
 				.text(attackStyleString)
 				.color(warnedSkillSelected ? Color.RED : Color.WHITE)
 				.build());
 
-			panelComponent.setPreferredSize(new Dimension(
-				graphics.getFontMetrics().stringWidth(attackStyleString) + 10,
-				0));
-
-			return panelComponent.render(graphics);
+			// The preferred size is set from the font when rendering, which the image is already cached by
+			return new ArrayList<>(panelComponent.getChildren());
 		}
 
 		return null;
 	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
+		if (panelComponent.getChildren().isEmpty())
+		{
+			return null;
+		}
+
+		panelComponent.setPreferredSize(new Dimension(
+			graphics.getFontMetrics().stringWidth(attackStyleString) + 10,
+			0));
+
+		return panelComponent.render(graphics);
+	}
 }
@@ -24,6 +24,7 @@
  */
 package net.runelite.client.plugins.banktags;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.eventbus.Subscribe;
 import java.util.Arrays;
 import java.util.List;
@@ -41,6 +42,7 @@ import net.runelite.api.events.ScriptCallbackEvent;
 import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetConfig;
 import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.client.callback.ScriptCallbackManager;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.game.ChatboxInputManager;
 import net.runelite.client.game.ItemManager;
@@ -67,6 +69,10 @@ public class BankTagsPlugin extends Plugin
 
 	private static final int EDIT_TAGS_MENU_INDEX = 8;
 
+	private static final ImmutableList<String> CALLBACKS = ImmutableList.of(
+		"bankTagsActive", "setSearchBankInputText", "setBankItemMenu", "bankSearchFilter"
+	);
+
 	@Inject
 	private Client client;
 
@@ -79,6 +85,24 @@ public class BankTagsPlugin extends Plugin
 	@Inject
 	private ChatboxInputManager chatboxInputManager;
 
+	@Inject
+	private ScriptCallbackManager scriptCallbackManager;
+
+	@Override
+	protected void startUp()
+	{
+		for (String callback : CALLBACKS)
+		{
+			scriptCallbackManager.register(this, callback, this::onScriptEvent);
+		}
+	}
+
+	@Override
+	protected void shutDown()
+	{
+		scriptCallbackManager.unregister(this);
+	}
+
 	private String getTags(int itemId)
 	{
 		String config = configManager.getConfiguration(CONFIG_GROUP, ITEM_KEY_PREFIX + itemId);
@@ -111,7 +135,6 @@ public class BankTagsPlugin extends Plugin
 		return 0;
 	}
 
-	@Subscribe
 	public void onScriptEvent(ScriptCallbackEvent event)
 	{
 		String eventName = event.getEventName();
@@ -31,13 +31,13 @@ import javax.inject.Inject;
 import net.runelite.api.Client;
 import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetInfo;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 
-public class BarrowsBrotherSlainOverlay extends Overlay
+public class BarrowsBrotherSlainOverlay extends CachedOverlay
 {
 	private final Client client;
 	private final PanelComponent panelComponent = new PanelComponent();
@@ -51,8 +51,10 @@ public class BarrowsBrotherSlainOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panelComponent.getChildren().clear();
+
 		// Do not display overlay if potential is null/hidden
 		Widget potential = client.getWidget(WidgetInfo.BARROWS_POTENTIAL);
 		if (potential == null || potential.isHidden())
@@ -67,8 +69,6 @@ public class BarrowsBrotherSlainOverlay extends Overlay
 			barrowsBrothers.setHidden(true);
 		}
 
-		panelComponent.getChildren().clear();
-
 		for (BarrowsBrothers brother : BarrowsBrothers.values())
 		{
 			String slain = client.getVar(brother.getKilledVarbit()) > 0 ? "✓" : "";
@@ -79,6 +79,12 @@ public class BarrowsBrotherSlainOverlay extends Overlay
 				.build());
 		}
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panelComponent.render(graphics);
 	}
 }
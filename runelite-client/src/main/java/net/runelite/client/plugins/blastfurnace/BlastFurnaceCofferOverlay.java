@@ -31,13 +31,13 @@ import net.runelite.api.Client;
 import static net.runelite.api.Varbits.BLAST_FURNACE_COFFER;
 import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetInfo;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 import net.runelite.client.util.StackFormatter;
 
-class BlastFurnaceCofferOverlay extends Overlay
+class BlastFurnaceCofferOverlay extends CachedOverlay
 {
 	private final Client client;
 	private final BlastFurnacePlugin plugin;
@@ -52,8 +52,10 @@ class BlastFurnaceCofferOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panelComponent.getChildren().clear();
+
 		if (plugin.getConveyorBelt() == null)
 		{
 			return null;
@@ -61,8 +63,6 @@ class BlastFurnaceCofferOverlay extends Overlay
 
 		Widget sack = client.getWidget(WidgetInfo.BLAST_FURNACE_COFFER);
 
-		panelComponent.getChildren().clear();
-
 		if (sack != null)
 		{
 			sack.setHidden(true);
@@ -73,6 +73,12 @@ class BlastFurnaceCofferOverlay extends Overlay
 				.build());
 		}
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panelComponent.render(graphics);
 	}
 }
\ No newline at end of file
@@ -30,12 +30,12 @@ import java.awt.image.BufferedImage;
 import javax.inject.Inject;
 import net.runelite.api.Client;
 import net.runelite.client.game.ItemManager;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.ImageComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 
-class BlastFurnaceOverlay extends Overlay
+class BlastFurnaceOverlay extends CachedOverlay
 {
 	private final Client client;
 	private final BlastFurnacePlugin plugin;
@@ -54,15 +54,15 @@ class BlastFurnaceOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		imagePanelComponent.getChildren().clear();
+
 		if (plugin.getConveyorBelt() == null)
 		{
 			return null;
 		}
 
-		imagePanelComponent.getChildren().clear();
-
 		for (BarsOres varbit : BarsOres.values())
 		{
 			int amount = client.getVar(varbit.getVarbit());
@@ -75,12 +75,19 @@ class BlastFurnaceOverlay extends Overlay
 			imagePanelComponent.getChildren().add(new ImageComponent(getImage(varbit.getItemID(), amount)));
 		}
 
+		return imagePanelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return imagePanelComponent.render(graphics);
 	}
 
 	private BufferedImage getImage(int itemID, int amount)
 	{
 		BufferedImage image = itemManager.getImage(itemID, amount, true);
+		invalidateOnChange(image);
 		return image;
 	}
 }
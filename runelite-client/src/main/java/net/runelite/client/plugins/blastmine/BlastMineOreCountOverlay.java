@@ -34,12 +34,12 @@ import net.runelite.api.Varbits;
 import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetInfo;
 import net.runelite.client.game.ItemManager;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.ImageComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 
-class BlastMineOreCountOverlay extends Overlay
+class BlastMineOreCountOverlay extends CachedOverlay
 {
 	private final Client client;
 	private final BlastMinePluginConfig config;
@@ -57,16 +57,16 @@ class BlastMineOreCountOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panelComponent.getChildren().clear();
+
 		final Widget blastMineWidget = client.getWidget(WidgetInfo.BLAST_MINE);
 
 		if (blastMineWidget == null)
 		{
 			return null;
 		}
-		
-		panelComponent.getChildren().clear();
 
 		if (config.showOreOverlay())
 		{
@@ -82,11 +82,19 @@ class BlastMineOreCountOverlay extends Overlay
 			blastMineWidget.setHidden(false);
 		}
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panelComponent.render(graphics);
 	}
 
 	private BufferedImage getImage(int itemID, int amount)
 	{
-		return itemManager.getImage(itemID, amount, true);
+		BufferedImage image = itemManager.getImage(itemID, amount, true);
+		invalidateOnChange(image);
+		return image;
 	}
 }
@@ -33,14 +33,14 @@ import lombok.Getter;
 import net.runelite.api.Client;
 import net.runelite.api.Skill;
 import net.runelite.client.game.SkillIconManager;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 import net.runelite.client.ui.overlay.infobox.InfoBoxManager;
 
-class BoostsOverlay extends Overlay
+class BoostsOverlay extends CachedOverlay
 {
 	@Getter
 	private final BoostIndicator[] indicators = new BoostIndicator[Skill.values().length - 1];
@@ -69,11 +69,12 @@ class BoostsOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
-		Instant lastChange = plugin.getLastChange();
 		panelComponent.getChildren().clear();
 
+		Instant lastChange = plugin.getLastChange();
+
 		if (!config.displayIndicators()
 			&& config.displayNextChange()
 			&& lastChange != null
@@ -154,6 +155,12 @@ class BoostsOverlay extends Overlay
 			}
 		}
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panelComponent.render(graphics);
 	}
 
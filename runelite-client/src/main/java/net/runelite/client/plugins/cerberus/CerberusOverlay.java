@@ -30,14 +30,14 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.game.SkillIconManager;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.ImageComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 
 @Slf4j
 @Singleton
-public class CerberusOverlay extends Overlay
+public class CerberusOverlay extends CachedOverlay
 {
 	private final CerberusPlugin plugin;
 	private final SkillIconManager iconManager;
@@ -53,15 +53,15 @@ public class CerberusOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panelComponent.getChildren().clear();
+
 		if (plugin.getGhosts().isEmpty())
 		{
 			return null;
 		}
 
-		panelComponent.getChildren().clear();
-
 		// Ghosts are already sorted
 		plugin.getGhosts().stream()
 			// Iterate only through the correct amount of ghosts
@@ -73,6 +73,12 @@ public class CerberusOverlay extends Overlay
 					.add(new ImageComponent(iconManager.getSkillImage(ghost.getType())))));
 
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panelComponent.render(graphics);
 	}
 }
@@ -78,6 +78,9 @@ public class DemonicGorillaPlugin extends Plugin
 	@Inject
 	private ClientThread clientThread;
 
+	@Inject
+	private PathingManager pathingManager;
+
 	@Getter
 	private Map<NPC, DemonicGorilla> gorillas;
 
@@ -455,7 +458,7 @@ public class DemonicGorillaPlugin extends Plugin
 						WorldPoint predictedMovement = predictedNewArea.toWorldPoint();
 						if (distance <= DemonicGorilla.MAX_ATTACK_RANGE &&
 							mp != null &&
-							mp.getLastWorldArea().hasLineOfSightTo(client, gorilla.getLastWorldArea()))
+							pathingManager.hasLineOfSight(mp.getLastWorldArea(), gorilla.getLastWorldArea()))
 						{
 							if (predictedMovement.distanceTo(gorilla.getLastWorldArea().toWorldPoint()) != 0)
 							{
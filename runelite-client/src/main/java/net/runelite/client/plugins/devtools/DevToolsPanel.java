@@ -43,15 +43,18 @@ public class DevToolsPanel extends PluginPanel
 
 	private final WidgetInspector widgetInspector;
 	private final VarInspector varInspector;
+	private final ProfilerInspector profilerInspector;
 
 	@Inject
-	public DevToolsPanel(Client client, DevToolsPlugin plugin, WidgetInspector widgetInspector, VarInspector varInspector)
+	public DevToolsPanel(Client client, DevToolsPlugin plugin, WidgetInspector widgetInspector, VarInspector varInspector,
+		ProfilerInspector profilerInspector)
 	{
 		super();
 		this.client = client;
 		this.plugin = plugin;
 		this.widgetInspector = widgetInspector;
 		this.varInspector = varInspector;
+		this.profilerInspector = profilerInspector;
 
 		setBackground(ColorScheme.DARK_GRAY_COLOR);
 
@@ -160,6 +163,13 @@ public class DevToolsPanel extends PluginPanel
 		});
 		container.add(varInspectorBtn);
 
+		final JButton profilerBtn = new JButton("Profiler");
+		profilerBtn.addActionListener(e ->
+		{
+			profilerInspector.open();
+		});
+		container.add(profilerBtn);
+
 		final JButton chunkBordersBtn = new JButton("Chunk borders");
 		chunkBordersBtn.addActionListener(e ->
 		{
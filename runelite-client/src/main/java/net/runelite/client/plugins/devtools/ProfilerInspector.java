@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.plugins.devtools;
+
+import com.google.inject.Inject;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.profiling.Profiler;
+import net.runelite.client.profiling.TimingHistogram;
+import net.runelite.client.task.ScheduledMethod;
+import net.runelite.client.task.Scheduler;
+import net.runelite.client.ui.ClientUI;
+import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.OverlayRenderer;
+
+@Slf4j
+class ProfilerInspector extends JFrame
+{
+	private static final int REFRESH_INTERVAL = 1000;
+
+	private final Profiler profiler;
+	private final OverlayRenderer overlayRenderer;
+	private final Scheduler scheduler;
+	private final TimingTableModel tableModel = new TimingTableModel();
+	private final OverlayTableModel overlayTableModel = new OverlayTableModel();
+	private final ScheduledTableModel scheduledTableModel = new ScheduledTableModel();
+	private final JLabel status = new JLabel();
+	private final Timer refreshTimer = new Timer(REFRESH_INTERVAL, e -> refresh());
+
+	@Inject
+	ProfilerInspector(Profiler profiler, OverlayRenderer overlayRenderer, Scheduler scheduler)
+	{
+		this.profiler = profiler;
+		this.overlayRenderer = overlayRenderer;
+		this.scheduler = scheduler;
+
+		setTitle("RuneLite Profiler");
+		setIconImage(ClientUI.ICON);
+
+		setLayout(new BorderLayout());
+
+		setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+		addWindowListener(new WindowAdapter()
+		{
+			@Override
+			public void windowClosing(WindowEvent e)
+			{
+				close();
+			}
+		});
+
+		final JTable table = new JTable(tableModel);
+		table.setAutoCreateRowSorter(true);
+		table.getColumnModel().getColumn(1).setPreferredWidth(300);
+
+		final JScrollPane tableScroller = new JScrollPane(table);
+		tableScroller.setPreferredSize(new Dimension(800, 400));
+
+		// Overlay render times are tracked even while the profiler is disabled
+		final JTable overlayTable = new JTable(overlayTableModel);
+		overlayTable.setAutoCreateRowSorter(true);
+		overlayTable.getColumnModel().getColumn(0).setPreferredWidth(300);
+
+		final JTable scheduledTable = new JTable(scheduledTableModel);
+		scheduledTable.setAutoCreateRowSorter(true);
+		scheduledTable.getColumnModel().getColumn(0).setPreferredWidth(300);
+
+		final JTabbedPane tabs = new JTabbedPane();
+		tabs.addTab("Profile", tableScroller);
+		tabs.addTab("Overlays", new JScrollPane(overlayTable));
+		tabs.addTab("Scheduled", new JScrollPane(scheduledTable));
+		add(tabs, BorderLayout.CENTER);
+
+		final JCheckBox enabled = new JCheckBox("Enabled", profiler.isEnabled());
+		enabled.addActionListener(e -> profiler.setEnabled(enabled.isSelected()));
+
+		final JButton reset = new JButton("Reset");
+		reset.addActionListener(e ->
+		{
+			profiler.reset();
+			refresh();
+		});
+
+		final JButton dump = new JButton("Dump");
+		dump.addActionListener(e ->
+		{
+			try
+			{
+				final File file = profiler.dump();
+				status.setText("Wrote " + file.getName());
+			}
+			catch (IOException ex)
+			{
+				log.warn("Unable to write profile", ex);
+				status.setText("Unable to write profile");
+			}
+		});
+
+		final JPanel options = new JPanel();
+		options.setLayout(new FlowLayout());
+		options.add(enabled);
+		options.add(reset);
+		options.add(dump);
+		options.add(status);
+		add(options, BorderLayout.SOUTH);
+
+		pack();
+	}
+
+	public void open()
+	{
+		refresh();
+		refreshTimer.start();
+		setVisible(true);
+		toFront();
+		repaint();
+	}
+
+	public void close()
+	{
+		refreshTimer.stop();
+		setVisible(false);
+	}
+
+	private void refresh()
+	{
+		final List<TimingHistogram> histograms = new ArrayList<>(profiler.getHistograms());
+		histograms.removeIf(h -> h.getCount() == 0);
+		histograms.sort(Comparator.comparingLong(TimingHistogram::getTotal).reversed());
+		tableModel.setHistograms(histograms);
+
+		final List<Map.Entry<Overlay, Long>> renderTimes = new ArrayList<>(overlayRenderer.getRenderTimes().entrySet());
+		renderTimes.sort(Map.Entry.<Overlay, Long>comparingByValue().reversed());
+		overlayTableModel.setRenderTimes(renderTimes);
+
+		final List<ScheduledMethod> scheduledMethods = new ArrayList<>(scheduler.getScheduledMethods());
+		scheduledMethods.sort(Comparator.comparingLong(ScheduledMethod::getMaxLateness).reversed());
+		scheduledTableModel.setScheduledMethods(scheduledMethods);
+
+		status.setText(String.format("Profiled %d s, overhead %d ms (%d ns per sample)",
+			TimeUnit.NANOSECONDS.toSeconds(profiler.getEnabledTime()),
+			TimeUnit.NANOSECONDS.toMillis(profiler.getEstimatedOverhead()),
+			profiler.getSampleOverhead()));
+	}
+
+	private static class TimingTableModel extends AbstractTableModel
+	{
+		private static final String[] COLUMNS = {"Category", "Name", "Count", "Total ms", "Mean us", "P50 us", "P99 us", "Max us"};
+
+		private List<TimingHistogram> histograms = new ArrayList<>();
+
+		void setHistograms(List<TimingHistogram> histograms)
+		{
+			this.histograms = histograms;
+			fireTableDataChanged();
+		}
+
+		@Override
+		public String getColumnName(int column)
+		{
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Class<?> getColumnClass(int column)
+		{
+			return column < 2 ? String.class : Long.class;
+		}
+
+		@Override
+		public int getRowCount()
+		{
+			return histograms.size();
+		}
+
+		@Override
+		public int getColumnCount()
+		{
+			return COLUMNS.length;
+		}
+
+		@Override
+		public Object getValueAt(int row, int column)
+		{
+			final TimingHistogram histogram = histograms.get(row);
+
+			switch (column)
+			{
+				case 0:
+					return histogram.getCategory().getName();
+				case 1:
+					return histogram.getName();
+				case 2:
+					return histogram.getCount();
+				case 3:
+					return TimeUnit.NANOSECONDS.toMillis(histogram.getTotal());
+				case 4:
+					return TimeUnit.NANOSECONDS.toMicros(histogram.getMean());
+				case 5:
+					return TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(50));
+				case 6:
+					return TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(99));
+				case 7:
+					return TimeUnit.NANOSECONDS.toMicros(histogram.getMax());
+				default:
+					return null;
+			}
+		}
+	}
+
+	private static class OverlayTableModel extends AbstractTableModel
+	{
+		private static final String[] COLUMNS = {"Overlay", "Layer", "Position", "Average us"};
+
+		private List<Map.Entry<Overlay, Long>> renderTimes = new ArrayList<>();
+
+		void setRenderTimes(List<Map.Entry<Overlay, Long>> renderTimes)
+		{
+			this.renderTimes = renderTimes;
+			fireTableDataChanged();
+		}
+
+		@Override
+		public String getColumnName(int column)
+		{
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Class<?> getColumnClass(int column)
+		{
+			return column < 3 ? String.class : Long.class;
+		}
+
+		@Override
+		public int getRowCount()
+		{
+			return renderTimes.size();
+		}
+
+		@Override
+		public int getColumnCount()
+		{
+			return COLUMNS.length;
+		}
+
+		@Override
+		public Object getValueAt(int row, int column)
+		{
+			final Map.Entry<Overlay, Long> entry = renderTimes.get(row);
+			final Overlay overlay = entry.getKey();
+
+			switch (column)
+			{
+				case 0:
+					return overlay.getName();
+				case 1:
+					return overlay.getLayer().name();
+				case 2:
+					return overlay.getPosition().name();
+				case 3:
+					return TimeUnit.NANOSECONDS.toMicros(entry.getValue());
+				default:
+					return null;
+			}
+		}
+	}
+
+	private static class ScheduledTableModel extends AbstractTableModel
+	{
+		private static final String[] COLUMNS = {"Method", "Period ms", "Runs", "Average late us", "Max late us"};
+
+		private List<ScheduledMethod> scheduledMethods = new ArrayList<>();
+
+		void setScheduledMethods(List<ScheduledMethod> scheduledMethods)
+		{
+			this.scheduledMethods = scheduledMethods;
+			fireTableDataChanged();
+		}
+
+		@Override
+		public String getColumnName(int column)
+		{
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Class<?> getColumnClass(int column)
+		{
+			return column < 1 ? String.class : Long.class;
+		}
+
+		@Override
+		public int getRowCount()
+		{
+			return scheduledMethods.size();
+		}
+
+		@Override
+		public int getColumnCount()
+		{
+			return COLUMNS.length;
+		}
+
+		@Override
+		public Object getValueAt(int row, int column)
+		{
+			final ScheduledMethod scheduledMethod = scheduledMethods.get(row);
+
+			switch (column)
+			{
+				case 0:
+					return scheduledMethod.getMethod().getDeclaringClass().getSimpleName() + "." + scheduledMethod.getMethod().getName();
+				case 1:
+					return TimeUnit.NANOSECONDS.toMillis(scheduledMethod.getPeriod());
+				case 2:
+					return scheduledMethod.getRuns();
+				case 3:
+					return TimeUnit.NANOSECONDS.toMicros(scheduledMethod.getAverageLateness());
+				case 4:
+					return TimeUnit.NANOSECONDS.toMicros(scheduledMethod.getMaxLateness());
+				default:
+					return null;
+			}
+		}
+	}
+}
@@ -33,7 +33,7 @@ import javax.imageio.ImageIO;
 import javax.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
 import net.runelite.client.ui.overlay.components.ComponentConstants;
@@ -41,7 +41,7 @@ import net.runelite.client.ui.overlay.components.ImageComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 
 @Slf4j
-public class FightCaveOverlay extends Overlay
+public class FightCaveOverlay extends CachedOverlay
 {
 	private static final Color NOT_ACTIVATED_BACKGROUND_COLOR = new Color(150, 0, 0, 150);
 
@@ -61,8 +61,10 @@ public class FightCaveOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		imagePanelComponent.getChildren().clear();
+
 		JadAttack attack = plugin.getAttack();
 
 		if (attack == null)
@@ -72,12 +74,17 @@ public class FightCaveOverlay extends Overlay
 
 		final BufferedImage prayerImage = getPrayerImage(attack);
 
-		imagePanelComponent.getChildren().clear();
 		imagePanelComponent.getChildren().add(new ImageComponent(prayerImage));
 		imagePanelComponent.setBackgroundColor(client.isPrayerActive(attack.getPrayer())
 			? ComponentConstants.STANDARD_BACKGROUND_COLOR
 			: NOT_ACTIVATED_BACKGROUND_COLOR);
 
+		return imagePanelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return imagePanelComponent.render(graphics);
 	}
 
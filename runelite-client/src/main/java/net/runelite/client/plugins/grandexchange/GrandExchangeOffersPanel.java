@@ -46,7 +46,7 @@ public class GrandExchangeOffersPanel extends JPanel
 	private static final String ERROR_PANEL = "ERROR_PANEL";
 	private static final String OFFERS_PANEL = "OFFERS_PANEL";
 
-	private static final int MAX_OFFERS = 8;
+	static final int MAX_OFFERS = 8;
 
 	private final GridBagConstraints constraints = new GridBagConstraints();
 	private final CardLayout cardLayout = new CardLayout();
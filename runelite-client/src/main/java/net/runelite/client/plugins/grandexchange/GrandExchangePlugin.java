@@ -34,10 +34,10 @@ import java.io.IOException;
 import java.util.concurrent.ScheduledExecutorService;
 import javax.imageio.ImageIO;
 import javax.inject.Inject;
-import javax.swing.SwingUtilities;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
@@ -65,6 +65,7 @@ import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.NavigationButton;
 import net.runelite.client.ui.PluginToolbar;
+import net.runelite.client.ui.UpdateCoalescer;
 import net.runelite.client.util.StackFormatter;
 import net.runelite.client.util.Text;
 import net.runelite.http.api.osbuddy.GrandExchangeClient;
@@ -80,6 +81,12 @@ public class GrandExchangePlugin extends Plugin
 	private static final int OFFER_DEFAULT_ITEM_ID = 6512;
 	private static final GrandExchangeClient CLIENT = new GrandExchangeClient();
 
+	@Value
+	private static class OfferSlotKey
+	{
+		private final int slot;
+	}
+
 	@Getter(AccessLevel.PACKAGE)
 	private NavigationButton button;
 
@@ -117,6 +124,9 @@ public class GrandExchangePlugin extends Plugin
 	@Inject
 	private ScheduledExecutorService executorService;
 
+	@Inject
+	private UpdateCoalescer updateCoalescer;
+
 	private Widget grandExchangeText;
 	private Widget grandExchangeItem;
 
@@ -191,7 +201,11 @@ public class GrandExchangePlugin extends Plugin
 		ItemComposition offerItem = itemManager.getItemComposition(offer.getItemId());
 		boolean shouldStack = offerItem.isStackable() || offer.getTotalQuantity() > 1;
 		BufferedImage itemImage = itemManager.getImage(offer.getItemId(), offer.getTotalQuantity(), shouldStack);
-		SwingUtilities.invokeLater(() -> panel.getOffersPanel().updateOffer(offerItem, itemImage, offerEvent.getOffer(), offerEvent.getSlot()));
+		final GrandExchangeOffersPanel offersPanel = panel.getOffersPanel();
+
+		// All slots are sent on login, only the latest state of each is shown
+		updateCoalescer.update(offersPanel, new OfferSlotKey(offerEvent.getSlot()),
+			() -> offersPanel.updateOffer(offerItem, itemImage, offerEvent.getOffer(), offerEvent.getSlot()));
 	}
 
 	@Subscribe
@@ -215,7 +229,15 @@ public class GrandExchangePlugin extends Plugin
 	{
 		if (gameStateChanged.getGameState() == GameState.LOGIN_SCREEN)
 		{
-			panel.getOffersPanel().resetOffers();
+			final GrandExchangeOffersPanel offersPanel = panel.getOffersPanel();
+
+			// Drop the offers of the last account which have not been shown yet
+			for (int slot = 0; slot < GrandExchangeOffersPanel.MAX_OFFERS; ++slot)
+			{
+				updateCoalescer.cancel(new OfferSlotKey(slot));
+			}
+
+			updateCoalescer.update(offersPanel, offersPanel::resetOffers);
 		}
 	}
 
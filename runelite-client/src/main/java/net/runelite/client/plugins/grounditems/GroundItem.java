@@ -43,6 +43,8 @@ class GroundItem
 	private int gePrice;
 	private int offset;
 	private boolean tradeable;
+	private boolean highlighted;
+	private boolean hidden;
 
 	@Value
 	static class GroundItemKey
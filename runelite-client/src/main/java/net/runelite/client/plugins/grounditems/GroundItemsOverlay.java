@@ -173,16 +173,19 @@ public class GroundItemsOverlay extends Overlay
 				continue;
 			}
 
-			// Update GE price for item
-			final ItemPrice itemPrice = itemManager.getItemPrice(item.getItemId());
-
-			if (itemPrice != null && itemPrice.getPrice() > 0)
+			// Prices are set when the item is seen, unless they were not loaded yet
+			if (item.getGePrice() == 0 && item.isTradeable())
 			{
-				item.setGePrice(itemPrice.getPrice() * item.getQuantity());
+				final ItemPrice itemPrice = itemManager.getItemPrice(item.getItemId());
+
+				if (itemPrice != null && itemPrice.getPrice() > 0)
+				{
+					item.setGePrice(itemPrice.getPrice() * item.getQuantity());
+				}
 			}
 
-			final Color highlighted = plugin.getHighlighted(item.getName(), item.getGePrice(), item.getHaPrice());
-			final Color hidden = plugin.getHidden(item.getName(), item.getGePrice(), item.getHaPrice(), item.isTradeable());
+			final Color highlighted = plugin.getHighlighted(item.isHighlighted(), item.isHidden(), item.getGePrice(), item.getHaPrice());
+			final Color hidden = plugin.getHidden(item.isHighlighted(), item.isHidden(), item.getGePrice(), item.getHaPrice(), item.isTradeable());
 
 			if (highlighted == null && !plugin.isHotKeyPressed())
 			{
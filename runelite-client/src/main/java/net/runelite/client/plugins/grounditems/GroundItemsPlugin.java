@@ -36,6 +36,7 @@ import java.awt.Color;
 import java.awt.Rectangle;
 import static java.lang.Boolean.TRUE;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -43,14 +44,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
-import javax.annotation.Nullable;
 import javax.inject.Inject;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
@@ -61,10 +59,9 @@ import net.runelite.api.ItemLayer;
 import net.runelite.api.MenuAction;
 import net.runelite.api.MenuEntry;
 import net.runelite.api.Node;
-import net.runelite.api.Player;
 import net.runelite.api.Region;
 import net.runelite.api.Tile;
-import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.ConfigChanged;
 import net.runelite.api.events.FocusChanged;
 import net.runelite.api.events.GameStateChanged;
@@ -90,6 +87,18 @@ import net.runelite.http.api.item.ItemPrice;
 @Slf4j
 public class GroundItemsPlugin extends Plugin
 {
+	@Value
+	private static class ItemData
+	{
+		private final int realItemId;
+		private final String name;
+		private final int haPrice;
+		private final int gePrice;
+		private final boolean tradeable;
+		private final boolean highlighted;
+		private final boolean hidden;
+	}
+
 	private static final Splitter COMMA_SPLITTER = Splitter
 		.on(",")
 		.omitEmptyStrings()
@@ -98,8 +107,6 @@ public class GroundItemsPlugin extends Plugin
 	private static final Joiner COMMA_JOINER = Joiner.on(",").skipNulls();
 	//Size of one region
 	private static final int REGION_SIZE = 104;
-	// The max distance in tiles between the player and the item.
-	private static final int MAX_RANGE = 18;
 	// Used when getting High Alchemy value - multiplied by general store price.
 	private static final float HIGH_ALCHEMY_CONSTANT = 0.6f;
 	// ItemID for coins
@@ -124,6 +131,7 @@ public class GroundItemsPlugin extends Plugin
 	private List<String> hiddenItemList = new CopyOnWriteArrayList<>();
 	private List<String> highlightedItemsList = new CopyOnWriteArrayList<>();
 	private boolean dirty;
+	private int plane;
 
 	@Inject
 	private GroundItemInputListener inputListener;
@@ -151,23 +159,15 @@ public class GroundItemsPlugin extends Plugin
 
 	@Getter
 	private final Map<GroundItem.GroundItemKey, GroundItem> collectedGroundItems = new LinkedHashMap<>();
+	// Collected ground items of each tile
+	private final Map<WorldPoint, List<GroundItem>> tileItems = new HashMap<>();
+	// Item composition, price and highlight data used to build ground items, by item id
+	private final Map<Integer, ItemData> itemData = new HashMap<>();
 	private final List<GroundItem> groundItems = new ArrayList<>();
 	private final Map<Integer, Color> priceChecks = new LinkedHashMap<>();
 	private LoadingCache<String, Boolean> highlightedItems;
 	private LoadingCache<String, Boolean> hiddenItems;
 
-	// Collects similar ground items
-	private final Collector<GroundItem, ?, Map<GroundItem.GroundItemKey, GroundItem>> groundItemMapCollector = Collectors
-		.toMap
-			((item) -> new GroundItem.GroundItemKey(item.getItemId(), item.getLocation()), Function.identity(), (a, b) ->
-				{
-					b.setHaPrice(a.getHaPrice() + b.getHaPrice());
-					b.setGePrice(a.getGePrice() + b.getGePrice());
-					b.setQuantity(a.getQuantity() + b.getQuantity());
-					return b;
-				},
-				() -> collectedGroundItems);
-
 	@Provides
 	GroundItemsConfig provideConfig(ConfigManager configManager)
 	{
@@ -190,6 +190,8 @@ public class GroundItemsPlugin extends Plugin
 		mouseManager.unregisterMouseListener(inputListener);
 		keyManager.unregisterKeyListener(inputListener);
 		groundItems.clear();
+		clearItems();
+		itemData.clear();
 		highlightedItems.invalidateAll();
 		highlightedItems = null;
 		hiddenItems.invalidateAll();
@@ -210,8 +212,15 @@ public class GroundItemsPlugin extends Plugin
 	@Subscribe
 	public void onGameStateChanged(final GameStateChanged event)
 	{
-		if (event.getGameState() == GameState.LOGGED_IN)
+		if (event.getGameState() == GameState.LOADING)
 		{
+			clearItems();
+			// Pick up any prices which were reloaded since the items were seen
+			itemData.clear();
+		}
+		else if (event.getGameState() == GameState.LOGGED_IN)
+		{
+			// item layers are set without events while the scene loads
 			dirty = true;
 		}
 	}
@@ -219,104 +228,174 @@ public class GroundItemsPlugin extends Plugin
 	@Subscribe
 	public void onItemLayerChanged(ItemLayerChanged event)
 	{
-		dirty = true;
+		final Tile tile = event.getTile();
+
+		// Items on other planes are not drawn, they are collected when the player changes plane
+		if (!dirty && tile.getPlane() == plane)
+		{
+			updateTile(tile);
+		}
 	}
 
 	void checkItems()
 	{
-		final Player player = client.getLocalPlayer();
+		if (client.getGameState() != GameState.LOGGED_IN)
+		{
+			return;
+		}
 
-		if (!dirty || player == null || client.getViewportWidget() == null)
+		final int z = client.getPlane();
+		if (!dirty && z == plane)
 		{
 			return;
 		}
 
 		dirty = false;
+		plane = z;
+		clearItems();
 
+		// The whole plane is scanned rather than the area around the player, as
+		// tiles are only updated again when their items change, not when the
+		// player moves. The overlay only draws the items near the player.
 		final Region region = client.getRegion();
-		final Tile[][][] tiles = region.getTiles();
-		final int z = client.getPlane();
-		final LocalPoint from = player.getLocalLocation();
-
-		final int lowerX = Math.max(0, from.getRegionX() - MAX_RANGE);
-		final int lowerY = Math.max(0, from.getRegionY() - MAX_RANGE);
+		final Tile[][] tiles = region.getTiles()[z];
 
-		final int upperX = Math.min(from.getRegionX() + MAX_RANGE, REGION_SIZE - 1);
-		final int upperY = Math.min(from.getRegionY() + MAX_RANGE, REGION_SIZE - 1);
-
-		groundItems.clear();
-
-		for (int x = lowerX; x <= upperX; ++x)
+		for (int x = 0; x < REGION_SIZE; ++x)
 		{
-			for (int y = lowerY; y <= upperY; ++y)
+			for (int y = 0; y < REGION_SIZE; ++y)
 			{
-				Tile tile = tiles[z][x][y];
-				if (tile == null)
+				Tile tile = tiles[x][y];
+				if (tile != null)
 				{
-					continue;
+					updateTile(tile);
 				}
+			}
+		}
+	}
 
-				ItemLayer itemLayer = tile.getItemLayer();
-				if (itemLayer == null)
-				{
-					continue;
-				}
+	/**
+	 * Replaces the ground items collected for a tile with the items
+	 * currently in its item layer.
+	 */
+	private void updateTile(final Tile tile)
+	{
+		final WorldPoint location = tile.getWorldLocation();
+		final List<GroundItem> previous = tileItems.remove(location);
 
-				Node current = itemLayer.getBottom();
+		if (previous != null)
+		{
+			for (GroundItem item : previous)
+			{
+				collectedGroundItems.remove(new GroundItem.GroundItemKey(item.getItemId(), location));
+			}
+		}
 
-				// adds the items on the ground to the ArrayList to be drawn
-				while (current instanceof Item)
-				{
-					final Item item = (Item) current;
+		final ItemLayer itemLayer = tile.getItemLayer();
+		if (itemLayer == null)
+		{
+			return;
+		}
 
-					// Continue iteration
-					current = current.getNext();
+		groundItems.clear();
+		Node current = itemLayer.getBottom();
 
-					// Build ground item
-					final GroundItem groundItem = buildGroundItem(tile, item);
+		while (current instanceof Item)
+		{
+			final Item item = (Item) current;
 
-					if (groundItem != null)
-					{
-						groundItem.setHeight(itemLayer.getHeight());
-						groundItems.add(groundItem);
-					}
-				}
-			}
+			// Continue iteration
+			current = current.getNext();
+
+			// Build ground item
+			final GroundItem groundItem = buildGroundItem(location, item);
+			groundItem.setHeight(itemLayer.getHeight());
+			groundItems.add(groundItem);
+		}
+
+		if (groundItems.isEmpty())
+		{
+			return;
 		}
 
 		// Group ground items together and sort them properly
+		final Map<GroundItem.GroundItemKey, GroundItem> grouped = new LinkedHashMap<>();
+		for (GroundItem item : Lists.reverse(groundItems))
+		{
+			grouped.merge(new GroundItem.GroundItemKey(item.getItemId(), location), item, (a, b) ->
+			{
+				b.setHaPrice(a.getHaPrice() + b.getHaPrice());
+				b.setGePrice(a.getGePrice() + b.getGePrice());
+				b.setQuantity(a.getQuantity() + b.getQuantity());
+				return b;
+			});
+		}
+
+		collectedGroundItems.putAll(grouped);
+		tileItems.put(location, new ArrayList<>(grouped.values()));
+	}
+
+	private void clearItems()
+	{
+		tileItems.clear();
 		collectedGroundItems.clear();
-		Lists.reverse(groundItems).stream().collect(groundItemMapCollector);
 	}
 
-	@Nullable
-	private GroundItem buildGroundItem(final Tile tile, final Item item)
+	private GroundItem buildGroundItem(final WorldPoint location, final Item item)
 	{
 		// Collect the data for the item
-		final int itemId = item.getId();
-		final ItemComposition itemComposition = itemManager.getItemComposition(itemId);
-		final int realItemId = itemComposition.getNote() != -1 ? itemComposition.getLinkedNoteId() : itemId;
-		final int alchPrice = Math.round(itemComposition.getPrice() * HIGH_ALCHEMY_CONSTANT);
+		final ItemData data = getItemData(item.getId());
 
-		final GroundItem groundItem = GroundItem.builder()
-			.id(itemId)
-			.location(tile.getWorldLocation())
-			.itemId(realItemId)
+		return GroundItem.builder()
+			.id(item.getId())
+			.location(location)
+			.itemId(data.getRealItemId())
 			.quantity(item.getQuantity())
-			.name(itemComposition.getName())
-			.haPrice(alchPrice * item.getQuantity())
-			.tradeable(itemComposition.isTradeable())
+			.name(data.getName())
+			.haPrice(data.getHaPrice() * item.getQuantity())
+			.gePrice(data.getGePrice() * item.getQuantity())
+			.tradeable(data.isTradeable())
+			.highlighted(data.isHighlighted())
+			.hidden(data.isHidden())
 			.build();
+	}
+
+	private ItemData getItemData(final int itemId)
+	{
+		ItemData data = itemData.get(itemId);
+		if (data != null)
+		{
+			return data;
+		}
 
+		final ItemComposition itemComposition = itemManager.getItemComposition(itemId);
+		final int realItemId = itemComposition.getNote() != -1 ? itemComposition.getLinkedNoteId() : itemId;
+		final String name = itemComposition.getName();
+		final ItemPrice itemPrice = itemManager.getItemPrice(realItemId);
+		final int haPrice;
+		final int gePrice;
 
-		// Update item price in case it is coins
 		if (realItemId == COINS)
 		{
-			groundItem.setHaPrice(groundItem.getQuantity());
-			groundItem.setGePrice(groundItem.getQuantity());
+			haPrice = 1;
+			gePrice = 1;
+		}
+		else
+		{
+			haPrice = Math.round(itemComposition.getPrice() * HIGH_ALCHEMY_CONSTANT);
+			gePrice = itemPrice != null && itemPrice.getPrice() > 0 ? itemPrice.getPrice() : 0;
+		}
+
+		data = new ItemData(realItemId, name, haPrice, gePrice, itemComposition.isTradeable(),
+			TRUE.equals(highlightedItems.getUnchecked(name)),
+			TRUE.equals(hiddenItems.getUnchecked(name)));
+
+		// Prices are loaded after startup, so look the item up again until they are
+		if (itemPrice != null || !data.isTradeable())
+		{
+			itemData.put(itemId, data);
 		}
 
-		return groundItem;
+		return data;
 	}
 
 	private void reset()
@@ -338,6 +417,7 @@ public class GroundItemsPlugin extends Plugin
 			.build(new WildcardMatchLoader(hiddenItemList));
 
 		dirty = true;
+		itemData.clear();
 
 		// Cache colors
 		priceChecks.clear();
@@ -402,13 +482,11 @@ public class GroundItemsPlugin extends Plugin
 			}
 
 			final ItemComposition itemComposition = itemManager.getItemComposition(itemId);
-			final int realItemId = itemComposition.getNote() != -1 ? itemComposition.getLinkedNoteId() : itemComposition.getId();
-			final ItemPrice itemPrice = itemManager.getItemPrice(realItemId);
-			final int price = itemPrice == null ? itemComposition.getPrice() : itemPrice.getPrice();
-			final int haPrice = Math.round(itemComposition.getPrice() * HIGH_ALCHEMY_CONSTANT) * quantity;
-			final int gePrice = quantity * price;
-			final Color hidden = getHidden(itemComposition.getName(), gePrice, haPrice, itemComposition.isTradeable());
-			final Color highlighted = getHighlighted(itemComposition.getName(), gePrice, haPrice);
+			final ItemData data = getItemData(itemId);
+			final int haPrice = data.getHaPrice() * quantity;
+			final int gePrice = data.getGePrice() * quantity;
+			final Color hidden = getHidden(data.isHighlighted(), data.isHidden(), gePrice, haPrice, data.isTradeable());
+			final Color highlighted = getHighlighted(data.isHighlighted(), data.isHidden(), gePrice, haPrice);
 			final Color color = getItemColor(highlighted, hidden);
 			final boolean canBeRecolored = highlighted != null || (hidden != null && config.recolorMenuHiddenItems());
 
@@ -464,15 +542,15 @@ public class GroundItemsPlugin extends Plugin
 		config.setHighlightedItem(COMMA_JOINER.join(highlightedItemSet));
 	}
 
-	Color getHighlighted(String item, int gePrice, int haPrice)
+	Color getHighlighted(boolean isExplicitHighlight, boolean isExplicitHidden, int gePrice, int haPrice)
 	{
-		if (TRUE.equals(highlightedItems.getUnchecked(item)))
+		if (isExplicitHighlight)
 		{
 			return config.highlightedColor();
 		}
 
 		// Explicit hide takes priority over implicit highlight
-		if (TRUE.equals(hiddenItems.getUnchecked(item)))
+		if (isExplicitHidden)
 		{
 			return null;
 		}
@@ -488,10 +566,8 @@ public class GroundItemsPlugin extends Plugin
 		return null;
 	}
 
-	Color getHidden(String item, int gePrice, int haPrice, boolean isTradeable)
+	Color getHidden(boolean isExplicitHighlight, boolean isExplicitHidden, int gePrice, int haPrice, boolean isTradeable)
 	{
-		final boolean isExplicitHidden = TRUE.equals(hiddenItems.getUnchecked(item));
-		final boolean isExplicitHighlight = TRUE.equals(highlightedItems.getUnchecked(item));
 		final boolean canBeHidden = gePrice > 0 || isTradeable || !config.dontHideUntradeables();
 		final boolean underGe = gePrice < config.getHideUnderValue();
 		final boolean underHa = haPrice < config.getHideUnderValue();
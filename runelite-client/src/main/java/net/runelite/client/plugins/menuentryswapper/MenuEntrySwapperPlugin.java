@@ -27,8 +27,10 @@ package net.runelite.client.plugins.menuentryswapper;
 
 import com.google.common.eventbus.Subscribe;
 import com.google.inject.Provides;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import javax.inject.Inject;
 import lombok.Getter;
 import lombok.Setter;
@@ -49,6 +51,8 @@ import net.runelite.client.config.ConfigManager;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.input.KeyManager;
 import net.runelite.client.menus.MenuManager;
+import net.runelite.client.menus.MenuRule;
+import net.runelite.client.menus.MenuTransformer;
 import net.runelite.client.menus.WidgetMenuOption;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
@@ -67,6 +71,10 @@ public class MenuEntrySwapperPlugin extends Plugin
 	private static final String MENU_TARGET = "<col=ff9040>Shift-click";
 
 	private static final String CONFIG_GROUP = "shiftclick";
+	private static final String[] TRAVEL_OPTIONS = {
+		"travel", "pay-fare", "charter", "take-boat", "fly", "jatizso",
+		"neitiznot", "rellekka", "follow", "transport"
+	};
 	private static final String ITEM_KEY_PREFIX = "item_";
 
 	private static final WidgetMenuOption FIXED_INVENTORY_TAB_CONFIGURE = new WidgetMenuOption(CONFIGURE,
@@ -108,6 +116,11 @@ public class MenuEntrySwapperPlugin extends Plugin
 	@Inject
 	private MenuManager menuManager;
 
+	@Inject
+	private MenuTransformer menuTransformer;
+
+	private final List<MenuRule> rules = new ArrayList<>();
+
 	@Getter
 	private boolean configuringShiftClick = false;
 
@@ -123,6 +136,8 @@ public class MenuEntrySwapperPlugin extends Plugin
 	@Override
 	public void startUp()
 	{
+		updateRules();
+
 		if (config.shiftClickCustomization())
 		{
 			enableCustomization();
@@ -132,12 +147,21 @@ public class MenuEntrySwapperPlugin extends Plugin
 	@Override
 	public void shutDown()
 	{
+		menuTransformer.removeRules(rules);
+		rules.clear();
 		disableCustomization();
 	}
 
 	@Subscribe
 	public void onConfigChanged(ConfigChanged event)
 	{
+		if (!event.getGroup().equals("menuentryswapper"))
+		{
+			return;
+		}
+
+		updateRules();
+
 		if (event.getKey().equals("shiftClickCustomization"))
 		{
 			if (config.shiftClickCustomization())
@@ -320,7 +344,8 @@ public class MenuEntrySwapperPlugin extends Plugin
 	@Subscribe
 	public void onMenuEntryAdded(MenuEntryAdded event)
 	{
-		if (client.getGameState() != GameState.LOGGED_IN)
+		if (client.getGameState() != GameState.LOGGED_IN || !isShiftClickActive()
+			|| event.getActionParam1() != WidgetInfo.INVENTORY.getId())
 		{
 			return;
 		}
@@ -329,149 +354,142 @@ public class MenuEntrySwapperPlugin extends Plugin
 		String option = Text.removeTags(event.getOption()).toLowerCase();
 		String target = Text.removeTags(event.getTarget()).toLowerCase();
 
-		if (option.equals("talk-to"))
+		if (!option.equals("use"))
 		{
-			if (config.swapPickpocket() && target.contains("h.a.m."))
-			{
-				swap("pickpocket", option, target, true);
-			}
-
-			if (config.swapAbyssTeleport() && target.contains("mage of zamorak"))
-			{
-				swap("teleport", option, target, true);
-			}
-
-			if (config.swapBank())
-			{
-				swap("bank", option, target, true);
-			}
-
-			if (config.swapExchange())
-			{
-				swap("exchange", option, target, true);
-			}
+			Integer customOption = getSwapConfig(itemId);
 
-			if (config.swapTrade())
+			if (customOption != null && customOption == -1)
 			{
-				swap("trade", option, target, true);
+				swap("use", option, target, true);
 			}
+		}
+	}
 
-			if (config.claimSlime() && target.equals("robin"))
-			{
-				swap("claim-slime", option, target, true);
-			}
+	private boolean isShiftClickActive()
+	{
+		return shiftModifier && config.shiftClickCustomization();
+	}
 
-			if (config.swapTravel())
-			{
-				swap("travel", option, target, true);
-				swap("pay-fare", option, target, true);
-				swap("charter", option, target, true);
-				swap("take-boat", option, target, true);
-				swap("fly", option, target, true);
-				swap("jatizso", option, target, true);
-				swap("neitiznot", option, target, true);
-				swap("rellekka", option, target, true);
-				swap("follow", option, target, true);
-				swap("transport", option, target, true);
-			}
+	private void updateRules()
+	{
+		menuTransformer.removeRules(rules);
+		rules.clear();
 
-			if (config.swapPay())
-			{
-				swap("pay", option, target, true);
-			}
-		}
-		else if (config.swapTravel() && option.equals("pass") && target.equals("energy barrier"))
+		if (config.swapPickpocket())
 		{
-			swap("pay-toll(2-ecto)", option, target, true);
+			rules.add(MenuRule.swapForTarget("talk-to", target -> target.contains("h.a.m."), "pickpocket"));
 		}
-		else if (config.swapTravel() && option.equals("open") && target.equals("gate"))
+
+		if (config.swapAbyssTeleport())
 		{
-			swap("pay-toll(10gp)", option, target, true);
+			rules.add(MenuRule.swapForTarget("talk-to", target -> target.contains("mage of zamorak"), "teleport"));
 		}
-		else if (config.swapTravel() && option.equals("inspect") && target.equals("trapdoor"))
+
+		if (config.swapBank())
 		{
-			swap("travel", option, target, true);
+			rules.add(MenuRule.swap("talk-to", "bank"));
 		}
-		else if (config.swapHarpoon() && option.equals("cage"))
+
+		if (config.swapExchange())
 		{
-			swap("harpoon", option, target, true);
+			rules.add(MenuRule.swap("talk-to", "exchange"));
 		}
-		else if (config.swapHarpoon() && (option.equals("big net") || option.equals("net")))
+
+		if (config.swapTrade())
 		{
-			swap("harpoon", option, target, true);
+			rules.add(MenuRule.swap("talk-to", "trade"));
 		}
-		else if (config.swapHomePortal() != HouseMode.ENTER && option.equals("enter"))
+
+		if (config.claimSlime())
 		{
-			switch (config.swapHomePortal())
-			{
-				case HOME:
-					swap("home", option, target, true);
-					break;
-				case BUILD_MODE:
-					swap("build mode", option, target, true);
-					break;
-				case FRIENDS_HOUSE:
-					swap("friend's house", option, target, true);
-					break;
-			}
+			rules.add(MenuRule.swapForTarget("talk-to", "robin", "claim-slime"));
 		}
-		else if (config.swapFairyRing() != FairyRingMode.ZANARIS && (option.equals("zanaris") || option.equals("tree")))
+
+		if (config.swapTravel())
 		{
-			if (config.swapFairyRing() == FairyRingMode.LAST_DESTINATION)
-			{
-				swap("last-destination (", option, target, false);
-			}
-			else if (config.swapFairyRing() == FairyRingMode.CONFIGURE)
+			for (String travelOption : TRAVEL_OPTIONS)
 			{
-				swap("configure", option, target, false);
+				rules.add(MenuRule.swap("talk-to", travelOption));
 			}
+
+			rules.add(MenuRule.swapForTarget("pass", "energy barrier", "pay-toll(2-ecto)"));
+			rules.add(MenuRule.swapForTarget("open", "gate", "pay-toll(10gp)"));
+			rules.add(MenuRule.swapForTarget("inspect", "trapdoor", "travel"));
 		}
-		else if (config.swapBoxTrap() && (option.equals("check") || option.equals("dismantle")))
+
+		if (config.swapPay())
 		{
-			swap("reset", option, target, true);
+			rules.add(MenuRule.swap("talk-to", "pay"));
 		}
-		else if (config.swapBoxTrap() && option.equals("take"))
+
+		if (config.swapHarpoon())
 		{
-			swap("lay", option, target, true);
+			rules.add(MenuRule.swap("cage", "harpoon"));
+			rules.add(MenuRule.swap("big net", "harpoon"));
+			rules.add(MenuRule.swap("net", "harpoon"));
 		}
-		else if (config.swapCatacombEntrance() && option.equals("read"))
+
+		switch (config.swapHomePortal())
 		{
-			swap("investigate", option, target, true);
+			case HOME:
+				rules.add(MenuRule.swap("enter", "home"));
+				break;
+			case BUILD_MODE:
+				rules.add(MenuRule.swap("enter", "build mode"));
+				break;
+			case FRIENDS_HOUSE:
+				rules.add(MenuRule.swap("enter", "friend's house"));
+				break;
 		}
-		else if (config.swapChase() && option.equals("pick-up"))
+
+		switch (config.swapFairyRing())
 		{
-			swap("chase", option, target, true);
+			case LAST_DESTINATION:
+				rules.add(MenuRule.swapContains("zanaris", "last-destination ("));
+				rules.add(MenuRule.swapContains("tree", "last-destination ("));
+				break;
+			case CONFIGURE:
+				rules.add(MenuRule.swapContains("zanaris", "configure"));
+				rules.add(MenuRule.swapContains("tree", "configure"));
+				break;
 		}
-		else if (config.shiftClickCustomization() && shiftModifier && !option.equals("use"))
+
+		if (config.swapBoxTrap())
 		{
-			Integer customOption = getSwapConfig(itemId);
+			rules.add(MenuRule.swap("check", "reset"));
+			rules.add(MenuRule.swap("dismantle", "reset"));
+			rules.add(MenuRule.swap("take", "lay"));
+		}
 
-			if (customOption != null && customOption == -1)
-			{
-				swap("use", option, target, true);
-			}
+		if (config.swapCatacombEntrance())
+		{
+			rules.add(MenuRule.swap("read", "investigate"));
 		}
-		// Put all item-related swapping after shift-click
-		else if (config.swapTeleportItem() && option.equals("wear"))
+
+		if (config.swapChase())
 		{
-			swap("rub", option, target, true);
-			swap("teleport", option, target, true);
+			rules.add(MenuRule.swap("pick-up", "chase"));
 		}
-		else if (option.equals("wield"))
+
+		// Shift-click customization takes priority over item swaps
+		if (config.swapTeleportItem())
 		{
-			if (config.swapTeleportItem())
-			{
-				swap("teleport", option, target, true);
-			}
+			rules.add(MenuRule.swapForTarget("wear", target -> !isShiftClickActive(), "rub"));
+			rules.add(MenuRule.swapForTarget("wear", target -> !isShiftClickActive(), "teleport"));
+			rules.add(MenuRule.swapForTarget("wield", target -> !isShiftClickActive(), "teleport"));
 		}
-		else if (config.swapBones() && option.equals("bury"))
+
+		if (config.swapBones())
 		{
-			swap("use", option, target, true);
+			rules.add(MenuRule.swapForTarget("bury", target -> !isShiftClickActive(), "use"));
 		}
-		else if (config.swapBirdhouseEmpty() && option.equals("interact") && target.contains("birdhouse"))
+
+		if (config.swapBirdhouseEmpty())
 		{
-			swap("empty", option, target, true);
+			rules.add(MenuRule.swapForTarget("interact", target -> !isShiftClickActive() && target.contains("birdhouse"), "empty"));
 		}
+
+		menuTransformer.addRules(rules.toArray(new MenuRule[0]));
 	}
 
 	@Subscribe
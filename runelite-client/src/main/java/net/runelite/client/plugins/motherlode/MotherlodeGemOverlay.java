@@ -29,13 +29,13 @@ import java.awt.Graphics2D;
 import java.time.Duration;
 import java.time.Instant;
 import javax.inject.Inject;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 import net.runelite.client.ui.overlay.components.TitleComponent;
 
-public class MotherlodeGemOverlay extends Overlay
+public class MotherlodeGemOverlay extends CachedOverlay
 {
 	private final MotherlodePlugin plugin;
 	private final MotherlodeConfig config;
@@ -50,8 +50,10 @@ public class MotherlodeGemOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panelComponent.getChildren().clear();
+
 		MotherlodeSession session = plugin.getSession();
 
 		if (session.getLastGemFound() == null || !plugin.isInMlm() || !config.showGemsFound())
@@ -72,7 +74,6 @@ public class MotherlodeGemOverlay extends Overlay
 		int emeraldsFound = session.getEmeraldsFound();
 		int sapphiresFound = session.getSapphiresFound();
 
-		panelComponent.getChildren().clear();
 		panelComponent.getChildren().add(TitleComponent.builder().text("Gems found").build());
 
 		if (diamondsFound > 0)
@@ -107,6 +108,12 @@ public class MotherlodeGemOverlay extends Overlay
 				.build());
 		}
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panelComponent.render(graphics);
 	}
 }
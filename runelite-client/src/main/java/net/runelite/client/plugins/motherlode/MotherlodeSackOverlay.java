@@ -34,13 +34,13 @@ import net.runelite.api.Client;
 import net.runelite.api.Varbits;
 import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetInfo;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.ComponentConstants;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 
-class MotherlodeSackOverlay extends Overlay
+class MotherlodeSackOverlay extends CachedOverlay
 {
 	private static final Color DANGER = new Color(150, 0, 0, 150);
 	private final Client client;
@@ -59,8 +59,10 @@ class MotherlodeSackOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panelComponent.getChildren().clear();
+
 		if (!plugin.isInMlm())
 		{
 			return null;
@@ -68,7 +70,6 @@ class MotherlodeSackOverlay extends Overlay
 
 		Widget sack = client.getWidget(WidgetInfo.MOTHERLODE_MINE);
 
-		panelComponent.getChildren().clear();
 		panelComponent.setBackgroundColor(ComponentConstants.STANDARD_BACKGROUND_COLOR);
 
 		if (sack != null)
@@ -114,6 +115,12 @@ class MotherlodeSackOverlay extends Overlay
 			}
 		}
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panelComponent.render(graphics);
 	}
 }
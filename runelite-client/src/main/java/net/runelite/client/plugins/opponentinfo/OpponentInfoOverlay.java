@@ -32,6 +32,7 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Map;
 import javax.inject.Inject;
 import net.runelite.api.Actor;
@@ -40,7 +41,7 @@ import net.runelite.api.NPC;
 import net.runelite.api.Player;
 import net.runelite.api.Varbits;
 import net.runelite.client.game.HiscoreManager;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
 import net.runelite.client.ui.overlay.components.ComponentConstants;
@@ -50,7 +51,7 @@ import net.runelite.client.ui.overlay.components.TitleComponent;
 import net.runelite.client.util.Text;
 import net.runelite.http.api.hiscore.HiscoreResult;
 
-class OpponentInfoOverlay extends Overlay
+class OpponentInfoOverlay extends CachedOverlay
 {
 	private static final Color HP_GREEN = new Color(0, 146, 54, 230);
 	private static final Color HP_RED = new Color(102, 15, 16, 230);
@@ -98,8 +99,10 @@ class OpponentInfoOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panelComponent.getChildren().clear();
+
 		Actor opponent = getOpponent();
 
 		// If opponent is null, try to use last opponent
@@ -162,13 +165,7 @@ class OpponentInfoOverlay extends Overlay
 			return null; //don't draw anything.
 		}
 
-		final FontMetrics fontMetrics = graphics.getFontMetrics();
-
-		panelComponent.getChildren().clear();
-
 		// Opponent name
-		int textWidth = Math.max(ComponentConstants.STANDARD_WIDTH, fontMetrics.stringWidth(opponentName));
-		panelComponent.setPreferredSize(new Dimension(textWidth, 0));
 		panelComponent.getChildren().add(TitleComponent.builder()
 			.text(opponentName)
 			.build());
@@ -197,13 +194,32 @@ class OpponentInfoOverlay extends Overlay
 		// Opponents opponent
 		if (opponentsOpponentName != null)
 		{
-			textWidth = Math.max(textWidth, fontMetrics.stringWidth(opponentsOpponentName));
-			panelComponent.setPreferredSize(new Dimension(textWidth, 0));
 			panelComponent.getChildren().add(TitleComponent.builder()
 				.text(opponentsOpponentName)
 				.build());
 		}
 
+		// The preferred size is set from the font when rendering, which the image is already cached by
+		return new ArrayList<>(panelComponent.getChildren());
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
+		if (panelComponent.getChildren().isEmpty())
+		{
+			return null;
+		}
+
+		final FontMetrics fontMetrics = graphics.getFontMetrics();
+
+		int textWidth = Math.max(ComponentConstants.STANDARD_WIDTH, fontMetrics.stringWidth(opponentName));
+		if (opponentsOpponentName != null)
+		{
+			textWidth = Math.max(textWidth, fontMetrics.stringWidth(opponentsOpponentName));
+		}
+
+		panelComponent.setPreferredSize(new Dimension(textWidth, 0));
 		return panelComponent.render(graphics);
 	}
 }
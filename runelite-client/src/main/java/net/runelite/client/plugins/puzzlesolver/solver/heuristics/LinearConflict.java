@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.plugins.puzzlesolver.solver.heuristics;
+
+import net.runelite.client.plugins.puzzlesolver.solver.PuzzleState;
+import static net.runelite.client.plugins.puzzlesolver.solver.PuzzleSolver.DIMENSION;
+
+/**
+ * The manhattan distance plus linear conflicts.
+ * <p>
+ * Two pieces are in linear conflict when they are both in their goal row (or column)
+ * but in the wrong order, so one of them has to leave the line to let the other past,
+ * costing two moves on top of the manhattan distance. For each line the number of
+ * pieces which have to leave it is the number of goal pieces minus the longest run
+ * already in order, which is precomputed for every arrangement of a line.
+ */
+public class LinearConflict implements Heuristic
+{
+	/*
+		A line is encoded as one base DIMENSION + 1 digit per cell, holding the goal
+		position along the line of the piece in that cell, or DIMENSION if the piece
+		does not belong to the line.
+	 */
+	private static final int NONE = DIMENSION;
+	private static final byte[] CONFLICTS = buildConflicts();
+
+	@Override
+	public int computeValue(PuzzleState state)
+	{
+		final int[] pieces = new int[DIMENSION * DIMENSION];
+
+		for (int y = 0; y < DIMENSION; y++)
+		{
+			for (int x = 0; x < DIMENSION; x++)
+			{
+				pieces[y * DIMENSION + x] = state.getPiece(x, y);
+			}
+		}
+
+		int value = 0;
+
+		for (int i = 0; i < pieces.length; i++)
+		{
+			int piece = pieces[i];
+
+			if (piece != -1)
+			{
+				value += Math.abs(i % DIMENSION - piece % DIMENSION) + Math.abs(i / DIMENSION - piece / DIMENSION);
+			}
+		}
+
+		for (int line = 0; line < DIMENSION; line++)
+		{
+			value += rowConflicts(pieces, line) + columnConflicts(pieces, line);
+		}
+
+		return value;
+	}
+
+	/**
+	 * Get the extra moves required by conflicts in a row
+	 *
+	 * @param pieces the pieces of the board, -1 being the empty piece
+	 * @param row    the row
+	 * @return the extra moves on top of the manhattan distance
+	 */
+	public static int rowConflicts(int[] pieces, int row)
+	{
+		int key = 0;
+
+		for (int x = 0; x < DIMENSION; x++)
+		{
+			int piece = pieces[row * DIMENSION + x];
+			int digit = piece != -1 && piece / DIMENSION == row ? piece % DIMENSION : NONE;
+			key = key * (DIMENSION + 1) + digit;
+		}
+
+		return CONFLICTS[key];
+	}
+
+	/**
+	 * Get the extra moves required by conflicts in a column
+	 *
+	 * @param pieces the pieces of the board, -1 being the empty piece
+	 * @param column the column
+	 * @return the extra moves on top of the manhattan distance
+	 */
+	public static int columnConflicts(int[] pieces, int column)
+	{
+		int key = 0;
+
+		for (int y = 0; y < DIMENSION; y++)
+		{
+			int piece = pieces[y * DIMENSION + column];
+			int digit = piece != -1 && piece % DIMENSION == column ? piece / DIMENSION : NONE;
+			key = key * (DIMENSION + 1) + digit;
+		}
+
+		return CONFLICTS[key];
+	}
+
+	private static byte[] buildConflicts()
+	{
+		int size = 1;
+		for (int i = 0; i < DIMENSION; i++)
+		{
+			size *= DIMENSION + 1;
+		}
+
+		final byte[] conflicts = new byte[size];
+		final int[] digits = new int[DIMENSION];
+		final int[] longest = new int[DIMENSION];
+
+		for (int key = 0; key < size; key++)
+		{
+			int k = key;
+			for (int i = DIMENSION - 1; i >= 0; i--)
+			{
+				digits[i] = k % (DIMENSION + 1);
+				k /= DIMENSION + 1;
+			}
+
+			// Longest increasing subsequence of the goal positions
+			int count = 0;
+			int best = 0;
+
+			for (int i = 0; i < DIMENSION; i++)
+			{
+				if (digits[i] == NONE)
+				{
+					continue;
+				}
+
+				count++;
+				longest[i] = 1;
+
+				for (int j = 0; j < i; j++)
+				{
+					if (digits[j] != NONE && digits[j] < digits[i] && longest[j] + 1 > longest[i])
+					{
+						longest[i] = longest[j] + 1;
+					}
+				}
+
+				best = Math.max(best, longest[i]);
+			}
+
+			conflicts[key] = (byte) (2 * (count - best));
+		}
+
+		return conflicts;
+	}
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.plugins.puzzlesolver.solver.heuristics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+import net.runelite.client.plugins.puzzlesolver.solver.PuzzleState;
+import static net.runelite.client.plugins.puzzlesolver.solver.PuzzleSolver.DIMENSION;
+
+/**
+ * An additive pattern database heuristic.
+ * <p>
+ * The pieces are split into disjoint groups, and for each group a table holds the
+ * number of moves of that group's pieces needed to bring them home from every
+ * placement of them, ignoring all other pieces. As every move moves exactly one
+ * piece, the values for the groups can be summed and still never overestimate.
+ * <p>
+ * The tables are generated by a breadth first search back from the goal, which
+ * takes a moment, so they are cached on disk after the first time.
+ */
+@Slf4j
+public class PatternDatabase implements Heuristic
+{
+	private static final int CELLS = DIMENSION * DIMENSION;
+
+	private static final int[][] GROUPS =
+	{
+		{0, 1, 5, 6},
+		{2, 3, 7, 8},
+		{4, 9, 14, 19},
+		{10, 11, 15, 16},
+		{12, 13, 17, 18},
+		{20, 21, 22, 23},
+	};
+
+	private static final int MAGIC = 0x50444221;
+	private static final int VERSION = 1;
+	private static final File CACHE_FILE = new File(RuneLite.RUNELITE_DIR, "cache" + File.separator + "puzzle-" + DIMENSION + ".pdb");
+
+	private static PatternDatabase instance;
+
+	private final byte[][] tables;
+	private final int[] groups = new int[CELLS];
+	private final int[] weights = new int[CELLS];
+
+	private PatternDatabase(byte[][] tables)
+	{
+		this.tables = tables;
+
+		Arrays.fill(groups, -1);
+		for (int group = 0; group < GROUPS.length; group++)
+		{
+			int weight = 1;
+			for (int i = GROUPS[group].length - 1; i >= 0; i--)
+			{
+				groups[GROUPS[group][i]] = group;
+				weights[GROUPS[group][i]] = weight;
+				weight *= CELLS;
+			}
+		}
+	}
+
+	/**
+	 * Get the pattern database, loading it from the disk cache or
+	 * generating it the first time it is needed
+	 */
+	public static synchronized PatternDatabase getInstance()
+	{
+		if (instance == null)
+		{
+			instance = load(CACHE_FILE);
+		}
+
+		return instance;
+	}
+
+	static PatternDatabase load(File file)
+	{
+		if (file.exists())
+		{
+			try
+			{
+				return read(file);
+			}
+			catch (IOException ex)
+			{
+				log.warn("unable to read pattern database, regenerating", ex);
+			}
+		}
+
+		final long start = System.nanoTime();
+		final PatternDatabase database = generate();
+		log.debug("Generated pattern database in {}ms", (System.nanoTime() - start) / 1_000_000);
+
+		try
+		{
+			database.write(file);
+		}
+		catch (IOException ex)
+		{
+			log.warn("unable to write pattern database", ex);
+		}
+
+		return database;
+	}
+
+	public static PatternDatabase generate()
+	{
+		final byte[][] tables = new byte[GROUPS.length][];
+
+		for (int group = 0; group < GROUPS.length; group++)
+		{
+			tables[group] = generate(GROUPS[group]);
+		}
+
+		return new PatternDatabase(tables);
+	}
+
+	private static byte[] generate(int[] pieces)
+	{
+		final int count = pieces.length;
+		final int size = (int) Math.pow(CELLS, count);
+		final byte[] table = new byte[size];
+		Arrays.fill(table, (byte) -1);
+
+		final int[] weight = new int[count];
+		int goal = 0;
+		for (int i = 0; i < count; i++)
+		{
+			weight[i] = (int) Math.pow(CELLS, count - 1 - i);
+			// The goal cell of a piece is its own value
+			goal += pieces[i] * weight[i];
+		}
+
+		// Only placements without two pieces in the same cell are reachable
+		final int[] queue = new int[size];
+		final int[] positions = new int[count];
+		int head = 0;
+		int tail = 0;
+
+		table[goal] = 0;
+		queue[tail++] = goal;
+
+		while (head < tail)
+		{
+			final int index = queue[head++];
+			final int distance = table[index];
+
+			int occupied = 0;
+			for (int i = 0, k = index; i < count; i++)
+			{
+				positions[i] = k / weight[i];
+				k %= weight[i];
+				occupied |= 1 << positions[i];
+			}
+
+			for (int i = 0; i < count; i++)
+			{
+				final int position = positions[i];
+				final int x = position % DIMENSION;
+
+				for (int direction = 0; direction < 4; direction++)
+				{
+					final int next;
+					switch (direction)
+					{
+						case 0:
+							next = x > 0 ? position - 1 : -1;
+							break;
+						case 1:
+							next = x < DIMENSION - 1 ? position + 1 : -1;
+							break;
+						case 2:
+							next = position - DIMENSION;
+							break;
+						default:
+							next = position + DIMENSION;
+							break;
+					}
+
+					if (next < 0 || next >= CELLS || (occupied & 1 << next) != 0)
+					{
+						continue;
+					}
+
+					final int nextIndex = index + (next - position) * weight[i];
+					if (table[nextIndex] == -1)
+					{
+						table[nextIndex] = (byte) (distance + 1);
+						queue[tail++] = nextIndex;
+					}
+				}
+			}
+		}
+
+		return table;
+	}
+
+	private static PatternDatabase read(File file) throws IOException
+	{
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+		{
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != DIMENSION || in.readInt() != GROUPS.length)
+			{
+				throw new IOException("pattern database header mismatch");
+			}
+
+			final byte[][] tables = new byte[GROUPS.length][];
+
+			for (int group = 0; group < GROUPS.length; group++)
+			{
+				final int[] pieces = GROUPS[group];
+				if (in.readInt() != pieces.length)
+				{
+					throw new IOException("pattern database group mismatch");
+				}
+
+				for (int piece : pieces)
+				{
+					if (in.readInt() != piece)
+					{
+						throw new IOException("pattern database group mismatch");
+					}
+				}
+
+				tables[group] = new byte[(int) Math.pow(CELLS, pieces.length)];
+				in.readFully(tables[group]);
+			}
+
+			return new PatternDatabase(tables);
+		}
+	}
+
+	void write(File file) throws IOException
+	{
+		file.getParentFile().mkdirs();
+
+		final File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp))))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(DIMENSION);
+			out.writeInt(GROUPS.length);
+
+			for (int group = 0; group < GROUPS.length; group++)
+			{
+				out.writeInt(GROUPS[group].length);
+				for (int piece : GROUPS[group])
+				{
+					out.writeInt(piece);
+				}
+				out.write(tables[group]);
+			}
+		}
+
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@Override
+	public int computeValue(PuzzleState state)
+	{
+		final int[] indices = new int[GROUPS.length];
+
+		for (int y = 0; y < DIMENSION; y++)
+		{
+			for (int x = 0; x < DIMENSION; x++)
+			{
+				int piece = state.getPiece(x, y);
+				if (piece != -1 && groups[piece] != -1)
+				{
+					indices[groups[piece]] += (y * DIMENSION + x) * weights[piece];
+				}
+			}
+		}
+
+		int value = 0;
+		for (int group = 0; group < GROUPS.length; group++)
+		{
+			value += getDistance(group, indices[group]);
+		}
+
+		return value;
+	}
+
+	public int getGroupCount()
+	{
+		return GROUPS.length;
+	}
+
+	/**
+	 * Get the group of a piece
+	 *
+	 * @param piece the piece
+	 * @return the group, or -1 if the piece is in no group
+	 */
+	public int getGroup(int piece)
+	{
+		return groups[piece];
+	}
+
+	/**
+	 * Get the weight of a piece within its group's index. The index of a group is the sum
+	 * of the cell each of its pieces is in multiplied by the piece's weight, so moving a
+	 * piece from one cell to another changes the index by the difference times the weight.
+	 *
+	 * @param piece the piece
+	 * @return the weight
+	 */
+	public int getWeight(int piece)
+	{
+		return weights[piece];
+	}
+
+	/**
+	 * Get the number of moves needed to bring a group's pieces home
+	 *
+	 * @param group the group
+	 * @param index the index of the placement of the group's pieces
+	 * @return the number of moves
+	 */
+	public int getDistance(int group, int index)
+	{
+		return tables[group][index];
+	}
+}
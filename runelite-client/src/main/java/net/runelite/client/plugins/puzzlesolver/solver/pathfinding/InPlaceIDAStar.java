@@ -0,0 +1,469 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.plugins.puzzlesolver.solver.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import net.runelite.client.plugins.puzzlesolver.solver.PuzzleState;
+import net.runelite.client.plugins.puzzlesolver.solver.heuristics.LinearConflict;
+import net.runelite.client.plugins.puzzlesolver.solver.heuristics.PatternDatabase;
+import static net.runelite.client.plugins.puzzlesolver.solver.PuzzleSolver.DIMENSION;
+
+/**
+ * An implementation of the IDA* algorithm which searches on a single board,
+ * making and unmaking moves in place instead of creating a state per node.
+ * <p>
+ * The heuristic is the larger of the manhattan distance plus linear conflicts and
+ * the additive pattern database, all of which are updated incrementally as pieces
+ * move. Moves which undo the previous move are never generated.
+ * <p>
+ * When parallel, the first few moves are expanded up front and the subtrees below
+ * them are searched concurrently for each bound.
+ */
+public class InPlaceIDAStar extends Pathfinder
+{
+	private static final int CELLS = DIMENSION * DIMENSION;
+	private static final int FOUND = -1;
+	private static final int ABORTED = Integer.MAX_VALUE;
+	private static final int SPLIT_DEPTH = 3;
+	private static final int CHECK_INTERVAL = 0xFFF;
+
+	private static final int[][] NEIGHBOURS = new int[CELLS][];
+	private static final int[][] DISTANCE = new int[CELLS][CELLS];
+
+	static
+	{
+		for (int cell = 0; cell < CELLS; cell++)
+		{
+			final int x = cell % DIMENSION;
+			final int y = cell / DIMENSION;
+			final List<Integer> neighbours = new ArrayList<>(4);
+
+			if (x > 0)
+			{
+				neighbours.add(cell - 1);
+			}
+			if (x < DIMENSION - 1)
+			{
+				neighbours.add(cell + 1);
+			}
+			if (y > 0)
+			{
+				neighbours.add(cell - DIMENSION);
+			}
+			if (y < DIMENSION - 1)
+			{
+				neighbours.add(cell + DIMENSION);
+			}
+
+			NEIGHBOURS[cell] = neighbours.stream().mapToInt(Integer::intValue).toArray();
+
+			for (int other = 0; other < CELLS; other++)
+			{
+				DISTANCE[cell][other] = Math.abs(x - other % DIMENSION) + Math.abs(y - other / DIMENSION);
+			}
+		}
+	}
+
+	private final Supplier<PatternDatabase> patternDatabase;
+	private final boolean parallel;
+	private final AtomicLong nodes = new AtomicLong();
+
+	public InPlaceIDAStar(boolean parallel)
+	{
+		this(PatternDatabase::getInstance, parallel);
+	}
+
+	public InPlaceIDAStar(PatternDatabase patternDatabase, boolean parallel)
+	{
+		this(() -> patternDatabase, parallel);
+	}
+
+	private InPlaceIDAStar(Supplier<PatternDatabase> patternDatabase, boolean parallel)
+	{
+		super(new LinearConflict());
+		this.patternDatabase = patternDatabase;
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Get the number of nodes expanded by the last search
+	 */
+	public long getNodes()
+	{
+		return nodes.get();
+	}
+
+	@Override
+	public List<PuzzleState> computePath(PuzzleState root)
+	{
+		nodes.set(0);
+
+		final int[] pieces = new int[CELLS];
+		for (int i = 0; i < CELLS; i++)
+		{
+			pieces[i] = root.getPiece(i % DIMENSION, i / DIMENSION);
+		}
+
+		final Search search = new Search(patternDatabase.get(), pieces, new AtomicBoolean(), Thread.currentThread());
+		final int[] moves = parallel ? searchParallel(search) : searchSequential(search);
+
+		return moves == null ? null : buildPath(root, moves);
+	}
+
+	private int[] searchSequential(Search search)
+	{
+		int bound = search.heuristic();
+
+		while (true)
+		{
+			final int t = search.search(0, bound, -1);
+			nodes.addAndGet(search.nodes);
+			search.nodes = 0;
+
+			if (t == FOUND)
+			{
+				return Arrays.copyOf(search.path, search.length);
+			}
+
+			if (t == ABORTED)
+			{
+				return null;
+			}
+
+			bound = t;
+		}
+	}
+
+	private int[] searchParallel(Search root)
+	{
+		final List<Search> frontier = new ArrayList<>();
+		final int[] solution = expand(root, 0, -1, frontier);
+
+		if (solution != null)
+		{
+			return solution;
+		}
+
+		int bound = root.heuristic();
+
+		while (true)
+		{
+			final int currentBound = bound;
+			final int t = frontier.parallelStream()
+				.mapToInt(search -> search.search(search.depth, currentBound, search.previous))
+				.min()
+				.orElse(ABORTED);
+
+			for (Search search : frontier)
+			{
+				nodes.addAndGet(search.nodes);
+				search.nodes = 0;
+			}
+
+			if (t == FOUND)
+			{
+				for (Search search : frontier)
+				{
+					if (search.found)
+					{
+						return Arrays.copyOf(search.path, search.length);
+					}
+				}
+			}
+
+			if (t == ABORTED || root.stop.get())
+			{
+				return null;
+			}
+
+			bound = t;
+		}
+	}
+
+	/**
+	 * Expand the first moves into the frontier of subtrees to search in parallel
+	 *
+	 * @return the moves to the goal, if it is found while expanding
+	 */
+	private int[] expand(Search search, int depth, int previous, List<Search> frontier)
+	{
+		if (search.heuristic() == 0)
+		{
+			return Arrays.copyOf(search.path, depth);
+		}
+
+		if (depth == SPLIT_DEPTH)
+		{
+			final Search copy = search.copy();
+			copy.depth = depth;
+			copy.previous = previous;
+			frontier.add(copy);
+			return null;
+		}
+
+		final int from = search.blank;
+		for (int next : NEIGHBOURS[from])
+		{
+			if (next == previous)
+			{
+				continue;
+			}
+
+			search.move(next);
+			search.path[depth] = next;
+			final int[] solution = expand(search, depth + 1, from, frontier);
+			search.move(from);
+
+			if (solution != null)
+			{
+				return solution;
+			}
+		}
+
+		return null;
+	}
+
+	private static List<PuzzleState> buildPath(PuzzleState root, int[] moves)
+	{
+		final List<PuzzleState> path = new ArrayList<>(moves.length + 1);
+		PuzzleState state = root;
+		path.add(state);
+
+		for (int move : moves)
+		{
+			for (PuzzleState next : state.computeMoves())
+			{
+				if (next.getEmptyPiece() == move)
+				{
+					state = next;
+					break;
+				}
+			}
+
+			path.add(state);
+		}
+
+		return path;
+	}
+
+	private static class Search
+	{
+		private final PatternDatabase patternDatabase;
+		private final int[] pieces;
+		private final AtomicBoolean stop;
+		private final Thread owner;
+
+		private final int[] rowConflicts = new int[DIMENSION];
+		private final int[] columnConflicts = new int[DIMENSION];
+		private final int[] indices;
+
+		private int blank;
+		private int manhattan;
+		private int conflicts;
+		private int database;
+
+		private final int[] path = new int[256];
+		private int length;
+		private boolean found;
+
+		// The moves already made to reach this subtree of a parallel search
+		private int depth;
+		private int previous = -1;
+		private long nodes;
+
+		Search(PatternDatabase patternDatabase, int[] pieces, AtomicBoolean stop, Thread owner)
+		{
+			this.patternDatabase = patternDatabase;
+			this.pieces = pieces;
+			this.stop = stop;
+			this.owner = owner;
+			this.indices = new int[patternDatabase.getGroupCount()];
+
+			for (int cell = 0; cell < CELLS; cell++)
+			{
+				final int piece = pieces[cell];
+
+				if (piece == -1)
+				{
+					blank = cell;
+					continue;
+				}
+
+				manhattan += DISTANCE[cell][piece];
+
+				final int group = patternDatabase.getGroup(piece);
+				if (group != -1)
+				{
+					indices[group] += cell * patternDatabase.getWeight(piece);
+				}
+			}
+
+			for (int line = 0; line < DIMENSION; line++)
+			{
+				rowConflicts[line] = LinearConflict.rowConflicts(pieces, line);
+				columnConflicts[line] = LinearConflict.columnConflicts(pieces, line);
+				conflicts += rowConflicts[line] + columnConflicts[line];
+			}
+
+			for (int group = 0; group < indices.length; group++)
+			{
+				database += patternDatabase.getDistance(group, indices[group]);
+			}
+		}
+
+		Search copy()
+		{
+			final Search copy = new Search(patternDatabase, pieces.clone(), stop, owner);
+			System.arraycopy(path, 0, copy.path, 0, path.length);
+			return copy;
+		}
+
+		int heuristic()
+		{
+			return Math.max(manhattan + conflicts, database);
+		}
+
+		/**
+		 * Move the piece in a cell next to the blank into the blank. Moving
+		 * back to the previous blank cell undoes the move.
+		 */
+		void move(int cell)
+		{
+			final int piece = pieces[cell];
+			final int to = blank;
+
+			pieces[to] = piece;
+			pieces[cell] = -1;
+			blank = cell;
+
+			manhattan += DISTANCE[to][piece] - DISTANCE[cell][piece];
+
+			final int group = patternDatabase.getGroup(piece);
+			if (group != -1)
+			{
+				database -= patternDatabase.getDistance(group, indices[group]);
+				indices[group] += (to - cell) * patternDatabase.getWeight(piece);
+				database += patternDatabase.getDistance(group, indices[group]);
+			}
+
+			// A piece moving along a row only changes the columns it moves between, and vice versa
+			if (to / DIMENSION == cell / DIMENSION)
+			{
+				updateColumn(to % DIMENSION);
+				updateColumn(cell % DIMENSION);
+			}
+			else
+			{
+				updateRow(to / DIMENSION);
+				updateRow(cell / DIMENSION);
+			}
+		}
+
+		private void updateRow(int row)
+		{
+			final int value = LinearConflict.rowConflicts(pieces, row);
+			conflicts += value - rowConflicts[row];
+			rowConflicts[row] = value;
+		}
+
+		private void updateColumn(int column)
+		{
+			final int value = LinearConflict.columnConflicts(pieces, column);
+			conflicts += value - columnConflicts[column];
+			columnConflicts[column] = value;
+		}
+
+		int search(int g, int bound, int previous)
+		{
+			final int h = heuristic();
+			final int f = g + h;
+
+			if (f > bound)
+			{
+				return f;
+			}
+
+			if (h == 0)
+			{
+				length = g;
+				found = true;
+				stop.set(true);
+				return FOUND;
+			}
+
+			if ((++nodes & CHECK_INTERVAL) == 0 && shouldStop())
+			{
+				return ABORTED;
+			}
+
+			int min = ABORTED;
+			final int from = blank;
+
+			for (int next : NEIGHBOURS[from])
+			{
+				if (next == previous)
+				{
+					continue;
+				}
+
+				move(next);
+				path[g] = next;
+
+				final int t = search(g + 1, bound, from);
+
+				if (t == FOUND)
+				{
+					return FOUND;
+				}
+
+				move(from);
+
+				if (t == ABORTED)
+				{
+					return ABORTED;
+				}
+
+				min = Math.min(min, t);
+			}
+
+			return min;
+		}
+
+		private boolean shouldStop()
+		{
+			if (Thread.currentThread() == owner && owner.isInterrupted())
+			{
+				stop.set(true);
+			}
+
+			return stop.get();
+		}
+	}
+}
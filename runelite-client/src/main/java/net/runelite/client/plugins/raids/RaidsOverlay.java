@@ -30,14 +30,14 @@ import java.awt.Graphics2D;
 import javax.inject.Inject;
 import lombok.Setter;
 import net.runelite.client.plugins.raids.solver.Room;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 import net.runelite.client.ui.overlay.components.TitleComponent;
 
-public class RaidsOverlay extends Overlay
+public class RaidsOverlay extends CachedOverlay
 {
 	private RaidsPlugin plugin;
 	private RaidsConfig config;
@@ -56,15 +56,15 @@ public class RaidsOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panelComponent.getChildren().clear();
+
 		if (!config.scoutOverlay() || !scoutOverlayShown)
 		{
 			return null;
 		}
 
-		panelComponent.getChildren().clear();
-
 		if (plugin.getRaid() == null || plugin.getRaid().getLayout() == null)
 		{
 			panelComponent.getChildren().add(TitleComponent.builder()
@@ -72,7 +72,7 @@ public class RaidsOverlay extends Overlay
 				.color(Color.RED)
 				.build());
 
-			return panelComponent.render(graphics);
+			return panelComponent.getContentKey();
 		}
 
 		panelComponent.getChildren().add(TitleComponent.builder()
@@ -154,6 +154,12 @@ public class RaidsOverlay extends Overlay
 			}
 		}
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panelComponent.render(graphics);
 	}
 }
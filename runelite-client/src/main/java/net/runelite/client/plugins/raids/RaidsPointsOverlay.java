@@ -30,13 +30,13 @@ import javax.inject.Inject;
 import net.runelite.api.Client;
 import net.runelite.api.Varbits;
 import static net.runelite.client.plugins.raids.RaidsPlugin.POINTS_FORMAT;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 
-public class RaidsPointsOverlay extends Overlay
+public class RaidsPointsOverlay extends CachedOverlay
 {
 	@Inject
 	private Client client;
@@ -54,8 +54,10 @@ public class RaidsPointsOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panel.getChildren().clear();
+
 		if (!plugin.isInRaidChambers())
 		{
 			return null;
@@ -64,7 +66,6 @@ public class RaidsPointsOverlay extends Overlay
 		int totalPoints = client.getVar(Varbits.TOTAL_POINTS);
 		int personalPoints = client.getVar(Varbits.PERSONAL_POINTS);
 
-		panel.getChildren().clear();
 		panel.getChildren().add(LineComponent.builder()
 			.left("Total:")
 			.right(POINTS_FORMAT.format(totalPoints))
@@ -80,6 +81,12 @@ public class RaidsPointsOverlay extends Overlay
 			.right(String.valueOf(client.getVar(Varbits.RAID_PARTY_SIZE)))
 			.build());
 
+		return panel.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panel.render(graphics);
 	}
 }
@@ -28,13 +28,13 @@ import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.util.Map;
 import javax.inject.Inject;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 
-public class TeamCapesOverlay extends Overlay
+public class TeamCapesOverlay extends CachedOverlay
 {
 	private final TeamCapesPlugin plugin;
 	private final TeamCapesConfig config;
@@ -50,14 +50,15 @@ public class TeamCapesOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panelComponent.getChildren().clear();
+
 		Map<Integer, Integer> teams = plugin.getTeams();
 		if (teams.isEmpty())
 		{
 			return null;
 		}
-		panelComponent.getChildren().clear();
 
 		for (Map.Entry<Integer, Integer> team : teams.entrySet())
 		{
@@ -71,6 +72,12 @@ public class TeamCapesOverlay extends Overlay
 			}
 		}
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panelComponent.render(graphics);
 	}
 }
@@ -31,12 +31,12 @@ import net.runelite.api.Client;
 import net.runelite.api.Varbits;
 import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetInfo;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 
-class TitheFarmSackOverlay extends Overlay
+class TitheFarmSackOverlay extends CachedOverlay
 {
 	private final Client client;
 	private final TitheFarmPluginConfig config;
@@ -51,15 +51,16 @@ class TitheFarmSackOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panelComponent.getChildren().clear();
+
 		Widget sack = client.getWidget(WidgetInfo.TITHE_FARM);
 		if (sack == null)
 		{
 			return null;
 		}
 
-		panelComponent.getChildren().clear();
 		sack.setHidden(true);
 
 		if (config.showSack())
@@ -75,6 +76,12 @@ class TitheFarmSackOverlay extends Overlay
 				.build());
 		}
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panelComponent.render(graphics);
 	}
 }
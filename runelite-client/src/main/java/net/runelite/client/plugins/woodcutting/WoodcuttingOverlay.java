@@ -31,13 +31,13 @@ import javax.inject.Inject;
 import net.runelite.api.Client;
 import net.runelite.api.Skill;
 import net.runelite.client.plugins.xptracker.XpTrackerService;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.PanelComponent;
 import net.runelite.client.ui.overlay.components.TitleComponent;
 
-class WoodcuttingOverlay extends Overlay
+class WoodcuttingOverlay extends CachedOverlay
 {
 	private final Client client;
 	private final WoodcuttingPlugin plugin;
@@ -56,8 +56,10 @@ class WoodcuttingOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		panelComponent.getChildren().clear();
+
 		if (!config.showWoodcuttingStats())
 		{
 			return null;
@@ -69,8 +71,6 @@ class WoodcuttingOverlay extends Overlay
 			return null;
 		}
 
-		panelComponent.getChildren().clear();
-
 		Axe axe = plugin.getAxe();
 		if (axe != null && axe.getAnimId() == client.getLocalPlayer().getAnimation())
 		{
@@ -104,6 +104,12 @@ class WoodcuttingOverlay extends Overlay
 			}
 		}
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		return panelComponent.render(graphics);
 	}
 
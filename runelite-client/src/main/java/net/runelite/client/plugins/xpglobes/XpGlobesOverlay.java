@@ -35,6 +35,8 @@ import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
 import java.text.DecimalFormat;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import javax.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
@@ -44,7 +46,7 @@ import net.runelite.api.Point;
 import net.runelite.api.widgets.Widget;
 import net.runelite.client.game.SkillIconManager;
 import net.runelite.client.plugins.xptracker.XpTrackerService;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
 import net.runelite.client.ui.overlay.components.LineComponent;
@@ -52,13 +54,15 @@ import net.runelite.client.ui.overlay.components.PanelComponent;
 import net.runelite.client.ui.overlay.components.ProgressBarComponent;
 
 @Slf4j
-public class XpGlobesOverlay extends Overlay
+public class XpGlobesOverlay extends CachedOverlay
 {
 	private final Client client;
 	private final XpGlobesPlugin plugin;
 	private final XpGlobesConfig config;
 	private final XpTrackerService xpTrackerService;
 	private final PanelComponent xpTooltip = new PanelComponent();
+	private final List<XpGlobe> xpGlobes = new ArrayList<>();
+	private int startDrawX;
 
 	@Inject
 	private SkillIconManager iconManager;
@@ -72,6 +76,8 @@ public class XpGlobesOverlay extends Overlay
 
 	private static final int TOOLTIP_RECT_SIZE_X = 150;
 
+	private static final int ORB_OUTLINE_STROKE_WIDTH = 5;
+
 	@Inject
 	public XpGlobesOverlay(Client client, XpGlobesPlugin plugin, XpGlobesConfig config, XpTrackerService xpTrackerService)
 	{
@@ -84,8 +90,10 @@ public class XpGlobesOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
+		xpGlobes.clear();
+
 		//if this is null there is no reason to draw e.g. switching between resizable and fixed
 		Widget viewportWidget = client.getViewportWidget();
 		if (viewportWidget == null)
@@ -114,29 +122,91 @@ public class XpGlobesOverlay extends Overlay
 		{
 			return null;
 		}
-		
+
 		int queueSize = plugin.getXpGlobesSize();
-		if (queueSize > 0)
+		if (queueSize <= 0)
 		{
-			List<XpGlobe> xpChangedQueue = plugin.getXpGlobes();
-			int markersLength = (queueSize * (config.xpOrbSize())) + ((MINIMUM_STEP) * (queueSize - 1));
-			int startDrawX = (clientWidth - markersLength) / 2;
+			return null;
+		}
 
-			for (XpGlobe xpGlobe : xpChangedQueue)
-			{
-				renderProgressCircle(graphics, xpGlobe, startDrawX, DEFAULT_START_Y);
-				startDrawX += MINIMUM_STEP + config.xpOrbSize();
-			}
+		xpGlobes.addAll(plugin.getXpGlobes());
+		int markersLength = (queueSize * (config.xpOrbSize())) + ((MINIMUM_STEP) * (queueSize - 1));
+		startDrawX = (clientWidth - markersLength) / 2;
+
+		// The globes are updated in place, so key on the values that are drawn
+		final List<Object> key = new ArrayList<>(Arrays.asList(
+			config.xpOrbSize(),
+			config.progressArcStrokeWidth(),
+			config.progressArcColor(),
+			config.progressOrbOutLineColor(),
+			config.progressOrbBackgroundColor()));
+
+		for (XpGlobe xpGlobe : xpGlobes)
+		{
+			key.add(xpGlobe.getSkill());
+			key.add(xpGlobe.getSkillProgressRadius());
 		}
 
-		return null;
+		return key;
 	}
+
+	@Override
+	protected java.awt.Point getContentLocation()
+	{
+		final int padding = getPadding();
+		return new java.awt.Point(startDrawX - padding, DEFAULT_START_Y - padding);
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
+		if (xpGlobes.isEmpty())
+		{
+			return null;
+		}
+
+		// The arcs are stroked around the edge of the orbs, so leave room for them
+		final int padding = getPadding();
+		int x = padding;
+
+		for (XpGlobe xpGlobe : xpGlobes)
+		{
+			renderProgressCircle(graphics, xpGlobe, x, padding);
+			x += MINIMUM_STEP + config.xpOrbSize();
+		}
+
+		return new Dimension(x - MINIMUM_STEP + padding, config.xpOrbSize() + padding * 2);
+	}
+
+	@Override
+	protected void renderUncached(Graphics2D graphics)
+	{
+		if (!config.enableTooltips())
+		{
+			return;
+		}
+
+		int x = startDrawX;
+
+		for (XpGlobe xpGlobe : xpGlobes)
+		{
+			Ellipse2D globe = new Ellipse2D.Double(x, DEFAULT_START_Y, config.xpOrbSize(), config.xpOrbSize());
+			drawTooltipIfMouseover(graphics, xpGlobe, globe);
+			x += MINIMUM_STEP + config.xpOrbSize();
+		}
+	}
+
+	private int getPadding()
+	{
+		return Math.max(ORB_OUTLINE_STROKE_WIDTH, config.progressArcStrokeWidth()) / 2 + 1;
+	}
+
 	private void renderProgressCircle(Graphics2D graphics, XpGlobe skillToDraw, int x, int y)
 	{
 		double radiusCurrentXp = skillToDraw.getSkillProgressRadius();
 		double radiusToGoalXp = 360; //draw a circle
 
-		Ellipse2D backgroundCircle = drawEllipse(graphics, x, y);
+		drawEllipse(graphics, x, y);
 
 		Object renderHint = graphics.getRenderingHint(RenderingHints.KEY_STROKE_CONTROL);
 		graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
@@ -146,7 +216,7 @@ public class XpGlobesOverlay extends Overlay
 			x, y,
 			config.xpOrbSize(), config.xpOrbSize(),
 			PROGRESS_RADIUS_REMAINDER, radiusToGoalXp,
-			5,
+			ORB_OUTLINE_STROKE_WIDTH,
 			config.progressOrbOutLineColor()
 		);
 		drawProgressArc(
@@ -160,11 +230,6 @@ public class XpGlobesOverlay extends Overlay
 		graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, renderHint);
 
 		drawSkillImage(graphics, skillToDraw, x, y);
-
-		if (config.enableTooltips())
-		{
-			drawTooltipIfMouseover(graphics, skillToDraw, backgroundCircle);
-		}
 	}
 
 	private void drawProgressArc(Graphics2D graphics, int x, int y, int w, int h, double radiusStart, double radiusEnd, int strokeWidth, Color color)
@@ -180,13 +245,12 @@ public class XpGlobesOverlay extends Overlay
 		graphics.setStroke(stroke);
 	}
 
-	private Ellipse2D drawEllipse(Graphics2D graphics, int x, int y)
+	private void drawEllipse(Graphics2D graphics, int x, int y)
 	{
 		graphics.setColor(config.progressOrbBackgroundColor());
 		Ellipse2D ellipse = new Ellipse2D.Double(x, y, config.xpOrbSize(), config.xpOrbSize());
 		graphics.fill(ellipse);
 		graphics.draw(ellipse);
-		return ellipse;
 	}
 
 	private void drawSkillImage(Graphics2D graphics, XpGlobe xpGlobe, int x, int y)
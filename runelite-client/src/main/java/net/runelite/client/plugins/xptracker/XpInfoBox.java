@@ -29,13 +29,13 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JMenuItem;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 import javax.swing.SwingConstants;
-import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -46,6 +46,7 @@ import net.runelite.client.game.SkillIconManager;
 import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.DynamicGridLayout;
 import net.runelite.client.ui.FontManager;
+import net.runelite.client.ui.UpdateCoalescer;
 import net.runelite.client.ui.components.ProgressBar;
 import net.runelite.client.util.LinkBrowser;
 import net.runelite.client.util.StackFormatter;
@@ -55,6 +56,7 @@ import net.runelite.client.util.SwingUtil;
 class XpInfoBox extends JPanel
 {
 	private final JPanel panel;
+	private final UpdateCoalescer updateCoalescer;
 
 	@Getter(AccessLevel.PACKAGE)
 	private final Skill skill;
@@ -75,9 +77,13 @@ class XpInfoBox extends JPanel
 	private final JLabel expLeft = new JLabel();
 	private final JLabel actionsLeft = new JLabel();
 
-	XpInfoBox(XpTrackerPlugin xpTrackerPlugin, Client client, JPanel panel, Skill skill, SkillIconManager iconManager) throws IOException
+	/* Set when an update with new experience has not been displayed yet */
+	private final AtomicBoolean updated = new AtomicBoolean();
+
+	XpInfoBox(XpTrackerPlugin xpTrackerPlugin, Client client, UpdateCoalescer updateCoalescer, JPanel panel, Skill skill, SkillIconManager iconManager) throws IOException
 	{
 		this.panel = panel;
+		this.updateCoalescer = updateCoalescer;
 		this.skill = skill;
 
 		setLayout(new BorderLayout());
@@ -152,6 +158,8 @@ class XpInfoBox extends JPanel
 
 	void reset()
 	{
+		updated.set(false);
+		updateCoalescer.cancel(this);
 		container.remove(statsPanel);
 		panel.remove(this);
 		panel.revalidate();
@@ -159,7 +167,14 @@ class XpInfoBox extends JPanel
 
 	void update(boolean updated, XpSnapshotSingle xpSnapshotSingle)
 	{
-		SwingUtilities.invokeLater(() -> rebuildAsync(updated, xpSnapshotSingle));
+		if (updated)
+		{
+			this.updated.set(true);
+		}
+
+		// A later update replaces this one if it has not run yet, so the
+		// new experience flag is carried over until it is displayed
+		updateCoalescer.update(panel, this, () -> rebuildAsync(this.updated.getAndSet(false), xpSnapshotSingle));
 	}
 
 	private void rebuildAsync(boolean updated, XpSnapshotSingle xpSnapshotSingle)
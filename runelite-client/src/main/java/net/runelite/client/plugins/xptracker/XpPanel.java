@@ -36,7 +36,6 @@ import javax.swing.JLabel;
 import javax.swing.JMenuItem;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
-import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Actor;
@@ -46,6 +45,7 @@ import net.runelite.client.game.SkillIconManager;
 import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.FontManager;
 import net.runelite.client.ui.PluginPanel;
+import net.runelite.client.ui.UpdateCoalescer;
 import net.runelite.client.ui.components.PluginErrorPanel;
 import net.runelite.client.util.LinkBrowser;
 import okhttp3.HttpUrl;
@@ -54,6 +54,7 @@ import okhttp3.HttpUrl;
 class XpPanel extends PluginPanel
 {
 	private final Map<Skill, XpInfoBox> infoBoxes = new HashMap<>();
+	private final UpdateCoalescer updateCoalescer;
 
 	private final JLabel overallExpGained = new JLabel(XpInfoBox.htmlLabel("Gained: ", 0));
 	private final JLabel overallExpHour = new JLabel(XpInfoBox.htmlLabel("Per hour: ", 0));
@@ -63,10 +64,12 @@ class XpPanel extends PluginPanel
 	/* This displays the "No exp gained" text */
 	private final PluginErrorPanel errorPanel = new PluginErrorPanel();
 
-	XpPanel(XpTrackerPlugin xpTrackerPlugin, Client client, SkillIconManager iconManager)
+	XpPanel(XpTrackerPlugin xpTrackerPlugin, Client client, SkillIconManager iconManager, UpdateCoalescer updateCoalescer)
 	{
 		super();
 
+		this.updateCoalescer = updateCoalescer;
+
 		setBorder(new EmptyBorder(10, 6, 10, 6));
 		setBackground(ColorScheme.DARK_GRAY_COLOR);
 		setLayout(new BorderLayout());
@@ -126,7 +129,7 @@ class XpPanel extends PluginPanel
 				{
 					break;
 				}
-				infoBoxes.put(skill, new XpInfoBox(xpTrackerPlugin, client, infoBoxPanel, skill, iconManager));
+				infoBoxes.put(skill, new XpInfoBox(xpTrackerPlugin, client, updateCoalescer, infoBoxPanel, skill, iconManager));
 			}
 		}
 		catch (IOException e)
@@ -192,7 +195,7 @@ class XpPanel extends PluginPanel
 			remove(errorPanel);
 		}
 
-		SwingUtilities.invokeLater(() -> rebuildAsync(xpSnapshotTotal));
+		updateCoalescer.update(overallPanel, () -> rebuildAsync(xpSnapshotTotal));
 	}
 
 	private void rebuildAsync(XpSnapshotTotal xpSnapshotTotal)
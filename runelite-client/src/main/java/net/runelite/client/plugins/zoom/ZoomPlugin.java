@@ -25,6 +25,7 @@
  */
 package net.runelite.client.plugins.zoom;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.eventbus.Subscribe;
 import com.google.inject.Inject;
 import com.google.inject.Provides;
@@ -32,6 +33,7 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.events.ConfigChanged;
 import net.runelite.api.events.ScriptCallbackEvent;
+import net.runelite.client.callback.ScriptCallbackManager;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
@@ -43,9 +45,18 @@ import net.runelite.client.plugins.PluginDescriptor;
 @Slf4j
 public class ZoomPlugin extends Plugin
 {
+	private static final ImmutableList<String> CALLBACKS = ImmutableList.of(
+		"fixedOuterZoomLimit", "resizableOuterZoomLimit",
+		"fixedInnerZoomLimit", "resizableInnerZoomLimit",
+		"zoomLinToExp", "zoomExpToLin"
+	);
+
 	@Inject
 	private Client client;
 
+	@Inject
+	private ScriptCallbackManager scriptCallbackManager;
+
 	@Inject
 	private ZoomConfig zoomConfig;
 
@@ -55,7 +66,6 @@ public class ZoomPlugin extends Plugin
 		return configManager.getConfig(ZoomConfig.class);
 	}
 
-	@Subscribe
 	public void onScriptEvent(ScriptCallbackEvent event)
 	{
 		int[] intStack = client.getIntStack();
@@ -114,12 +124,18 @@ public class ZoomPlugin extends Plugin
 	protected void startUp()
 	{
 		client.setCameraPitchRelaxerEnabled(zoomConfig.relaxCameraPitch());
+
+		for (String callback : CALLBACKS)
+		{
+			scriptCallbackManager.register(this, callback, this::onScriptEvent);
+		}
 	}
 
 	@Override
 	protected void shutDown()
 	{
 		client.setCameraPitchRelaxerEnabled(false);
+		scriptCallbackManager.unregister(this);
 	}
 
 	@Subscribe
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.profiling;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.DeadEvent;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.reflect.TypeToken;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An {@link EventBus} which times each call to each subscriber method.
+ * <p>
+ * Guava exposes no way to wrap the calls it makes to subscribers, so this
+ * finds and calls the {@link Subscribe} methods itself, in the same way as
+ * {@link EventBus}: events are delivered to the subscribers of the event's
+ * class and all of its supertypes, events posted by a subscriber are queued
+ * until the current event has been delivered, subscribers which do not
+ * {@link AllowConcurrentEvents} are called by one thread at a time, and events
+ * without subscribers are posted again as a {@link DeadEvent}.
+ */
+@Slf4j
+public class ProfiledEventBus extends EventBus
+{
+	private static final ClassValue<List<Method>> SUBSCRIBER_METHODS = new ClassValue<List<Method>>()
+	{
+		@Override
+		protected List<Method> computeValue(Class<?> type)
+		{
+			return findSubscriberMethods(type);
+		}
+	};
+
+	private static final ClassValue<Set<Class<?>>> EVENT_TYPES = new ClassValue<Set<Class<?>>>()
+	{
+		@Override
+		protected Set<Class<?>> computeValue(Class<?> type)
+		{
+			return ImmutableSet.copyOf(TypeToken.of(type).getTypes().rawTypes());
+		}
+	};
+
+	private final Profiler profiler;
+
+	private final ConcurrentMap<Class<?>, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+	/**
+	 * Events waiting to be dispatched on each thread
+	 */
+	private final ThreadLocal<Queue<PendingEvent>> queue = ThreadLocal.withInitial(ArrayDeque::new);
+	private final ThreadLocal<Boolean> dispatching = ThreadLocal.withInitial(() -> false);
+
+	public ProfiledEventBus(Profiler profiler)
+	{
+		this.profiler = profiler;
+	}
+
+	@Override
+	public void register(Object object)
+	{
+		for (Method method : SUBSCRIBER_METHODS.get(object.getClass()))
+		{
+			subscribers.computeIfAbsent(method.getParameterTypes()[0], k -> new CopyOnWriteArraySet<>())
+				.add(new Subscriber(object, method));
+		}
+	}
+
+	@Override
+	public void unregister(Object object)
+	{
+		for (Method method : SUBSCRIBER_METHODS.get(object.getClass()))
+		{
+			final Set<Subscriber> eventSubscribers = subscribers.get(method.getParameterTypes()[0]);
+			if (eventSubscribers == null || !eventSubscribers.remove(new Subscriber(object, method)))
+			{
+				throw new IllegalArgumentException("missing event subscriber for an annotated method. Is " + object + " registered?");
+			}
+		}
+	}
+
+	@Override
+	public void post(Object event)
+	{
+		final List<Subscriber> eventSubscribers = new ArrayList<>();
+		for (Class<?> type : EVENT_TYPES.get(event.getClass()))
+		{
+			final Set<Subscriber> typeSubscribers = subscribers.get(type);
+			if (typeSubscribers != null)
+			{
+				eventSubscribers.addAll(typeSubscribers);
+			}
+		}
+
+		if (eventSubscribers.isEmpty())
+		{
+			if (!(event instanceof DeadEvent))
+			{
+				post(new DeadEvent(this, event));
+			}
+			return;
+		}
+
+		final Queue<PendingEvent> pending = queue.get();
+		pending.offer(new PendingEvent(event, eventSubscribers));
+
+		if (dispatching.get())
+		{
+			return;
+		}
+
+		dispatching.set(true);
+		try
+		{
+			PendingEvent next;
+			while ((next = pending.poll()) != null)
+			{
+				for (Subscriber subscriber : next.subscribers)
+				{
+					subscriber.dispatch(next.event);
+				}
+			}
+		}
+		finally
+		{
+			dispatching.remove();
+			queue.remove();
+		}
+	}
+
+	private static List<Method> findSubscriberMethods(Class<?> type)
+	{
+		// Methods overridden by a subclass are only subscribed once
+		final Map<String, Method> methods = new LinkedHashMap<>();
+		for (Class<?> supertype : TypeToken.of(type).getTypes().rawTypes())
+		{
+			for (Method method : supertype.getDeclaredMethods())
+			{
+				if (!method.isAnnotationPresent(Subscribe.class) || method.isSynthetic())
+				{
+					continue;
+				}
+
+				final Class<?>[] parameterTypes = method.getParameterTypes();
+				if (parameterTypes.length != 1 || parameterTypes[0].isPrimitive())
+				{
+					throw new IllegalArgumentException("Method " + method + " has @Subscribe annotation but does not have exactly one non-primitive parameter");
+				}
+
+				method.setAccessible(true);
+				methods.putIfAbsent(method.getName() + Arrays.toString(parameterTypes), method);
+			}
+		}
+		return ImmutableList.copyOf(methods.values());
+	}
+
+	private static class PendingEvent
+	{
+		private final Object event;
+		private final List<Subscriber> subscribers;
+
+		private PendingEvent(Object event, List<Subscriber> subscribers)
+		{
+			this.event = event;
+			this.subscribers = subscribers;
+		}
+	}
+
+	private class Subscriber
+	{
+		private final Object target;
+		private final Method method;
+		private final boolean concurrent;
+
+		private Subscriber(Object target, Method method)
+		{
+			this.target = target;
+			this.method = method;
+			this.concurrent = method.isAnnotationPresent(AllowConcurrentEvents.class);
+		}
+
+		private void dispatch(Object event)
+		{
+			final boolean profile = profiler.isEnabled();
+			final long start = profile ? System.nanoTime() : 0;
+			try
+			{
+				if (concurrent)
+				{
+					method.invoke(target, event);
+				}
+				else
+				{
+					synchronized (this)
+					{
+						method.invoke(target, event);
+					}
+				}
+			}
+			catch (InvocationTargetException ex)
+			{
+				if (ex.getCause() instanceof Error)
+				{
+					throw (Error) ex.getCause();
+				}
+
+				log.warn("uncaught exception in event subscriber {}", method, ex.getCause());
+			}
+			catch (IllegalAccessException ex)
+			{
+				throw new Error("Method became inaccessible: " + event, ex);
+			}
+			finally
+			{
+				if (profile)
+				{
+					profiler.record(Profiler.Category.EVENT, method, System.nanoTime() - start);
+				}
+			}
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof Subscriber))
+			{
+				return false;
+			}
+
+			final Subscriber other = (Subscriber) obj;
+			return target == other.target && method.equals(other.method);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return (31 + method.hashCode()) * 31 + System.identityHashCode(target);
+		}
+	}
+}
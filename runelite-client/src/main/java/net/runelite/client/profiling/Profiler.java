@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.profiling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.inject.Singleton;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+/**
+ * Collects the time spent in event subscribers, script callbacks, overlays,
+ * client thread invokes and scheduled tasks.
+ * <p>
+ * Profiling is off by default, in which case the cost to callers is a
+ * single volatile read. When it is enabled, the cost of recording a sample
+ * is measured so the overhead of profiling can be reported next to the
+ * timings it collected.
+ */
+@Singleton
+@Slf4j
+public class Profiler
+{
+	private static final File PROFILER_DIR = new File(RuneLite.RUNELITE_DIR, "profiler");
+	private static final int CALIBRATION_SAMPLES = 100_000;
+
+	@AllArgsConstructor
+	@Getter
+	public enum Category
+	{
+		EVENT("Event subscriber"),
+		SCRIPT_CALLBACK("Script callback"),
+		OVERLAY("Overlay"),
+		INVOKE("Client thread invoke"),
+		SCHEDULED("Scheduled task");
+
+		private final String name;
+	}
+
+	private final Map<Category, Map<Object, TimingHistogram>> histograms = new EnumMap<>(Category.class);
+	private final LongAdder samples = new LongAdder();
+
+	@Getter
+	private volatile boolean enabled;
+
+	/**
+	 * The measured cost of recording a single sample, in nanoseconds
+	 */
+	@Getter
+	private long sampleOverhead;
+
+	private long enabledAt;
+	private long enabledFor;
+
+	public Profiler()
+	{
+		for (Category category : Category.values())
+		{
+			histograms.put(category, new ConcurrentHashMap<>());
+		}
+	}
+
+	public synchronized void setEnabled(boolean enabled)
+	{
+		if (enabled == this.enabled)
+		{
+			return;
+		}
+
+		if (enabled)
+		{
+			calibrate();
+			enabledAt = System.nanoTime();
+		}
+		else
+		{
+			enabledFor += System.nanoTime() - enabledAt;
+		}
+
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Records the time spent in a piece of code
+	 *
+	 * @param category the category of the code
+	 * @param key      the key of the code, such as the method, class or overlay class
+	 * @param nanos    the time spent, in nanoseconds
+	 */
+	public void record(Category category, Object key, long nanos)
+	{
+		histogram(histograms.get(category), category, key).record(nanos);
+		samples.increment();
+	}
+
+	/**
+	 * Gets the histograms of all code which has been recorded
+	 *
+	 * @return the histograms, in no particular order
+	 */
+	public List<TimingHistogram> getHistograms()
+	{
+		final List<TimingHistogram> result = new ArrayList<>();
+		for (Map<Object, TimingHistogram> map : histograms.values())
+		{
+			result.addAll(map.values());
+		}
+		return result;
+	}
+
+	public synchronized void reset()
+	{
+		for (Map<Object, TimingHistogram> map : histograms.values())
+		{
+			map.values().forEach(TimingHistogram::reset);
+		}
+
+		samples.reset();
+		enabledFor = 0;
+		enabledAt = System.nanoTime();
+	}
+
+	/**
+	 * Gets the estimated time spent recording samples since the last reset
+	 *
+	 * @return the overhead in nanoseconds
+	 */
+	public long getEstimatedOverhead()
+	{
+		return samples.sum() * sampleOverhead;
+	}
+
+	/**
+	 * Gets the time profiling has been enabled for since the last reset
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public synchronized long getEnabledTime()
+	{
+		return enabledFor + (enabled ? System.nanoTime() - enabledAt : 0);
+	}
+
+	/**
+	 * Writes the collected timings to a file in the profiler directory
+	 *
+	 * @return the file written
+	 * @throws IOException if the file can not be written
+	 */
+	public File dump() throws IOException
+	{
+		PROFILER_DIR.mkdirs();
+
+		final String date = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
+		final File file = new File(PROFILER_DIR, "profile-" + date + ".txt");
+
+		final List<TimingHistogram> histograms = getHistograms();
+		histograms.sort(Comparator.comparingLong(TimingHistogram::getTotal).reversed());
+
+		final long enabledTime = getEnabledTime();
+		final long overhead = getEstimatedOverhead();
+
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)))
+		{
+			writer.printf("Profiled for %d ms, %d samples, estimated overhead %d ms (%d ns per sample)%n",
+				TimeUnit.NANOSECONDS.toMillis(enabledTime), samples.sum(),
+				TimeUnit.NANOSECONDS.toMillis(overhead), sampleOverhead);
+			writer.println();
+			writer.printf("%-22s %-60s %10s %10s %10s %10s %10s %10s%n",
+				"Category", "Name", "Count", "Total ms", "Mean us", "P50 us", "P99 us", "Max us");
+
+			for (TimingHistogram histogram : histograms)
+			{
+				if (histogram.getCount() == 0)
+				{
+					continue;
+				}
+
+				writer.printf("%-22s %-60s %10d %10d %10d %10d %10d %10d%n",
+					histogram.getCategory().getName(),
+					histogram.getName(),
+					histogram.getCount(),
+					TimeUnit.NANOSECONDS.toMillis(histogram.getTotal()),
+					TimeUnit.NANOSECONDS.toMicros(histogram.getMean()),
+					TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(50)),
+					TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(99)),
+					TimeUnit.NANOSECONDS.toMicros(histogram.getMax()));
+			}
+		}
+
+		log.info("Wrote profile to {}", file);
+		return file;
+	}
+
+	private void calibrate()
+	{
+		final Map<Object, TimingHistogram> map = new ConcurrentHashMap<>();
+		final Object key = new Object();
+
+		final long start = System.nanoTime();
+		for (int i = 0; i < CALIBRATION_SAMPLES; ++i)
+		{
+			final long sampleStart = System.nanoTime();
+			histogram(map, Category.EVENT, key).record(System.nanoTime() - sampleStart);
+		}
+
+		sampleOverhead = (System.nanoTime() - start) / CALIBRATION_SAMPLES;
+		log.debug("Profiler sample overhead is {} ns", sampleOverhead);
+	}
+
+	private static TimingHistogram histogram(Map<Object, TimingHistogram> map, Category category, Object key)
+	{
+		// Avoid computeIfAbsent, which locks the bin even when the key is present
+		TimingHistogram histogram = map.get(key);
+		if (histogram == null)
+		{
+			histogram = new TimingHistogram(category, nameOf(key));
+			final TimingHistogram previous = map.putIfAbsent(key, histogram);
+			if (previous != null)
+			{
+				histogram = previous;
+			}
+		}
+		return histogram;
+	}
+
+	static String nameOf(Object key)
+	{
+		if (key instanceof Method)
+		{
+			final Method method = (Method) key;
+			return nameOf(method.getDeclaringClass()) + "." + method.getName();
+		}
+
+		if (key instanceof Class)
+		{
+			String name = ((Class<?>) key).getName();
+			name = name.substring(name.lastIndexOf('.') + 1);
+
+			// Lambdas are attributed to the class they were declared in
+			final int lambda = name.indexOf("$$Lambda");
+			return lambda == -1 ? name : name.substring(0, lambda);
+		}
+
+		return String.valueOf(key);
+	}
+}
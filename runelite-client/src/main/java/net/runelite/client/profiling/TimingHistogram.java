@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.profiling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.Getter;
+
+/**
+ * A histogram of timings, in nanoseconds.
+ * <p>
+ * Values are counted in log-linear buckets: each power of two is split into
+ * 16 buckets, so percentiles are accurate to within about 6% over the whole
+ * range of values while recording stays a couple of atomic increments.
+ */
+public class TimingHistogram
+{
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	@Getter
+	private final Profiler.Category category;
+
+	@Getter
+	private final String name;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	TimingHistogram(Profiler.Category category, String name)
+	{
+		this.category = category;
+		this.name = name;
+	}
+
+	/**
+	 * Records a timing
+	 *
+	 * @param nanos the time in nanoseconds
+	 */
+	public void record(long nanos)
+	{
+		if (nanos < 0)
+		{
+			nanos = 0;
+		}
+
+		counts.incrementAndGet(bucketOf(nanos));
+		count.incrementAndGet();
+		total.addAndGet(nanos);
+
+		long current;
+		while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos))
+		{
+			// retry
+		}
+	}
+
+	public long getCount()
+	{
+		return count.get();
+	}
+
+	public long getTotal()
+	{
+		return total.get();
+	}
+
+	public long getMax()
+	{
+		return max.get();
+	}
+
+	public long getMean()
+	{
+		final long count = this.count.get();
+		return count == 0 ? 0 : total.get() / count;
+	}
+
+	/**
+	 * Gets the highest value of the bucket containing the given percentile
+	 *
+	 * @param percentile the percentile, from 0 to 100
+	 * @return the value in nanoseconds
+	 */
+	public long getPercentile(double percentile)
+	{
+		final long count = this.count.get();
+		if (count == 0)
+		{
+			return 0;
+		}
+
+		final long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+		long seen = 0;
+
+		for (int i = 0; i < BUCKET_COUNT; ++i)
+		{
+			seen += counts.get(i);
+			if (seen >= target)
+			{
+				return Math.min(upperBoundOf(i), max.get());
+			}
+		}
+
+		return max.get();
+	}
+
+	void reset()
+	{
+		for (int i = 0; i < BUCKET_COUNT; ++i)
+		{
+			counts.set(i, 0);
+		}
+
+		count.set(0);
+		total.set(0);
+		max.set(0);
+	}
+
+	static int bucketOf(long value)
+	{
+		if (value < SUB_BUCKET_COUNT)
+		{
+			return (int) value;
+		}
+
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	static long lowerBoundOf(int bucket)
+	{
+		if (bucket < SUB_BUCKET_COUNT)
+		{
+			return bucket;
+		}
+
+		final int exponent = bucket / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+		final int subBucket = bucket % SUB_BUCKET_COUNT;
+		return (long) (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	static long upperBoundOf(int bucket)
+	{
+		return bucket + 1 < BUCKET_COUNT ? lowerBoundOf(bucket + 1) - 1 : Long.MAX_VALUE;
+	}
+}
@@ -24,21 +24,48 @@
  */
 package net.runelite.client.task;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.time.Instant;
+import java.time.Duration;
 
 public class ScheduledMethod
 {
 	private final Schedule schedule;
 	private final Method method;
 	private final Object object;
-	private Instant last = Instant.now();
+	private final MethodHandle handle;
+	private final long period;
+
+	// Owned by the scheduler
+	long deadline;
+	volatile boolean removed;
+
+	// Lateness metrics, in nanoseconds
+	private volatile long runs;
+	private volatile long totalLateness;
+	private volatile long maxLateness;
 
 	public ScheduledMethod(Schedule schedule, Method method, Object object)
 	{
 		this.schedule = schedule;
 		this.method = method;
 		this.object = object;
+		this.period = Math.max(1, Duration.of(schedule.period(), schedule.unit()).toNanos());
+
+		try
+		{
+			method.setAccessible(true);
+			this.handle = MethodHandles.lookup()
+				.unreflect(method)
+				.bindTo(object)
+				.asType(MethodType.methodType(void.class));
+		}
+		catch (IllegalAccessException ex)
+		{
+			throw new IllegalArgumentException("Unable to access scheduled method " + method, ex);
+		}
 	}
 
 	@Override
@@ -62,13 +89,58 @@ public class ScheduledMethod
 		return object;
 	}
 
-	public Instant getLast()
+	/**
+	 * Gets the period of the schedule
+	 *
+	 * @return the period in nanoseconds
+	 */
+	public long getPeriod()
+	{
+		return period;
+	}
+
+	/**
+	 * Gets the number of times this method has been run
+	 */
+	public long getRuns()
+	{
+		return runs;
+	}
+
+	/**
+	 * Gets the average time this method was run after it was due
+	 *
+	 * @return the lateness in nanoseconds
+	 */
+	public long getAverageLateness()
+	{
+		final long runs = this.runs;
+		return runs == 0 ? 0 : totalLateness / runs;
+	}
+
+	/**
+	 * Gets the longest time this method was run after it was due
+	 *
+	 * @return the lateness in nanoseconds
+	 */
+	public long getMaxLateness()
+	{
+		return maxLateness;
+	}
+
+	void invoke() throws Throwable
 	{
-		return last;
+		handle.invokeExact();
 	}
 
-	public void setLast(Instant last)
+	void recordLateness(long lateness)
 	{
-		this.last = last;
+		// Only called from the thread ticking the scheduler
+		++runs;
+		totalLateness += lateness;
+		if (lateness > maxLateness)
+		{
+			maxLateness = lateness;
+		}
 	}
 }
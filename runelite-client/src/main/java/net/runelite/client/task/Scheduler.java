@@ -24,34 +24,67 @@
  */
 package net.runelite.client.task;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.profiling.Profiler;
 
+/**
+ * Runs scheduled methods from the client main loop.
+ * <p>
+ * Methods are kept in a hashed timing wheel by the time they are next due,
+ * so each tick only looks at the slots which have come due since the last
+ * tick. Methods whose next run is more than a rotation away stay in their
+ * slot and are skipped until their deadline comes around.
+ */
 @Singleton
 @Slf4j
 public class Scheduler
 {
+	private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final int WHEEL_SIZE = 256;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
 	private final List<ScheduledMethod> scheduledMethods = new CopyOnWriteArrayList<>();
+	private final ConcurrentLinkedQueue<ScheduledMethod> added = new ConcurrentLinkedQueue<>();
+	private final List<List<ScheduledMethod>> wheel = new ArrayList<>(WHEEL_SIZE);
+	private final List<ScheduledMethod> due = new ArrayList<>();
+	private final long origin = System.nanoTime();
+	private long currentTick;
 
 	@Inject
 	ScheduledExecutorService executor;
 
+	@Inject
+	Profiler profiler;
+
+	public Scheduler()
+	{
+		for (int i = 0; i < WHEEL_SIZE; ++i)
+		{
+			wheel.add(new ArrayList<>());
+		}
+	}
+
 	public void addScheduledMethod(ScheduledMethod method)
 	{
+		method.deadline = System.nanoTime() + method.getPeriod();
 		scheduledMethods.add(method);
+		added.add(method);
 	}
 
 	public void removeScheduledMethod(ScheduledMethod method)
 	{
+		method.removed = true;
 		scheduledMethods.remove(method);
 	}
 
@@ -62,50 +95,102 @@ public class Scheduler
 
 	public void tick()
 	{
-		Instant now = Instant.now();
+		tick(System.nanoTime());
+	}
 
-		for (ScheduledMethod scheduledMethod : scheduledMethods)
+	void tick(long now)
+	{
+		for (ScheduledMethod method; (method = added.poll()) != null; )
 		{
-			Instant last = scheduledMethod.getLast();
+			if (!method.removed)
+			{
+				insert(method);
+			}
+		}
 
-			Duration difference = Duration.between(last, now);
+		final long nowTick = (now - origin) / TICK_NANOS;
 
-			Schedule schedule = scheduledMethod.getSchedule();
-			Duration timeSinceRun = Duration.of(schedule.period(), schedule.unit());
+		// Visit each slot at most once, even if the client stalled for a whole rotation
+		final long last = Math.min(nowTick, currentTick + WHEEL_SIZE - 1);
 
-			if (difference.compareTo(timeSinceRun) > 0)
+		for (long tick = currentTick; tick <= last; ++tick)
+		{
+			final Iterator<ScheduledMethod> it = wheel.get((int) (tick & WHEEL_MASK)).iterator();
+			while (it.hasNext())
 			{
-				log.trace("Scheduled task triggered: {}", scheduledMethod);
-
-				scheduledMethod.setLast(now);
+				final ScheduledMethod method = it.next();
 
-				if (schedule.asynchronous())
+				if (method.removed)
 				{
-					executor.submit(() -> run(scheduledMethod));
+					it.remove();
 				}
-				else
+				else if (method.deadline <= now)
 				{
-					run(scheduledMethod);
+					it.remove();
+					due.add(method);
 				}
 			}
 		}
+
+		// The current slot is visited again next tick, as it may hold methods due later in this tick
+		currentTick = nowTick;
+
+		for (ScheduledMethod method : due)
+		{
+			log.trace("Scheduled task triggered: {}", method);
+
+			method.recordLateness(now - method.deadline);
+
+			// Keep to the original phase rather than drifting with the lateness,
+			// but skip runs that were missed instead of bursting to catch up
+			long next = method.deadline + method.getPeriod();
+			if (next <= now)
+			{
+				next = now + method.getPeriod();
+			}
+			method.deadline = next;
+			insert(method);
+
+			if (method.getSchedule().asynchronous())
+			{
+				executor.submit(() -> run(method));
+			}
+			else
+			{
+				run(method);
+			}
+		}
+
+		due.clear();
+	}
+
+	private void insert(ScheduledMethod method)
+	{
+		final long tick = Math.max(currentTick, (method.deadline - origin) / TICK_NANOS);
+		wheel.get((int) (tick & WHEEL_MASK)).add(method);
 	}
 
 	private void run(ScheduledMethod scheduledMethod)
 	{
 		Method method = scheduledMethod.getMethod();
+		long start = System.nanoTime();
 
 		try
 		{
-			method.invoke(scheduledMethod.getObject());
+			scheduledMethod.invoke();
 		}
-		catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex)
+		catch (ThreadDeath d)
 		{
-			log.warn("error invoking scheduled task", ex);
+			throw d;
 		}
-		catch (Exception ex)
+		catch (Throwable ex)
 		{
 			log.warn("error during scheduled task", ex);
 		}
+
+		if (profiler.isEnabled())
+		{
+			profiler.record(Profiler.Category.SCHEDULED, method, System.nanoTime() - start);
+		}
 	}
 }
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.ui;
+
+import java.awt.Component;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.swing.SwingUtilities;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Batches updates to Swing components made from outside of the event dispatch thread.
+ * <p>
+ * Updates are keyed, and an update replaces any pending update with the same key,
+ * so a panel updated every game tick only redraws with the latest state. All pending
+ * updates are run from a single runnable on the event dispatch thread. Updates for
+ * components which are not showing are held until the component is shown.
+ */
+@Singleton
+@Slf4j
+public class UpdateCoalescer
+{
+	private final Executor edt;
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private final Map<Object, Update> pending = new LinkedHashMap<>();
+
+	// Only accessed from the event dispatch thread
+	private final Map<Object, Update> hidden = new LinkedHashMap<>();
+	private final Map<Component, Boolean> listening = new WeakHashMap<>();
+	private final HierarchyListener showingListener = this::hierarchyChanged;
+
+	@Inject
+	public UpdateCoalescer()
+	{
+		this(SwingUtilities::invokeLater);
+	}
+
+	UpdateCoalescer(Executor edt)
+	{
+		this.edt = edt;
+	}
+
+	/**
+	 * Schedule an update to a component, replacing any pending update to it
+	 *
+	 * @param component the component being updated
+	 * @param update    the update to run on the event dispatch thread
+	 */
+	public void update(Component component, Runnable update)
+	{
+		update(component, component, update);
+	}
+
+	/**
+	 * Schedule an update, replacing any pending update with the same key
+	 *
+	 * @param component the component which must be showing for the update to run
+	 * @param key       the key of the update
+	 * @param update    the update to run on the event dispatch thread
+	 */
+	public void update(Component component, Object key, Runnable update)
+	{
+		synchronized (pending)
+		{
+			pending.put(key, new Update(component, update));
+		}
+
+		if (!scheduled.getAndSet(true))
+		{
+			edt.execute(this::flush);
+		}
+	}
+
+	/**
+	 * Drop any pending update with the given key
+	 *
+	 * @param key the key of the update
+	 */
+	public void cancel(Object key)
+	{
+		synchronized (pending)
+		{
+			pending.remove(key);
+		}
+
+		if (SwingUtilities.isEventDispatchThread())
+		{
+			hidden.remove(key);
+		}
+		else
+		{
+			edt.execute(() -> hidden.remove(key));
+		}
+	}
+
+	private void flush()
+	{
+		// Anything submitted from here on is run on the next flush
+		scheduled.set(false);
+
+		final List<Map.Entry<Object, Update>> updates;
+		synchronized (pending)
+		{
+			updates = new ArrayList<>(pending.entrySet());
+			pending.clear();
+		}
+
+		for (Map.Entry<Object, Update> entry : updates)
+		{
+			final Object key = entry.getKey();
+			final Update update = entry.getValue();
+
+			if (update.component.isShowing())
+			{
+				hidden.remove(key);
+				run(update);
+			}
+			else
+			{
+				hidden.put(key, update);
+
+				if (listening.put(update.component, Boolean.TRUE) == null)
+				{
+					update.component.addHierarchyListener(showingListener);
+				}
+			}
+		}
+	}
+
+	private void hierarchyChanged(HierarchyEvent event)
+	{
+		if ((event.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) == 0 || !event.getComponent().isShowing())
+		{
+			return;
+		}
+
+		final Component component = event.getComponent();
+
+		for (Iterator<Update> it = hidden.values().iterator(); it.hasNext(); )
+		{
+			final Update update = it.next();
+			if (update.component == component)
+			{
+				it.remove();
+				run(update);
+			}
+		}
+	}
+
+	private static void run(Update update)
+	{
+		try
+		{
+			update.runnable.run();
+		}
+		catch (RuntimeException ex)
+		{
+			log.warn("error running ui update", ex);
+		}
+	}
+
+	@RequiredArgsConstructor
+	private static class Update
+	{
+		private final Component component;
+		private final Runnable runnable;
+	}
+}
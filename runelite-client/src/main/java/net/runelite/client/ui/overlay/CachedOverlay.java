@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.ui.overlay;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.awt.AlphaComposite;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import net.runelite.client.game.AsyncBufferedImage;
+
+/**
+ * An overlay which renders its content once into an image and then draws
+ * the image each frame, until its content key changes.
+ * <p>
+ * This is meant for overlays whose content rarely changes, such as panels
+ * of text, and which draw only within their own bounds. Overlays with a
+ * {@link OverlayPosition#DYNAMIC} position are rendered directly unless they
+ * override {@link #getContentLocation()}.
+ */
+public abstract class CachedOverlay extends Overlay
+{
+	private static final Point ORIGIN = new Point();
+
+	/**
+	 * Images more than this many times larger than their content are
+	 * reallocated at the content size
+	 */
+	private static final int SHRINK_FACTOR = 2;
+
+	private BufferedImage image;
+	private Object contentKey;
+	private Font font;
+	private Dimension preferredSize;
+	private final Dimension dimension = new Dimension();
+	private boolean valid;
+	private volatile boolean invalidated;
+	private final Set<AsyncBufferedImage> loadingImages = Collections.newSetFromMap(new WeakHashMap<>());
+
+	/**
+	 * Gets the key identifying the content of this overlay. The overlay is
+	 * rendered again whenever the key is no longer equal to the key of the
+	 * cached image, or never cached if the key is null.
+	 *
+	 * @return the content key
+	 */
+	protected abstract Object getContentKey();
+
+	/**
+	 * Renders the content of this overlay
+	 *
+	 * @param graphics the graphics to render to
+	 * @return the dimension of the content
+	 */
+	protected abstract Dimension renderContent(Graphics2D graphics);
+
+	/**
+	 * Gets where the cached image is drawn, relative to the origin of the
+	 * graphics passed to {@link #render(Graphics2D)}. Overlays with a
+	 * {@link OverlayPosition#DYNAMIC} position draw anywhere on the canvas, so
+	 * they are only cached if they override this with the origin of their content.
+	 *
+	 * @return the location of the content, or null to render it directly
+	 */
+	protected Point getContentLocation()
+	{
+		return getPosition() == OverlayPosition.DYNAMIC ? null : ORIGIN;
+	}
+
+	/**
+	 * Renders the parts of this overlay which change too often to be cached,
+	 * such as mouse over tooltips. This is called every frame after the
+	 * content has been drawn.
+	 *
+	 * @param graphics the graphics passed to {@link #render(Graphics2D)}
+	 */
+	protected void renderUncached(Graphics2D graphics)
+	{
+	}
+
+	/**
+	 * Discards the cached image, forcing the content to be rendered again
+	 */
+	public void invalidate()
+	{
+		invalidated = true;
+	}
+
+	/**
+	 * Renders the content again when the given image changes, for images
+	 * such as item images which are loaded after they are first drawn
+	 *
+	 * @param image the image drawn by this overlay
+	 */
+	protected void invalidateOnChange(BufferedImage image)
+	{
+		if (image instanceof AsyncBufferedImage && loadingImages.add((AsyncBufferedImage) image))
+		{
+			((AsyncBufferedImage) image).onChanged(this::invalidate);
+		}
+	}
+
+	@Override
+	public final Dimension render(Graphics2D graphics)
+	{
+		final Object key = getContentKey();
+		final Point location = key == null ? null : getContentLocation();
+		final Dimension rendered;
+
+		if (location == null)
+		{
+			image = null;
+			valid = false;
+			rendered = renderContent(graphics);
+		}
+		else
+		{
+			if (!valid
+				|| invalidated
+				|| !key.equals(contentKey)
+				|| graphics.getFont() != font
+				|| !Objects.equals(getPreferredSize(), preferredSize))
+			{
+				renderImage(graphics, key);
+			}
+
+			graphics.drawImage(image, location.x, location.y, null);
+			rendered = new Dimension(dimension);
+		}
+
+		renderUncached(graphics);
+
+		// Dynamic overlays have no bounds of their own
+		return getPosition() == OverlayPosition.DYNAMIC ? null : rendered;
+	}
+
+	@VisibleForTesting
+	BufferedImage getImage()
+	{
+		return image;
+	}
+
+	private void renderImage(Graphics2D graphics, Object key)
+	{
+		// Components lay out from the size they had last render, so only
+		// reuse the image once the content renders at a stable size
+		final int lastWidth = dimension.width;
+		final int lastHeight = dimension.height;
+		boolean shrunk = false;
+
+		invalidated = false;
+		contentKey = key;
+		font = graphics.getFont();
+		preferredSize = getPreferredSize() == null ? null : new Dimension(getPreferredSize());
+
+		for (;;)
+		{
+			if (image == null)
+			{
+				final Dimension size = getBounds().getSize();
+				image = new BufferedImage(Math.max(size.width, 1), Math.max(size.height, 1), BufferedImage.TYPE_INT_ARGB);
+			}
+
+			final Graphics2D imageGraphics = image.createGraphics();
+			imageGraphics.setComposite(AlphaComposite.Clear);
+			imageGraphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+			imageGraphics.setComposite(AlphaComposite.SrcOver);
+			imageGraphics.setRenderingHints(graphics.getRenderingHints());
+			imageGraphics.setFont(graphics.getFont());
+			imageGraphics.setColor(graphics.getColor());
+			imageGraphics.setStroke(graphics.getStroke());
+
+			final Dimension rendered = renderContent(imageGraphics);
+			imageGraphics.dispose();
+
+			dimension.setSize(rendered == null ? new Dimension() : rendered);
+
+			final int width = Math.max(dimension.width, 1);
+			final int height = Math.max(dimension.height, 1);
+
+			if (width > image.getWidth() || height > image.getHeight())
+			{
+				// Content did not fit, grow the image and render it again
+				image = new BufferedImage(Math.max(width, image.getWidth()),
+					Math.max(height, image.getHeight()), BufferedImage.TYPE_INT_ARGB);
+			}
+			else if (!shrunk && (image.getWidth() > width * SHRINK_FACTOR || image.getHeight() > height * SHRINK_FACTOR))
+			{
+				// Content got much smaller, do not keep drawing a mostly empty image
+				image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+				shrunk = true;
+			}
+			else
+			{
+				break;
+			}
+		}
+
+		valid = dimension.width == lastWidth && dimension.height == lastHeight;
+	}
+}
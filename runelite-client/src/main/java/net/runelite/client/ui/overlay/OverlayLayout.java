@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.ui.overlay;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The retained layout of the overlays of a layer.
+ * <p>
+ * Overlays are positioned from the sizes they rendered at the previous frame,
+ * so the layout only has to be recomputed when the snap corners, the overlays,
+ * their sizes or their preferred positions change.
+ */
+class OverlayLayout
+{
+	private final OverlayBounds snapCorners = new OverlayBounds(
+		new Rectangle(), new Rectangle(), new Rectangle(), new Rectangle(), new Rectangle());
+
+	private List<Overlay> overlays;
+	private int snapCornersVersion = -1;
+	private boolean resizeable;
+	private int canvasWidth;
+	private int canvasHeight;
+
+	// Layout inputs of each overlay
+	private OverlayPosition[] positions = new OverlayPosition[0];
+	private OverlayPosition[] preferredPositions = new OverlayPosition[0];
+	private Point[] preferredLocations = new Point[0];
+	private int[] widths = new int[0];
+	private int[] heights = new int[0];
+
+	// Layout results
+	private OverlayPosition[] effectivePositions = new OverlayPosition[0];
+	private int[] xs = new int[0];
+	private int[] ys = new int[0];
+
+	/**
+	 * Checks whether the layout is still valid for the passed overlays.
+	 */
+	boolean isValid(List<Overlay> overlays, int snapCornersVersion, boolean resizeable, Dimension canvas)
+	{
+		if (overlays != this.overlays
+			|| snapCornersVersion != this.snapCornersVersion
+			|| resizeable != this.resizeable
+			|| canvas.width != canvasWidth
+			|| canvas.height != canvasHeight)
+		{
+			return false;
+		}
+
+		for (int i = 0; i < overlays.size(); ++i)
+		{
+			final Overlay overlay = overlays.get(i);
+			final Rectangle bounds = overlay.getBounds();
+
+			if (bounds.width != widths[i]
+				|| bounds.height != heights[i]
+				|| overlay.getPosition() != positions[i]
+				|| overlay.getPreferredPosition() != preferredPositions[i]
+				|| !Objects.equals(overlay.getPreferredLocation(), preferredLocations[i]))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Lays out the passed overlays.
+	 */
+	void layout(List<Overlay> overlays, int snapCornersVersion, OverlayBounds snapCorners, boolean resizeable,
+		Dimension canvas, int padding)
+	{
+		this.overlays = overlays;
+		this.snapCornersVersion = snapCornersVersion;
+		this.resizeable = resizeable;
+		this.canvasWidth = canvas.width;
+		this.canvasHeight = canvas.height;
+
+		final int size = overlays.size();
+		if (positions.length < size)
+		{
+			positions = new OverlayPosition[size];
+			preferredPositions = new OverlayPosition[size];
+			preferredLocations = new Point[size];
+			widths = new int[size];
+			heights = new int[size];
+			effectivePositions = new OverlayPosition[size];
+			xs = new int[size];
+			ys = new int[size];
+		}
+
+		// Overlays move the snap corners as they are laid out
+		this.snapCorners.getTopLeft().setBounds(snapCorners.getTopLeft());
+		this.snapCorners.getTopRight().setBounds(snapCorners.getTopRight());
+		this.snapCorners.getBottomLeft().setBounds(snapCorners.getBottomLeft());
+		this.snapCorners.getBottomRight().setBounds(snapCorners.getBottomRight());
+		this.snapCorners.getAboveChatboxRight().setBounds(snapCorners.getAboveChatboxRight());
+
+		for (int i = 0; i < size; ++i)
+		{
+			final Overlay overlay = overlays.get(i);
+			final Rectangle bounds = overlay.getBounds();
+			final Point preferredLocation = overlay.getPreferredLocation();
+
+			positions[i] = overlay.getPosition();
+			preferredPositions[i] = overlay.getPreferredPosition();
+			preferredLocations[i] = preferredLocation == null ? null : new Point(preferredLocation);
+			widths[i] = bounds.width;
+			heights[i] = bounds.height;
+
+			OverlayPosition overlayPosition = overlay.getPosition();
+
+			if (overlay.getPreferredPosition() != null)
+			{
+				overlayPosition = overlay.getPreferredPosition();
+			}
+
+			if (overlayPosition == OverlayPosition.ABOVE_CHATBOX_RIGHT && !resizeable)
+			{
+				// On fixed mode, ABOVE_CHATBOX_RIGHT is in the same location as
+				// BOTTOM_RIGHT. Just use BOTTOM_RIGHT to prevent overlays from
+				// drawing over each other.
+				overlayPosition = OverlayPosition.BOTTOM_RIGHT;
+			}
+
+			effectivePositions[i] = overlayPosition;
+			xs[i] = bounds.x;
+			ys[i] = bounds.y;
+
+			if (overlayPosition == OverlayPosition.DYNAMIC || overlayPosition == OverlayPosition.TOOLTIP)
+			{
+				xs[i] = ys[i] = 0;
+			}
+			else if (overlayPosition != OverlayPosition.DETACHED && (preferredLocation == null || overlay.getPreferredPosition() != null))
+			{
+				// If the final position is not modified, layout it
+				final Rectangle snapCorner = this.snapCorners.forPosition(overlayPosition);
+				final Dimension dimension = bounds.getSize();
+				final Point translation = OverlayUtil.transformPosition(overlayPosition, dimension);
+				xs[i] = snapCorner.x + translation.x;
+				ys[i] = snapCorner.y + translation.y;
+				final Point pad = OverlayUtil.padPosition(overlayPosition, dimension, padding);
+				snapCorner.translate(pad.x, pad.y);
+			}
+			else if (preferredLocation != null)
+			{
+				xs[i] = Math.min(canvas.width - 5, preferredLocation.x);
+				ys[i] = Math.min(canvas.height - 5, preferredLocation.y);
+			}
+		}
+	}
+
+	OverlayPosition getPosition(int index)
+	{
+		return effectivePositions[index];
+	}
+
+	int getX(int index)
+	{
+		return xs[index];
+	}
+
+	int getY(int index)
+	{
+		return ys[index];
+	}
+}
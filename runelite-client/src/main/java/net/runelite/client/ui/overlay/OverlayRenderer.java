@@ -24,7 +24,6 @@
  */
 package net.runelite.client.ui.overlay;
 
-import com.google.common.base.MoreObjects;
 import com.google.common.eventbus.Subscribe;
 import java.awt.Color;
 import java.awt.Dimension;
@@ -33,7 +32,11 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
@@ -49,6 +52,7 @@ import net.runelite.client.input.KeyListener;
 import net.runelite.client.input.KeyManager;
 import net.runelite.client.input.MouseListener;
 import net.runelite.client.input.MouseManager;
+import net.runelite.client.profiling.Profiler;
 import net.runelite.client.ui.FontManager;
 
 @Singleton
@@ -68,9 +72,11 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 	private static final Color SNAP_CORNER_ACTIVE_COLOR = new Color(0, 255, 0, 100);
 	private static final Color MOVING_OVERLAY_COLOR = new Color(255, 255, 0, 100);
 	private static final Color MOVING_OVERLAY_ACTIVE_COLOR = new Color(255, 255, 0, 200);
+	private static final int RENDER_TIME_SMOOTHING = 16;
 	private final Provider<Client> clientProvider;
 	private final OverlayManager overlayManager;
 	private final RuneLiteConfig runeLiteConfig;
+	private final Profiler profiler;
 
 	// Overlay movement variables
 	private final Point overlayOffset = new Point();
@@ -84,18 +90,27 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 	private boolean chatboxHidden;
 	private boolean isResizeable;
 	private OverlayBounds snapCorners;
+	private int snapCornersVersion;
+
+	// Retained layout of each layer
+	private final Map<OverlayLayer, OverlayLayout> layouts = new EnumMap<>(OverlayLayer.class);
+	private final Map<OverlayLayer, List<Overlay>> layerOverlays = new EnumMap<>(OverlayLayer.class);
+	private final Point location = new Point();
+	private final Map<Overlay, Long> renderTimes = new ConcurrentHashMap<>();
 
 	@Inject
 	private OverlayRenderer(
 		final Provider<Client> clientProvider,
 		final OverlayManager overlayManager,
 		final RuneLiteConfig runeLiteConfig,
+		final Profiler profiler,
 		final MouseManager mouseManager,
 		final KeyManager keyManager)
 	{
 		this.clientProvider = clientProvider;
 		this.overlayManager = overlayManager;
 		this.runeLiteConfig = runeLiteConfig;
+		this.profiler = profiler;
 		keyManager.registerKeyListener(this);
 		mouseManager.registerMouseListener(this);
 	}
@@ -127,10 +142,9 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 		if (shouldInvalidateBounds())
 		{
 			snapCorners = buildSnapCorners();
+			++snapCornersVersion;
 		}
 
-		// Create copy of snap corners because overlays will modify them
-		OverlayBounds snapCorners = new OverlayBounds(this.snapCorners);
 		OverlayUtil.setGraphicProperties(graphics);
 
 		// Draw snap corners
@@ -151,63 +165,43 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 			graphics.setColor(previous);
 		}
 
-		for (Overlay overlay : overlays)
+		// Only layout the overlays again if something they are positioned from has changed
+		final OverlayLayout layout = layouts.computeIfAbsent(layer, l -> new OverlayLayout());
+		final Dimension realDimensions = client.getRealDimensions();
+
+		if (!layout.isValid(overlays, snapCornersVersion, isResizeable, realDimensions))
 		{
-			OverlayPosition overlayPosition = overlay.getPosition();
+			layout.layout(overlays, snapCornersVersion, snapCorners, isResizeable, realDimensions, PADDING);
 
-			if (overlay.getPreferredPosition() != null)
+			if (overlays != layerOverlays.put(layer, overlays))
 			{
-				overlayPosition = overlay.getPreferredPosition();
+				pruneRenderTimes();
 			}
+		}
 
-			if (overlayPosition == OverlayPosition.ABOVE_CHATBOX_RIGHT && !isResizeable)
-			{
-				// On fixed mode, ABOVE_CHATBOX_RIGHT is in the same location as
-				// BOTTOM_RIGHT. Just use BOTTOM_RIGHT to prevent overlays from
-				// drawing over each other.
-				overlayPosition = OverlayPosition.BOTTOM_RIGHT;
-			}
+		final Point location = this.location;
+
+		for (int i = 0; i < overlays.size(); ++i)
+		{
+			final Overlay overlay = overlays.get(i);
+			final OverlayPosition overlayPosition = layout.getPosition(i);
+			location.setLocation(layout.getX(i), layout.getY(i));
 
 			if (overlayPosition == OverlayPosition.DYNAMIC || overlayPosition == OverlayPosition.TOOLTIP)
 			{
-				safeRender(client, overlay, layer, graphics, new Point());
+				safeRender(client, overlay, layer, graphics, location);
 			}
 			else
 			{
-				final Point location = overlay.getBounds().getLocation();
-				final Dimension dimension = overlay.getBounds().getSize();
-
-				// If the final position is not modified, layout it
-				if (overlayPosition != OverlayPosition.DETACHED && (overlay.getPreferredLocation() == null || overlay.getPreferredPosition() != null))
-				{
-					final Rectangle snapCorner = snapCorners.forPosition(overlayPosition);
-					final Point translation = OverlayUtil.transformPosition(overlayPosition, dimension);
-					location.setLocation(snapCorner.getX() + translation.x, snapCorner.getY() + translation.y);
-					final Point padding = OverlayUtil.padPosition(overlayPosition, dimension, PADDING);
-					snapCorner.translate(padding.x, padding.y);
-				}
-				else
-				{
-					final Point preferredLocation = overlay.getPreferredLocation();
-
-					if (preferredLocation != null)
-					{
-						final Dimension realDimensions = client.getRealDimensions();
-						final int x = Math.min(realDimensions.width - 5, preferredLocation.x);
-						final int y = Math.min(realDimensions.height - 5, preferredLocation.y);
-						location.setLocation(x, y);
-					}
-				}
-
 				if (overlay.getPreferredSize() != null)
 				{
 					overlay.getBounds().setSize(overlay.getPreferredSize());
 				}
 
 				safeRender(client, overlay, layer, graphics, location);
-				dimension.setSize(overlay.getBounds().getSize());
+				final Rectangle bounds = overlay.getBounds();
 
-				if (dimension.width == 0 && dimension.height == 0)
+				if (bounds.width == 0 && bounds.height == 0)
 				{
 					continue;
 				}
@@ -216,13 +210,23 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 				{
 					final Color previous = graphics.getColor();
 					graphics.setColor(movedOverlay == overlay ? MOVING_OVERLAY_ACTIVE_COLOR : MOVING_OVERLAY_COLOR);
-					graphics.drawRect(location.x, location.y, dimension.width - 1, dimension.height - 1);
+					graphics.drawRect(bounds.x, bounds.y, bounds.width - 1, bounds.height - 1);
 					graphics.setColor(previous);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Gets the average time each overlay took to render over the last frames
+	 *
+	 * @return the overlays mapped to their average render time, in nanoseconds
+	 */
+	public Map<Overlay, Long> getRenderTimes()
+	{
+		return Collections.unmodifiableMap(renderTimes);
+	}
+
 	@Override
 	public MouseEvent mousePressed(MouseEvent mouseEvent)
 	{
@@ -397,9 +401,31 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 
 
 		subGraphics.translate(point.x, point.y);
-		final Dimension dimension = MoreObjects.firstNonNull(overlay.render(subGraphics), new Dimension());
+		final long start = System.nanoTime();
+		final Dimension dimension = overlay.render(subGraphics);
+		final long elapsed = System.nanoTime() - start;
 		subGraphics.dispose();
-		overlay.setBounds(new Rectangle(point, dimension));
+
+		// Exponential moving average so a single slow frame does not dominate
+		renderTimes.merge(overlay, elapsed, (average, time) -> average + (time - average) / RENDER_TIME_SMOOTHING);
+
+		if (profiler.isEnabled())
+		{
+			profiler.record(Profiler.Category.OVERLAY, overlay.getClass(), elapsed);
+		}
+
+		// Update the bounds in place rather than allocating new ones every frame
+		overlay.getBounds().setBounds(point.x, point.y,
+			dimension != null ? dimension.width : 0,
+			dimension != null ? dimension.height : 0);
+	}
+
+	private void pruneRenderTimes()
+	{
+		synchronized (overlayManager)
+		{
+			renderTimes.keySet().retainAll(overlayManager.getOverlays());
+		}
 	}
 
 	private boolean shouldInvalidateBounds()
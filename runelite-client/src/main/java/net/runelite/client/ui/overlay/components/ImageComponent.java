@@ -28,11 +28,13 @@ import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.image.BufferedImage;
+import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
 @RequiredArgsConstructor
 @Setter
+@EqualsAndHashCode(exclude = "preferredLocation")
 public class ImageComponent implements LayoutableRenderableEntity
 {
 	private final BufferedImage image;
@@ -31,11 +31,13 @@ import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.Rectangle;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import net.runelite.client.ui.FontManager;
 
 @Setter
+@EqualsAndHashCode(exclude = {"tooltip", "preferredLocation", "preferredSize"})
 public class InfoBoxComponent implements LayoutableRenderableEntity
 {
 	private static final int SEPARATOR = 3;
@@ -32,9 +32,11 @@ import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Setter;
 
 @Setter
+@EqualsAndHashCode(exclude = {"preferredLocation", "preferredSize"})
 @Builder
 public class LineComponent implements LayoutableRenderableEntity
 {
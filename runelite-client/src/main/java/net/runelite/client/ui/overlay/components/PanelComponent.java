@@ -30,6 +30,7 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import javax.annotation.Nullable;
 import lombok.Getter;
@@ -74,6 +75,24 @@ public class PanelComponent implements LayoutableRenderableEntity
 
 	private final Dimension childDimensions = new Dimension();
 
+	/**
+	 * Gets a key identifying what this panel renders, which is equal to the key
+	 * of another panel with equal children and layout. This is meant to be
+	 * used as the content key of a {@link net.runelite.client.ui.overlay.CachedOverlay}.
+	 *
+	 * @return the content key, or null if the panel has no children
+	 */
+	public Object getContentKey()
+	{
+		if (children.isEmpty())
+		{
+			return null;
+		}
+
+		return Arrays.asList(new ArrayList<>(children), backgroundColor, new Dimension(preferredSize),
+			orientation, wrapping, new Rectangle(border), new Point(gap));
+	}
+
 	@Override
 	public Dimension render(Graphics2D graphics)
 	{
@@ -175,6 +194,12 @@ public class PanelComponent implements LayoutableRenderableEntity
 		childDimensions.setSize(totalWidth, totalHeight);
 
 		graphics.translate(-preferredLocation.x, -preferredLocation.y);
+
+		// The background is drawn before the children are laid out, so it may be
+		// sized from the last render, but report the size the children now take
+		dimension.setSize(
+			border.x + childDimensions.width + border.width,
+			border.y + childDimensions.height + border.height);
 		return dimension;
 	}
 }
@@ -30,9 +30,11 @@ import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.text.DecimalFormat;
+import lombok.EqualsAndHashCode;
 import lombok.Setter;
 
 @Setter
+@EqualsAndHashCode(exclude = {"preferredLocation", "preferredSize"})
 public class ProgressBarComponent implements LayoutableRenderableEntity
 {
 	public enum LabelDisplayMode
@@ -30,13 +30,14 @@ import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.util.ArrayList;
 import java.util.List;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import net.runelite.api.Client;
 import net.runelite.client.config.RuneLiteConfig;
-import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.CachedOverlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayUtil;
 import net.runelite.client.ui.overlay.components.InfoBoxComponent;
@@ -46,9 +47,10 @@ import net.runelite.client.ui.overlay.tooltip.Tooltip;
 import net.runelite.client.ui.overlay.tooltip.TooltipManager;
 
 @Singleton
-public class InfoBoxOverlay extends Overlay
+public class InfoBoxOverlay extends CachedOverlay
 {
 	private final PanelComponent panelComponent = new PanelComponent();
+	private final List<LayoutableRenderableEntity> renderedChildren = new ArrayList<>();
 	private final InfoBoxManager infoboxManager;
 	private final TooltipManager tooltipManager;
 	private final Provider<Client> clientProvider;
@@ -73,16 +75,17 @@ public class InfoBoxOverlay extends Overlay
 	}
 
 	@Override
-	public Dimension render(Graphics2D graphics)
+	protected Object getContentKey()
 	{
 		final List<InfoBox> infoBoxes = infoboxManager.getInfoBoxes();
 
+		panelComponent.getChildren().clear();
+
 		if (infoBoxes.isEmpty())
 		{
 			return null;
 		}
 
-		panelComponent.getChildren().clear();
 		panelComponent.setWrapping(config.infoBoxWrap());
 		panelComponent.setOrientation(config.infoBoxVertical()
 			? PanelComponent.Orientation.VERTICAL
@@ -99,40 +102,63 @@ public class InfoBoxOverlay extends Overlay
 			panelComponent.getChildren().add(infoBoxComponent);
 		});
 
+		return panelComponent.getContentKey();
+	}
+
+	@Override
+	protected Dimension renderContent(Graphics2D graphics)
+	{
 		final Dimension dimension = panelComponent.render(graphics);
+
+		// Keep the laid out children, the ones built on later frames are not
+		// laid out while the cached image is reused
+		renderedChildren.clear();
+		renderedChildren.addAll(panelComponent.getChildren());
+		return dimension;
+	}
+
+	@Override
+	protected void renderUncached(Graphics2D graphics)
+	{
 		final Client client = clientProvider.get();
+		final List<LayoutableRenderableEntity> children = panelComponent.getChildren();
+
+		// Tooltips are not part of the content key, so take them from the current
+		// children and the bounds from the equal children which were laid out
+		if (client == null || children.size() != renderedChildren.size())
+		{
+			return;
+		}
+
+		final Point mouse = new Point(client.getMouseCanvasPosition().getX(), client.getMouseCanvasPosition().getY());
 
-		// Handle tooltips
-		if (client != null)
+		for (int i = 0; i < children.size(); ++i)
 		{
-			final Point mouse = new Point(client.getMouseCanvasPosition().getX(), client.getMouseCanvasPosition().getY());
+			final LayoutableRenderableEntity child = children.get(i);
+			final LayoutableRenderableEntity rendered = renderedChildren.get(i);
 
-			for (final LayoutableRenderableEntity child : panelComponent.getChildren())
+			if (child instanceof InfoBoxComponent && rendered instanceof InfoBoxComponent)
 			{
-				if (child instanceof InfoBoxComponent)
-				{
-					final InfoBoxComponent component = (InfoBoxComponent) child;
+				final InfoBoxComponent component = (InfoBoxComponent) child;
+				final InfoBoxComponent renderedComponent = (InfoBoxComponent) rendered;
 
-					if (!Strings.isNullOrEmpty(component.getTooltip()))
-					{
-						final Rectangle intersectionRectangle = new Rectangle(component.getPreferredLocation(), component.getPreferredSize());
+				if (!Strings.isNullOrEmpty(component.getTooltip()))
+				{
+					final Rectangle intersectionRectangle = new Rectangle(renderedComponent.getPreferredLocation(), renderedComponent.getPreferredSize());
 
-						// Move the intersection based on overlay position
-						intersectionRectangle.translate(getBounds().x, getBounds().y);
+					// Move the intersection based on overlay position
+					intersectionRectangle.translate(getBounds().x, getBounds().y);
 
-						// Move the intersection based on overlay "orientation"
-						final Point transformed = OverlayUtil.transformPosition(getPosition(), intersectionRectangle.getSize());
-						intersectionRectangle.translate(transformed.x, transformed.y);
+					// Move the intersection based on overlay "orientation"
+					final Point transformed = OverlayUtil.transformPosition(getPosition(), intersectionRectangle.getSize());
+					intersectionRectangle.translate(transformed.x, transformed.y);
 
-						if (intersectionRectangle.contains(mouse))
-						{
-							tooltipManager.add(new Tooltip(component.getTooltip()));
-						}
+					if (intersectionRectangle.contains(mouse))
+					{
+						tooltipManager.add(new Tooltip(component.getTooltip()));
 					}
 				}
 			}
 		}
-
-		return dimension;
 	}
 }
@@ -31,7 +31,10 @@ import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
@@ -80,10 +83,9 @@ public class WorldMapOverlay extends Overlay
 	@Override
 	public Dimension render(Graphics2D graphics)
 	{
-		final List<WorldMapPoint> points = worldMapPointManager.getWorldMapPoints();
-
-		if (points.isEmpty())
+		if (worldMapPointManager.getWorldMapPoints().isEmpty())
 		{
+			setRenderedPoints(Collections.emptyList());
 			return null;
 		}
 
@@ -92,9 +94,13 @@ public class WorldMapOverlay extends Overlay
 		Widget widget = client.getWidget(WidgetInfo.WORLD_MAP_VIEW);
 		if (widget == null)
 		{
+			setRenderedPoints(Collections.emptyList());
 			return null;
 		}
 
+		final List<WorldMapPoint> points = getVisiblePoints(client.getRenderOverview(), widget.getBounds());
+		setRenderedPoints(points);
+
 		final Rectangle worldMapRectangle = widget.getBounds();
 		WorldMapPoint tooltipPoint = null;
 
@@ -174,6 +180,49 @@ public class WorldMapOverlay extends Overlay
 		return null;
 	}
 
+	/**
+	 * Gets the points which can be drawn on the visible area of the world map
+	 */
+	private List<WorldMapPoint> getVisiblePoints(RenderOverview ro, Rectangle worldMapRect)
+	{
+		final float pixelsPerTile = ro.getWorldMapZoom();
+		final Point worldMapPosition = ro.getWorldMapPosition();
+
+		// Include points just off the map whose images still overlap it
+		final int margin = (int) Math.ceil(worldMapPointManager.getMaxImageSize() / pixelsPerTile) + 1;
+		final int halfWidth = (int) Math.ceil(worldMapRect.getWidth() / pixelsPerTile) / 2 + margin;
+		final int halfHeight = (int) Math.ceil(worldMapRect.getHeight() / pixelsPerTile) / 2 + margin;
+
+		return worldMapPointManager.getWorldMapPoints(
+			worldMapPosition.getX() - halfWidth, worldMapPosition.getY() - halfHeight,
+			worldMapPosition.getX() + halfWidth, worldMapPosition.getY() + halfHeight);
+	}
+
+	/**
+	 * Sets the points drawn this frame, clearing the clickboxes of points which are no longer drawn
+	 */
+	private void setRenderedPoints(List<WorldMapPoint> points)
+	{
+		final List<WorldMapPoint> previous = worldMapPointManager.getRenderedPoints();
+		worldMapPointManager.setRenderedPoints(points);
+
+		if (previous.isEmpty())
+		{
+			return;
+		}
+
+		final Set<WorldMapPoint> drawn = Collections.newSetFromMap(new IdentityHashMap<>());
+		drawn.addAll(points);
+
+		for (WorldMapPoint worldMapPoint : previous)
+		{
+			if (!drawn.contains(worldMapPoint))
+			{
+				worldMapPoint.setClickbox(null);
+			}
+		}
+	}
+
 	/**
 	 * Get the screen coordinates for a WorldPoint on the world map
 	 * @param worldPoint WorldPoint to get screen coordinates of
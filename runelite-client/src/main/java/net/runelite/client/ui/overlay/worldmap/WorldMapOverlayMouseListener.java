@@ -56,7 +56,7 @@ public class WorldMapOverlayMouseListener extends MouseListener
 	@Override
 	public MouseEvent mousePressed(MouseEvent e)
 	{
-		final List<WorldMapPoint> worldMapPoints = worldMapPointManager.getWorldMapPoints();
+		final List<WorldMapPoint> worldMapPoints = worldMapPointManager.getRenderedPoints();
 
 		if (SwingUtilities.isLeftMouseButton(e) && !worldMapPoints.isEmpty())
 		{
@@ -85,9 +85,7 @@ public class WorldMapOverlayMouseListener extends MouseListener
 	@Override
 	public MouseEvent mouseMoved(MouseEvent mouseEvent)
 	{
-		final List<WorldMapPoint> worldMapPoints = worldMapPointManager.getWorldMapPoints();
-
-		if (worldMapPoints.isEmpty())
+		if (worldMapPointManager.getWorldMapPoints().isEmpty())
 		{
 			return mouseEvent;
 		}
@@ -137,7 +135,7 @@ public class WorldMapOverlayMouseListener extends MouseListener
 			}
 		}
 
-		for (WorldMapPoint worldMapPoint : worldMapPointManager.getWorldMapPoints())
+		for (WorldMapPoint worldMapPoint : worldMapPointManager.getRenderedPoints())
 		{
 			if (worldMapPoint.getClickbox() != null
 				&& worldMapPoint.getClickbox().contains(mousePos.getX(), mousePos.getY())
@@ -27,7 +27,10 @@ package net.runelite.client.ui.overlay.worldmap;
 import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import net.runelite.api.Point;
 import net.runelite.api.coords.WorldPoint;
 
@@ -59,12 +62,46 @@ public class WorldMapPoint
 
 	private String tooltip;
 
+	/**
+	 * The manager this point has been added to, which indexes it by its world point
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.PACKAGE)
+	private transient WorldMapPointManager manager;
+
 	public WorldMapPoint(WorldPoint worldPoint, BufferedImage image)
 	{
 		this.worldPoint = worldPoint;
 		this.image = image;
 	}
 
+	public void setImage(BufferedImage image)
+	{
+		this.image = image;
+		invalidate();
+	}
+
+	public void setWorldPoint(WorldPoint worldPoint)
+	{
+		this.worldPoint = worldPoint;
+		invalidate();
+	}
+
+	public void setSnapToEdge(boolean snapToEdge)
+	{
+		this.snapToEdge = snapToEdge;
+		invalidate();
+	}
+
+	private void invalidate()
+	{
+		final WorldMapPointManager manager = this.manager;
+		if (manager != null)
+		{
+			manager.invalidate();
+		}
+	}
+
 	public MouseEvent onClick(MouseEvent e)
 	{
 		return e;
@@ -24,31 +24,202 @@
  */
 package net.runelite.client.ui.overlay.worldmap;
 
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
 import javax.inject.Singleton;
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
+import net.runelite.api.coords.WorldPoint;
 
 @Singleton
 public class WorldMapPointManager
 {
+	/**
+	 * Size of the cells of the index, in tiles
+	 */
+	private static final int CELL_SHIFT = 6;
+
 	@Getter(AccessLevel.PACKAGE)
 	private final List<WorldMapPoint> worldMapPoints = new CopyOnWriteArrayList<>();
 
+	/**
+	 * The points which were drawn on the last frame, for hit testing
+	 */
+	@Getter(AccessLevel.PACKAGE)
+	@Setter(AccessLevel.PACKAGE)
+	private volatile List<WorldMapPoint> renderedPoints = Collections.emptyList();
+
+	private volatile Index index;
+
 	public void add(WorldMapPoint worldMapPoint)
 	{
+		worldMapPoint.setManager(this);
 		worldMapPoints.add(worldMapPoint);
+		index = null;
 	}
 
 	public void remove(WorldMapPoint worldMapPoint)
 	{
+		worldMapPoint.setManager(null);
 		worldMapPoints.remove(worldMapPoint);
+		index = null;
 	}
 
 	public void removeIf(Predicate<WorldMapPoint> filter)
 	{
-		worldMapPoints.removeIf(filter);
+		worldMapPoints.removeIf(worldMapPoint ->
+		{
+			if (filter.test(worldMapPoint))
+			{
+				worldMapPoint.setManager(null);
+				return true;
+			}
+			return false;
+		});
+		index = null;
+	}
+
+	/**
+	 * Called when a point has moved, or changed how it is drawn
+	 */
+	void invalidate()
+	{
+		index = null;
+	}
+
+	/**
+	 * Gets the points within an area of the world map, and all of the points which snap to
+	 * the edge of the map. Points are returned in the order they were added.
+	 */
+	List<WorldMapPoint> getWorldMapPoints(int minX, int minY, int maxX, int maxY)
+	{
+		return getIndex().query(minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Gets the largest width or height of the images of the points
+	 */
+	int getMaxImageSize()
+	{
+		return getIndex().maxImageSize;
+	}
+
+	private Index getIndex()
+	{
+		Index index = this.index;
+		if (index == null)
+		{
+			index = new Index(worldMapPoints.toArray(new WorldMapPoint[0]));
+			this.index = index;
+		}
+		return index;
+	}
+
+	private static int cell(int cellX, int cellY)
+	{
+		return cellX << 16 | cellY;
+	}
+
+	/**
+	 * A snapshot of the points bucketed into square cells by their world point
+	 */
+	private static class Index
+	{
+		private final WorldMapPoint[] points;
+		private final Map<Integer, int[]> cells = new HashMap<>();
+		private final int[] snapToEdge;
+		private final int maxImageSize;
+
+		Index(WorldMapPoint[] points)
+		{
+			this.points = points;
+
+			final Map<Integer, List<Integer>> cells = new HashMap<>();
+			final List<Integer> snapToEdge = new ArrayList<>();
+			int maxImageSize = 0;
+
+			for (int i = 0; i < points.length; ++i)
+			{
+				final WorldMapPoint point = points[i];
+				final WorldPoint worldPoint = point.getWorldPoint();
+				final BufferedImage image = point.getImage();
+
+				if (worldPoint == null || image == null)
+				{
+					continue;
+				}
+
+				maxImageSize = Math.max(maxImageSize, Math.max(image.getWidth(), image.getHeight()));
+
+				if (point.isSnapToEdge())
+				{
+					snapToEdge.add(i);
+				}
+				else
+				{
+					cells.computeIfAbsent(cell(worldPoint.getX() >> CELL_SHIFT, worldPoint.getY() >> CELL_SHIFT), k -> new ArrayList<>()).add(i);
+				}
+			}
+
+			cells.forEach((cell, indices) -> this.cells.put(cell, toArray(indices)));
+			this.snapToEdge = toArray(snapToEdge);
+			this.maxImageSize = maxImageSize;
+		}
+
+		List<WorldMapPoint> query(int minX, int minY, int maxX, int maxY)
+		{
+			int[] found = snapToEdge.clone();
+			int count = found.length;
+
+			for (int cellX = minX >> CELL_SHIFT; cellX <= maxX >> CELL_SHIFT; ++cellX)
+			{
+				for (int cellY = minY >> CELL_SHIFT; cellY <= maxY >> CELL_SHIFT; ++cellY)
+				{
+					final int[] indices = cells.get(cell(cellX, cellY));
+					if (indices == null)
+					{
+						continue;
+					}
+
+					for (int i : indices)
+					{
+						final WorldPoint worldPoint = points[i].getWorldPoint();
+						if (worldPoint != null
+							&& worldPoint.getX() >= minX && worldPoint.getX() <= maxX
+							&& worldPoint.getY() >= minY && worldPoint.getY() <= maxY)
+						{
+							if (count == found.length)
+							{
+								found = Arrays.copyOf(found, Math.max(16, count * 2));
+							}
+							found[count++] = i;
+						}
+					}
+				}
+			}
+
+			// Keep the draw order of the points
+			Arrays.sort(found, 0, count);
+
+			final List<WorldMapPoint> result = new ArrayList<>(count);
+			for (int i = 0; i < count; ++i)
+			{
+				result.add(points[found[i]]);
+			}
+			return result;
+		}
+
+		private static int[] toArray(List<Integer> indices)
+		{
+			return indices.stream().mapToInt(Integer::intValue).toArray();
+		}
 	}
 }
@@ -28,6 +28,13 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import net.runelite.api.Client;
 import net.runelite.api.Query;
+import net.runelite.api.queries.DecorativeObjectQuery;
+import net.runelite.api.queries.GameObjectQuery;
+import net.runelite.api.queries.GroundObjectQuery;
+import net.runelite.api.queries.NPCQuery;
+import net.runelite.api.queries.PlayerQuery;
+import net.runelite.api.queries.WallObjectQuery;
+import net.runelite.client.game.SceneIndex;
 
 @Singleton
 public class QueryRunner
@@ -35,9 +42,38 @@ public class QueryRunner
 	@Inject
 	private Client client;
 
+	@Inject
+	private SceneIndex sceneIndex;
+
 	@SuppressWarnings("unchecked")
 	public <T> T[] runQuery(Query query)
 	{
+		// Scene queries are answered from the index instead of walking the scene
+		if (query instanceof GameObjectQuery)
+		{
+			return (T[]) sceneIndex.query((GameObjectQuery) query);
+		}
+		if (query instanceof WallObjectQuery)
+		{
+			return (T[]) sceneIndex.query((WallObjectQuery) query);
+		}
+		if (query instanceof GroundObjectQuery)
+		{
+			return (T[]) sceneIndex.query((GroundObjectQuery) query);
+		}
+		if (query instanceof DecorativeObjectQuery)
+		{
+			return (T[]) sceneIndex.query((DecorativeObjectQuery) query);
+		}
+		if (query instanceof NPCQuery)
+		{
+			return (T[]) sceneIndex.query((NPCQuery) query);
+		}
+		if (query instanceof PlayerQuery)
+		{
+			return (T[]) sceneIndex.query((PlayerQuery) query);
+		}
+
 		return (T[]) query.result(client);
 	}
 }
\ No newline at end of file
@@ -24,30 +24,66 @@
  */
 package net.runelite.client.util;
 
-import com.google.common.eventbus.EventBus;
-import java.util.Arrays;
-import java.util.Objects;
-import java.util.Optional;
+import com.google.common.eventbus.Subscribe;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.Constants;
+import net.runelite.api.DecorativeObject;
+import net.runelite.api.GameObject;
 import net.runelite.api.GameState;
+import net.runelite.api.GroundObject;
 import net.runelite.api.Region;
 import net.runelite.api.Tile;
+import net.runelite.api.WallObject;
+import net.runelite.api.events.DecorativeObjectChanged;
+import net.runelite.api.events.DecorativeObjectDespawned;
 import net.runelite.api.events.DecorativeObjectSpawned;
+import net.runelite.api.events.GameObjectChanged;
+import net.runelite.api.events.GameObjectDespawned;
 import net.runelite.api.events.GameObjectSpawned;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GroundObjectChanged;
+import net.runelite.api.events.GroundObjectDespawned;
 import net.runelite.api.events.GroundObjectSpawned;
+import net.runelite.api.events.WallObjectChanged;
+import net.runelite.api.events.WallObjectDespawned;
 import net.runelite.api.events.WallObjectSpawned;
 
 @Singleton
+@Slf4j
 public class RegionTileManager
 {
-	private final EventBus eventBus = new EventBus();
+	private static final int HASH_TYPE_OBJECT = 2;
+
+	private static final ClassValue<Method[]> SPAWN_SUBSCRIBERS = new ClassValue<Method[]>()
+	{
+		@Override
+		protected Method[] computeValue(Class<?> type)
+		{
+			return findSpawnSubscribers(type);
+		}
+	};
+
 	private final Provider<Client> clientProvider;
 
+	/**
+	 * Spawn events of the objects currently in the scene, built when first
+	 * needed after a scene load and then kept up to date from the object events.
+	 * All access to this must be guarded by a lock on this set.
+	 */
+	private final Set<Object> spawns = new LinkedHashSet<>();
+	private boolean valid;
+
 	@Inject
 	public RegionTileManager(Provider<Client> clientProvider)
 	{
@@ -90,50 +126,325 @@ public class RegionTileManager
 	}
 
 	/**
-	 * Simulate object spawns for EventBus subscriber
+	 * Simulate object spawns for EventBus subscriber.
+	 * The spawn events are only delivered to the subscriber.
 	 * @param subscriber EventBus subscriber
 	 */
 	public void simulateObjectSpawns(Object subscriber)
 	{
-		eventBus.register(subscriber);
+		final Method[] methods = SPAWN_SUBSCRIBERS.get(subscriber.getClass());
+
+		if (methods.length == 0)
+		{
+			return;
+		}
+
+		final Object[] events;
 
-		forEachTile((tile) ->
+		synchronized (spawns)
 		{
-			Optional.ofNullable(tile.getWallObject()).ifPresent(object ->
+			if (!valid)
 			{
-				final WallObjectSpawned objectSpawned = new WallObjectSpawned();
-				objectSpawned.setTile(tile);
-				objectSpawned.setWallObject(object);
-				eventBus.post(objectSpawned);
-			});
+				rebuild();
+			}
 
-			Optional.ofNullable(tile.getDecorativeObject()).ifPresent(object ->
+			events = spawns.toArray();
+		}
+
+		for (Object event : events)
+		{
+			for (Method method : methods)
 			{
-				final DecorativeObjectSpawned objectSpawned = new DecorativeObjectSpawned();
-				objectSpawned.setTile(tile);
-				objectSpawned.setDecorativeObject(object);
-				eventBus.post(objectSpawned);
-			});
+				if (!method.getParameterTypes()[0].isInstance(event))
+				{
+					continue;
+				}
 
-			Optional.ofNullable(tile.getGroundObject()).ifPresent(object ->
+				try
+				{
+					method.invoke(subscriber, event);
+				}
+				catch (IllegalAccessException | InvocationTargetException ex)
+				{
+					log.warn("uncaught exception in event subscriber", ex instanceof InvocationTargetException ? ex.getCause() : ex);
+				}
+			}
+		}
+	}
+
+	private void rebuild()
+	{
+		spawns.clear();
+
+		final Client client = clientProvider.get();
+
+		if (client == null || client.getGameState() != GameState.LOGGED_IN)
+		{
+			return;
+		}
+
+		forEachTile(tile ->
+		{
+			addWallObject(tile, tile.getWallObject());
+			addDecorativeObject(tile, tile.getDecorativeObject());
+			addGroundObject(tile, tile.getGroundObject());
+
+			final GameObject[] gameObjects = tile.getGameObjects();
+			if (gameObjects != null)
 			{
-				final GroundObjectSpawned objectSpawned = new GroundObjectSpawned();
-				objectSpawned.setTile(tile);
-				objectSpawned.setGroundObject(object);
-				eventBus.post(objectSpawned);
-			});
-
-			Arrays.stream(tile.getGameObjects())
-				.filter(Objects::nonNull)
-				.forEach(object ->
+				for (GameObject object : gameObjects)
 				{
-					final GameObjectSpawned objectSpawned = new GameObjectSpawned();
-					objectSpawned.setTile(tile);
-					objectSpawned.setGameObject(object);
-					eventBus.post(objectSpawned);
-				});
+					addGameObject(tile, object);
+				}
+			}
 		});
 
-		eventBus.unregister(subscriber);
+		valid = true;
+	}
+
+	private void addWallObject(Tile tile, WallObject object)
+	{
+		if (object != null)
+		{
+			spawns.add(wallObjectSpawned(tile, object));
+		}
+	}
+
+	private void addDecorativeObject(Tile tile, DecorativeObject object)
+	{
+		if (object != null)
+		{
+			spawns.add(decorativeObjectSpawned(tile, object));
+		}
+	}
+
+	private void addGroundObject(Tile tile, GroundObject object)
+	{
+		if (object != null)
+		{
+			spawns.add(groundObjectSpawned(tile, object));
+		}
+	}
+
+	private void addGameObject(Tile tile, GameObject object)
+	{
+		// actors are placed on tiles as game objects while they are drawn
+		if (object != null && (int) (object.getHash() >>> 14 & 3) == HASH_TYPE_OBJECT)
+		{
+			spawns.add(gameObjectSpawned(tile, object));
+		}
+	}
+
+	@Subscribe
+	public void onGameStateChanged(GameStateChanged event)
+	{
+		if (event.getGameState() != GameState.LOGGED_IN)
+		{
+			// tiles are recreated when the scene is loaded, without despawning what was on them
+			synchronized (spawns)
+			{
+				valid = false;
+				spawns.clear();
+			}
+		}
+	}
+
+	@Subscribe
+	public void onGameObjectSpawned(GameObjectSpawned event)
+	{
+		synchronized (spawns)
+		{
+			if (valid)
+			{
+				addGameObject(event.getTile(), event.getGameObject());
+			}
+		}
+	}
+
+	@Subscribe
+	public void onGameObjectChanged(GameObjectChanged event)
+	{
+		synchronized (spawns)
+		{
+			if (valid)
+			{
+				spawns.remove(gameObjectSpawned(event.getTile(), event.getPrevious()));
+				addGameObject(event.getTile(), event.getGameObject());
+			}
+		}
+	}
+
+	@Subscribe
+	public void onGameObjectDespawned(GameObjectDespawned event)
+	{
+		synchronized (spawns)
+		{
+			spawns.remove(gameObjectSpawned(event.getTile(), event.getGameObject()));
+		}
+	}
+
+	@Subscribe
+	public void onWallObjectSpawned(WallObjectSpawned event)
+	{
+		synchronized (spawns)
+		{
+			if (valid)
+			{
+				addWallObject(event.getTile(), event.getWallObject());
+			}
+		}
+	}
+
+	@Subscribe
+	public void onWallObjectChanged(WallObjectChanged event)
+	{
+		synchronized (spawns)
+		{
+			if (valid)
+			{
+				spawns.remove(wallObjectSpawned(event.getTile(), event.getPrevious()));
+				addWallObject(event.getTile(), event.getWallObject());
+			}
+		}
+	}
+
+	@Subscribe
+	public void onWallObjectDespawned(WallObjectDespawned event)
+	{
+		synchronized (spawns)
+		{
+			spawns.remove(wallObjectSpawned(event.getTile(), event.getWallObject()));
+		}
+	}
+
+	@Subscribe
+	public void onDecorativeObjectSpawned(DecorativeObjectSpawned event)
+	{
+		synchronized (spawns)
+		{
+			if (valid)
+			{
+				addDecorativeObject(event.getTile(), event.getDecorativeObject());
+			}
+		}
+	}
+
+	@Subscribe
+	public void onDecorativeObjectChanged(DecorativeObjectChanged event)
+	{
+		synchronized (spawns)
+		{
+			if (valid)
+			{
+				spawns.remove(decorativeObjectSpawned(event.getTile(), event.getPrevious()));
+				addDecorativeObject(event.getTile(), event.getDecorativeObject());
+			}
+		}
+	}
+
+	@Subscribe
+	public void onDecorativeObjectDespawned(DecorativeObjectDespawned event)
+	{
+		synchronized (spawns)
+		{
+			spawns.remove(decorativeObjectSpawned(event.getTile(), event.getDecorativeObject()));
+		}
+	}
+
+	@Subscribe
+	public void onGroundObjectSpawned(GroundObjectSpawned event)
+	{
+		synchronized (spawns)
+		{
+			if (valid)
+			{
+				addGroundObject(event.getTile(), event.getGroundObject());
+			}
+		}
+	}
+
+	@Subscribe
+	public void onGroundObjectChanged(GroundObjectChanged event)
+	{
+		synchronized (spawns)
+		{
+			if (valid)
+			{
+				spawns.remove(groundObjectSpawned(event.getTile(), event.getPrevious()));
+				addGroundObject(event.getTile(), event.getGroundObject());
+			}
+		}
+	}
+
+	@Subscribe
+	public void onGroundObjectDespawned(GroundObjectDespawned event)
+	{
+		synchronized (spawns)
+		{
+			spawns.remove(groundObjectSpawned(event.getTile(), event.getGroundObject()));
+		}
+	}
+
+	private static WallObjectSpawned wallObjectSpawned(Tile tile, WallObject object)
+	{
+		final WallObjectSpawned objectSpawned = new WallObjectSpawned();
+		objectSpawned.setTile(tile);
+		objectSpawned.setWallObject(object);
+		return objectSpawned;
+	}
+
+	private static DecorativeObjectSpawned decorativeObjectSpawned(Tile tile, DecorativeObject object)
+	{
+		final DecorativeObjectSpawned objectSpawned = new DecorativeObjectSpawned();
+		objectSpawned.setTile(tile);
+		objectSpawned.setDecorativeObject(object);
+		return objectSpawned;
+	}
+
+	private static GroundObjectSpawned groundObjectSpawned(Tile tile, GroundObject object)
+	{
+		final GroundObjectSpawned objectSpawned = new GroundObjectSpawned();
+		objectSpawned.setTile(tile);
+		objectSpawned.setGroundObject(object);
+		return objectSpawned;
+	}
+
+	private static GameObjectSpawned gameObjectSpawned(Tile tile, GameObject object)
+	{
+		final GameObjectSpawned objectSpawned = new GameObjectSpawned();
+		objectSpawned.setTile(tile);
+		objectSpawned.setGameObject(object);
+		return objectSpawned;
+	}
+
+	/**
+	 * Finds the subscriber methods of a class which accept any object spawn event
+	 */
+	private static Method[] findSpawnSubscribers(Class<?> type)
+	{
+		final List<Method> methods = new ArrayList<>();
+
+		for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass())
+		{
+			for (Method method : clazz.getDeclaredMethods())
+			{
+				if (!method.isAnnotationPresent(Subscribe.class) || method.getParameterCount() != 1)
+				{
+					continue;
+				}
+
+				final Class<?> parameter = method.getParameterTypes()[0];
+				if (parameter.isAssignableFrom(WallObjectSpawned.class)
+					|| parameter.isAssignableFrom(DecorativeObjectSpawned.class)
+					|| parameter.isAssignableFrom(GroundObjectSpawned.class)
+					|| parameter.isAssignableFrom(GameObjectSpawned.class))
+				{
+					method.setAccessible(true);
+					methods.add(method);
+				}
+			}
+		}
+
+		return methods.toArray(new Method[0]);
 	}
 }
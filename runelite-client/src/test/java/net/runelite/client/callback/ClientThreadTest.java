@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.callback;
+
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.testing.fieldbinder.Bind;
+import com.google.inject.testing.fieldbinder.BoundFieldModule;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.runelite.api.Client;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ClientThreadTest
+{
+	@Mock
+	@Bind
+	private Client client;
+
+	@Inject
+	private ClientThread clientThread;
+
+	@Before
+	public void before()
+	{
+		Guice.createInjector(BoundFieldModule.of(this)).injectMembers(this);
+		when(client.isClientThread()).thenReturn(false);
+	}
+
+	@Test
+	public void testPriorities()
+	{
+		List<String> order = new ArrayList<>();
+		clientThread.invokeLater(() ->
+		{
+			order.add("low");
+		}, ClientThread.Priority.LOW);
+		clientThread.invokeLater(() ->
+		{
+			order.add("normal");
+		});
+		clientThread.invokeLater(() ->
+		{
+			order.add("high");
+		}, ClientThread.Priority.HIGH);
+		assertEquals(3, clientThread.getQueueDepth());
+
+		when(client.isClientThread()).thenReturn(true);
+		clientThread.invoke();
+
+		assertEquals(Arrays.asList("high", "normal", "low"), order);
+		assertEquals(0, clientThread.getQueueDepth());
+	}
+
+	@Test
+	public void testBudget()
+	{
+		AtomicInteger runs = new AtomicInteger();
+		for (int i = 0; i < 10; ++i)
+		{
+			clientThread.invokeLater(() ->
+			{
+				runs.incrementAndGet();
+				sleep(1);
+			});
+		}
+
+		when(client.isClientThread()).thenReturn(true);
+		clientThread.invoke();
+
+		// A frame always makes progress, but stops once it is over budget
+		assertTrue(runs.get() >= 1 && runs.get() < 10);
+		assertEquals(1, clientThread.getFramesOverBudget());
+
+		for (int i = 0; i < 20 && clientThread.getQueueDepth() > 0; ++i)
+		{
+			clientThread.invoke();
+		}
+		assertEquals(10, runs.get());
+	}
+
+	@Test
+	public void testBackOff()
+	{
+		AtomicInteger attempts = new AtomicInteger();
+		clientThread.invokeLater(() -> attempts.incrementAndGet() >= 4);
+
+		when(client.isClientThread()).thenReturn(true);
+
+		int frames = 0;
+		while (clientThread.getQueueDepth() > 0)
+		{
+			clientThread.invoke();
+			++frames;
+		}
+
+		// Retried after waiting 1, 2 and 4 frames
+		assertEquals(4, attempts.get());
+		assertEquals(1 + 1 + 2 + 4, frames);
+	}
+
+	@Test
+	public void testInvokeOnClientThread()
+	{
+		when(client.isClientThread()).thenReturn(true);
+
+		AtomicInteger runs = new AtomicInteger();
+		clientThread.invokeLater(runs::incrementAndGet);
+		assertEquals(1, runs.get());
+
+		// Finished invokes are not queued again
+		assertEquals(0, clientThread.getQueueDepth());
+		clientThread.invoke();
+		assertEquals(1, runs.get());
+	}
+
+	private static void sleep(long millis)
+	{
+		try
+		{
+			TimeUnit.MILLISECONDS.sleep(millis);
+		}
+		catch (InterruptedException ex)
+		{
+			throw new RuntimeException(ex);
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.callback;
+
+import com.google.common.eventbus.EventBus;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import net.runelite.api.Client;
+import net.runelite.api.events.ScriptCallbackEvent;
+import net.runelite.client.profiling.Profiler;
+import net.runelite.client.profiling.TimingHistogram;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ScriptCallbackManagerTest
+{
+	@Mock
+	private Client client;
+
+	@Mock
+	private EventBus eventBus;
+
+	private final Profiler profiler = new Profiler();
+
+	private ScriptCallbackManager scriptCallbackManager;
+
+	@Before
+	public void before()
+	{
+		byte[] names = "bankTagsActive\nsetBankItemMenu\ndebug\n".getBytes(StandardCharsets.UTF_8);
+		scriptCallbackManager = new ScriptCallbackManager(client, eventBus, profiler, new ByteArrayInputStream(names));
+	}
+
+	@Test
+	public void testCallback()
+	{
+		List<String> calls = new ArrayList<>();
+		Object subscriber = new Object();
+		scriptCallbackManager.register(subscriber, "bankTagsActive", ev -> calls.add(ev.getEventName()));
+		scriptCallbackManager.register(subscriber, "notAssembled", ev -> calls.add(ev.getEventName()));
+
+		// by the id from the assembler
+		scriptCallbackManager.callback(null, 1, "bankTagsActive");
+		// no handlers
+		scriptCallbackManager.callback(null, 2, "setBankItemMenu");
+		// unresolved, so by name
+		scriptCallbackManager.callback(null, 0, "bankTagsActive");
+		scriptCallbackManager.callback(null, 0, "notAssembled");
+		scriptCallbackManager.callback(null, 0, "unknown");
+
+		assertEquals(3, calls.size());
+		assertEquals("bankTagsActive", calls.get(0));
+		assertEquals("bankTagsActive", calls.get(1));
+		assertEquals("notAssembled", calls.get(2));
+
+		// callbacks without handlers are posted instead
+		ArgumentCaptor<ScriptCallbackEvent> posted = ArgumentCaptor.forClass(ScriptCallbackEvent.class);
+		verify(eventBus, times(2)).post(posted.capture());
+		assertEquals("setBankItemMenu", posted.getAllValues().get(0).getEventName());
+		assertEquals("unknown", posted.getAllValues().get(1).getEventName());
+
+		scriptCallbackManager.unregister(subscriber);
+		scriptCallbackManager.callback(null, 1, "bankTagsActive");
+		assertEquals(3, calls.size());
+		verify(eventBus, times(3)).post(any(ScriptCallbackEvent.class));
+	}
+
+	@Test
+	public void testProfiling()
+	{
+		scriptCallbackManager.register(this, "bankTagsActive", ev ->
+		{
+		});
+
+		scriptCallbackManager.callback(null, 1, "bankTagsActive");
+		assertTrue(profiler.getHistograms().isEmpty());
+
+		profiler.setEnabled(true);
+		scriptCallbackManager.callback(null, 1, "bankTagsActive");
+		scriptCallbackManager.callback(null, 0, "bankTagsActive");
+
+		List<TimingHistogram> histograms = profiler.getHistograms();
+		assertEquals(1, histograms.size());
+		assertEquals("ScriptCallbackManagerTest.bankTagsActive", histograms.get(0).getName());
+		assertEquals(2, histograms.get(0).getCount());
+	}
+
+	@Test
+	public void testDebug()
+	{
+		int[] intStack = {42, 7};
+		String[] stringStack = {"world", "hello %s %i %d %x"};
+		when(client.getIntStack()).thenReturn(intStack);
+		when(client.getIntStackSize()).thenReturn(2);
+		when(client.getStringStack()).thenReturn(stringStack);
+		when(client.getStringStackSize()).thenReturn(2);
+
+		scriptCallbackManager.callback(null, 3, "debug");
+
+		verify(client).setIntStackSize(0);
+		verify(client).setStringStackSize(0);
+	}
+
+	@Test
+	public void testDebugFormat()
+	{
+		ScriptCallbackManager.DebugFormat format = new ScriptCallbackManager.DebugFormat("hello %s %i %d %x%");
+		String out = format.format(new int[]{42, 7}, 2, new String[]{"world"}, 1);
+		assertEquals("hello world 7 42 %x=unknown%", out);
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import java.util.Collections;
+import static net.runelite.api.Constants.MAX_Z;
+import static net.runelite.api.Constants.REGION_SIZE;
+import net.runelite.api.Client;
+import net.runelite.api.GameObject;
+import net.runelite.api.GameState;
+import net.runelite.api.Point;
+import net.runelite.api.Region;
+import net.runelite.api.Tile;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.events.GameObjectDespawned;
+import net.runelite.api.events.GameObjectSpawned;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.queries.GameObjectQuery;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SceneIndexTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(SceneIndexTest.class);
+
+	@Mock
+	private Client client;
+
+	@Mock
+	private Region region;
+
+	private Tile[][][] tiles;
+
+	private SceneIndex sceneIndex;
+
+	@Before
+	public void before()
+	{
+		tiles = new Tile[MAX_Z][REGION_SIZE][REGION_SIZE];
+
+		when(client.getGameState()).thenReturn(GameState.LOGGED_IN);
+		when(client.getPlane()).thenReturn(0);
+		when(client.getRegion()).thenReturn(region);
+		when(client.getNpcs()).thenReturn(Collections.emptyList());
+		when(client.getPlayers()).thenReturn(Collections.emptyList());
+		when(region.getTiles()).thenReturn(tiles);
+
+		sceneIndex = new SceneIndex(client);
+	}
+
+	@Test
+	public void testQuery()
+	{
+		GameObject a = addGameObject(1, 10, 10);
+		addGameObject(2, 50, 50);
+		GameObject c = addGameObject(1, 90, 90);
+
+		assertArrayEquals(new GameObject[]{a, c}, sceneIndex.query(new GameObjectQuery().idEquals(1)));
+		assertArrayEquals(new GameObject[]{a}, sceneIndex.query(new GameObjectQuery()
+			.isWithinDistance(LocalPoint.fromRegion(12, 12), 3 * 128)));
+		assertEquals(3, sceneIndex.query(new GameObjectQuery()).length);
+	}
+
+	@Test
+	public void testSpawnEvents()
+	{
+		addGameObject(1, 10, 10);
+		assertEquals(1, sceneIndex.query(new GameObjectQuery().idEquals(1)).length);
+
+		GameObject spawned = addGameObject(1, 20, 20);
+		GameObjectSpawned gameObjectSpawned = new GameObjectSpawned();
+		gameObjectSpawned.setTile(tiles[0][20][20]);
+		gameObjectSpawned.setGameObject(spawned);
+		sceneIndex.onGameObjectSpawned(gameObjectSpawned);
+		assertEquals(2, sceneIndex.query(new GameObjectQuery().idEquals(1)).length);
+
+		GameObjectDespawned gameObjectDespawned = new GameObjectDespawned();
+		gameObjectDespawned.setTile(tiles[0][20][20]);
+		gameObjectDespawned.setGameObject(spawned);
+		sceneIndex.onGameObjectDespawned(gameObjectDespawned);
+		assertEquals(1, sceneIndex.query(new GameObjectQuery().idEquals(1)).length);
+	}
+
+	@Test
+	public void testSceneLoad()
+	{
+		addGameObject(1, 10, 10);
+		assertEquals(1, sceneIndex.query(new GameObjectQuery()).length);
+
+		GameStateChanged gameStateChanged = new GameStateChanged();
+		gameStateChanged.setGameState(GameState.LOADING);
+		sceneIndex.onGameStateChanged(gameStateChanged);
+
+		// the new scene is indexed on first use
+		addGameObject(2, 30, 30);
+		assertEquals(2, sceneIndex.query(new GameObjectQuery()).length);
+	}
+
+	@Test
+	@Ignore
+	public void benchmark()
+	{
+		for (int x = 0; x < REGION_SIZE; ++x)
+		{
+			for (int y = 0; y < REGION_SIZE; ++y)
+			{
+				addGameObject((x * REGION_SIZE + y) % 500, x, y);
+			}
+		}
+
+		final LocalPoint center = LocalPoint.fromRegion(52, 52);
+		final int iterations = 1000;
+
+		for (int pass = 0; pass < 2; ++pass)
+		{
+			long start = System.nanoTime();
+			for (int i = 0; i < iterations; ++i)
+			{
+				new GameObjectQuery().idEquals(42).result(client);
+				new GameObjectQuery().isWithinDistance(center, 5 * 128).result(client);
+			}
+			long scan = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < iterations; ++i)
+			{
+				sceneIndex.query(new GameObjectQuery().idEquals(42));
+				sceneIndex.query(new GameObjectQuery().isWithinDistance(center, 5 * 128));
+			}
+			long indexed = System.nanoTime() - start;
+
+			logger.info("pass {}: full scan {} us/query, index {} us/query", pass,
+				scan / 1000 / (iterations * 2), indexed / 1000 / (iterations * 2));
+		}
+	}
+
+	private GameObject addGameObject(int id, int x, int y)
+	{
+		GameObject gameObject = mock(GameObject.class);
+		when(gameObject.getId()).thenReturn(id);
+		when(gameObject.getHash()).thenReturn((long) id << 17 | 2 << 14);
+		when(gameObject.getLocalLocation()).thenReturn(LocalPoint.fromRegion(x, y));
+
+		Tile tile = tiles[0][x][y];
+		if (tile == null)
+		{
+			tile = mock(Tile.class);
+			when(tile.getPlane()).thenReturn(0);
+			when(tile.getRegionLocation()).thenReturn(new Point(x, y));
+			tiles[0][x][y] = tile;
+		}
+		when(tile.getGameObjects()).thenReturn(new GameObject[]{gameObject});
+		return gameObject;
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import java.util.Random;
+import net.runelite.api.CollisionData;
+import net.runelite.api.CollisionDataFlag;
+import static net.runelite.api.Constants.REGION_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScenePathfinderTest
+{
+	private int[][] flags;
+	private CollisionData collisionData;
+	private ScenePathfinder pathfinder;
+
+	@Before
+	public void before()
+	{
+		flags = new int[REGION_SIZE][REGION_SIZE];
+		collisionData = () -> flags;
+		pathfinder = new ScenePathfinder();
+	}
+
+	@Test
+	public void testOpenDistances()
+	{
+		pathfinder.computeDistances(collisionData, 50, 50);
+
+		assertEquals(0, pathfinder.getDistance(50, 50));
+		assertEquals(10, pathfinder.getDistance(60, 55));
+		assertEquals(50, pathfinder.getDistance(0, 0));
+		assertEquals(-1, pathfinder.getDistance(-1, 0));
+	}
+
+	@Test
+	public void testWall()
+	{
+		// A wall along x = 52 with a single gap at y = 90
+		for (int y = 0; y < REGION_SIZE; ++y)
+		{
+			if (y != 90)
+			{
+				flags[52][y] = CollisionDataFlag.BLOCK_MOVEMENT_OBJECT;
+			}
+		}
+
+		pathfinder.computeDistances(collisionData, 50, 50);
+
+		assertEquals(-1, pathfinder.getDistance(52, 50));
+		// 40 steps to (51, 90), two straight steps through the gap as the
+		// wall blocks cutting its corners, then 40 steps back down
+		assertEquals(82, pathfinder.getDistance(55, 50));
+
+		flags[52][90] = CollisionDataFlag.BLOCK_MOVEMENT_FLOOR;
+		pathfinder.computeDistances(collisionData, 50, 50);
+		assertEquals(-1, pathfinder.getDistance(55, 50));
+	}
+
+	@Test
+	public void testCornerCutting()
+	{
+		flags[51][50] = CollisionDataFlag.BLOCK_MOVEMENT_OBJECT;
+
+		assertFalse(ScenePathfinder.canTravelInDirection(collisionData, 50, 50, 1, 1, 1));
+		assertTrue(ScenePathfinder.canTravelInDirection(collisionData, 50, 50, 1, 0, 1));
+
+		pathfinder.computeDistances(collisionData, 50, 50);
+		assertEquals(2, pathfinder.getDistance(51, 51));
+	}
+
+	@Test
+	public void testWallFlags()
+	{
+		// A wall on the east side of (50, 50)
+		flags[50][50] = CollisionDataFlag.BLOCK_MOVEMENT_EAST;
+		flags[51][50] = CollisionDataFlag.BLOCK_MOVEMENT_WEST;
+
+		assertFalse(ScenePathfinder.canTravelInDirection(collisionData, 50, 50, 1, 1, 0));
+		assertFalse(ScenePathfinder.canTravelInDirection(collisionData, 51, 50, 1, -1, 0));
+		assertTrue(ScenePathfinder.canTravelInDirection(collisionData, 50, 50, 1, 0, 1));
+	}
+
+	@Test
+	public void testPathMatchesDistances()
+	{
+		Random random = new Random(1);
+		for (int x = 0; x < REGION_SIZE; ++x)
+		{
+			for (int y = 0; y < REGION_SIZE; ++y)
+			{
+				if (random.nextInt(4) == 0)
+				{
+					flags[x][y] = CollisionDataFlag.BLOCK_MOVEMENT_OBJECT;
+				}
+			}
+		}
+		flags[50][50] = 0;
+
+		pathfinder.computeDistances(collisionData, 50, 50);
+
+		int[] path = new int[REGION_SIZE * REGION_SIZE];
+		ScenePathfinder astar = new ScenePathfinder();
+		for (int i = 0; i < 500; ++i)
+		{
+			int x = random.nextInt(REGION_SIZE);
+			int y = random.nextInt(REGION_SIZE);
+
+			int length = astar.findPath(collisionData, 50, 50, x, y, 1, path);
+			assertEquals(pathfinder.getDistance(x, y), length);
+
+			// Every step of the path must be a legal move
+			int px = 50;
+			int py = 50;
+			for (int step = 0; step < length; ++step)
+			{
+				int nx = ScenePathfinder.getX(path[step]);
+				int ny = ScenePathfinder.getY(path[step]);
+				assertTrue(Math.abs(nx - px) <= 1 && Math.abs(ny - py) <= 1);
+				assertTrue(ScenePathfinder.canTravelInDirection(collisionData, px, py, 1, nx - px, ny - py));
+				px = nx;
+				py = ny;
+			}
+		}
+	}
+
+	@Test
+	public void testLargeEntity()
+	{
+		// A one tile wide gap in a wall along y = 52
+		for (int x = 0; x < REGION_SIZE; ++x)
+		{
+			if (x != 50)
+			{
+				flags[x][52] = CollisionDataFlag.BLOCK_MOVEMENT_OBJECT;
+			}
+		}
+
+		int[] path = new int[REGION_SIZE * REGION_SIZE];
+		assertEquals(4, pathfinder.findPath(collisionData, 50, 50, 50, 54, 1, path));
+		assertEquals(-1, pathfinder.findPath(collisionData, 50, 50, 50, 54, 2, path));
+	}
+
+	@Test
+	public void testLineOfSight()
+	{
+		assertTrue(ScenePathfinder.hasLineOfSight(collisionData, 50, 50, 60, 55));
+
+		flags[55][52] = CollisionDataFlag.BLOCK_LINE_OF_SIGHT_FULL;
+		assertFalse(ScenePathfinder.hasLineOfSight(collisionData, 50, 50, 60, 55));
+		assertTrue(ScenePathfinder.hasLineOfSight(collisionData, 50, 50, 60, 50));
+	}
+}
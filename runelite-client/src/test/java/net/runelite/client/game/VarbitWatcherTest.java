@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import com.google.common.eventbus.EventBus;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.testing.fieldbinder.Bind;
+import com.google.inject.testing.fieldbinder.BoundFieldModule;
+import java.util.ArrayList;
+import java.util.List;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.events.VarbitChanged;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class VarbitWatcherTest
+{
+	// varbit id -> varp index, lsb, msb
+	private static final int[][] VARBITS = {
+		{10, 0, 3},
+		{10, 4, 7},
+		{20, 0, 31}
+	};
+
+	@Mock
+	@Bind
+	private Client client;
+
+	@Bind
+	private EventBus eventBus = new EventBus();
+
+	@Inject
+	private VarbitWatcher varbitWatcher;
+
+	private final int[] varps = new int[32];
+
+	@Before
+	public void before()
+	{
+		when(client.isClientThread()).thenReturn(true);
+		when(client.getGameState()).thenReturn(GameState.LOGGED_IN);
+		when(client.getVarps()).thenReturn(varps);
+		when(client.getVarbitVarpIndex(anyInt())).thenAnswer(a -> VARBITS[(int) a.getArguments()[0]][0]);
+		when(client.getVarbitValue(any(int[].class), anyInt())).thenAnswer(a ->
+		{
+			int[] v = (int[]) a.getArguments()[0];
+			int[] varbit = VARBITS[(int) a.getArguments()[1]];
+			int mask = (int) ((1L << (varbit[2] - varbit[1] + 1)) - 1);
+			return (v[varbit[0]] >>> varbit[1]) & mask;
+		});
+
+		Guice.createInjector(BoundFieldModule.of(this)).injectMembers(this);
+	}
+
+	@Test
+	public void testWatch()
+	{
+		List<String> changes = new ArrayList<>();
+		varbitWatcher.watch(this, 0, v -> changes.add("0=" + v));
+		varbitWatcher.watch(this, 1, v -> changes.add("1=" + v));
+		varbitWatcher.watch(this, 2, v -> changes.add("2=" + v));
+		assertEquals(3, varbitWatcher.getWatchCount());
+
+		// only the low bits of varp 10 change
+		varps[10] = 0x5;
+		post(10);
+		assertEquals(1, changes.size());
+		assertEquals("0=5", changes.get(0));
+
+		// a write to varp 10 which doesn't change any bits
+		post(10);
+		assertEquals(1, changes.size());
+
+		// an unwatched varp
+		varps[11] = 1;
+		post(11);
+		assertEquals(1, changes.size());
+
+		varps[10] = 0x35;
+		varps[20] = 42;
+		post(-1);
+		assertEquals(3, changes.size());
+		assertTrue(changes.contains("1=3"));
+		assertTrue(changes.contains("2=42"));
+
+		varbitWatcher.unwatch(this);
+		assertEquals(0, varbitWatcher.getWatchCount());
+
+		varps[20] = 43;
+		post(20);
+		assertEquals(3, changes.size());
+	}
+
+	private void post(int index)
+	{
+		VarbitChanged varbitChanged = new VarbitChanged();
+		varbitChanged.setIndex(index);
+		eventBus.post(varbitChanged);
+	}
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.menus;
+
+import net.runelite.api.Client;
+import net.runelite.api.MenuAction;
+import net.runelite.api.MenuEntry;
+import net.runelite.api.events.MenuEntryAdded;
+import net.runelite.client.util.Text;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MenuTransformerTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(MenuTransformerTest.class);
+
+	private static final int MENU_SIZE = 500;
+
+	@Mock
+	private Client client;
+
+	private final String[] options = new String[MENU_SIZE];
+	private final String[] targets = new String[MENU_SIZE];
+	private final int[] identifiers = new int[MENU_SIZE];
+	private final int[] types = new int[MENU_SIZE];
+	private final int[] params0 = new int[MENU_SIZE];
+	private final int[] params1 = new int[MENU_SIZE];
+	private int count;
+
+	private MenuTransformer menuTransformer;
+
+	@Before
+	public void before()
+	{
+		when(client.getMenuOptions()).thenReturn(options);
+		when(client.getMenuTargets()).thenReturn(targets);
+		when(client.getMenuIdentifiers()).thenReturn(identifiers);
+		when(client.getMenuTypes()).thenReturn(types);
+		when(client.getMenuActionParams0()).thenReturn(params0);
+		when(client.getMenuActionParams1()).thenReturn(params1);
+		when(client.getMenuOptionCount()).thenAnswer(invocation -> count);
+		doAnswer(invocation ->
+		{
+			count = (Integer) invocation.getArguments()[0];
+			return null;
+		}).when(client).setMenuOptionCount(anyInt());
+
+		// copy the menu like the client does
+		when(client.getMenuEntries()).thenAnswer(invocation ->
+		{
+			MenuEntry[] entries = new MenuEntry[count];
+			for (int i = 0; i < count; ++i)
+			{
+				MenuEntry entry = entries[i] = new MenuEntry();
+				entry.setOption(options[i]);
+				entry.setTarget(targets[i]);
+				entry.setIdentifier(identifiers[i]);
+				entry.setType(types[i]);
+				entry.setParam0(params0[i]);
+				entry.setParam1(params1[i]);
+			}
+			return entries;
+		});
+		doAnswer(invocation ->
+		{
+			MenuEntry[] entries = (MenuEntry[]) invocation.getArguments()[0];
+			count = 0;
+			for (MenuEntry entry : entries)
+			{
+				options[count] = entry.getOption();
+				targets[count] = entry.getTarget();
+				identifiers[count] = entry.getIdentifier();
+				types[count] = entry.getType();
+				params0[count] = entry.getParam0();
+				params1[count] = entry.getParam1();
+				++count;
+			}
+			return null;
+		}).when(client).setMenuEntries(any(MenuEntry[].class));
+
+		menuTransformer = new MenuTransformer(() -> client);
+	}
+
+	@Test
+	public void testSwap()
+	{
+		menuTransformer.addRules(MenuRule.swap("talk-to", "bank"));
+
+		add("Walk here", "");
+		add("Bank", "<col=ffff00>Banker");
+		add("Talk-to", "<col=ffff00>Banker");
+
+		assertArrayEquals(new String[]{"Walk here", "Talk-to", "Bank"}, getOptions());
+	}
+
+	@Test
+	public void testTargetRules()
+	{
+		menuTransformer.addRules(MenuRule.swapForTarget("talk-to", "robin", "claim-slime"),
+			MenuRule.swapForTarget("talk-to", target -> target.contains("h.a.m."), "pickpocket"));
+
+		add("Claim-slime", "Robin");
+		add("Talk-to", "Robin");
+		add("Pickpocket", "H.A.M. Member");
+		add("Talk-to", "H.A.M. Member");
+		add("Claim-slime", "Banker");
+		add("Talk-to", "Banker");
+
+		assertArrayEquals(new String[]{"Talk-to", "Claim-slime", "Talk-to", "Pickpocket", "Claim-slime", "Talk-to"},
+			getOptions());
+	}
+
+	@Test
+	public void testRemoveAndInsert()
+	{
+		MenuRule remove = MenuRule.remove("examine", null);
+		MenuRule insert = MenuRule.insert("use", "Tinderbox", "Light");
+		menuTransformer.addRules(remove, insert);
+
+		add("Examine", "Tinderbox");
+		add("Use", "Tinderbox");
+
+		assertArrayEquals(new String[]{"Use", "Light"}, getOptions());
+		assertEquals(MenuAction.RUNELITE.getId(), types[1]);
+
+		menuTransformer.removeRules(remove, insert);
+		count = 0;
+
+		add("Examine", "Tinderbox");
+		add("Use", "Tinderbox");
+
+		assertArrayEquals(new String[]{"Examine", "Use"}, getOptions());
+	}
+
+	@Test
+	@Ignore
+	public void benchmark()
+	{
+		final String[][] menu = new String[20][];
+		for (int i = 0; i < menu.length; ++i)
+		{
+			menu[i] = new String[]{"Option-" + i, "<col=ffff00>Target-" + (i / 4)};
+		}
+
+		final MenuRule[] rules = new MenuRule[10];
+		for (int i = 0; i < rules.length; ++i)
+		{
+			rules[i] = MenuRule.swap("option-" + (i * 2 + 1), "option-" + (i * 2));
+		}
+
+		final int iterations = 100_000;
+
+		for (int pass = 0; pass < 2; ++pass)
+		{
+			// Swapping through copies of the menu entries, as plugins do
+			long start = System.nanoTime();
+			for (int i = 0; i < iterations; ++i)
+			{
+				count = 0;
+				for (String[] entry : menu)
+				{
+					add(entry[0], entry[1]);
+
+					for (MenuRule rule : rules)
+					{
+						if (Text.removeTags(entry[0]).toLowerCase().equals(rule.getOption()))
+						{
+							copySwap(rule.getOtherOption(), rule.getOption(), Text.removeTags(entry[1]).toLowerCase());
+						}
+					}
+				}
+			}
+			long copying = System.nanoTime() - start;
+
+			menuTransformer.addRules(rules);
+			start = System.nanoTime();
+			for (int i = 0; i < iterations; ++i)
+			{
+				count = 0;
+				for (String[] entry : menu)
+				{
+					add(entry[0], entry[1]);
+				}
+			}
+			long compiled = System.nanoTime() - start;
+			menuTransformer.removeRules(rules);
+
+			logger.info("pass {}: copying {} ns/menu, compiled rules {} ns/menu", pass,
+				copying / iterations, compiled / iterations);
+		}
+	}
+
+	private void add(String option, String target)
+	{
+		options[count] = option;
+		targets[count] = target;
+		types[count] = MenuAction.EXAMINE_OBJECT.getId();
+		++count;
+		menuTransformer.onMenuEntryAdded(new MenuEntryAdded(option, target, types[count - 1], 0, 0, 0));
+	}
+
+	private String[] getOptions()
+	{
+		String[] result = new String[count];
+		System.arraycopy(options, 0, result, 0, count);
+		return result;
+	}
+
+	private void copySwap(String optionA, String optionB, String target)
+	{
+		MenuEntry[] entries = client.getMenuEntries();
+		int idxA = search(client.getMenuEntries(), optionA, target);
+		int idxB = search(client.getMenuEntries(), optionB, target);
+
+		if (idxA >= 0 && idxB >= 0)
+		{
+			MenuEntry entry = entries[idxA];
+			entries[idxA] = entries[idxB];
+			entries[idxB] = entry;
+			client.setMenuEntries(entries);
+		}
+	}
+
+	private static int search(MenuEntry[] entries, String option, String target)
+	{
+		for (int i = entries.length - 1; i >= 0; i--)
+		{
+			MenuEntry entry = entries[i];
+			if (Text.removeTags(entry.getOption()).toLowerCase().equals(option)
+				&& Text.removeTags(entry.getTarget()).toLowerCase().equals(target))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -24,6 +24,7 @@
  */
 package net.runelite.client.plugins;
 
+import com.google.common.io.Resources;
 import com.google.common.reflect.ClassPath;
 import com.google.common.reflect.ClassPath.ClassInfo;
 import com.google.inject.Guice;
@@ -35,17 +36,22 @@ import com.google.inject.testing.fieldbinder.BoundFieldModule;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 import joptsimple.OptionSet;
 import net.runelite.api.Client;
 import net.runelite.client.RuneLite;
 import net.runelite.client.RuneLiteModule;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -123,6 +129,22 @@ public class PluginManagerTest
 		assertEquals(expected, plugins.size());
 	}
 
+	@Test
+	public void testPluginIndex() throws Exception
+	{
+		// The index written by the annotation processor has every plugin the classpath scan finds
+		URL index = getClass().getClassLoader().getResource("META-INF/runelite/plugins.index");
+		assertNotNull(index);
+
+		Set<String> indexed = Resources.readLines(index, StandardCharsets.UTF_8).stream()
+			.map(String::trim)
+			.collect(Collectors.toSet());
+		Set<String> expected = pluginClasses.stream()
+			.map(Class::getName)
+			.collect(Collectors.toSet());
+		assertTrue(indexed.containsAll(expected));
+	}
+
 	@Test
 	public void dumpGraph() throws Exception
 	{
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.plugins.grounditems;
+
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.testing.fieldbinder.Bind;
+import com.google.inject.testing.fieldbinder.BoundFieldModule;
+import java.util.Map;
+import static net.runelite.api.Constants.MAX_Z;
+import static net.runelite.api.Constants.REGION_SIZE;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Item;
+import net.runelite.api.ItemComposition;
+import net.runelite.api.ItemID;
+import net.runelite.api.ItemLayer;
+import net.runelite.api.Region;
+import net.runelite.api.Tile;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.ItemLayerChanged;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.input.KeyManager;
+import net.runelite.client.input.MouseManager;
+import net.runelite.client.ui.overlay.OverlayManager;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.mockito.Matchers.anyInt;
+import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GroundItemsPluginTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(GroundItemsPluginTest.class);
+
+	@Mock
+	@Bind
+	private Client client;
+
+	@Mock
+	@Bind
+	private ItemManager itemManager;
+
+	@Mock
+	@Bind
+	private GroundItemsConfig config;
+
+	@Mock
+	@Bind
+	private GroundItemsOverlay overlay;
+
+	@Mock
+	@Bind
+	private GroundItemInputListener inputListener;
+
+	@Mock
+	@Bind
+	private OverlayManager overlayManager;
+
+	@Mock
+	@Bind
+	private MouseManager mouseManager;
+
+	@Mock
+	@Bind
+	private KeyManager keyManager;
+
+	@Mock
+	private Region region;
+
+	@Mock
+	private ItemComposition itemComposition;
+
+	@Inject
+	private GroundItemsPlugin groundItemsPlugin;
+
+	private Tile[][][] tiles;
+
+	@Before
+	public void before()
+	{
+		Guice.createInjector(BoundFieldModule.of(this)).injectMembers(this);
+
+		tiles = new Tile[MAX_Z][REGION_SIZE][REGION_SIZE];
+
+		when(client.getGameState()).thenReturn(GameState.LOGGED_IN);
+		when(client.getRegion()).thenReturn(region);
+		when(region.getTiles()).thenReturn(tiles);
+
+		when(itemComposition.getNote()).thenReturn(-1);
+		when(itemComposition.getName()).thenReturn("Item");
+		when(itemComposition.getPrice()).thenReturn(100);
+		when(itemManager.getItemComposition(anyInt())).thenReturn(itemComposition);
+
+		when(config.getHiddenItems()).thenReturn("");
+		when(config.getHighlightItems()).thenReturn("");
+		groundItemsPlugin.startUp();
+	}
+
+	@Test
+	public void testItemLayerChanged()
+	{
+		Tile tile = addTile(10, 10, item(ItemID.COINS_995, 100, item(ItemID.ABYSSAL_WHIP, 1, item(ItemID.ABYSSAL_WHIP, 1, null))));
+		addTile(20, 20, item(ItemID.ABYSSAL_WHIP, 1, null));
+		loadScene();
+
+		Map<GroundItem.GroundItemKey, GroundItem> items = groundItemsPlugin.getCollectedGroundItems();
+		assertEquals(3, items.size());
+
+		GroundItem whips = items.get(new GroundItem.GroundItemKey(ItemID.ABYSSAL_WHIP, tile.getWorldLocation()));
+		assertEquals(2, whips.getQuantity());
+		assertEquals(120, whips.getHaPrice());
+
+		GroundItem coins = items.get(new GroundItem.GroundItemKey(ItemID.COINS_995, tile.getWorldLocation()));
+		assertEquals(100, coins.getGePrice());
+
+		// pick up the coins
+		ItemLayer itemLayer = tile.getItemLayer();
+		Item whip = item(ItemID.ABYSSAL_WHIP, 1, null);
+		when(itemLayer.getBottom()).thenReturn(whip);
+		groundItemsPlugin.onItemLayerChanged(new ItemLayerChanged(tile));
+
+		assertEquals(2, items.size());
+		assertEquals(1, items.get(new GroundItem.GroundItemKey(ItemID.ABYSSAL_WHIP, tile.getWorldLocation())).getQuantity());
+
+		// pick up the whip
+		when(tile.getItemLayer()).thenReturn(null);
+		groundItemsPlugin.onItemLayerChanged(new ItemLayerChanged(tile));
+
+		assertEquals(1, items.size());
+
+		// compositions are only looked up once per item id
+		verify(itemManager, times(1)).getItemComposition(ItemID.ABYSSAL_WHIP);
+	}
+
+	@Test
+	public void testPlaneChanged()
+	{
+		addTile(10, 10, item(ItemID.ABYSSAL_WHIP, 1, null));
+		Tile upstairs = addTile(1, 10, 10, item(ItemID.COINS_995, 100, null));
+		loadScene();
+
+		Map<GroundItem.GroundItemKey, GroundItem> items = groundItemsPlugin.getCollectedGroundItems();
+		assertEquals(1, items.size());
+
+		// items dropped on other planes are collected when the player gets there
+		groundItemsPlugin.onItemLayerChanged(new ItemLayerChanged(upstairs));
+		assertEquals(1, items.size());
+
+		when(client.getPlane()).thenReturn(1);
+		groundItemsPlugin.checkItems();
+
+		assertEquals(1, items.size());
+		assertEquals(100, items.get(new GroundItem.GroundItemKey(ItemID.COINS_995, upstairs.getWorldLocation())).getQuantity());
+	}
+
+	@Test
+	@Ignore
+	public void benchmark()
+	{
+		// a busy spot, with a large pile on every tile near the player
+		final int size = 20;
+		for (int x = 0; x < size; ++x)
+		{
+			for (int y = 0; y < size; ++y)
+			{
+				Item pile = null;
+				for (int i = 0; i < 10; ++i)
+				{
+					pile = item(i, 1, pile);
+				}
+				addTile(x, y, pile);
+			}
+		}
+		loadScene();
+
+		final int changes = 10000;
+
+		long start = System.nanoTime();
+		for (int i = 0; i < changes; ++i)
+		{
+			Tile tile = tiles[0][i % size][i / size % size];
+			groundItemsPlugin.onItemLayerChanged(new ItemLayerChanged(tile));
+		}
+		long incremental = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < changes / 100; ++i)
+		{
+			loadScene();
+		}
+		long rescan = (System.nanoTime() - start) * 100;
+
+		logger.info("{} item layer changes: incremental {} ms, full rescan {} ms", changes,
+			incremental / 1_000_000, rescan / 1_000_000);
+	}
+
+	private void loadScene()
+	{
+		GameStateChanged gameStateChanged = new GameStateChanged();
+		gameStateChanged.setGameState(GameState.LOGGED_IN);
+		groundItemsPlugin.onGameStateChanged(gameStateChanged);
+		groundItemsPlugin.checkItems();
+	}
+
+	private Tile addTile(int x, int y, Item bottom)
+	{
+		return addTile(0, x, y, bottom);
+	}
+
+	private Tile addTile(int z, int x, int y, Item bottom)
+	{
+		ItemLayer itemLayer = mock(ItemLayer.class);
+		when(itemLayer.getBottom()).thenReturn(bottom);
+
+		Tile tile = mock(Tile.class);
+		when(tile.getPlane()).thenReturn(z);
+		when(tile.getWorldLocation()).thenReturn(new WorldPoint(3200 + x, 3200 + y, z));
+		when(tile.getItemLayer()).thenReturn(itemLayer);
+		tiles[z][x][y] = tile;
+		return tile;
+	}
+
+	private static Item item(int id, int quantity, Item next)
+	{
+		Item item = mock(Item.class);
+		when(item.getId()).thenReturn(id);
+		when(item.getQuantity()).thenReturn(quantity);
+		when(item.getNext()).thenReturn(next);
+		return item;
+	}
+}
@@ -25,16 +25,27 @@
  */
 package net.runelite.client.plugins.puzzlesolver;
 
+import java.util.List;
+import java.util.Random;
 import net.runelite.client.plugins.puzzlesolver.solver.PuzzleSolver;
 import net.runelite.client.plugins.puzzlesolver.solver.PuzzleState;
 import net.runelite.client.plugins.puzzlesolver.solver.heuristics.ManhattanDistance;
+import net.runelite.client.plugins.puzzlesolver.solver.heuristics.PatternDatabase;
 import net.runelite.client.plugins.puzzlesolver.solver.pathfinding.IDAStar;
-import org.junit.Test;
+import net.runelite.client.plugins.puzzlesolver.solver.pathfinding.InPlaceIDAStar;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class PuzzleSolverTest
 {
+	private static final Logger logger = LoggerFactory.getLogger(PuzzleSolverTest.class);
+
 	private static final PuzzleState[] START_STATES =
 	{
 		new PuzzleState(new int[]{0, 11, 1, 3, 4, 5, 12, 2, 7, 9, 6, 20, 18, 16, 8, 15, 22, 10, 14, 13, 21, -1, 17, 23, 19}),
@@ -85,6 +96,14 @@ public class PuzzleSolverTest
 
 	private static final int[] FINISHED_STATE = new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, -1};
 
+	private static PatternDatabase patternDatabase;
+
+	@BeforeClass
+	public static void beforeClass()
+	{
+		patternDatabase = PatternDatabase.generate();
+	}
+
 	@Test
 	public void testSolver()
 	{
@@ -98,4 +117,105 @@ public class PuzzleSolverTest
 			assertTrue(solver.getStep(solver.getStepCount() - 1).hasPieces(FINISHED_STATE));
 		}
 	}
+
+	@Test
+	public void testInPlaceSolver()
+	{
+		for (PuzzleState state : START_STATES)
+		{
+			PuzzleSolver reference = new PuzzleSolver(new IDAStar(new ManhattanDistance()), state);
+			reference.run();
+
+			for (boolean parallel : new boolean[]{false, true})
+			{
+				PuzzleSolver solver = new PuzzleSolver(new InPlaceIDAStar(patternDatabase, parallel), state);
+				solver.run();
+
+				assertTrue(solver.hasSolution());
+				assertFalse(solver.hasFailed());
+				assertTrue(solver.getStep(solver.getStepCount() - 1).hasPieces(FINISHED_STATE));
+
+				// Both searches are optimal
+				assertEquals(reference.getStepCount(), solver.getStepCount());
+			}
+		}
+	}
+
+	@Test
+	@Ignore
+	public void benchmark()
+	{
+		// Warm up
+		for (PuzzleState state : START_STATES)
+		{
+			new InPlaceIDAStar(patternDatabase, false).computePath(state);
+		}
+
+		long start = System.nanoTime();
+		for (PuzzleState state : START_STATES)
+		{
+			new IDAStar(new ManhattanDistance()).computePath(state);
+		}
+		logger.info("IDAStar with manhattan distance: {} states in {}ms", START_STATES.length, (System.nanoTime() - start) / 1_000_000);
+
+		benchmark("start states", START_STATES);
+
+		Random random = new Random(42);
+		for (int moves : new int[]{40, 60, 80})
+		{
+			PuzzleState[] states = new PuzzleState[10];
+			for (int i = 0; i < states.length; i++)
+			{
+				states[i] = scramble(random, moves);
+			}
+
+			benchmark(moves + " move scrambles", states);
+		}
+	}
+
+	private static void benchmark(String name, PuzzleState[] states)
+	{
+		for (boolean parallel : new boolean[]{false, true})
+		{
+			InPlaceIDAStar pathfinder = new InPlaceIDAStar(patternDatabase, parallel);
+			long nodes = 0;
+			long moves = 0;
+			long start = System.nanoTime();
+
+			for (PuzzleState state : states)
+			{
+				moves += pathfinder.computePath(state).size() - 1;
+				nodes += pathfinder.getNodes();
+			}
+
+			long elapsed = System.nanoTime() - start;
+			logger.info("{} {}: {}ms, {} moves on average, {} nodes, {} nodes/sec",
+				name, parallel ? "parallel" : "sequential", elapsed / 1_000_000, moves / states.length,
+				nodes, (long) (nodes / (elapsed / 1e9)));
+		}
+	}
+
+	private static PuzzleState scramble(Random random, int moves)
+	{
+		PuzzleState state = new PuzzleState(FINISHED_STATE.clone());
+
+		for (int i = 0; i < moves; i++)
+		{
+			// computeMoves never undoes the previous move
+			List<PuzzleState> next = state.computeMoves();
+			state = next.get(random.nextInt(next.size()));
+		}
+
+		return new PuzzleState(toPieces(state));
+	}
+
+	private static int[] toPieces(PuzzleState state)
+	{
+		int[] pieces = new int[FINISHED_STATE.length];
+		for (int i = 0; i < pieces.length; i++)
+		{
+			pieces[i] = state.getPiece(i % PuzzleSolver.DIMENSION, i / PuzzleSolver.DIMENSION);
+		}
+		return pieces;
+	}
 }
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.profiling;
+
+import com.google.common.eventbus.DeadEvent;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ProfilerTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(ProfilerTest.class);
+
+	public static class TestSubscriber
+	{
+		private int events;
+
+		@Subscribe
+		public void onEvent(String event)
+		{
+			++events;
+		}
+	}
+
+	public static class PostingSubscriber
+	{
+		private final EventBus eventBus;
+
+		private PostingSubscriber(EventBus eventBus)
+		{
+			this.eventBus = eventBus;
+		}
+
+		@Subscribe
+		public void onEvent(Integer event)
+		{
+			eventBus.post("event");
+		}
+	}
+
+	@Test
+	public void testHistogram()
+	{
+		final TimingHistogram histogram = new TimingHistogram(Profiler.Category.EVENT, "test");
+
+		for (int i = 1; i <= 1000; ++i)
+		{
+			histogram.record(i * 1000L);
+		}
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1_000_000, histogram.getMax());
+		assertEquals(500_500, histogram.getMean());
+
+		// Buckets are within 1/16 of their values
+		final long p50 = histogram.getPercentile(50);
+		assertTrue(p50 >= 500_000 && p50 <= 500_000 + 500_000 / 16);
+		final long p99 = histogram.getPercentile(99);
+		assertTrue(p99 >= 990_000 && p99 <= 1_000_000);
+		assertEquals(1_000_000, histogram.getPercentile(100));
+	}
+
+	@Test
+	public void testBuckets()
+	{
+		for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789, Long.MAX_VALUE})
+		{
+			final int bucket = TimingHistogram.bucketOf(value);
+			assertTrue(TimingHistogram.lowerBoundOf(bucket) <= value);
+			assertTrue(TimingHistogram.upperBoundOf(bucket) >= value);
+		}
+	}
+
+	@Test
+	public void testSubscriberProfiling()
+	{
+		final Profiler profiler = new Profiler();
+		final EventBus eventBus = new ProfiledEventBus(profiler);
+		final TestSubscriber subscriber = new TestSubscriber();
+		eventBus.register(subscriber);
+
+		// Nothing is recorded while disabled
+		eventBus.post("event");
+		assertTrue(profiler.getHistograms().isEmpty());
+
+		profiler.setEnabled(true);
+		eventBus.post("event");
+		eventBus.post("event");
+
+		final List<TimingHistogram> histograms = profiler.getHistograms();
+		assertEquals(1, histograms.size());
+		assertEquals("ProfilerTest$TestSubscriber.onEvent", histograms.get(0).getName());
+		assertEquals(2, histograms.get(0).getCount());
+		assertEquals(3, subscriber.events);
+
+		// Events posted by subscribers are timed separately
+		eventBus.register(new PostingSubscriber(eventBus));
+		eventBus.post(1);
+
+		assertEquals(2, profiler.getHistograms().size());
+		assertEquals(3, histograms.get(0).getCount());
+		assertEquals(4, subscriber.events);
+
+		eventBus.unregister(subscriber);
+		eventBus.post("event");
+		assertEquals(4, subscriber.events);
+	}
+
+	@Test
+	public void testDispatchOrder()
+	{
+		final EventBus eventBus = new ProfiledEventBus(new Profiler());
+		final List<Object> events = new ArrayList<>();
+		eventBus.register(new Object()
+		{
+			@Subscribe
+			public void onInteger(Integer event)
+			{
+				events.add(event);
+				eventBus.post("nested");
+			}
+
+			@Subscribe
+			public void onNumber(Number event)
+			{
+				events.add(event);
+			}
+
+			@Subscribe
+			public void onString(String event)
+			{
+				events.add(event);
+			}
+
+			@Subscribe
+			public void onDeadEvent(DeadEvent event)
+			{
+				events.add(event.getEvent());
+			}
+		});
+
+		eventBus.post(1);
+		eventBus.post(1L);
+		eventBus.post('c');
+
+		// Nested events are dispatched once the outer event has reached every subscriber
+		assertEquals(Arrays.asList(1, 1, "nested", 1L, 'c'), events);
+	}
+
+	@Test
+	@Ignore
+	public void benchmark()
+	{
+		final Profiler profiler = new Profiler();
+		final EventBus plain = new EventBus();
+		final EventBus profiled = new ProfiledEventBus(profiler);
+		plain.register(new TestSubscriber());
+		profiled.register(new TestSubscriber());
+
+		final int iterations = 1_000_000;
+
+		for (int pass = 0; pass < 3; ++pass)
+		{
+			long start = System.nanoTime();
+			for (int i = 0; i < iterations; ++i)
+			{
+				plain.post("event");
+			}
+			long plainTime = System.nanoTime() - start;
+
+			profiler.setEnabled(false);
+			start = System.nanoTime();
+			for (int i = 0; i < iterations; ++i)
+			{
+				profiled.post("event");
+			}
+			long disabledTime = System.nanoTime() - start;
+
+			profiler.setEnabled(true);
+			start = System.nanoTime();
+			for (int i = 0; i < iterations; ++i)
+			{
+				profiled.post("event");
+			}
+			long enabledTime = System.nanoTime() - start;
+
+			logger.info("pass {}: plain {} ns/event, disabled {} ns/event, enabled {} ns/event, calibrated {} ns/sample", pass,
+				plainTime / iterations, disabledTime / iterations, enabledTime / iterations, profiler.getSampleOverhead());
+		}
+	}
+}
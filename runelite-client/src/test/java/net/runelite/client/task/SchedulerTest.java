@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.task;
+
+import java.lang.reflect.Method;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import net.runelite.client.profiling.Profiler;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SchedulerTest
+{
+	private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private Scheduler scheduler;
+
+	@Before
+	public void before()
+	{
+		scheduler = new Scheduler();
+		scheduler.profiler = new Profiler();
+	}
+
+	@Test
+	public void testPeriod() throws Exception
+	{
+		TestTask task = new TestTask();
+		ScheduledMethod method = add(task, "fast");
+		long start = System.nanoTime();
+
+		scheduler.tick(start + 50 * MS);
+		assertEquals(0, task.fast);
+
+		scheduler.tick(start + 100 * MS);
+		assertEquals(1, task.fast);
+
+		scheduler.tick(start + 150 * MS);
+		assertEquals(1, task.fast);
+
+		scheduler.tick(start + 205 * MS);
+		assertEquals(2, task.fast);
+		assertEquals(2, method.getRuns());
+		assertTrue(method.getMaxLateness() >= 0);
+	}
+
+	@Test
+	public void testStall() throws Exception
+	{
+		TestTask task = new TestTask();
+		ScheduledMethod method = add(task, "fast");
+		long start = System.nanoTime();
+
+		// A stall longer than a rotation of the wheel runs the task once rather than catching up
+		scheduler.tick(start + 10_000 * MS);
+		assertEquals(1, task.fast);
+		assertTrue(method.getMaxLateness() >= 9_900 * MS);
+
+		scheduler.tick(start + 10_050 * MS);
+		assertEquals(1, task.fast);
+
+		scheduler.tick(start + 10_100 * MS);
+		assertEquals(2, task.fast);
+	}
+
+	@Test
+	public void testLongPeriod() throws Exception
+	{
+		TestTask task = new TestTask();
+		add(task, "slow");
+		long start = System.nanoTime();
+
+		// The period is longer than a rotation, so the slot is passed over once before it is due
+		for (long t = 0; t < 5_000; t += 10)
+		{
+			scheduler.tick(start + t * MS);
+		}
+		assertEquals(0, task.slow);
+
+		scheduler.tick(start + 5_000 * MS);
+		assertEquals(1, task.slow);
+	}
+
+	@Test
+	public void testRemove() throws Exception
+	{
+		TestTask task = new TestTask();
+		ScheduledMethod method = add(task, "fast");
+		long start = System.nanoTime();
+
+		scheduler.tick(start + 100 * MS);
+		assertEquals(1, task.fast);
+
+		scheduler.removeScheduledMethod(method);
+		assertTrue(scheduler.getScheduledMethods().isEmpty());
+
+		scheduler.tick(start + 200 * MS);
+		assertEquals(1, task.fast);
+	}
+
+	private ScheduledMethod add(Object object, String name) throws Exception
+	{
+		Method method = object.getClass().getDeclaredMethod(name);
+		ScheduledMethod scheduledMethod = new ScheduledMethod(method.getAnnotation(Schedule.class), method, object);
+		scheduler.addScheduledMethod(scheduledMethod);
+		return scheduledMethod;
+	}
+
+	public static class TestTask
+	{
+		private int fast;
+		private int slow;
+
+		@Schedule(period = 100, unit = ChronoUnit.MILLIS)
+		public void fast()
+		{
+			++fast;
+		}
+
+		@Schedule(period = 5, unit = ChronoUnit.SECONDS)
+		public void slow()
+		{
+			++slow;
+		}
+	}
+}
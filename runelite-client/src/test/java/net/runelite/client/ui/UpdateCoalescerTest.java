@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.ui;
+
+import java.awt.event.HierarchyEvent;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JPanel;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UpdateCoalescerTest
+{
+	private final List<Runnable> edtQueue = new ArrayList<>();
+	private int posted;
+
+	private UpdateCoalescer updateCoalescer;
+
+	@Before
+	public void before()
+	{
+		updateCoalescer = new UpdateCoalescer(runnable ->
+		{
+			++posted;
+			edtQueue.add(runnable);
+		});
+	}
+
+	@Test
+	public void testRunnablesPerTick()
+	{
+		final int components = 23;
+		final int ticks = 10;
+		final TestPanel[] panels = new TestPanel[components];
+		final int[] values = new int[components];
+
+		for (int i = 0; i < components; ++i)
+		{
+			panels[i] = new TestPanel(true);
+		}
+
+		for (int tick = 0; tick < ticks; ++tick)
+		{
+			// Each component is updated more than once before the event dispatch thread gets to run
+			for (int update = 0; update < 3; ++update)
+			{
+				for (int i = 0; i < components; ++i)
+				{
+					final int index = i;
+					final int value = tick * 3 + update;
+					updateCoalescer.update(panels[i], () ->
+					{
+						values[index] = value;
+						++panels[index].runs;
+					});
+				}
+			}
+
+			runEdt();
+		}
+
+		assertEquals(ticks, posted);
+
+		for (int i = 0; i < components; ++i)
+		{
+			assertEquals(ticks, panels[i].runs);
+			assertEquals(ticks * 3 - 1, values[i]);
+		}
+	}
+
+	@Test
+	public void testHidden()
+	{
+		final TestPanel panel = new TestPanel(false);
+		final int[] value = new int[1];
+
+		updateCoalescer.update(panel, () -> value[0] = 1);
+		updateCoalescer.update(panel, () -> value[0] = 2);
+		runEdt();
+		assertEquals(0, value[0]);
+
+		updateCoalescer.update(panel, () -> value[0] = 3);
+		runEdt();
+		assertEquals(0, value[0]);
+
+		panel.showing = true;
+		panel.dispatchEvent(new HierarchyEvent(panel, HierarchyEvent.HIERARCHY_CHANGED, panel, null, HierarchyEvent.SHOWING_CHANGED));
+		assertEquals(3, value[0]);
+	}
+
+	@Test
+	public void testCancel()
+	{
+		final TestPanel panel = new TestPanel(true);
+		final int[] value = new int[1];
+
+		updateCoalescer.update(panel, () -> value[0] = 1);
+		updateCoalescer.cancel(panel);
+		runEdt();
+		assertEquals(0, value[0]);
+	}
+
+	private void runEdt()
+	{
+		while (!edtQueue.isEmpty())
+		{
+			edtQueue.remove(0).run();
+		}
+	}
+
+	private static class TestPanel extends JPanel
+	{
+		private boolean showing;
+		private int runs;
+
+		TestPanel(boolean showing)
+		{
+			this.showing = showing;
+		}
+
+		@Override
+		public boolean isShowing()
+		{
+			return showing;
+		}
+	}
+}
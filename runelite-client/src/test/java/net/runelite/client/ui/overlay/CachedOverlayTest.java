@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.ui.overlay;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.PanelComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class CachedOverlayTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(CachedOverlayTest.class);
+
+	private static class TestOverlay extends CachedOverlay
+	{
+		private final PanelComponent panelComponent = new PanelComponent();
+		private int lines = 5;
+		private int version;
+		private int renders;
+
+		@Override
+		protected Object getContentKey()
+		{
+			panelComponent.getChildren().clear();
+			panelComponent.getChildren().add(TitleComponent.builder()
+				.text("Test overlay")
+				.color(Color.GREEN)
+				.build());
+
+			for (int i = 0; i < lines; ++i)
+			{
+				panelComponent.getChildren().add(LineComponent.builder()
+					.left("Line " + i)
+					.right(Integer.toString(i * 1000 + version))
+					.build());
+			}
+
+			return panelComponent.getContentKey();
+		}
+
+		@Override
+		protected Dimension renderContent(Graphics2D graphics)
+		{
+			++renders;
+			return panelComponent.render(graphics);
+		}
+	}
+
+	private static Graphics2D createGraphics(BufferedImage image)
+	{
+		final Graphics2D graphics = image.createGraphics();
+		OverlayUtil.setGraphicProperties(graphics);
+		return graphics;
+	}
+
+	private static Dimension render(Overlay overlay, Graphics2D graphics)
+	{
+		final Dimension dimension = overlay.render(graphics);
+		overlay.getBounds().setSize(dimension);
+		return dimension;
+	}
+
+	@Test
+	public void testCaching()
+	{
+		final BufferedImage canvas = new BufferedImage(765, 503, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D graphics = createGraphics(canvas);
+		final TestOverlay overlay = new TestOverlay();
+
+		// Rendered until the panel has settled on its size
+		render(overlay, graphics);
+		render(overlay, graphics);
+		final Dimension dimension = render(overlay, graphics);
+		final int renders = overlay.renders;
+
+		for (int i = 0; i < 10; ++i)
+		{
+			assertEquals(dimension, render(overlay, graphics));
+		}
+		assertEquals(renders, overlay.renders);
+
+		// Content changed without changing size, so it is rendered only once
+		++overlay.version;
+		render(overlay, graphics);
+		render(overlay, graphics);
+		assertEquals(renders + 1, overlay.renders);
+
+		overlay.invalidate();
+		render(overlay, graphics);
+		assertEquals(renders + 2, overlay.renders);
+		render(overlay, graphics);
+		assertEquals(renders + 2, overlay.renders);
+
+		graphics.dispose();
+	}
+
+	@Test
+	public void testShrink()
+	{
+		final BufferedImage canvas = new BufferedImage(765, 503, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D graphics = createGraphics(canvas);
+		final TestOverlay overlay = new TestOverlay();
+
+		overlay.lines = 30;
+		for (int i = 0; i < 3; ++i)
+		{
+			render(overlay, graphics);
+		}
+		final int height = overlay.getImage().getHeight();
+
+		overlay.lines = 1;
+		Dimension dimension = null;
+		for (int i = 0; i < 3; ++i)
+		{
+			dimension = render(overlay, graphics);
+		}
+
+		assertTrue(overlay.getImage().getHeight() < height / 2);
+		assertTrue(overlay.getImage().getHeight() >= dimension.height);
+
+		// Cached again at the smaller size
+		final int renders = overlay.renders;
+		render(overlay, graphics);
+		assertEquals(renders, overlay.renders);
+
+		graphics.dispose();
+	}
+
+	@Test
+	@Ignore
+	public void benchmark()
+	{
+		final BufferedImage canvas = new BufferedImage(765, 503, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D graphics = createGraphics(canvas);
+		final TestOverlay cached = new TestOverlay();
+		final PanelComponent direct = cached.panelComponent;
+		cached.getContentKey();
+		final int frames = 10_000;
+
+		for (int pass = 0; pass < 3; ++pass)
+		{
+			long start = System.nanoTime();
+			for (int i = 0; i < frames; ++i)
+			{
+				direct.render(graphics);
+			}
+			long directTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < frames; ++i)
+			{
+				render(cached, graphics);
+			}
+			long cachedTime = System.nanoTime() - start;
+
+			logger.info("pass {}: direct {} ns/frame, cached {} ns/frame", pass,
+				directTime / frames, cachedTime / frames);
+		}
+
+		graphics.dispose();
+	}
+}
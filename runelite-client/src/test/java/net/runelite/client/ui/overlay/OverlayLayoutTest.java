@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.ui.overlay;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class OverlayLayoutTest
+{
+	private static final Dimension CANVAS = new Dimension(765, 503);
+
+	private static class TestOverlay extends Overlay
+	{
+		TestOverlay(OverlayPosition position, int width, int height)
+		{
+			setPosition(position);
+			getBounds().setSize(width, height);
+		}
+
+		@Override
+		public Dimension render(Graphics2D graphics)
+		{
+			return null;
+		}
+	}
+
+	private static OverlayBounds snapCorners()
+	{
+		return new OverlayBounds(
+			new Rectangle(5, 20, 80, 80),
+			new Rectangle(500, 20, 80, 80),
+			new Rectangle(5, 300, 80, 80),
+			new Rectangle(500, 300, 80, 80),
+			new Rectangle(400, 300, 80, 80));
+	}
+
+	@Test
+	public void testLayout()
+	{
+		final Overlay first = new TestOverlay(OverlayPosition.TOP_LEFT, 100, 30);
+		final Overlay second = new TestOverlay(OverlayPosition.TOP_LEFT, 100, 40);
+		final Overlay dynamic = new TestOverlay(OverlayPosition.DYNAMIC, 10, 10);
+		final List<Overlay> overlays = Arrays.asList(dynamic, first, second);
+		final OverlayBounds snapCorners = snapCorners();
+
+		final OverlayLayout layout = new OverlayLayout();
+		assertFalse(layout.isValid(overlays, 0, true, CANVAS));
+		layout.layout(overlays, 0, snapCorners, true, CANVAS, 2);
+
+		assertEquals(0, layout.getX(0));
+		assertEquals(0, layout.getY(0));
+		assertEquals(5, layout.getX(1));
+		assertEquals(20, layout.getY(1));
+		assertEquals(5, layout.getX(2));
+		assertEquals(20 + 30 + 2, layout.getY(2));
+
+		// The passed snap corners are not modified
+		assertEquals(new Rectangle(5, 20, 80, 80), snapCorners.getTopLeft());
+		assertTrue(layout.isValid(overlays, 0, true, CANVAS));
+	}
+
+	@Test
+	public void testInvalidation()
+	{
+		final Overlay first = new TestOverlay(OverlayPosition.TOP_RIGHT, 100, 30);
+		final Overlay second = new TestOverlay(OverlayPosition.TOP_RIGHT, 100, 40);
+		final List<Overlay> overlays = Arrays.asList(first, second);
+
+		final OverlayLayout layout = new OverlayLayout();
+		layout.layout(overlays, 0, snapCorners(), true, CANVAS, 2);
+		assertEquals(400, layout.getX(0));
+
+		// Snap corners rebuilt or resized mode toggled
+		assertFalse(layout.isValid(overlays, 1, true, CANVAS));
+		assertFalse(layout.isValid(overlays, 0, false, CANVAS));
+
+		// Overlay set changed
+		assertFalse(layout.isValid(Arrays.asList(first, second), 0, true, CANVAS));
+
+		// Overlay rendered at a different size
+		first.getBounds().setSize(120, 30);
+		assertFalse(layout.isValid(overlays, 0, true, CANVAS));
+		layout.layout(overlays, 0, snapCorners(), true, CANVAS, 2);
+		assertEquals(380, layout.getX(0));
+		assertTrue(layout.isValid(overlays, 0, true, CANVAS));
+
+		// Overlay being dragged
+		second.setPreferredLocation(new Point(200, 200));
+		assertFalse(layout.isValid(overlays, 0, true, CANVAS));
+		layout.layout(overlays, 0, snapCorners(), true, CANVAS, 2);
+		assertEquals(200, layout.getX(1));
+		assertEquals(200, layout.getY(1));
+	}
+}
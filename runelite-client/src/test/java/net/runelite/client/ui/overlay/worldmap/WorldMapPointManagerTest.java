@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.ui.overlay.worldmap;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import net.runelite.api.coords.WorldPoint;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class WorldMapPointManagerTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(WorldMapPointManagerTest.class);
+
+	private static final BufferedImage IMAGE = new BufferedImage(15, 15, BufferedImage.TYPE_INT_ARGB);
+
+	private WorldMapPointManager worldMapPointManager;
+	private Random random;
+
+	@Before
+	public void before()
+	{
+		worldMapPointManager = new WorldMapPointManager();
+		random = new Random(42);
+	}
+
+	@Test
+	public void testQuery()
+	{
+		for (int i = 0; i < 1000; ++i)
+		{
+			worldMapPointManager.add(randomPoint());
+		}
+
+		for (int i = 0; i < 100; ++i)
+		{
+			int minX = 1000 + random.nextInt(3000);
+			int minY = 2500 + random.nextInt(1500);
+			int maxX = minX + random.nextInt(500);
+			int maxY = minY + random.nextInt(500);
+
+			assertEquals(scan(minX, minY, maxX, maxY), worldMapPointManager.getWorldMapPoints(minX, minY, maxX, maxY));
+		}
+	}
+
+	@Test
+	public void testSnapToEdge()
+	{
+		WorldMapPoint far = new WorldMapPoint(new WorldPoint(1000, 1000, 0), IMAGE);
+		far.setSnapToEdge(true);
+		WorldMapPoint near = new WorldMapPoint(new WorldPoint(3200, 3200, 0), IMAGE);
+		worldMapPointManager.add(far);
+		worldMapPointManager.add(near);
+
+		List<WorldMapPoint> points = worldMapPointManager.getWorldMapPoints(3100, 3100, 3300, 3300);
+		assertEquals(2, points.size());
+		assertTrue(points.get(0) == far);
+		assertTrue(points.get(1) == near);
+
+		far.setSnapToEdge(false);
+		points = worldMapPointManager.getWorldMapPoints(3100, 3100, 3300, 3300);
+		assertEquals(1, points.size());
+		assertTrue(points.get(0) == near);
+	}
+
+	@Test
+	public void testMove()
+	{
+		WorldMapPoint point = new WorldMapPoint(new WorldPoint(1000, 1000, 0), IMAGE);
+		worldMapPointManager.add(point);
+		assertTrue(worldMapPointManager.getWorldMapPoints(3100, 3100, 3300, 3300).isEmpty());
+
+		point.setWorldPoint(new WorldPoint(3200, 3200, 0));
+		assertEquals(1, worldMapPointManager.getWorldMapPoints(3100, 3100, 3300, 3300).size());
+
+		worldMapPointManager.remove(point);
+		assertTrue(worldMapPointManager.getWorldMapPoints(3100, 3100, 3300, 3300).isEmpty());
+
+		// No longer indexed, so moving it again does nothing
+		point.setWorldPoint(new WorldPoint(3201, 3201, 0));
+		assertTrue(worldMapPointManager.getWorldMapPoints(3100, 3100, 3300, 3300).isEmpty());
+	}
+
+	@Test
+	public void testRemoveIf()
+	{
+		WorldMapPoint point = new WorldMapPoint(new WorldPoint(3200, 3200, 0), IMAGE);
+		WorldMapPoint noImage = new WorldMapPoint(new WorldPoint(3200, 3200, 0), null);
+		worldMapPointManager.add(point);
+		worldMapPointManager.add(noImage);
+
+		// Points without an image are never drawn
+		assertEquals(1, worldMapPointManager.getWorldMapPoints(3100, 3100, 3300, 3300).size());
+		assertEquals(15, worldMapPointManager.getMaxImageSize());
+
+		worldMapPointManager.removeIf(p -> p == point);
+		assertTrue(worldMapPointManager.getWorldMapPoints(3100, 3100, 3300, 3300).isEmpty());
+		assertFalse(worldMapPointManager.getWorldMapPoints().isEmpty());
+	}
+
+	@Test
+	@Ignore
+	public void benchmark()
+	{
+		for (int i = 0; i < 5000; ++i)
+		{
+			WorldMapPoint point = randomPoint();
+			point.setSnapToEdge(i % 500 == 0);
+			worldMapPointManager.add(point);
+		}
+
+		// An 800x600 map view at the default zoom of 4 pixels per tile
+		final int frames = 100_000;
+		long found = 0;
+
+		for (int run = 0; run < 3; ++run)
+		{
+			long start = System.nanoTime();
+			for (int i = 0; i < frames; ++i)
+			{
+				int x = 1500 + (i % 2000);
+				found += scan(x, 3000, x + 200, 3150).size();
+			}
+			long scan = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < frames; ++i)
+			{
+				int x = 1500 + (i % 2000);
+				found += worldMapPointManager.getWorldMapPoints(x, 3000, x + 200, 3150).size();
+			}
+			long indexed = System.nanoTime() - start;
+
+			logger.info("5000 points: scan {}ns/frame, index {}ns/frame ({})", scan / frames, indexed / frames, found);
+		}
+	}
+
+	private WorldMapPoint randomPoint()
+	{
+		return new WorldMapPoint(new WorldPoint(1000 + random.nextInt(3000), 2500 + random.nextInt(1500), 0), IMAGE);
+	}
+
+	/**
+	 * What the overlay did before the index, checking every point
+	 */
+	private List<WorldMapPoint> scan(int minX, int minY, int maxX, int maxY)
+	{
+		return worldMapPointManager.getWorldMapPoints().stream()
+			.filter(p -> p.getImage() != null && p.getWorldPoint() != null)
+			.filter(p -> p.isSnapToEdge() || (p.getWorldPoint().getX() >= minX && p.getWorldPoint().getX() <= maxX
+				&& p.getWorldPoint().getY() >= minY && p.getWorldPoint().getY() <= maxY))
+			.collect(Collectors.toList());
+	}
+}
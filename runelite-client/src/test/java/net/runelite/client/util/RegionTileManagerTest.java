@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.util;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import java.util.ArrayList;
+import java.util.List;
+import static net.runelite.api.Constants.MAX_Z;
+import static net.runelite.api.Constants.REGION_SIZE;
+import net.runelite.api.Client;
+import net.runelite.api.GameObject;
+import net.runelite.api.GameState;
+import net.runelite.api.Region;
+import net.runelite.api.Tile;
+import net.runelite.api.WallObject;
+import net.runelite.api.events.GameObjectDespawned;
+import net.runelite.api.events.GameObjectSpawned;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.WallObjectSpawned;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RegionTileManagerTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(RegionTileManagerTest.class);
+
+	@Mock
+	private Client client;
+
+	@Mock
+	private Region region;
+
+	private Tile[][][] tiles;
+
+	private RegionTileManager regionTileManager;
+
+	public static class TestSubscriber
+	{
+		private final List<GameObject> gameObjects = new ArrayList<>();
+		private final List<WallObject> wallObjects = new ArrayList<>();
+
+		@Subscribe
+		public void onGameObjectSpawned(GameObjectSpawned event)
+		{
+			gameObjects.add(event.getGameObject());
+		}
+
+		@Subscribe
+		public void onWallObjectSpawned(WallObjectSpawned event)
+		{
+			wallObjects.add(event.getWallObject());
+		}
+	}
+
+	@Before
+	public void before()
+	{
+		tiles = new Tile[MAX_Z][REGION_SIZE][REGION_SIZE];
+
+		when(client.getGameState()).thenReturn(GameState.LOGGED_IN);
+		when(client.getRegion()).thenReturn(region);
+		when(region.getTiles()).thenReturn(tiles);
+
+		regionTileManager = new RegionTileManager(() -> client);
+	}
+
+	@Test
+	public void testSimulateObjectSpawns()
+	{
+		GameObject gameObject = addGameObject(10, 10, 2);
+		addGameObject(11, 11, 0); // an actor
+		WallObject wallObject = mock(WallObject.class);
+		when(tiles[0][10][10].getWallObject()).thenReturn(wallObject);
+
+		TestSubscriber subscriber = new TestSubscriber();
+		regionTileManager.simulateObjectSpawns(subscriber);
+
+		assertEquals(1, subscriber.gameObjects.size());
+		assertSame(gameObject, subscriber.gameObjects.get(0));
+		assertEquals(1, subscriber.wallObjects.size());
+		assertSame(wallObject, subscriber.wallObjects.get(0));
+	}
+
+	@Test
+	public void testSnapshotUpdates()
+	{
+		GameObject gameObject = addGameObject(10, 10, 2);
+		regionTileManager.simulateObjectSpawns(new TestSubscriber());
+
+		// The snapshot is kept up to date from the object events, not the tiles
+		GameObject spawned = addGameObject(20, 20, 2);
+		GameObjectSpawned gameObjectSpawned = new GameObjectSpawned();
+		gameObjectSpawned.setTile(tiles[0][20][20]);
+		gameObjectSpawned.setGameObject(spawned);
+		regionTileManager.onGameObjectSpawned(gameObjectSpawned);
+
+		GameObjectDespawned gameObjectDespawned = new GameObjectDespawned();
+		gameObjectDespawned.setTile(tiles[0][10][10]);
+		gameObjectDespawned.setGameObject(gameObject);
+		regionTileManager.onGameObjectDespawned(gameObjectDespawned);
+
+		TestSubscriber subscriber = new TestSubscriber();
+		regionTileManager.simulateObjectSpawns(subscriber);
+		assertEquals(1, subscriber.gameObjects.size());
+		assertSame(spawned, subscriber.gameObjects.get(0));
+
+		// A new scene is walked again
+		GameStateChanged gameStateChanged = new GameStateChanged();
+		gameStateChanged.setGameState(GameState.LOADING);
+		regionTileManager.onGameStateChanged(gameStateChanged);
+
+		subscriber = new TestSubscriber();
+		regionTileManager.simulateObjectSpawns(subscriber);
+		assertEquals(2, subscriber.gameObjects.size());
+	}
+
+	@Test
+	@Ignore
+	public void benchmark()
+	{
+		for (int x = 0; x < REGION_SIZE; ++x)
+		{
+			for (int y = 0; y < REGION_SIZE; y += 2)
+			{
+				addGameObject(x, y, 2);
+			}
+		}
+
+		final int plugins = 40;
+
+		for (int pass = 0; pass < 3; ++pass)
+		{
+			// Walking the scene and posting through an event bus for each plugin
+			long start = System.nanoTime();
+			for (int i = 0; i < plugins; ++i)
+			{
+				EventBus eventBus = new EventBus();
+				TestSubscriber subscriber = new TestSubscriber();
+				eventBus.register(subscriber);
+				regionTileManager.forEachTile(tile ->
+				{
+					for (GameObject object : tile.getGameObjects())
+					{
+						GameObjectSpawned event = new GameObjectSpawned();
+						event.setTile(tile);
+						event.setGameObject(object);
+						eventBus.post(event);
+					}
+				});
+				eventBus.unregister(subscriber);
+			}
+			long walk = System.nanoTime() - start;
+
+			GameStateChanged gameStateChanged = new GameStateChanged();
+			gameStateChanged.setGameState(GameState.LOADING);
+			regionTileManager.onGameStateChanged(gameStateChanged);
+
+			start = System.nanoTime();
+			for (int i = 0; i < plugins; ++i)
+			{
+				regionTileManager.simulateObjectSpawns(new TestSubscriber());
+			}
+			long snapshot = System.nanoTime() - start;
+
+			logger.info("pass {}: {} plugins, walk {} ms, snapshot {} ms", pass, plugins,
+				walk / 1_000_000, snapshot / 1_000_000);
+		}
+	}
+
+	private GameObject addGameObject(int x, int y, int type)
+	{
+		GameObject gameObject = mock(GameObject.class);
+		when(gameObject.getHash()).thenReturn((long) type << 14);
+
+		Tile tile = tiles[0][x][y];
+		if (tile == null)
+		{
+			tile = mock(Tile.class);
+			tiles[0][x][y] = tile;
+		}
+		when(tile.getGameObjects()).thenReturn(new GameObject[]{gameObject});
+		return gameObject;
+	}
+}
@@ -24,8 +24,7 @@
  */
 package net.runelite.mixins;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import java.util.Arrays;
 import net.runelite.api.VarClientInt;
 import net.runelite.api.VarClientStr;
 import net.runelite.api.Varbits;
@@ -39,13 +38,17 @@ import net.runelite.rs.api.RSVarbit;
 @Mixin(RSClient.class)
 public abstract class VarbitMixin implements RSClient
 {
+	// Varbit definitions are packed as loaded flag | varp index | lsb | msb
+	private static final int VARBIT_LOADED = 1 << 30;
+	private static final int VARBIT_INDEX_SHIFT = 10;
+	private static final int VARBIT_LSB_SHIFT = 5;
+	private static final int VARBIT_BIT_MASK = 0x1f;
+
 	@Shadow("clientInstance")
 	private static RSClient client;
 
 	@Inject
-	private Cache<Integer, RSVarbit> varbitCache = CacheBuilder.newBuilder()
-		.maximumSize(128)
-		.build();
+	private int[] varbitTable = new int[0];
 
 	@Inject
 	VarbitMixin()
@@ -72,23 +75,15 @@ public abstract class VarbitMixin implements RSClient
 	@Override
 	public int getVarbitValue(int[] varps, int varbitId)
 	{
-		RSVarbit v = varbitCache.getIfPresent(varbitId);
-		if (v == null)
-		{
-			client.getVarbit(varbitId); // load varbit into cache
-			RSNodeCache varbits = client.getVarbitCache();
-			v = (RSVarbit) varbits.get(varbitId); // get from cache
-			varbitCache.put(varbitId, v);
-		}
-
-		if (v.getIndex() == 0 && v.getLeastSignificantBit() == 0 && v.getMostSignificantBit() == 0)
+		int varbit = getVarbitDefinition(varbitId);
+		if ((varbit & ~VARBIT_LOADED) == 0)
 		{
 			throw new IndexOutOfBoundsException("Varbit " + varbitId + " does not exist");
 		}
 
-		int value = varps[v.getIndex()];
-		int lsb = v.getLeastSignificantBit();
-		int msb = v.getMostSignificantBit();
+		int value = varps[(varbit & ~VARBIT_LOADED) >>> VARBIT_INDEX_SHIFT];
+		int lsb = varbit >>> VARBIT_LSB_SHIFT & VARBIT_BIT_MASK;
+		int msb = varbit & VARBIT_BIT_MASK;
 		int mask = (1 << ((msb - lsb) + 1)) - 1;
 		return (value >> lsb) & mask;
 	}
@@ -97,19 +92,50 @@ public abstract class VarbitMixin implements RSClient
 	@Override
 	public void setVarbitValue(int[] varps, int varbitId, int value)
 	{
-		RSVarbit v = varbitCache.getIfPresent(varbitId);
-		if (v == null)
+		int varbit = getVarbitDefinition(varbitId);
+		int index = (varbit & ~VARBIT_LOADED) >>> VARBIT_INDEX_SHIFT;
+		int lsb = varbit >>> VARBIT_LSB_SHIFT & VARBIT_BIT_MASK;
+		int msb = varbit & VARBIT_BIT_MASK;
+		int mask = (1 << ((msb - lsb) + 1)) - 1;
+		varps[index] = (varps[index] & ~(mask << lsb)) | ((value & mask) << lsb);
+	}
+
+	@Inject
+	@Override
+	public int getVarbitVarpIndex(int varbitId)
+	{
+		int varbit = getVarbitDefinition(varbitId);
+		if ((varbit & ~VARBIT_LOADED) == 0)
+		{
+			throw new IndexOutOfBoundsException("Varbit " + varbitId + " does not exist");
+		}
+
+		return (varbit & ~VARBIT_LOADED) >>> VARBIT_INDEX_SHIFT;
+	}
+
+	@Inject
+	private int getVarbitDefinition(int varbitId)
+	{
+		if (varbitId >= varbitTable.length)
+		{
+			varbitTable = Arrays.copyOf(varbitTable, Math.max(varbitId + 1, varbitTable.length * 2));
+		}
+
+		int varbit = varbitTable[varbitId];
+		if (varbit == 0)
 		{
 			client.getVarbit(varbitId); // load varbit into cache
 			RSNodeCache varbits = client.getVarbitCache();
-			v = (RSVarbit) varbits.get(varbitId); // get from cache
-			varbitCache.put(varbitId, v);
+			RSVarbit v = (RSVarbit) varbits.get(varbitId); // get from cache
+
+			varbit = VARBIT_LOADED
+				| v.getIndex() << VARBIT_INDEX_SHIFT
+				| v.getLeastSignificantBit() << VARBIT_LSB_SHIFT
+				| v.getMostSignificantBit();
+			varbitTable[varbitId] = varbit;
 		}
 
-		int lsb = v.getLeastSignificantBit();
-		int msb = v.getMostSignificantBit();
-		int mask = (1 << ((msb - lsb) + 1)) - 1;
-		varps[v.getIndex()] = (varps[v.getIndex()] & ~(mask << lsb)) | ((value & mask) << lsb);
+		return varbit;
 	}
 
 	@Inject
@@ -24,13 +24,41 @@
  */
 package net.runelite.script;
 
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static net.runelite.api.Opcodes.RUNELITE_EXECUTE;
 import net.runelite.cache.IndexType;
 import net.runelite.cache.definitions.ScriptDefinition;
 import net.runelite.cache.definitions.savers.ScriptSaver;
+import static net.runelite.cache.script.Opcodes.IF_ICMPEQ;
+import static net.runelite.cache.script.Opcodes.IF_ICMPGE;
+import static net.runelite.cache.script.Opcodes.IF_ICMPGT;
+import static net.runelite.cache.script.Opcodes.IF_ICMPLE;
+import static net.runelite.cache.script.Opcodes.IF_ICMPLT;
+import static net.runelite.cache.script.Opcodes.IF_ICMPNE;
+import static net.runelite.cache.script.Opcodes.JUMP;
+import static net.runelite.cache.script.Opcodes.LOAD_STRING;
+import static net.runelite.cache.script.Opcodes.SWITCH;
 import net.runelite.cache.script.assembler.Assembler;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -46,59 +74,472 @@ import org.apache.maven.plugins.annotations.Parameter;
 )
 public class AssembleMojo extends AbstractMojo
 {
+	private static final int SLOWEST_SCRIPTS = 5;
+
+	/**
+	 * Callback ids are stored in the byte operand of runelite_callback,
+	 * with 0 meaning the callback is resolved by name at runtime
+	 */
+	private static final int MAX_CALLBACKS = 255;
+
+	/**
+	 * Name of the file in the output directory listing the interned
+	 * callback names, one per line, the first having id 1
+	 */
+	private static final String CALLBACKS_FILE = "callbacks";
+
 	@Parameter(required = true)
 	private File scriptDirectory;
 
 	@Parameter(required = true)
 	private File outputDirectory;
 
+	/**
+	 * Hashes of the scripts assembled by the last build, so unchanged
+	 * scripts are not assembled again
+	 */
+	@Parameter(defaultValue = "${project.build.directory}/assemble-manifest.txt")
+	private File manifestFile;
+
+	@Parameter
+	private int threads = Runtime.getRuntime().availableProcessors();
+
 	private final Log log = getLog();
 
+	private final Map<String, Integer> callbackIds = new LinkedHashMap<>();
+
 	@Override
 	public void execute() throws MojoExecutionException, MojoFailureException
 	{
+		long start = System.nanoTime();
+
 		RuneLiteInstructions instructions = new RuneLiteInstructions();
 		instructions.init();
 
+		// instructions are only read after init, so one assembler is shared by every thread
 		Assembler assembler = new Assembler(instructions);
-		ScriptSaver saver = new ScriptSaver();
 
-		int count = 0;
 		File scriptOut = new File(outputDirectory, Integer.toString(IndexType.CLIENTSCRIPT.getNumber()));
 		scriptOut.mkdirs();
 
-		for (File scriptFile : scriptDirectory.listFiles((dir, name) -> name.endsWith(".rs2asm")))
-		{
-			log.debug("Assembling " + scriptFile);
+		// unchanged scripts keep the callback ids they were assembled with
+		File callbacksFile = new File(outputDirectory, CALLBACKS_FILE);
+		Map<String, ManifestEntry> previous = loadCallbacks(callbacksFile) ? loadManifest() : new HashMap<>();
+		Map<String, ManifestEntry> manifest = new TreeMap<>();
+		List<AssembleResult> results = new ArrayList<>();
 
-			try (FileInputStream fin = new FileInputStream(scriptFile))
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			List<Future<AssembleResult>> futures = new ArrayList<>();
+			for (File scriptFile : scriptDirectory.listFiles((dir, name) -> name.endsWith(".rs2asm")))
 			{
-				ScriptDefinition script = assembler.assemble(fin);
-				byte[] packedScript = saver.save(script);
-
-				File targetFile = new File(scriptOut, Integer.toString(script.getId()));
-				Files.write(packedScript, targetFile);
+				ManifestEntry entry = previous.get(scriptFile.getName());
+				futures.add(executor.submit(() -> assemble(assembler, scriptFile, scriptOut, entry)));
+			}
 
-				// Copy hash file
+			for (Future<AssembleResult> future : futures)
+			{
+				AssembleResult result = future.get();
+				results.add(result);
+				manifest.put(result.name, result.entry);
+			}
 
-				File hashFile = new File(scriptDirectory, Files.getNameWithoutExtension(scriptFile.getName()) + ".hash");
-				if (hashFile.exists())
+			// callbacks are interned in script name order, not the order the
+			// threads finish in, so a build always assigns the same ids
+			results.sort(Comparator.comparing((AssembleResult result) -> result.name));
+			for (AssembleResult result : results)
+			{
+				if (result.assembled)
 				{
-					Files.copy(hashFile, new File(scriptOut, Integer.toString(script.getId()) + ".hash"));
+					resolveCallbacks(result);
 				}
-				else if (script.getId() < 10000) // Scripts >=10000 are RuneLite scripts, so they shouldn't have a .hash
+			}
+
+			List<Future<?>> writes = new ArrayList<>();
+			for (AssembleResult result : results)
+			{
+				if (result.assembled)
 				{
-					throw new MojoExecutionException("Unable to find hash file for " + scriptFile);
+					writes.add(executor.submit(() ->
+					{
+						write(result, scriptOut);
+						return null;
+					}));
 				}
+			}
+
+			for (Future<?> future : writes)
+			{
+				future.get();
+			}
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new MojoExecutionException("interrupted assembling scripts", ex);
+		}
+		catch (ExecutionException ex)
+		{
+			Throwable cause = ex.getCause();
+			if (cause instanceof MojoExecutionException)
+			{
+				throw (MojoExecutionException) cause;
+			}
+			if (cause instanceof IOException)
+			{
+				throw new MojoFailureException("unable to open file", cause);
+			}
+			throw new MojoExecutionException("unable to assemble scripts", cause);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		removeDeletedScripts(previous, manifest, scriptOut);
+		saveCallbacks(callbacksFile);
+		saveManifest(manifest);
+
+		List<AssembleResult> assembled = new ArrayList<>();
+		for (AssembleResult result : results)
+		{
+			if (result.assembled)
+			{
+				log.debug("Assembled " + result.name + " in " + result.nanos / 1000 + "us");
+				assembled.add(result);
+			}
+		}
+
+		assembled.sort(Comparator.comparingLong((AssembleResult result) -> result.nanos).reversed());
+		for (AssembleResult result : assembled.subList(0, Math.min(SLOWEST_SCRIPTS, assembled.size())))
+		{
+			log.info("Slow script " + result.name + ": " + result.nanos / 1000 + "us");
+		}
+
+		log.info("Assembled " + assembled.size() + " scripts, " + (results.size() - assembled.size()) + " unchanged, in "
+			+ (System.nanoTime() - start) / 1_000_000 + "ms with " + threads + " threads");
+	}
+
+	private AssembleResult assemble(Assembler assembler, File scriptFile, File scriptOut, ManifestEntry previous)
+		throws IOException, MojoExecutionException
+	{
+		long start = System.nanoTime();
+
+		File hashFile = new File(scriptDirectory, Files.getNameWithoutExtension(scriptFile.getName()) + ".hash");
+		String sourceHash = hash(scriptFile);
+		String hashFileHash = hashFile.exists() ? hash(hashFile) : null;
+
+		if (previous != null && previous.sourceHash.equals(sourceHash)
+			&& Objects.equals(previous.hashFileHash, hashFileHash)
+			&& new File(scriptOut, Integer.toString(previous.scriptId)).exists()
+			&& (hashFileHash == null || new File(scriptOut, previous.scriptId + ".hash").exists()))
+		{
+			return new AssembleResult(scriptFile.getName(), previous, false, null, null, System.nanoTime() - start);
+		}
+
+		log.debug("Assembling " + scriptFile);
+
+		ScriptDefinition script;
+		try (FileInputStream fin = new FileInputStream(scriptFile))
+		{
+			script = assembler.assemble(fin);
+		}
+		catch (RuntimeException ex)
+		{
+			throw new MojoExecutionException("Unable to assemble " + scriptFile, ex);
+		}
+
+		int[] callbacks = findCallbacks(script, scriptFile);
+
+		// Copy hash file
+
+		if (hashFile.exists())
+		{
+			Files.copy(hashFile, new File(scriptOut, Integer.toString(script.getId()) + ".hash"));
+		}
+		else if (script.getId() < 10000) // Scripts >=10000 are RuneLite scripts, so they shouldn't have a .hash
+		{
+			throw new MojoExecutionException("Unable to find hash file for " + scriptFile);
+		}
+
+		ManifestEntry entry = new ManifestEntry(script.getId(), sourceHash, hashFileHash);
+		return new AssembleResult(scriptFile.getName(), entry, true, script, callbacks, System.nanoTime() - start);
+	}
+
+	/**
+	 * Writes an assembled script, once its callbacks have been resolved
+	 */
+	private void write(AssembleResult result, File scriptOut) throws IOException
+	{
+		byte[] packedScript = new ScriptSaver().save(result.script);
+
+		File targetFile = new File(scriptOut, Integer.toString(result.script.getId()));
+		Files.write(packedScript, targetFile);
+	}
+
+	/**
+	 * Finds the runelite_callback instructions whose callback name is pushed
+	 * by the instruction before it, so it can be interned
+	 */
+	private int[] findCallbacks(ScriptDefinition script, File scriptFile)
+	{
+		int[] instructions = script.getInstructions();
+		List<Integer> callbacks = new ArrayList<>();
+		boolean[] branchTargets = null;
+
+		for (int i = 0; i < instructions.length; ++i)
+		{
+			if (instructions[i] != RUNELITE_EXECUTE)
+			{
+				continue;
+			}
+
+			if (branchTargets == null)
+			{
+				branchTargets = findBranchTargets(script);
+			}
+
+			// the name is only known if it is always pushed right before the callback
+			if (i == 0 || instructions[i - 1] != LOAD_STRING || branchTargets[i])
+			{
+				log.warn("Callback at " + i + " in " + scriptFile + " has no constant name, it will be resolved at runtime");
+				continue;
+			}
+
+			callbacks.add(i);
+		}
+
+		return callbacks.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Sets the operand of each callback found in a script to the interned id
+	 * of its name, so the client can dispatch it without looking up the name
+	 */
+	private void resolveCallbacks(AssembleResult result) throws MojoExecutionException
+	{
+		int[] intOperands = result.script.getIntOperands();
+		String[] stringOperands = result.script.getStringOperands();
+
+		for (int i : result.callbacks)
+		{
+			intOperands[i] = internCallback(stringOperands[i - 1]);
+		}
+	}
+
+	private static boolean[] findBranchTargets(ScriptDefinition script)
+	{
+		int[] instructions = script.getInstructions();
+		int[] intOperands = script.getIntOperands();
+		Map<Integer, Integer>[] switches = script.getSwitches();
+		boolean[] targets = new boolean[instructions.length + 1];
+		int switchIndex = 0;
+
+		for (int i = 0; i < instructions.length; ++i)
+		{
+			switch (instructions[i])
+			{
+				case JUMP:
+				case IF_ICMPNE:
+				case IF_ICMPEQ:
+				case IF_ICMPLT:
+				case IF_ICMPGT:
+				case IF_ICMPLE:
+				case IF_ICMPGE:
+					targets[i + intOperands[i] + 1] = true;
+					break;
+				case SWITCH:
+					for (int offset : switches[switchIndex++].values())
+					{
+						targets[i + offset + 1] = true;
+					}
+					break;
+			}
+		}
+
+		return targets;
+	}
 
-				++count;
+	private int internCallback(String name) throws MojoExecutionException
+	{
+		Integer id = callbackIds.get(name);
+		if (id == null)
+		{
+			id = callbackIds.size() + 1;
+			if (id > MAX_CALLBACKS)
+			{
+				throw new MojoExecutionException("More than " + MAX_CALLBACKS + " script callbacks");
 			}
-			catch (IOException ex)
+
+			callbackIds.put(name, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Loads the callback names interned by the last build
+	 *
+	 * @return false if there are none, meaning every script must be assembled again
+	 */
+	private boolean loadCallbacks(File callbacksFile)
+	{
+		if (!callbacksFile.exists())
+		{
+			return false;
+		}
+
+		try
+		{
+			for (String name : Files.asCharSource(callbacksFile, StandardCharsets.UTF_8).readLines())
 			{
-				throw new MojoFailureException("unable to open file", ex);
+				callbackIds.put(name, callbackIds.size() + 1);
 			}
+			return true;
+		}
+		catch (IOException ex)
+		{
+			log.warn("Unable to load script callbacks, assembling every script", ex);
+			callbackIds.clear();
+			return false;
+		}
+	}
+
+	private void saveCallbacks(File callbacksFile) throws MojoExecutionException
+	{
+		StringBuilder sb = new StringBuilder();
+		for (String name : callbackIds.keySet())
+		{
+			sb.append(name).append('\n');
+		}
+
+		try
+		{
+			Files.asCharSink(callbacksFile, StandardCharsets.UTF_8).write(sb);
+		}
+		catch (IOException ex)
+		{
+			throw new MojoExecutionException("unable to write script callbacks", ex);
+		}
+	}
+
+	private static String hash(File file) throws IOException
+	{
+		return Files.asByteSource(file).hash(Hashing.sha256()).toString();
+	}
+
+	/**
+	 * Deletes the output of scripts which were assembled by the last build,
+	 * but whose source no longer exists
+	 */
+	private void removeDeletedScripts(Map<String, ManifestEntry> previous, Map<String, ManifestEntry> manifest, File scriptOut)
+	{
+		Set<Integer> scriptIds = new HashSet<>();
+		for (ManifestEntry entry : manifest.values())
+		{
+			scriptIds.add(entry.scriptId);
 		}
 
-		log.info("Assembled " + count + " scripts");
+		for (Map.Entry<String, ManifestEntry> entry : previous.entrySet())
+		{
+			int scriptId = entry.getValue().scriptId;
+			if (!manifest.containsKey(entry.getKey()) && !scriptIds.contains(scriptId))
+			{
+				log.debug("Removing deleted script " + entry.getKey());
+				new File(scriptOut, Integer.toString(scriptId)).delete();
+				new File(scriptOut, scriptId + ".hash").delete();
+			}
+		}
+	}
+
+	private Map<String, ManifestEntry> loadManifest()
+	{
+		Map<String, ManifestEntry> manifest = new HashMap<>();
+		if (!manifestFile.exists())
+		{
+			return manifest;
+		}
+
+		try
+		{
+			for (String line : Files.asCharSource(manifestFile, StandardCharsets.UTF_8).readLines())
+			{
+				// name, script id, source hash, hash file hash
+				List<String> fields = Splitter.on(' ').splitToList(line);
+				if (fields.size() != 4)
+				{
+					continue;
+				}
+
+				String hashFileHash = fields.get(3).equals("-") ? null : fields.get(3);
+				manifest.put(fields.get(0), new ManifestEntry(Integer.parseInt(fields.get(1)), fields.get(2), hashFileHash));
+			}
+		}
+		catch (IOException | NumberFormatException ex)
+		{
+			log.warn("Unable to load assemble manifest, assembling every script", ex);
+			manifest.clear();
+		}
+
+		return manifest;
+	}
+
+	private void saveManifest(Map<String, ManifestEntry> manifest) throws MojoExecutionException
+	{
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, ManifestEntry> entry : manifest.entrySet())
+		{
+			ManifestEntry e = entry.getValue();
+			sb.append(Joiner.on(' ').join(entry.getKey(), e.scriptId, e.sourceHash, e.hashFileHash != null ? e.hashFileHash : "-"))
+				.append('\n');
+		}
+
+		try
+		{
+			manifestFile.getParentFile().mkdirs();
+			Files.asCharSink(manifestFile, StandardCharsets.UTF_8).write(sb);
+		}
+		catch (IOException ex)
+		{
+			throw new MojoExecutionException("unable to write assemble manifest", ex);
+		}
+	}
+
+	private static class ManifestEntry
+	{
+		private final int scriptId;
+		private final String sourceHash;
+		private final String hashFileHash;
+
+		private ManifestEntry(int scriptId, String sourceHash, String hashFileHash)
+		{
+			this.scriptId = scriptId;
+			this.sourceHash = sourceHash;
+			this.hashFileHash = hashFileHash;
+		}
+	}
+
+	private static class AssembleResult
+	{
+		private final String name;
+		private final ManifestEntry entry;
+		private final boolean assembled;
+		private final long nanos;
+
+		/**
+		 * The assembled script, and the instructions of its callbacks
+		 */
+		private final ScriptDefinition script;
+		private final int[] callbacks;
+
+		private AssembleResult(String name, ManifestEntry entry, boolean assembled, ScriptDefinition script, int[] callbacks, long nanos)
+		{
+			this.name = name;
+			this.entry = entry;
+			this.assembled = assembled;
+			this.script = script;
+			this.callbacks = callbacks;
+			this.nanos = nanos;
+		}
 	}
 }